@@ -1,11 +1,13 @@
 package com.taxi.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
 @Configuration
 @EnableAsync
@@ -21,4 +23,69 @@ public class AsyncConfig {
         executor.initialize();
         return executor;
     }
+
+    /**
+     * Bounded pool for per-store Moneris fetches (HTTP + parse only, no DB work).
+     * When the queue is full the submitting thread runs the fetch itself.
+     */
+    @Bean(name = "monerisSyncExecutor")
+    public ThreadPoolTaskExecutor monerisSyncExecutor(@Value("${moneris.sync.parallelism:8}") int parallelism) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(parallelism);
+        executor.setMaxPoolSize(parallelism);
+        executor.setQueueCapacity(500);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("Moneris-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Bounded pool for building driver summary snapshots (one owner report per task).
+     * When the queue is full the requesting thread computes the driver itself.
+     */
+    @Bean(name = "reportExecutor")
+    public ThreadPoolTaskExecutor reportExecutor(@Value("${report.snapshot.parallelism:4}") int parallelism) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(parallelism);
+        executor.setMaxPoolSize(parallelism);
+        executor.setQueueCapacity(1000);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("Report-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * CPU-bound pool for rendering PDFs in batch jobs, sized to the processors by default.
+     * When the queue is full the submitting thread renders the document itself.
+     */
+    @Bean(name = "pdfRenderExecutor")
+    public ThreadPoolTaskExecutor pdfRenderExecutor(@Value("${report.pdf.parallelism:0}") int parallelism) {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(1000);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("Pdf-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Pool for batch email sends, one thread per pooled SMTP connection (BulkMailSender).
+     * When the queue is full the submitting thread sends the message itself.
+     */
+    @Bean(name = "mailExecutor")
+    public ThreadPoolTaskExecutor mailExecutor(@Value("${app.mail.bulk.connections:3}") int connections) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(Math.max(1, connections));
+        executor.setMaxPoolSize(Math.max(1, connections));
+        executor.setQueueCapacity(1000);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("Mail-");
+        executor.initialize();
+        return executor;
+    }
 }
@@ -0,0 +1,24 @@
+package com.taxi.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+/**
+ * Shared outbound HTTP clients.
+ * HttpClient keeps its own connection pool, so one instance is reused across requests and threads.
+ */
+@Configuration
+public class HttpClientConfig {
+
+    @Bean(name = "monerisHttpClient")
+    public HttpClient monerisHttpClient(@Value("${moneris.http.connect-timeout-ms:5000}") long connectTimeoutMs) {
+        return HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+}
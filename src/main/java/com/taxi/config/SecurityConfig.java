@@ -82,6 +82,7 @@ public class SecurityConfig {
                                 "/api/auth/login", "/api/auth/signup", "/api/auth/**"
                         ).permitAll()
                         .requestMatchers("/api/test/**").permitAll()
+                        .requestMatchers("/test/moneris/**").permitAll()
                         .requestMatchers("/api/**").authenticated()
                         .requestMatchers("/lease-plans/**").authenticated()
                         .anyRequest().authenticated()
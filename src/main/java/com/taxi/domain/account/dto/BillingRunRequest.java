@@ -0,0 +1,40 @@
+package com.taxi.domain.account.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Request to invoice many account customers for one billing period in a background job
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BillingRunRequest {
+
+    @NotNull(message = "Period start is required")
+    private LocalDate periodStart;
+
+    @NotNull(message = "Period end is required")
+    private LocalDate periodEnd;
+
+    private BigDecimal taxRate;
+    private String terms;
+
+    /**
+     * Customers to invoice; all active customers with uninvoiced charges when empty
+     */
+    private List<Long> customerIds;
+
+    /**
+     * Email each new invoice (PDF attached) to the customer's email on file
+     */
+    private boolean sendEmail;
+}
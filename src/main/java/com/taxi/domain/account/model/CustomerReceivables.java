@@ -0,0 +1,85 @@
+package com.taxi.domain.account.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Receivables of one account customer: unpaid charges, invoice totals, open invoice balance aged
+ * by days past due, and the last payment. A projection of account_charge, invoice and payment,
+ * written only by CustomerReceivablesService.
+ */
+@Entity
+@Immutable
+@Table(name = "customer_receivables")
+@Getter
+@NoArgsConstructor
+public class CustomerReceivables {
+
+    @Id
+    @Column(name = "customer_id")
+    private Long customerId;
+
+    // Unpaid account charges (fare + tip), invoiced or not
+    @Column(name = "unpaid_charges", nullable = false, precision = 12, scale = 2)
+    private BigDecimal unpaidCharges;
+
+    @Column(name = "unpaid_charge_count", nullable = false)
+    private int unpaidChargeCount;
+
+    @Column(name = "invoice_count", nullable = false)
+    private int invoiceCount;
+
+    @Column(name = "paid_invoice_count", nullable = false)
+    private int paidInvoiceCount;
+
+    // SENT, PARTIAL or OVERDUE
+    @Column(name = "open_invoice_count", nullable = false)
+    private int openInvoiceCount;
+
+    // Past due and neither PAID nor CANCELLED (Invoice.isOverdue)
+    @Column(name = "overdue_invoice_count", nullable = false)
+    private int overdueInvoiceCount;
+
+    @Column(name = "total_invoiced", nullable = false, precision = 12, scale = 2)
+    private BigDecimal totalInvoiced;
+
+    @Column(name = "total_paid", nullable = false, precision = 12, scale = 2)
+    private BigDecimal totalPaid;
+
+    // Balance due of open invoices, and the same split by days past due as of asOfDate
+    @Column(name = "invoice_balance", nullable = false, precision = 12, scale = 2)
+    private BigDecimal invoiceBalance;
+
+    @Column(name = "balance_current", nullable = false, precision = 12, scale = 2)
+    private BigDecimal balanceCurrent;
+
+    @Column(name = "balance_1_30", nullable = false, precision = 12, scale = 2)
+    private BigDecimal balance1To30;
+
+    @Column(name = "balance_31_60", nullable = false, precision = 12, scale = 2)
+    private BigDecimal balance31To60;
+
+    @Column(name = "balance_61_90", nullable = false, precision = 12, scale = 2)
+    private BigDecimal balance61To90;
+
+    @Column(name = "balance_over_90", nullable = false, precision = 12, scale = 2)
+    private BigDecimal balanceOver90;
+
+    @Column(name = "last_payment_date")
+    private LocalDate lastPaymentDate;
+
+    @Column(name = "last_payment_amount", precision = 10, scale = 2)
+    private BigDecimal lastPaymentAmount;
+
+    @Column(name = "as_of_date", nullable = false)
+    private LocalDate asOfDate;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -16,6 +16,7 @@ import org.springframework.data.domain.Pageable;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -135,6 +136,28 @@ public interface AccountChargeRepository extends JpaRepository<AccountCharge, Lo
             @Param("endDate") LocalDate endDate
     );
 
+    // Uninvoiced unpaid charges in the period per customer: [customerId, chargeCount] (billing run)
+    @Query("SELECT c.accountCustomer.id, COUNT(c) FROM AccountCharge c " +
+           "WHERE c.paid = false AND c.invoiceId IS NULL " +
+           "AND c.tripDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY c.accountCustomer.id")
+    List<Object[]> countUninvoicedChargesByCustomer(
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+
+    // Uninvoiced unpaid charges in the period for several customers, grouped by customer (billing run)
+    @EntityGraph(attributePaths = {"accountCustomer", "cab", "driver"})
+    @Query("SELECT c FROM AccountCharge c WHERE c.accountCustomer.id IN :customerIds " +
+           "AND c.paid = false AND c.invoiceId IS NULL " +
+           "AND c.tripDate BETWEEN :startDate AND :endDate " +
+           "ORDER BY c.accountCustomer.id, c.tripDate, c.startTime, c.id")
+    List<AccountCharge> findUninvoicedChargesByCustomersAndDateRange(
+            @Param("customerIds") Collection<Long> customerIds,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+
      
     /**
      * Find charges by customer with pagination
@@ -163,6 +186,16 @@ public interface AccountChargeRepository extends JpaRepository<AccountCharge, Lo
             @Param("jobCode") String jobCode
     );
 
+    // Unique-constraint keys of all charges in a date range (bulk duplicate detection for imports)
+    // Returns [accountId, cabId, driverId, tripDate, startTime, jobCode]
+    @Query("SELECT c.accountId, cab.id, d.id, c.tripDate, c.startTime, c.jobCode FROM AccountCharge c " +
+           "LEFT JOIN c.cab cab LEFT JOIN c.driver d " +
+           "WHERE c.tripDate BETWEEN :startDate AND :endDate")
+    List<Object[]> findUniqueKeysByTripDateBetween(
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+
     // Find by date range
     @EntityGraph(attributePaths = {"accountCustomer", "cab", "driver"})
     List<AccountCharge> findByTripDateBetween(LocalDate startDate, LocalDate endDate);
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,6 +16,9 @@ public interface AccountCustomerRepository extends JpaRepository<AccountCustomer
     // Find by account_id
     List<AccountCustomer> findByAccountId(String accountId);
 
+    // Bulk lookup by account_id (imports)
+    List<AccountCustomer> findByAccountIdIn(Collection<String> accountIds);
+
     // Find active customers by account_id
     List<AccountCustomer> findByAccountIdAndActive(String accountId, boolean active);
 
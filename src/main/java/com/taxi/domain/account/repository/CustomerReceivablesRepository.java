@@ -0,0 +1,22 @@
+package com.taxi.domain.account.repository;
+
+import com.taxi.domain.account.model.CustomerReceivables;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CustomerReceivablesRepository extends JpaRepository<CustomerReceivables, Long> {
+
+    // Customers with unpaid charges and the unpaid total, in one query
+    @Query("SELECT c, r.unpaidCharges FROM AccountCustomer c JOIN CustomerReceivables r ON r.customerId = c.id " +
+           "WHERE r.unpaidCharges > 0 ORDER BY c.companyName")
+    List<Object[]> findCustomersWithUnpaidCharges();
+
+    // Customers with open invoice balance, oldest debt first
+    @Query("SELECT r FROM CustomerReceivables r WHERE r.invoiceBalance > 0 " +
+           "ORDER BY r.balanceOver90 DESC, r.balance61To90 DESC, r.invoiceBalance DESC")
+    List<CustomerReceivables> findWithOpenInvoiceBalance();
+}
@@ -9,6 +9,7 @@ import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -69,7 +70,7 @@ public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
     @Query("SELECT COALESCE(SUM(i.balanceDue), 0) FROM Invoice i WHERE i.accountId = :accountId AND i.status IN ('SENT', 'PARTIAL', 'OVERDUE')")
     BigDecimal calculateOutstandingBalanceByAccount(@Param("accountId") String accountId);
 
-    // Get next invoice number (for auto-generation)
+    // Highest invoice number with the prefix (starting point of its number sequence)
     @Query("SELECT MAX(i.invoiceNumber) FROM Invoice i WHERE i.invoiceNumber LIKE :prefix%")
     String findMaxInvoiceNumberWithPrefix(@Param("prefix") String prefix);
 
@@ -99,4 +100,13 @@ public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
             @Param("customerId") Long customerId,
             @Param("periodStart") LocalDate periodStart,
             @Param("periodEnd") LocalDate periodEnd);
+
+    // Customers among the given ones with an invoice overlapping the period (excluding cancelled invoices)
+    @Query("SELECT DISTINCT i.customer.id FROM Invoice i WHERE i.customer.id IN :customerIds " +
+           "AND i.status != 'CANCELLED' " +
+           "AND i.billingPeriodStart <= :periodEnd AND i.billingPeriodEnd >= :periodStart")
+    List<Long> findCustomerIdsWithOverlappingPeriod(
+            @Param("customerIds") Collection<Long> customerIds,
+            @Param("periodStart") LocalDate periodStart,
+            @Param("periodEnd") LocalDate periodEnd);
 }
@@ -2,11 +2,13 @@ package com.taxi.domain.account.repository;
 
 import com.taxi.domain.account.model.StatementPayment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -18,6 +20,18 @@ public interface StatementPaymentRepository extends JpaRepository<StatementPayme
 
     List<StatementPayment> findByPaymentBatchId(Long paymentBatchId);
 
+    @Query("SELECT DISTINCT sp.statementId FROM StatementPayment sp WHERE sp.paymentBatch.id = :batchId AND sp.statementId IS NOT NULL")
+    List<Long> findStatementIdsByPaymentBatchId(@Param("batchId") Long batchId);
+
+    /**
+     * Mark every payment of the batch COMPLETED in one statement
+     */
+    @Modifying
+    @Query("UPDATE StatementPayment sp SET sp.status = 'COMPLETED', sp.postedAt = :postedAt, sp.postedBy = :postedBy, " +
+           "sp.updatedAt = :postedAt WHERE sp.paymentBatch.id = :batchId")
+    int markCompletedByPaymentBatchId(@Param("batchId") Long batchId, @Param("postedBy") Long postedBy,
+                                      @Param("postedAt") LocalDateTime postedAt);
+
     @Query("SELECT sp FROM StatementPayment sp WHERE sp.status = :status ORDER BY sp.createdAt DESC")
     List<StatementPayment> findByStatus(@Param("status") String status);
 
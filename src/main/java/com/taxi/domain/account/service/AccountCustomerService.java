@@ -19,6 +19,7 @@ public class AccountCustomerService {
 
     private final AccountCustomerRepository accountCustomerRepository;
     private final AccountChargeRepository accountChargeRepository;
+    private final CustomerReceivablesService receivablesService;
 
     // Create new customer
     public AccountCustomer createCustomer(AccountCustomer customer) {
@@ -145,40 +146,31 @@ public class AccountCustomerService {
         return accountCustomerRepository.findCustomersWithOutstandingBalance();
     }
 
-    // Get customers with outstanding balance and amount
+    // Get customers with outstanding balance and amount (one query on the receivables projection)
     public List<AccountCustomerWithBalance> getCustomersWithOutstandingBalanceAndAmount() {
-        List<AccountCustomer> customers = accountCustomerRepository.findAllCustomersWithOutstandingBalanceJoined();
-
-        return customers.stream()
-            .map(customer -> {
-                // Get total outstanding amount using existing query method
-                BigDecimal totalOutstanding = accountChargeRepository.calculateUnpaidTotal(customer.getId());
-
-                if (totalOutstanding != null && totalOutstanding.compareTo(BigDecimal.ZERO) > 0) {
-                    return new AccountCustomerWithBalance(
-                        customer.getId(),
-                        customer.getAccountId(),
-                        customer.getCompanyName(),
-                        customer.getContactPerson(),
-                        customer.getStreetAddress(),
-                        customer.getCity(),
-                        customer.getProvince(),
-                        customer.getPostalCode(),
-                        customer.getCountry(),
-                        customer.getPhoneNumber(),
-                        customer.getEmail(),
-                        customer.getBillingPeriod(),
-                        customer.getCreditLimit(),
-                        customer.getNotes(),
-                        customer.getAccountType() != null ? customer.getAccountType().toString() : null,
-                        customer.isActive(),
-                        totalOutstanding
-                    );
-                }
-
-                return null;
+        return receivablesService.customersWithUnpaidCharges().stream()
+            .map(row -> {
+                AccountCustomer customer = (AccountCustomer) row[0];
+                return new AccountCustomerWithBalance(
+                    customer.getId(),
+                    customer.getAccountId(),
+                    customer.getCompanyName(),
+                    customer.getContactPerson(),
+                    customer.getStreetAddress(),
+                    customer.getCity(),
+                    customer.getProvince(),
+                    customer.getPostalCode(),
+                    customer.getCountry(),
+                    customer.getPhoneNumber(),
+                    customer.getEmail(),
+                    customer.getBillingPeriod(),
+                    customer.getCreditLimit(),
+                    customer.getNotes(),
+                    customer.getAccountType() != null ? customer.getAccountType().toString() : null,
+                    customer.isActive(),
+                    (BigDecimal) row[1]
+                );
             })
-            .filter(c -> c != null)
             .collect(Collectors.toList());
     }
 
@@ -0,0 +1,368 @@
+package com.taxi.domain.account.service;
+
+import com.taxi.domain.account.model.AccountCustomer;
+import com.taxi.domain.account.model.Invoice;
+import com.taxi.domain.account.repository.AccountChargeRepository;
+import com.taxi.domain.account.repository.AccountCustomerRepository;
+import com.taxi.domain.report.ReportJobStatus;
+import com.taxi.infrastructure.multitenancy.TenantContext;
+import com.taxi.utils.TempPdf;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Invoices account customers for a billing period as one background job (billing run).
+ *
+ * One grouped query finds the customers with uninvoiced charges in the period; InvoiceBatchWriter
+ * invoices them a chunk of customers at a time, each chunk committing its invoices, line items
+ * and charge stamps together, so a failed chunk leaves its customers uninvoiced. When delivery
+ * is requested, each new invoice is queued as soon as its chunk commits: the PDF is rendered on
+ * pdfRenderExecutor and emailed on mailExecutor through a BulkMailSender batch, at most a window
+ * of invoices at a time, and the invoice is then marked SENT. Customers that already have an
+ * invoice overlapping the period are skipped, so a run can simply be started again. Progress is
+ * reported through ReportJobStatus, and the outcome for each customer is kept with the job until
+ * the retention period ends.
+ */
+@Service
+@Slf4j
+public class BillingRunService {
+
+    public enum Outcome { PENDING, INVOICED, SKIPPED, FAILED }
+
+    public enum DeliveryState { NOT_REQUESTED, PENDING, SENT, SKIPPED, FAILED }
+
+    /**
+     * Outcome for one customer of a run
+     */
+    public record CustomerResult(Long customerId, String accountId, String companyName, Outcome outcome,
+                                 String invoiceNumber, Long invoiceId, BigDecimal totalAmount, int chargeCount,
+                                 DeliveryState delivery, String email, String error) {
+
+        CustomerResult withDelivery(DeliveryState state, String deliveryError) {
+            return new CustomerResult(customerId, accountId, companyName, outcome, invoiceNumber, invoiceId,
+                    totalAmount, chargeCount, state, email, deliveryError);
+        }
+    }
+
+    private record Job(ReportJobStatus status, Map<Long, CustomerResult> results) {}
+
+    private final AccountCustomerRepository customerRepository;
+    private final AccountChargeRepository chargeRepository;
+    private final InvoiceBatchWriter invoiceBatchWriter;
+    private final InvoiceService invoiceService;
+    private final InvoicePDFService pdfService;
+    private final EmailService emailService;
+    private final BulkMailSender bulkMailSender;
+    private final ThreadPoolTaskExecutor pdfRenderExecutor;
+    private final ThreadPoolTaskExecutor mailExecutor;
+    private final Executor jobExecutor;
+    private final int chunkSize;
+    private final int window;
+    private final long retentionHours;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    public BillingRunService(AccountCustomerRepository customerRepository,
+                             AccountChargeRepository chargeRepository,
+                             InvoiceBatchWriter invoiceBatchWriter,
+                             InvoiceService invoiceService,
+                             InvoicePDFService pdfService,
+                             EmailService emailService,
+                             BulkMailSender bulkMailSender,
+                             @Qualifier("pdfRenderExecutor") ThreadPoolTaskExecutor pdfRenderExecutor,
+                             @Qualifier("mailExecutor") ThreadPoolTaskExecutor mailExecutor,
+                             @Qualifier("uploadTaskExecutor") Executor jobExecutor,
+                             @Value("${billing.run.chunk-size:50}") int chunkSize,
+                             @Value("${billing.run.window:16}") int window,
+                             @Value("${billing.run.retention-hours:24}") long retentionHours) {
+        this.customerRepository = customerRepository;
+        this.chargeRepository = chargeRepository;
+        this.invoiceBatchWriter = invoiceBatchWriter;
+        this.invoiceService = invoiceService;
+        this.pdfService = pdfService;
+        this.emailService = emailService;
+        this.bulkMailSender = bulkMailSender;
+        this.pdfRenderExecutor = pdfRenderExecutor;
+        this.mailExecutor = mailExecutor;
+        this.jobExecutor = jobExecutor;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.window = Math.max(1, window);
+        this.retentionHours = retentionHours;
+    }
+
+    /**
+     * Start invoicing the period for the given customers (all active customers with uninvoiced
+     * charges when empty), optionally emailing each invoice to the customer.
+     * Returns the job id immediately; poll ReportJobStatus and results() for progress.
+     */
+    public String start(LocalDate periodStart, LocalDate periodEnd, List<Long> customerIds,
+                        BigDecimal taxRate, String terms, boolean sendEmail, Long userId) {
+        String jobId = UUID.randomUUID().toString();
+        ReportJobStatus status = ReportJobStatus.create(jobId);
+        status.setMessage("Queued");
+        Job job = new Job(status, Collections.synchronizedMap(new LinkedHashMap<>()));
+        jobs.put(jobId, job);
+
+        // ThreadLocal tenant does not carry over to the job thread
+        String tenant = TenantContext.getCurrentTenant();
+        jobExecutor.execute(() -> TenantContext.runInTenant(tenant, () -> {
+            run(jobId, job, periodStart, periodEnd, customerIds, taxRate, terms, sendEmail, userId);
+        }));
+
+        log.info("Started billing run {} ({} to {}, {} customers, email: {})", jobId, periodStart, periodEnd,
+                customerIds == null || customerIds.isEmpty() ? "all eligible" : customerIds.size(), sendEmail);
+        return jobId;
+    }
+
+    /**
+     * Per-customer outcomes of a run in company name order, or null if the run is unknown or expired
+     */
+    public List<CustomerResult> results(String jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null) {
+            return null;
+        }
+        synchronized (job.results()) {
+            return new ArrayList<>(job.results().values());
+        }
+    }
+
+    @Scheduled(fixedRate = 3600000) // hourly
+    public void cleanupExpiredJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(retentionHours);
+        Iterator<Map.Entry<String, Job>> it = jobs.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Job> entry = it.next();
+            LocalDateTime endTime = entry.getValue().status().getEndTime();
+            if (endTime != null && endTime.isBefore(cutoff)) {
+                ReportJobStatus.remove(entry.getKey());
+                it.remove();
+            }
+        }
+    }
+
+    private void run(String jobId, Job job, LocalDate periodStart, LocalDate periodEnd, List<Long> customerIds,
+                     BigDecimal taxRate, String terms, boolean sendEmail, Long userId) {
+        ReportJobStatus status = job.status();
+        status.setStatus(ReportJobStatus.Status.PROCESSING);
+        status.setMessage("Finding customers with uninvoiced charges...");
+        long startTime = System.currentTimeMillis();
+        try {
+            Map<Long, Integer> chargeCounts = new HashMap<>();
+            for (Object[] row : chargeRepository.countUninvoicedChargesByCustomer(periodStart, periodEnd)) {
+                chargeCounts.put((Long) row[0], ((Number) row[1]).intValue());
+            }
+            List<AccountCustomer> customers = customers(customerIds, chargeCounts);
+
+            status.setTotalDrivers(customers.size());
+            status.setMessage(String.format("Invoicing %d customers...", customers.size()));
+            List<AccountCustomer> eligible = new ArrayList<>();
+            for (AccountCustomer customer : customers) {
+                if (chargeCounts.containsKey(customer.getId())) {
+                    record(job, customer, Outcome.PENDING, null, DeliveryState.NOT_REQUESTED, null);
+                    eligible.add(customer);
+                } else {
+                    record(job, customer, Outcome.SKIPPED, null, DeliveryState.NOT_REQUESTED,
+                            "No uninvoiced charges for the period");
+                    progress(status, 1);
+                }
+            }
+
+            String tenant = TenantContext.getCurrentTenant();
+            String companyName = invoiceService.companyName();
+            Semaphore inFlight = new Semaphore(window);
+            List<CompletableFuture<Void>> deliveries = new ArrayList<>();
+            try (BulkMailSender.Batch mail = sendEmail ? bulkMailSender.open() : null) {
+                for (int from = 0; from < eligible.size(); from += chunkSize) {
+                    List<AccountCustomer> chunk = eligible.subList(from, Math.min(from + chunkSize, eligible.size()));
+                    List<Invoice> invoiced = write(job, chunk, periodStart, periodEnd, taxRate, terms, userId);
+                    progress(status, chunk.size());
+                    if (mail != null) {
+                        for (Invoice invoice : invoiced) {
+                            deliveries.add(deliver(tenant, job, mail, invoice, companyName, inFlight));
+                        }
+                    }
+                }
+                if (!deliveries.isEmpty()) {
+                    status.setMessage(String.format("Emailing %d invoices...", deliveries.size()));
+                }
+                CompletableFuture.allOf(deliveries.toArray(new CompletableFuture<?>[0])).join();
+            }
+
+            status.setStatus(ReportJobStatus.Status.COMPLETED);
+            status.setMessage(summary(job, sendEmail));
+            log.info("Billing run {} completed in {} ms: {}", jobId,
+                    System.currentTimeMillis() - startTime, status.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            status.setStatus(ReportJobStatus.Status.FAILED);
+            status.setMessage("Billing run interrupted");
+        } catch (Exception e) {
+            log.error("Billing run {} failed: {}", jobId, e.getMessage(), e);
+            status.setStatus(ReportJobStatus.Status.FAILED);
+            status.setMessage("Billing run failed: " + e.getMessage());
+            synchronized (status) {
+                status.getErrors().add(e.getMessage());
+            }
+        } finally {
+            status.setEndTime(LocalDateTime.now());
+        }
+    }
+
+    private List<AccountCustomer> customers(List<Long> customerIds, Map<Long, Integer> chargeCounts) {
+        List<AccountCustomer> customers;
+        if (customerIds == null || customerIds.isEmpty()) {
+            customers = new ArrayList<>(customerRepository.findAllById(chargeCounts.keySet()));
+            customers.removeIf(c -> !c.isActive());
+        } else {
+            customers = new ArrayList<>(customerRepository.findAllById(customerIds));
+        }
+        customers.sort(Comparator.comparing(AccountCustomer::getCompanyName, Comparator.nullsLast(Comparator.naturalOrder())));
+        return customers;
+    }
+
+    /**
+     * Invoice one chunk and record each customer's outcome; a failed chunk fails all its customers
+     */
+    private List<Invoice> write(Job job, List<AccountCustomer> chunk, LocalDate periodStart, LocalDate periodEnd,
+                                BigDecimal taxRate, String terms, Long userId) {
+        try {
+            InvoiceBatchWriter.WriteResult result = invoiceBatchWriter.write(chunk, periodStart, periodEnd,
+                    taxRate, terms, userId);
+            for (AccountCustomer customer : chunk) {
+                String reason = result.getSkipped().get(customer.getId());
+                if (reason != null) {
+                    record(job, customer, Outcome.SKIPPED, null, DeliveryState.NOT_REQUESTED, reason);
+                }
+            }
+            for (Invoice invoice : result.getInvoiced()) {
+                record(job, invoice.getCustomer(), Outcome.INVOICED, invoice, DeliveryState.NOT_REQUESTED, null);
+            }
+            return result.getInvoiced();
+        } catch (Exception e) {
+            // The chunk's transaction rolled back - these customers are picked up again on a re-run
+            log.error("Failed to invoice {} customers: {}", chunk.size(), e.getMessage(), e);
+            for (AccountCustomer customer : chunk) {
+                record(job, customer, Outcome.FAILED, null, DeliveryState.NOT_REQUESTED, e.getMessage());
+            }
+            synchronized (job.status()) {
+                job.status().getErrors().add(String.format("%d customers (%s): %s", chunk.size(),
+                        chunk.stream().map(AccountCustomer::getAccountId).toList(), e.getMessage()));
+            }
+            return List.of();
+        }
+    }
+
+    /**
+     * Queue rendering and emailing of a new invoice, waiting while a window of invoices is in flight
+     */
+    private CompletableFuture<Void> deliver(String tenant, Job job, BulkMailSender.Batch mail, Invoice invoice,
+                                            String companyName, Semaphore inFlight) throws InterruptedException {
+        Long customerId = invoice.getCustomer().getId();
+        String email = invoice.getCustomer().getEmail();
+        if (email == null || email.isBlank()) {
+            updateDelivery(job, customerId, DeliveryState.SKIPPED, "No email on file");
+            return CompletableFuture.completedFuture(null);
+        }
+
+        updateDelivery(job, customerId, DeliveryState.PENDING, null);
+        inFlight.acquire();
+        return CompletableFuture
+                .supplyAsync(() -> TempPdf.write(out -> pdfService.writeInvoicePDF(invoice, companyName, out)), pdfRenderExecutor)
+                .thenAcceptAsync(pdf -> TenantContext.runInTenant(tenant, () -> {
+                    send(mail, invoice, email, companyName, pdf);
+                }), mailExecutor)
+                .handle((ignored, e) -> {
+                    if (e != null) {
+                        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                        log.warn("Invoice email failed for {}: {}", invoice.getInvoiceNumber(), cause.getMessage());
+                        updateDelivery(job, customerId, DeliveryState.FAILED, cause.getMessage());
+                        synchronized (job.status()) {
+                            job.status().getErrors().add("Invoice " + invoice.getInvoiceNumber() + ": " + cause.getMessage());
+                        }
+                    } else {
+                        updateDelivery(job, customerId, DeliveryState.SENT, null);
+                    }
+                    inFlight.release();
+                    return null;
+                });
+    }
+
+    private void send(BulkMailSender.Batch mail, Invoice invoice, String email, String companyName, TempPdf rendered) {
+        try (TempPdf pdf = rendered) {
+            MimeMessage message = emailService.createInvoiceMessage(invoice, pdf.file(), email, companyName);
+            mail.send(message);
+            invoiceService.recordInvoiceSent(invoice.getId(), email);
+        } catch (MessagingException e) {
+            throw new IllegalStateException("Could not build email: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while sending", e);
+        }
+    }
+
+    private static void record(Job job, AccountCustomer customer, Outcome outcome, Invoice invoice,
+                               DeliveryState delivery, String error) {
+        job.results().put(customer.getId(), new CustomerResult(customer.getId(), customer.getAccountId(),
+                customer.getCompanyName(), outcome,
+                invoice != null ? invoice.getInvoiceNumber() : null,
+                invoice != null ? invoice.getId() : null,
+                invoice != null ? invoice.getTotalAmount() : null,
+                invoice != null ? invoice.getLineItems().size() : 0,
+                delivery, customer.getEmail(), error));
+    }
+
+    private static void updateDelivery(Job job, Long customerId, DeliveryState state, String error) {
+        job.results().computeIfPresent(customerId, (id, result) -> result.withDelivery(state, error));
+    }
+
+    private static void progress(ReportJobStatus status, int customers) {
+        synchronized (status) {
+            status.setProcessedDrivers(status.getProcessedDrivers() + customers);
+        }
+    }
+
+    private static String summary(Job job, boolean sendEmail) {
+        Map<Outcome, Integer> outcomes = new LinkedHashMap<>();
+        Map<DeliveryState, Integer> deliveries = new LinkedHashMap<>();
+        synchronized (job.results()) {
+            for (CustomerResult result : job.results().values()) {
+                outcomes.merge(result.outcome(), 1, Integer::sum);
+                deliveries.merge(result.delivery(), 1, Integer::sum);
+            }
+        }
+        String summary = String.format("Completed: %d invoiced, %d skipped, %d failed",
+                outcomes.getOrDefault(Outcome.INVOICED, 0), outcomes.getOrDefault(Outcome.SKIPPED, 0),
+                outcomes.getOrDefault(Outcome.FAILED, 0));
+        if (sendEmail) {
+            summary += String.format("; emails: %d sent, %d skipped, %d failed",
+                    deliveries.getOrDefault(DeliveryState.SENT, 0), deliveries.getOrDefault(DeliveryState.SKIPPED, 0),
+                    deliveries.getOrDefault(DeliveryState.FAILED, 0));
+        }
+        return summary;
+    }
+}
@@ -0,0 +1,201 @@
+package com.taxi.domain.account.service;
+
+import jakarta.mail.AuthenticationFailedException;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailParseException;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends many messages over a few reused SMTP connections, for batch jobs.
+ *
+ * JavaMailSender.send opens and closes a connection per message. A Batch keeps up to
+ * app.mail.bulk.connections connections open for its lifetime and hands them out per send.
+ * Sends are spaced to app.mail.bulk.max-per-second across all batches (provider limits are
+ * per account), and failed sends are retried with a growing delay on a fresh connection.
+ * Rejected recipients and malformed messages are not retried.
+ */
+@Component
+@Slf4j
+public class BulkMailSender {
+
+    private final JavaMailSender mailSender;
+    private final int connections;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+    private final long minIntervalNanos;
+
+    // Earliest time the next message may go out - guarded by this
+    private long nextSendAt = System.nanoTime();
+
+    public BulkMailSender(JavaMailSender mailSender,
+                          @Value("${app.mail.bulk.connections:3}") int connections,
+                          @Value("${app.mail.bulk.max-per-second:5}") double maxPerSecond,
+                          @Value("${app.mail.bulk.max-attempts:3}") int maxAttempts,
+                          @Value("${app.mail.bulk.retry-backoff-ms:2000}") long retryBackoffMs) {
+        this.mailSender = mailSender;
+        this.connections = Math.max(1, connections);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBackoffMs = retryBackoffMs;
+        this.minIntervalNanos = maxPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / maxPerSecond) : 0;
+    }
+
+    public int getConnections() {
+        return connections;
+    }
+
+    /**
+     * Open a batch; close it (try-with-resources) to release its connections
+     */
+    public Batch open() {
+        return new Batch();
+    }
+
+    public final class Batch implements AutoCloseable {
+
+        private final Semaphore permits = new Semaphore(connections);
+        private final Queue<Transport> idle = new ConcurrentLinkedQueue<>();
+        private volatile boolean closed;
+
+        private Batch() {
+        }
+
+        /**
+         * Send the message, retrying transient failures. Returns the number of attempts made;
+         * throws DeliveryFailedException once the message is rejected or attempts are exhausted.
+         */
+        public int send(MimeMessage message) throws InterruptedException {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    throttle();
+                    deliver(message);
+                    return attempt;
+                } catch (MessagingException | MailException e) {
+                    if (attempt >= maxAttempts || !isTransient(e)) {
+                        throw new DeliveryFailedException(attempt, e);
+                    }
+                    log.warn("Mail send attempt {} failed, retrying: {}", attempt, e.getMessage());
+                    Thread.sleep(retryBackoffMs * (1L << (attempt - 1)));
+                }
+            }
+        }
+
+        private void deliver(MimeMessage message) throws MessagingException, InterruptedException {
+            if (!(mailSender instanceof JavaMailSenderImpl impl)) {
+                mailSender.send(message);
+                return;
+            }
+            permits.acquire();
+            Transport transport = null;
+            try {
+                transport = idle.poll();
+                if (transport == null || !transport.isConnected()) {
+                    closeQuietly(transport);
+                    transport = connect(impl);
+                }
+                if (message.getSentDate() == null) {
+                    message.setSentDate(new Date());
+                }
+                message.saveChanges();
+                transport.sendMessage(message, message.getAllRecipients());
+
+                if (closed) {
+                    closeQuietly(transport);
+                } else {
+                    idle.add(transport);
+                }
+                transport = null;
+            } finally {
+                // A connection that failed mid-send is not reused
+                closeQuietly(transport);
+                permits.release();
+            }
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            Transport transport;
+            while ((transport = idle.poll()) != null) {
+                closeQuietly(transport);
+            }
+        }
+    }
+
+    /**
+     * A message that could not be delivered, with the number of attempts made
+     */
+    public static class DeliveryFailedException extends MailSendException {
+
+        private final int attempts;
+
+        public DeliveryFailedException(int attempts, Exception cause) {
+            super("Failed after " + attempts + " attempt(s): " + cause.getMessage(), cause);
+            this.attempts = attempts;
+        }
+
+        public int getAttempts() {
+            return attempts;
+        }
+    }
+
+    private void throttle() throws InterruptedException {
+        if (minIntervalNanos == 0) {
+            return;
+        }
+        long wait;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long slot = Math.max(now, nextSendAt);
+            nextSendAt = slot + minIntervalNanos;
+            wait = slot - now;
+        }
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+
+    private static Transport connect(JavaMailSenderImpl impl) throws MessagingException {
+        Transport transport = impl.getSession().getTransport(impl.getProtocol());
+        transport.connect(impl.getHost(), impl.getPort(), impl.getUsername(), impl.getPassword());
+        return transport;
+    }
+
+    private static boolean isTransient(Exception e) {
+        if (e instanceof SendFailedException sfe) {
+            // Recipients the server refused will be refused again
+            return sfe.getInvalidAddresses() == null || sfe.getInvalidAddresses().length == 0;
+        }
+        return !(e instanceof AuthenticationFailedException
+                || e instanceof MailAuthenticationException
+                || e instanceof MailParseException
+                || e instanceof MailPreparationException);
+    }
+
+    private static void closeQuietly(Transport transport) {
+        if (transport == null) {
+            return;
+        }
+        try {
+            transport.close();
+        } catch (MessagingException e) {
+            log.debug("Error closing SMTP connection: {}", e.getMessage());
+        }
+    }
+}
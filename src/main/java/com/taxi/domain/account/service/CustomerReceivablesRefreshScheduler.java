@@ -0,0 +1,53 @@
+package com.taxi.domain.account.service;
+
+import com.taxi.infrastructure.multitenancy.TenantContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Brings customer_receivables up to date off the request path: the day's aging rebuild (run
+ * by one node per day) and the customers marked by writes since the last run.
+ *
+ * Configuration:
+ * - account.receivables.refresh.enabled=true/false
+ * - account.receivables.refresh.interval-ms=60000 (delay between runs)
+ * - account.receivables.refresh.tenants=maclures (comma-separated)
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "account.receivables.refresh.enabled", havingValue = "true", matchIfMissing = true)
+public class CustomerReceivablesRefreshScheduler {
+
+    private final CustomerReceivablesService receivablesService;
+
+    @Value("${account.receivables.refresh.tenants:maclures}")
+    private List<String> tenants;
+
+    @Scheduled(
+        fixedDelayString = "${account.receivables.refresh.interval-ms:60000}",
+        initialDelayString = "${account.receivables.refresh.initial-delay-ms:60000}"
+    )
+    public void refreshReceivables() {
+        for (String tenant : tenants) {
+            try {
+                TenantContext.setCurrentTenant(tenant.trim());
+                receivablesService.rebuildAgingIfDue();
+                int drained = receivablesService.drainMarks();
+                if (drained > 0) {
+                    log.debug("Rebuilt receivables of {} marked customers for tenant {}", drained, tenant);
+                }
+            } catch (Exception e) {
+                log.error("Customer receivables refresh failed for tenant {}: {}", tenant, e.getMessage(), e);
+            } finally {
+                TenantContext.clear();
+            }
+        }
+    }
+}
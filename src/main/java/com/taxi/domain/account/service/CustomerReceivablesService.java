@@ -0,0 +1,260 @@
+package com.taxi.domain.account.service;
+
+import com.taxi.domain.account.model.AccountCharge;
+import com.taxi.domain.account.model.AccountCustomer;
+import com.taxi.domain.account.model.CustomerReceivables;
+import com.taxi.domain.account.model.Invoice;
+import com.taxi.domain.account.model.Payment;
+import com.taxi.domain.account.repository.CustomerReceivablesRepository;
+import com.taxi.infrastructure.datachange.EntityChangeObserver.ChangeType;
+import com.taxi.infrastructure.datachange.TransactionalChangeObserver;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Maintains customer_receivables (CustomerReceivables), so customer balances and aging are
+ * read from one row per customer instead of summing charges and invoices on every request.
+ *
+ * - Invoice, payment and cancellation paths (and the JDBC billing run and charge import) rebuild
+ *   their customers' rows in their own transaction
+ * - Other JPA writes to charges, invoices and payments mark their customers (and, when a record
+ *   moves, its previous customer) in customer_receivables_dirty in the writing transaction;
+ *   CustomerReceivablesRefreshScheduler drains the marks in the background
+ * - Aging depends on the date, so all rows are rebuilt once a day by whichever node first moves
+ *   the shared marker in customer_receivables_aging
+ *
+ * Reads only read the rows; they never write or lock. A rebuild is one set-based
+ * INSERT ... SELECT ... ON DUPLICATE KEY UPDATE over the customers.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CustomerReceivablesService implements TransactionalChangeObserver<Long> {
+
+    private static final String OPEN = "('SENT', 'PARTIAL', 'OVERDUE')";
+
+    // %1$s narrows the customers (empty for all of them); :asOf is the aging date
+    private static final String REFRESH_SQL = "INSERT INTO customer_receivables " +
+            "(customer_id, unpaid_charges, unpaid_charge_count, invoice_count, paid_invoice_count, " +
+            "open_invoice_count, overdue_invoice_count, total_invoiced, total_paid, invoice_balance, " +
+            "balance_current, balance_1_30, balance_31_60, balance_61_90, balance_over_90, " +
+            "last_payment_date, last_payment_amount, as_of_date, updated_at) " +
+            "SELECT c.id, COALESCE(ch.unpaid_total, 0), COALESCE(ch.unpaid_count, 0), " +
+            "COALESCE(inv.invoice_count, 0), COALESCE(inv.paid_count, 0), COALESCE(inv.open_count, 0), " +
+            "COALESCE(inv.overdue_count, 0), COALESCE(inv.total_invoiced, 0), COALESCE(inv.total_paid, 0), " +
+            "COALESCE(inv.open_balance, 0), COALESCE(inv.b_current, 0), COALESCE(inv.b_30, 0), " +
+            "COALESCE(inv.b_60, 0), COALESCE(inv.b_90, 0), COALESCE(inv.b_over_90, 0), " +
+            "lp.payment_date, lp.amount, :asOf, :now " +
+            "FROM account_customer c " +
+            // Same sum as AccountChargeRepository.calculateUnpaidTotal
+            "LEFT JOIN (SELECT customer_id, SUM(fare_amount + tip_amount) AS unpaid_total, COUNT(*) AS unpaid_count " +
+            "FROM account_charge WHERE is_paid = 0 %2$s GROUP BY customer_id) ch ON ch.customer_id = c.id " +
+            "LEFT JOIN (SELECT customer_id, COUNT(*) AS invoice_count, " +
+            "SUM(status = 'PAID') AS paid_count, " +
+            "SUM(status IN " + OPEN + ") AS open_count, " +
+            "SUM(status NOT IN ('PAID', 'CANCELLED') AND due_date < :asOf) AS overdue_count, " +
+            "SUM(total_amount) AS total_invoiced, SUM(amount_paid) AS total_paid, " +
+            "SUM(CASE WHEN status IN " + OPEN + " THEN balance_due ELSE 0 END) AS open_balance, " +
+            "SUM(CASE WHEN status IN " + OPEN + " AND due_date >= :asOf THEN balance_due ELSE 0 END) AS b_current, " +
+            "SUM(CASE WHEN status IN " + OPEN + " AND DATEDIFF(:asOf, due_date) BETWEEN 1 AND 30 THEN balance_due ELSE 0 END) AS b_30, " +
+            "SUM(CASE WHEN status IN " + OPEN + " AND DATEDIFF(:asOf, due_date) BETWEEN 31 AND 60 THEN balance_due ELSE 0 END) AS b_60, " +
+            "SUM(CASE WHEN status IN " + OPEN + " AND DATEDIFF(:asOf, due_date) BETWEEN 61 AND 90 THEN balance_due ELSE 0 END) AS b_90, " +
+            "SUM(CASE WHEN status IN " + OPEN + " AND DATEDIFF(:asOf, due_date) > 90 THEN balance_due ELSE 0 END) AS b_over_90 " +
+            "FROM invoice WHERE 1 = 1 %2$s GROUP BY customer_id) inv ON inv.customer_id = c.id " +
+            "LEFT JOIN (SELECT p.customer_id, p.payment_date, p.amount FROM payment p " +
+            "WHERE p.id = (SELECT p2.id FROM payment p2 WHERE p2.customer_id = p.customer_id " +
+            "AND p2.status <> 'REVERSED' ORDER BY p2.payment_date DESC, p2.id DESC LIMIT 1) %3$s) lp " +
+            "ON lp.customer_id = c.id " +
+            "WHERE 1 = 1 %1$s " +
+            "ON DUPLICATE KEY UPDATE unpaid_charges = VALUES(unpaid_charges), " +
+            "unpaid_charge_count = VALUES(unpaid_charge_count), invoice_count = VALUES(invoice_count), " +
+            "paid_invoice_count = VALUES(paid_invoice_count), open_invoice_count = VALUES(open_invoice_count), " +
+            "overdue_invoice_count = VALUES(overdue_invoice_count), total_invoiced = VALUES(total_invoiced), " +
+            "total_paid = VALUES(total_paid), invoice_balance = VALUES(invoice_balance), " +
+            "balance_current = VALUES(balance_current), balance_1_30 = VALUES(balance_1_30), " +
+            "balance_31_60 = VALUES(balance_31_60), balance_61_90 = VALUES(balance_61_90), " +
+            "balance_over_90 = VALUES(balance_over_90), last_payment_date = VALUES(last_payment_date), " +
+            "last_payment_amount = VALUES(last_payment_amount), as_of_date = VALUES(as_of_date), " +
+            "updated_at = VALUES(updated_at)";
+
+    private static final String REFRESH_CUSTOMERS_SQL = String.format(REFRESH_SQL,
+            "AND c.id IN (:customerIds)", "AND customer_id IN (:customerIds)", "AND p.customer_id IN (:customerIds)");
+    private static final String REFRESH_ALL_SQL = String.format(REFRESH_SQL, "", "", "");
+
+    private static final String MARK_SQL =
+            "INSERT IGNORE INTO customer_receivables_dirty (customer_id, marked_at) VALUES (:customerId, :now)";
+    private static final String PEEK_SQL = "SELECT customer_id FROM customer_receivables_dirty LIMIT 1";
+    private static final String LOCK_SQL = "SELECT customer_id FROM customer_receivables_dirty FOR UPDATE";
+    private static final String CLEAR_SQL = "DELETE FROM customer_receivables_dirty WHERE customer_id IN (:customerIds)";
+
+    // Moves the shared aging day forward; only one node's update matches per day
+    private static final String CLAIM_AGING_SQL =
+            "UPDATE customer_receivables_aging SET as_of_date = :today WHERE id = 1 AND as_of_date < :today";
+
+    // Marks every customer (a change without a customer)
+    private static final Long ALL_CUSTOMERS = -1L;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final CustomerReceivablesRepository receivablesRepository;
+
+    @Override
+    public Collection<Long> keysFor(Object entity, ChangeType changeType, PreviousState previous) {
+        Set<Long> customerIds = new HashSet<>();
+        if (entity instanceof Invoice i) {
+            customerIds.add(customerId(i.getCustomer()));
+            if (previous.isKnown()) {
+                customerIds.add(customerId((AccountCustomer) previous.get("customer")));
+            }
+        } else if (entity instanceof Payment p) {
+            customerIds.add(p.getCustomerId() != null ? p.getCustomerId() : ALL_CUSTOMERS);
+            if (previous.isKnown()) {
+                Long previousId = (Long) previous.get("customerId");
+                customerIds.add(previousId != null ? previousId : ALL_CUSTOMERS);
+            }
+        } else if (entity instanceof AccountCharge c) {
+            customerIds.add(customerId(c.getAccountCustomer()));
+            if (previous.isKnown()) {
+                customerIds.add(customerId((AccountCustomer) previous.get("accountCustomer")));
+            }
+        }
+        return customerIds;
+    }
+
+    /**
+     * Mark the transaction's customers for the next drain, in the transaction
+     */
+    @Override
+    public void beforeCommit(Set<Long> customerIds) {
+        LocalDateTime now = LocalDateTime.now();
+        for (Long customerId : customerIds.contains(ALL_CUSTOMERS) ? Set.of(ALL_CUSTOMERS) : customerIds) {
+            entityManager.createNativeQuery(MARK_SQL)
+                    .setParameter("customerId", customerId)
+                    .setParameter("now", now)
+                    .executeUpdate();
+        }
+    }
+
+    private static Long customerId(AccountCustomer customer) {
+        return customer != null && customer.getId() != null ? customer.getId() : ALL_CUSTOMERS;
+    }
+
+    /**
+     * Rebuild the customers' rows from their charges, invoices and payments. Joins the caller's
+     * transaction; pending JPA changes are flushed first so the rows see them.
+     */
+    @Transactional
+    public void refresh(Collection<Long> customerIds) {
+        if (customerIds == null || customerIds.isEmpty()) {
+            return;
+        }
+        entityManager.flush();
+        entityManager.createNativeQuery(REFRESH_CUSTOMERS_SQL)
+                .setParameter("customerIds", customerIds)
+                .setParameter("asOf", LocalDate.now())
+                .setParameter("now", LocalDateTime.now())
+                .executeUpdate();
+    }
+
+    /**
+     * Rebuild every customer's row
+     */
+    @Transactional
+    public int refreshAll() {
+        LocalDate today = LocalDate.now();
+        long start = System.currentTimeMillis();
+        entityManager.flush();
+        int rows = entityManager.createNativeQuery(REFRESH_ALL_SQL)
+                .setParameter("asOf", today)
+                .setParameter("now", LocalDateTime.now())
+                .executeUpdate();
+        log.info("Rebuilt customer receivables as of {} in {} ms", today, System.currentTimeMillis() - start);
+        return rows;
+    }
+
+    /**
+     * Rebuild every row for today's aging, unless another node (or an earlier run) already has.
+     * The marker row stays locked until this transaction ends, so a concurrent node waits and
+     * then finds the day taken.
+     *
+     * @return true if this call rebuilt the rows
+     */
+    @Transactional
+    public boolean rebuildAgingIfDue() {
+        int claimed = entityManager.createNativeQuery(CLAIM_AGING_SQL)
+                .setParameter("today", LocalDate.now())
+                .executeUpdate();
+        if (claimed == 0) {
+            return false;
+        }
+        refreshAll();
+        return true;
+    }
+
+    /**
+     * Rebuild the customers marked by writes and delete their marks. The marks are locked until
+     * this transaction ends, so a customer marked meanwhile is rebuilt by the next drain.
+     *
+     * @return number of marks drained
+     */
+    @Transactional
+    public int drainMarks() {
+        if (entityManager.createNativeQuery(PEEK_SQL).getResultList().isEmpty()) {
+            return 0;
+        }
+        List<Long> customerIds = new ArrayList<>();
+        for (Object id : entityManager.createNativeQuery(LOCK_SQL).getResultList()) {
+            customerIds.add(((Number) id).longValue());
+        }
+        if (customerIds.isEmpty()) {
+            return 0;
+        }
+        if (customerIds.contains(ALL_CUSTOMERS)) {
+            refreshAll();
+        } else {
+            refresh(customerIds);
+        }
+        entityManager.createNativeQuery(CLEAR_SQL)
+                .setParameter("customerIds", customerIds)
+                .executeUpdate();
+        return customerIds.size();
+    }
+
+    /**
+     * Receivables of one customer, empty if the customer has none recorded
+     */
+    @Transactional(readOnly = true)
+    public Optional<CustomerReceivables> get(Long customerId) {
+        return receivablesRepository.findById(customerId);
+    }
+
+    /**
+     * Customers with unpaid charges, each with its unpaid total, in one query
+     */
+    @Transactional(readOnly = true)
+    public List<Object[]> customersWithUnpaidCharges() {
+        return receivablesRepository.findCustomersWithUnpaidCharges();
+    }
+
+    /**
+     * Aging of every customer with an open invoice balance
+     */
+    @Transactional(readOnly = true)
+    public List<CustomerReceivables> agedReceivables() {
+        return receivablesRepository.findWithOpenInvoiceBalance();
+    }
+}
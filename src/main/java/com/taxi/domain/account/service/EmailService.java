@@ -5,6 +5,8 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamSource;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
@@ -12,6 +14,7 @@ import org.springframework.stereotype.Service;
 
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
+import java.io.File;
 import java.io.UnsupportedEncodingException;
 import java.math.BigDecimal;
 import java.text.DecimalFormat;
@@ -44,6 +47,18 @@ public class EmailService {
      * Send invoice via email to customer with PDF attachment with company name
      */
     public void sendInvoiceEmail(Invoice invoice, byte[] pdfContent, String recipientEmail, String companyName) {
+        sendInvoiceEmail(invoice, new ByteArrayResource(pdfContent), pdfContent.length, recipientEmail, companyName);
+    }
+
+    /**
+     * Send invoice via email with a PDF attachment read from a file (e.g. rendered to a temp file)
+     */
+    public void sendInvoiceEmail(Invoice invoice, File pdfFile, String recipientEmail, String companyName) {
+        sendInvoiceEmail(invoice, new FileSystemResource(pdfFile), pdfFile.length(), recipientEmail, companyName);
+    }
+
+    private void sendInvoiceEmail(Invoice invoice, InputStreamSource pdf, long pdfSize,
+                                  String recipientEmail, String companyName) {
         try {
             log.info("========== EMAIL DEBUG START ==========");
             log.info("Attempting to send invoice email");
@@ -51,34 +66,9 @@ public class EmailService {
             log.info("Sender Name: {}", senderName);
             log.info("To: {}", recipientEmail);
             log.info("Invoice: {}", invoice.getInvoiceNumber());
-            log.info("PDF Content Size: {} bytes", pdfContent.length);
-
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-
-            // Set email headers
-            try {
-                helper.setFrom(emailFrom, senderName);
-                log.info("Email From set with sender name");
-            } catch (UnsupportedEncodingException e) {
-                log.warn("Could not set sender name, using email only: {}", e.getMessage());
-                helper.setFrom(emailFrom);
-            }
-            helper.setTo(recipientEmail);
-            helper.setSubject("Invoice " + invoice.getInvoiceNumber() + " from Smart Fleets");
-
-            // Format amounts
-            DecimalFormat currencyFormat = new DecimalFormat("$#,##0.00");
-            DateTimeFormatter dateFormat = DateTimeFormatter.ofPattern("MMM dd, yyyy");
-
-            // Build HTML email body
-            String emailBody = buildInvoiceEmailBody(invoice, currencyFormat, dateFormat, companyName);
-            helper.setText(emailBody, true);
-
-            // Attach PDF
-            helper.addAttachment("Invoice_" + invoice.getInvoiceNumber() + ".pdf",
-                    new ByteArrayResource(pdfContent));
-            log.info("PDF attachment added");
+            log.info("PDF Content Size: {} bytes", pdfSize);
+
+            MimeMessage message = buildInvoiceMessage(invoice, pdf, recipientEmail, companyName);
 
             log.info("Sending email via JavaMailSender...");
             mailSender.send(message);
@@ -100,6 +90,43 @@ public class EmailService {
         }
     }
 
+    /**
+     * Build (without sending) an invoice email with the PDF file attached,
+     * for senders that deliver messages themselves (BulkMailSender)
+     */
+    public MimeMessage createInvoiceMessage(Invoice invoice, File pdfFile, String recipientEmail,
+                                            String companyName) throws MessagingException {
+        return buildInvoiceMessage(invoice, new FileSystemResource(pdfFile), recipientEmail, companyName);
+    }
+
+    private MimeMessage buildInvoiceMessage(Invoice invoice, InputStreamSource pdf, String recipientEmail,
+                                            String companyName) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+
+        // Set email headers
+        try {
+            helper.setFrom(emailFrom, senderName);
+        } catch (UnsupportedEncodingException e) {
+            log.warn("Could not set sender name, using email only: {}", e.getMessage());
+            helper.setFrom(emailFrom);
+        }
+        helper.setTo(recipientEmail);
+        helper.setSubject("Invoice " + invoice.getInvoiceNumber() + " from Smart Fleets");
+
+        // Format amounts
+        DecimalFormat currencyFormat = new DecimalFormat("$#,##0.00");
+        DateTimeFormatter dateFormat = DateTimeFormatter.ofPattern("MMM dd, yyyy");
+
+        // Build HTML email body
+        String emailBody = buildInvoiceEmailBody(invoice, currencyFormat, dateFormat, companyName);
+        helper.setText(emailBody, true);
+
+        // Attach PDF
+        helper.addAttachment("Invoice_" + invoice.getInvoiceNumber() + ".pdf", pdf);
+        return message;
+    }
+
     /**
      * Build HTML email body for invoice
      */
@@ -228,45 +255,70 @@ public class EmailService {
      * ✅ NEW: Send driver financial report via email with PDF attachment
      */
     public void sendDriverReport(String toEmail, String driverName, String reportSummary, byte[] pdfContent) {
+        sendDriverReportAttachment(toEmail, driverName, reportSummary,
+                pdfContent != null && pdfContent.length > 0 ? new ByteArrayResource(pdfContent) : null);
+    }
+
+    /**
+     * Send driver financial report with a PDF attachment read from a file (e.g. rendered to a temp file)
+     */
+    public void sendDriverReport(String toEmail, String driverName, String reportSummary, File pdfFile) {
+        sendDriverReportAttachment(toEmail, driverName, reportSummary,
+                pdfFile != null && pdfFile.length() > 0 ? new FileSystemResource(pdfFile) : null);
+    }
+
+    private void sendDriverReportAttachment(String toEmail, String driverName, String reportSummary, InputStreamSource pdf) {
         try {
             log.info("Sending driver report to email: {}", toEmail);
+            mailSender.send(buildDriverReportMessage(toEmail, driverName, reportSummary, pdf));
+            log.info("Driver financial report sent successfully to {}", toEmail);
+        } catch (MessagingException e) {
+            log.error("Failed to send driver report to {}: {}", toEmail, e.getMessage(), e);
+            throw new RuntimeException("Failed to send email: " + e.getMessage(), e);
+        }
+    }
 
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+    /**
+     * Build (without sending) a driver financial report email with the PDF file attached,
+     * for senders that deliver messages themselves (BulkMailSender)
+     */
+    public MimeMessage createDriverReportMessage(String toEmail, String driverName, String reportSummary,
+                                                 File pdfFile) throws MessagingException {
+        return buildDriverReportMessage(toEmail, driverName, reportSummary,
+                pdfFile != null && pdfFile.length() > 0 ? new FileSystemResource(pdfFile) : null);
+    }
 
-            try {
-                helper.setFrom(emailFrom, senderName);
-            } catch (UnsupportedEncodingException e) {
-                log.warn("Could not set sender name, using email only: {}", e.getMessage());
-                helper.setFrom(emailFrom);
-            }
+    private MimeMessage buildDriverReportMessage(String toEmail, String driverName, String reportSummary,
+                                                 InputStreamSource pdf) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
 
-            helper.setTo(toEmail);
-            helper.setSubject("Driver Financial Report - " + driverName);
+        try {
+            helper.setFrom(emailFrom, senderName);
+        } catch (UnsupportedEncodingException e) {
+            log.warn("Could not set sender name, using email only: {}", e.getMessage());
+            helper.setFrom(emailFrom);
+        }
 
-            String htmlBody = buildFinancialReportEmailBody(driverName, reportSummary);
-            helper.setText(htmlBody, true);
+        helper.setTo(toEmail);
+        helper.setSubject("Driver Financial Report - " + driverName);
 
-            // Attach PDF if provided
-            if (pdfContent != null && pdfContent.length > 0) {
-                helper.addAttachment("Financial_Report_" + driverName.replaceAll("[^a-zA-Z0-9]", "_") + ".pdf",
-                        new ByteArrayResource(pdfContent));
-                log.info("PDF attachment added to driver report email");
-            }
+        String htmlBody = buildFinancialReportEmailBody(driverName, reportSummary);
+        helper.setText(htmlBody, true);
 
-            mailSender.send(message);
-            log.info("Driver financial report sent successfully to {}", toEmail);
-        } catch (MessagingException e) {
-            log.error("Failed to send driver report to {}: {}", toEmail, e.getMessage(), e);
-            throw new RuntimeException("Failed to send email: " + e.getMessage(), e);
+        // Attach PDF if provided
+        if (pdf != null) {
+            helper.addAttachment("Financial_Report_" + driverName.replaceAll("[^a-zA-Z0-9]", "_") + ".pdf", pdf);
+            log.debug("PDF attachment added to driver report email");
         }
+        return message;
     }
 
     /**
      * Legacy method for backward compatibility
      */
     public void sendDriverReport(String toEmail, String driverName, String reportContent) {
-        sendDriverReport(toEmail, driverName, reportContent, null);
+        sendDriverReportAttachment(toEmail, driverName, reportContent, null);
     }
 
     /**
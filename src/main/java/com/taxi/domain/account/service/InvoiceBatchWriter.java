@@ -0,0 +1,268 @@
+package com.taxi.domain.account.service;
+
+import com.taxi.domain.account.model.AccountCharge;
+import com.taxi.domain.account.model.AccountCustomer;
+import com.taxi.domain.account.model.Invoice;
+import com.taxi.domain.account.model.InvoiceLineItem;
+import com.taxi.domain.account.repository.AccountChargeRepository;
+import com.taxi.domain.account.repository.InvoiceRepository;
+import com.taxi.infrastructure.datachange.DataSource;
+import com.taxi.infrastructure.datachange.DataVersionService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Invoices a chunk of account customers for one billing period with JDBC batches in one transaction:
+ * invoices and their line items are batch-inserted and each customer's charges are stamped with one
+ * set-based UPDATE, instead of a save per invoice and an update per charge.
+ *
+ * Same invoices as InvoiceService.generateInvoice. Customers with an overlapping invoice or without
+ * uninvoiced charges are skipped, so a chunk can be written again after a failure. If a customer's
+ * charges changed between loading and stamping, the chunk rolls back.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class InvoiceBatchWriter {
+
+    private static final String INSERT_INVOICE_SQL = "INSERT INTO invoice " +
+            "(invoice_number, account_id, customer_id, invoice_date, due_date, billing_period_start, " +
+            "billing_period_end, subtotal, tax_rate, tax_amount, total_amount, amount_paid, balance_due, " +
+            "status, statement_version, previous_balance, terms, created_by, created_at, updated_at, email_send_count) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_LINE_ITEM_SQL = "INSERT INTO invoice_line_item " +
+            "(invoice_id, charge_id, description, trip_date, quantity, unit_price, amount) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    // Invoice numbers of the generated ids, to check the ids were matched to the right invoices
+    private static final String INVOICE_NUMBERS_SQL = "SELECT id, invoice_number FROM invoice WHERE id IN (%s)";
+
+    // Charges stamped with an invoice, when the driver does not report per-statement update counts
+    private static final String COUNT_STAMPED_SQL = "SELECT COUNT(*) FROM account_charge WHERE invoice_id = ?";
+
+    // Same predicate the charges were loaded with - the row count must match the invoice's line items
+    private static final String STAMP_CHARGES_SQL = "UPDATE account_charge SET invoice_id = ?, invoice_number = ?, " +
+            "updated_at = ? WHERE customer_id = ? AND is_paid = false AND invoice_id IS NULL " +
+            "AND trip_date BETWEEN ? AND ?";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final InvoiceService invoiceService;
+    private final InvoiceRepository invoiceRepository;
+    private final AccountChargeRepository chargeRepository;
+    private final DataVersionService dataVersionService;
+    private final CustomerReceivablesService receivablesService;
+
+    /**
+     * Outcome of one chunk
+     */
+    @Getter
+    public static class WriteResult {
+        private final List<Invoice> invoiced = new ArrayList<>();
+        private final Map<Long, String> skipped = new LinkedHashMap<>();   // customer id -> reason
+    }
+
+    /**
+     * Invoice the customers' uninvoiced charges for the period. Written invoices get their ids
+     * and keep their customer and line items for rendering.
+     */
+    @Transactional
+    public WriteResult write(List<AccountCustomer> customers, LocalDate periodStart, LocalDate periodEnd,
+                             BigDecimal taxRate, String terms, Long userId) {
+        WriteResult result = new WriteResult();
+        if (customers.isEmpty()) {
+            return result;
+        }
+
+        Set<Long> customerIds = new HashSet<>();
+        customers.forEach(c -> customerIds.add(c.getId()));
+        Set<Long> overlapping = new HashSet<>(
+                invoiceRepository.findCustomerIdsWithOverlappingPeriod(customerIds, periodStart, periodEnd));
+        customerIds.removeAll(overlapping);
+
+        Map<Long, List<AccountCharge>> chargesByCustomer = new LinkedHashMap<>();
+        if (!customerIds.isEmpty()) {
+            for (AccountCharge charge : chargeRepository.findUninvoicedChargesByCustomersAndDateRange(
+                    customerIds, periodStart, periodEnd)) {
+                chargesByCustomer.computeIfAbsent(charge.getAccountCustomer().getId(), id -> new ArrayList<>()).add(charge);
+            }
+        }
+
+        List<Invoice> invoices = new ArrayList<>();
+        for (AccountCustomer customer : customers) {
+            if (overlapping.contains(customer.getId())) {
+                result.skipped.put(customer.getId(), "An invoice with an overlapping period already exists");
+                continue;
+            }
+            List<AccountCharge> charges = chargesByCustomer.get(customer.getId());
+            if (charges == null) {
+                result.skipped.put(customer.getId(), "No uninvoiced charges for the period");
+                continue;
+            }
+            Invoice invoice = invoiceService.buildInvoice(customer, charges, periodStart, periodEnd, taxRate, terms);
+            invoice.setCreatedBy(userId);
+            invoices.add(invoice);
+        }
+        if (invoices.isEmpty()) {
+            return result;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp nowTs = Timestamp.valueOf(now);
+
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_INVOICE_SQL,
+                    java.sql.Statement.RETURN_GENERATED_KEYS)) {
+                for (Invoice inv : invoices) {
+                    inv.setCreatedAt(now);
+                    inv.setUpdatedAt(now);
+                    ps.setString(1, inv.getInvoiceNumber());
+                    ps.setString(2, inv.getAccountId());
+                    ps.setLong(3, inv.getCustomer().getId());
+                    ps.setDate(4, Date.valueOf(inv.getInvoiceDate()));
+                    ps.setDate(5, Date.valueOf(inv.getDueDate()));
+                    ps.setDate(6, Date.valueOf(inv.getBillingPeriodStart()));
+                    ps.setDate(7, Date.valueOf(inv.getBillingPeriodEnd()));
+                    ps.setBigDecimal(8, inv.getSubtotal());
+                    ps.setBigDecimal(9, inv.getTaxRate());
+                    ps.setBigDecimal(10, inv.getTaxAmount());
+                    ps.setBigDecimal(11, inv.getTotalAmount());
+                    ps.setBigDecimal(12, inv.getAmountPaid());
+                    ps.setBigDecimal(13, inv.getBalanceDue());
+                    ps.setString(14, inv.getStatus().name());
+                    ps.setObject(15, inv.getStatementVersion());
+                    ps.setBigDecimal(16, inv.getPreviousBalance());
+                    ps.setString(17, inv.getTerms());
+                    ps.setObject(18, inv.getCreatedBy());
+                    ps.setTimestamp(19, nowTs);
+                    ps.setTimestamp(20, nowTs);
+                    ps.setObject(21, inv.getEmailSendCount());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    for (Invoice inv : invoices) {
+                        if (!keys.next()) {
+                            throw new IllegalStateException("Missing generated id for invoice " + inv.getInvoiceNumber());
+                        }
+                        inv.setId(keys.getLong(1));
+                    }
+                }
+            }
+            checkGeneratedIds(connection, invoices);
+
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_LINE_ITEM_SQL)) {
+                for (Invoice inv : invoices) {
+                    for (InvoiceLineItem item : inv.getLineItems()) {
+                        ps.setLong(1, inv.getId());
+                        ps.setLong(2, item.getCharge().getId());
+                        ps.setString(3, item.getDescription());
+                        ps.setDate(4, item.getTripDate() != null ? Date.valueOf(item.getTripDate()) : null);
+                        ps.setObject(5, item.getQuantity());
+                        ps.setBigDecimal(6, item.getUnitPrice());
+                        ps.setBigDecimal(7, item.getAmount());
+                        ps.addBatch();
+                    }
+                }
+                ps.executeBatch();
+            }
+
+            try (PreparedStatement ps = connection.prepareStatement(STAMP_CHARGES_SQL)) {
+                for (Invoice inv : invoices) {
+                    ps.setLong(1, inv.getId());
+                    ps.setString(2, inv.getInvoiceNumber());
+                    ps.setTimestamp(3, nowTs);
+                    ps.setLong(4, inv.getCustomer().getId());
+                    ps.setDate(5, Date.valueOf(periodStart));
+                    ps.setDate(6, Date.valueOf(periodEnd));
+                    ps.addBatch();
+                }
+                int[] counts = ps.executeBatch();
+                for (int i = 0; i < invoices.size(); i++) {
+                    Invoice inv = invoices.get(i);
+                    int stamped = counts[i] != java.sql.Statement.SUCCESS_NO_INFO ? counts[i] : countStamped(connection, inv);
+                    if (stamped != inv.getLineItems().size()) {
+                        throw new IllegalStateException(String.format(
+                                "Charges of %s changed while invoicing (%d stamped, %d on invoice %s)",
+                                inv.getCustomer().getCompanyName(), stamped, inv.getLineItems().size(),
+                                inv.getInvoiceNumber()));
+                    }
+                }
+            }
+        });
+
+        // The loaded charges are left unchanged - setting the invoice on them would make Hibernate
+        // update each one again at commit
+        result.invoiced.addAll(invoices);
+
+        // JDBC writes bypass the entity listeners. Stamping invoice numbers leaves charge amounts
+        // and dates alone, so cached reports are invalidated but driver ledgers are not
+        dataVersionService.bump(DataSource.CHARGES);
+        receivablesService.refresh(invoices.stream().map(inv -> inv.getCustomer().getId()).toList());
+
+        log.info("Invoiced {} customers for {} to {} ({} skipped)",
+                invoices.size(), periodStart, periodEnd, result.skipped.size());
+        return result;
+    }
+
+    /**
+     * With rewriteBatchedStatements the batch goes out as one multi-row INSERT, and the driver
+     * derives each row's id from the first one. Check every id against its unique invoice number
+     * before anything else is written with it.
+     */
+    private static void checkGeneratedIds(Connection connection, List<Invoice> invoices) throws SQLException {
+        String placeholders = String.join(", ", Collections.nCopies(invoices.size(), "?"));
+        Map<Long, String> numbers = new HashMap<>();
+        try (PreparedStatement ps = connection.prepareStatement(String.format(INVOICE_NUMBERS_SQL, placeholders))) {
+            for (int i = 0; i < invoices.size(); i++) {
+                ps.setLong(i + 1, invoices.get(i).getId());
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    numbers.put(rs.getLong(1), rs.getString(2));
+                }
+            }
+        }
+        for (Invoice inv : invoices) {
+            if (!inv.getInvoiceNumber().equals(numbers.get(inv.getId()))) {
+                throw new IllegalStateException("Generated id " + inv.getId() + " does not belong to invoice " +
+                        inv.getInvoiceNumber() + " but to " + numbers.get(inv.getId()));
+            }
+        }
+    }
+
+    private static int countStamped(Connection connection, Invoice invoice) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(COUNT_STAMPED_SQL)) {
+            ps.setLong(1, invoice.getId());
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+}
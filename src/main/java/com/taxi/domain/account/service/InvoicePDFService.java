@@ -7,10 +7,12 @@ import com.itextpdf.text.pdf.PdfPTable;
 import com.itextpdf.text.pdf.PdfWriter;
 import com.taxi.domain.account.model.Invoice;
 import com.taxi.domain.account.model.InvoiceLineItem;
+import com.taxi.utils.PdfStyles;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.text.DecimalFormat;
 import java.time.format.DateTimeFormatter;
@@ -19,36 +21,37 @@ import java.time.format.DateTimeFormatter;
 @Slf4j
 public class InvoicePDFService {
 
-    private static final BaseColor HEADER_COLOR = new BaseColor(62, 82, 68); // Dark green
-    private static final BaseColor ACCENT_COLOR = new BaseColor(76, 175, 80); // Light green
-    private static final Font TITLE_FONT = new Font(Font.FontFamily.HELVETICA, 24, Font.BOLD, BaseColor.WHITE);
-    private static final Font HEADER_FONT = new Font(Font.FontFamily.HELVETICA, 12, Font.BOLD, BaseColor.WHITE);
-    private static final Font LABEL_FONT = new Font(Font.FontFamily.HELVETICA, 11, Font.BOLD);
-    private static final Font NORMAL_FONT = new Font(Font.FontFamily.HELVETICA, 10);
-    private static final Font SMALL_FONT = new Font(Font.FontFamily.HELVETICA, 9);
+    private static final BaseColor HEADER_COLOR = PdfStyles.color(62, 82, 68); // Dark green
+    private static final BaseColor ACCENT_COLOR = PdfStyles.color(76, 175, 80); // Light green
+    private static final Font TITLE_FONT = PdfStyles.font(Font.FontFamily.HELVETICA, 24, Font.BOLD, BaseColor.WHITE);
+    private static final Font HEADER_FONT = PdfStyles.font(Font.FontFamily.HELVETICA, 12, Font.BOLD, BaseColor.WHITE);
+    private static final Font LABEL_FONT = PdfStyles.font(Font.FontFamily.HELVETICA, 11, Font.BOLD);
+    private static final Font NORMAL_FONT = PdfStyles.font(Font.FontFamily.HELVETICA, 10);
+    private static final Font SMALL_FONT = PdfStyles.font(Font.FontFamily.HELVETICA, 9);
 
     /**
      * Generate PDF invoice as byte array with company name
      */
     public byte[] generateInvoicePDF(Invoice invoice, String companyName) {
-        return generateInvoicePDFInternal(invoice, companyName);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        writeInvoicePDF(invoice, companyName, baos);
+        return baos.toByteArray();
     }
 
     /**
      * Generate PDF invoice as byte array (backward compatibility, defaults to Smart Fleets)
      */
     public byte[] generateInvoicePDF(Invoice invoice) {
-        return generateInvoicePDFInternal(invoice, "Smart Fleets");
+        return generateInvoicePDF(invoice, "Smart Fleets");
     }
 
     /**
-     * Internal method to generate PDF
+     * Write PDF invoice to the stream (left open)
      */
-    private byte[] generateInvoicePDFInternal(Invoice invoice, String companyName) {
+    public void writeInvoicePDF(Invoice invoice, String companyName, OutputStream out) {
         try {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
             Document document = new Document(PageSize.A4, 50, 50, 50, 50);
-            PdfWriter.getInstance(document, baos);
+            PdfWriter.getInstance(document, out).setCloseStream(false);
 
             document.open();
 
@@ -70,7 +73,6 @@ public class InvoicePDFService {
             addFooter(document);
 
             document.close();
-            return baos.toByteArray();
 
         } catch (Exception e) {
             log.error("Failed to generate PDF invoice: {}", e.getMessage());
@@ -94,7 +96,7 @@ public class InvoicePDFService {
         companyCell.setBorder(0);
         Paragraph companyPara = new Paragraph();
         companyPara.add(new Paragraph("Smart Fleets", TITLE_FONT));
-        companyPara.add(new Paragraph(companyName != null ? companyName : "Smart Fleets", new Font(Font.FontFamily.HELVETICA, 12, Font.NORMAL, BaseColor.WHITE)));
+        companyPara.add(new Paragraph(companyName != null ? companyName : "Smart Fleets", PdfStyles.font(Font.FontFamily.HELVETICA, 12, Font.NORMAL, BaseColor.WHITE)));
         companyCell.addElement(companyPara);
         headerTable.addCell(companyCell);
 
@@ -106,7 +108,7 @@ public class InvoicePDFService {
         invoiceTitleCell.setHorizontalAlignment(Element.ALIGN_RIGHT);
         Paragraph titlePara = new Paragraph();
         titlePara.add(new Paragraph("INVOICE", TITLE_FONT));
-        titlePara.add(new Paragraph(invoice.getInvoiceNumber(), new Font(Font.FontFamily.HELVETICA, 14, Font.NORMAL, BaseColor.WHITE)));
+        titlePara.add(new Paragraph(invoice.getInvoiceNumber(), PdfStyles.font(Font.FontFamily.HELVETICA, 14, Font.NORMAL, BaseColor.WHITE)));
         invoiceTitleCell.addElement(titlePara);
         headerTable.addCell(invoiceTitleCell);
 
@@ -200,7 +202,7 @@ public class InvoicePDFService {
      */
     private void addDetailRow(PdfPTable table, String label, String value) throws DocumentException {
         PdfPCell labelCell = new PdfPCell(new Paragraph(label, LABEL_FONT));
-        labelCell.setBackgroundColor(new BaseColor(245, 245, 245));
+        labelCell.setBackgroundColor(PdfStyles.color(245, 245, 245));
         labelCell.setPadding(8);
         labelCell.setBorderColor(ACCENT_COLOR);
         table.addCell(labelCell);
@@ -305,7 +307,7 @@ public class InvoicePDFService {
      * Add total row
      */
     private void addTotalRow(PdfPTable table, String label, String value, boolean highlight) throws DocumentException {
-        PdfPCell labelCell = new PdfPCell(new Paragraph(label, highlight ? new Font(Font.FontFamily.HELVETICA, 11, Font.BOLD) : NORMAL_FONT));
+        PdfPCell labelCell = new PdfPCell(new Paragraph(label, highlight ? PdfStyles.font(Font.FontFamily.HELVETICA, 11, Font.BOLD) : NORMAL_FONT));
         labelCell.setHorizontalAlignment(Element.ALIGN_RIGHT);
         labelCell.setPadding(8);
         if (highlight) {
@@ -313,7 +315,7 @@ public class InvoicePDFService {
         }
         table.addCell(labelCell);
 
-        PdfPCell valueCell = new PdfPCell(new Paragraph(value, highlight ? new Font(Font.FontFamily.HELVETICA, 11, Font.BOLD) : NORMAL_FONT));
+        PdfPCell valueCell = new PdfPCell(new Paragraph(value, highlight ? PdfStyles.font(Font.FontFamily.HELVETICA, 11, Font.BOLD) : NORMAL_FONT));
         valueCell.setHorizontalAlignment(Element.ALIGN_RIGHT);
         valueCell.setPadding(8);
         if (highlight) {
@@ -9,10 +9,14 @@ import com.taxi.domain.account.repository.InvoiceLineItemRepository;
 import com.taxi.domain.account.repository.InvoiceRepository;
 import com.taxi.domain.account.repository.PaymentRepository;
 import com.taxi.domain.tenant.service.TenantConfigService;
+import com.taxi.infrastructure.sequence.SequenceAllocator;
+import com.taxi.utils.TempPdf;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
@@ -33,6 +37,8 @@ public class InvoiceService {
     private final EmailService emailService;
     private final InvoicePDFService pdfService;
     private final TenantConfigService tenantConfigService;
+    private final SequenceAllocator sequenceAllocator;
+    private final CustomerReceivablesService receivablesService;
 
     /**
      * Generate invoice for customer for a specific billing period
@@ -72,6 +78,29 @@ public class InvoiceService {
                     "All charges may already be on an existing invoice.");
         }
 
+        Invoice invoice = buildInvoice(customer, charges, periodStart, periodEnd, taxRate, terms);
+
+        // Save invoice
+        Invoice savedInvoice = invoiceRepository.save(invoice);
+
+        // Update charges with invoice reference
+        for (int i = 0; i < charges.size(); i++) {
+            AccountCharge charge = charges.get(i);
+            charge.setInvoiceId(savedInvoice.getId());
+            charge.setInvoiceNumber(savedInvoice.getInvoiceNumber());
+        }
+        chargeRepository.saveAll(charges);
+        refreshReceivables(savedInvoice);
+
+        return savedInvoice;
+    }
+
+    /**
+     * Build a DRAFT invoice (numbered, with line items and totals, not saved) for the customer's
+     * charges in the period. Shared by single invoice generation and the billing run.
+     */
+    public Invoice buildInvoice(AccountCustomer customer, List<AccountCharge> charges,
+                                LocalDate periodStart, LocalDate periodEnd, BigDecimal taxRate, String terms) {
         // Create invoice
         Invoice invoice = Invoice.builder()
                 .invoiceNumber(generateInvoiceNumber())
@@ -94,19 +123,7 @@ public class InvoiceService {
 
         // Calculate totals
         invoice.calculateTotals();
-
-        // Save invoice
-        Invoice savedInvoice = invoiceRepository.save(invoice);
-
-        // Update charges with invoice reference
-        for (int i = 0; i < charges.size(); i++) {
-            AccountCharge charge = charges.get(i);
-            charge.setInvoiceId(savedInvoice.getId());
-            charge.setInvoiceNumber(savedInvoice.getInvoiceNumber());
-        }
-        chargeRepository.saveAll(charges);
-
-        return savedInvoice;
+        return invoice;
     }
 
     public List<Invoice> getAllInvoices() {
@@ -287,6 +304,7 @@ public class InvoiceService {
         Invoice invoice = getInvoiceById(invoiceId);
         invoice.markAsSent();
         Invoice savedInvoice = invoiceRepository.save(invoice);
+        refreshReceivables(savedInvoice);
         return toSummaryDTO(savedInvoice);
     }
 
@@ -319,6 +337,7 @@ public class InvoiceService {
         chargeRepository.saveAll(charges);
         
         Invoice savedInvoice = invoiceRepository.save(invoice);
+        refreshReceivables(savedInvoice);
         return toSummaryDTO(savedInvoice);
     }
 
@@ -328,7 +347,9 @@ public class InvoiceService {
     public Invoice updateInvoiceStatus(Long invoiceId) {
         Invoice invoice = getInvoiceById(invoiceId);
         invoice.updateStatus();
-        return invoiceRepository.save(invoice);
+        Invoice savedInvoice = invoiceRepository.save(invoice);
+        refreshReceivables(savedInvoice);
+        return savedInvoice;
     }
 
     /**
@@ -372,6 +393,7 @@ public class InvoiceService {
         if (invoice.getStatus() == Invoice.InvoiceStatus.PAID) {
             markChargesAsPaid(invoice);
         }
+        refreshReceivables(invoice);
         
         return savedPayment;
     }
@@ -391,10 +413,12 @@ public class InvoiceService {
     }
 
     /**
-     * Calculate outstanding balance for customer
+     * Calculate outstanding balance for customer (open invoices, from the receivables projection)
      */
     public BigDecimal calculateOutstandingBalance(Long customerId) {
-        return invoiceRepository.calculateOutstandingBalance(customerId);
+        return receivablesService.get(customerId)
+                .map(CustomerReceivables::getInvoiceBalance)
+                .orElse(BigDecimal.ZERO);
     }
 
     /**
@@ -408,62 +432,63 @@ public class InvoiceService {
      * Get invoice summary for customer
      */
     public Map<String, Object> getInvoiceSummary(Long customerId) {
-        BigDecimal outstanding = calculateOutstandingBalance(customerId);
-        List<Invoice> unpaidInvoices = getUnpaidInvoicesByCustomer(customerId);
-        List<Invoice> allInvoices = getInvoicesByCustomer(customerId);
-        
-        long totalInvoices = allInvoices.size();
-        long paidInvoices = allInvoices.stream()
-                .filter(Invoice::isPaid)
-                .count();
-        long overdueInvoices = allInvoices.stream()
-                .filter(Invoice::isOverdue)
-                .count();
-        
-        BigDecimal totalInvoiced = allInvoices.stream()
-                .map(Invoice::getTotalAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        BigDecimal totalPaid = allInvoices.stream()
-                .map(Invoice::getAmountPaid)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
+        CustomerReceivables receivables = receivablesService.get(customerId).orElse(null);
+        if (receivables == null) {
+            return Map.of(
+                    "customerId", customerId,
+                    "totalInvoices", 0L,
+                    "paidInvoices", 0L,
+                    "unpaidInvoices", 0,
+                    "overdueInvoices", 0L,
+                    "totalInvoiced", BigDecimal.ZERO,
+                    "totalPaid", BigDecimal.ZERO,
+                    "outstandingBalance", BigDecimal.ZERO
+            );
+        }
+
         return Map.of(
                 "customerId", customerId,
-                "totalInvoices", totalInvoices,
-                "paidInvoices", paidInvoices,
-                "unpaidInvoices", unpaidInvoices.size(),
-                "overdueInvoices", overdueInvoices,
-                "totalInvoiced", totalInvoiced,
-                "totalPaid", totalPaid,
-                "outstandingBalance", outstanding
+                "totalInvoices", (long) receivables.getInvoiceCount(),
+                "paidInvoices", (long) receivables.getPaidInvoiceCount(),
+                "unpaidInvoices", receivables.getOpenInvoiceCount(),
+                "overdueInvoices", (long) receivables.getOverdueInvoiceCount(),
+                "totalInvoiced", receivables.getTotalInvoiced(),
+                "totalPaid", receivables.getTotalPaid(),
+                "outstandingBalance", receivables.getInvoiceBalance()
         );
     }
 
+    /**
+     * Aged open invoice balances of every customer that has one
+     */
+    public List<CustomerReceivables> getAgedReceivables() {
+        return receivablesService.agedReceivables();
+    }
+
     // ==================== Helper Methods ====================
 
     private String generateInvoiceNumber() {
         String prefix = "INV-" + LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMM")) + "-";
-        String maxNumber = invoiceRepository.findMaxInvoiceNumberWithPrefix(prefix);
-        
-        if (maxNumber == null) {
-            return prefix + "0001";
-        }
-        
-        int lastNumber = Integer.parseInt(maxNumber.substring(maxNumber.lastIndexOf("-") + 1));
-        return prefix + String.format("%04d", lastNumber + 1);
+        long number = sequenceAllocator.next(prefix,
+                () -> lastNumber(invoiceRepository.findMaxInvoiceNumberWithPrefix(prefix)));
+        return prefix + String.format("%04d", number);
     }
 
     private String generatePaymentNumber() {
         String prefix = "PAY-" + LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMM")) + "-";
-        String maxNumber = paymentRepository.findMaxPaymentNumberWithPrefix(prefix);
-        
+        long number = sequenceAllocator.next(prefix,
+                () -> lastNumber(paymentRepository.findMaxPaymentNumberWithPrefix(prefix)));
+        return prefix + String.format("%04d", number);
+    }
+
+    /**
+     * Numeric suffix of the highest number issued before the counter existed, 0 if none
+     */
+    private static long lastNumber(String maxNumber) {
         if (maxNumber == null) {
-            return prefix + "0001";
+            return 0;
         }
-        
-        int lastNumber = Integer.parseInt(maxNumber.substring(maxNumber.lastIndexOf("-") + 1));
-        return prefix + String.format("%04d", lastNumber + 1);
+        return Long.parseLong(maxNumber.substring(maxNumber.lastIndexOf("-") + 1));
     }
 
     private LocalDate calculateDueDate(AccountCustomer customer) {
@@ -514,19 +539,38 @@ public class InvoiceService {
      */
     @Transactional(readOnly = true)
     public byte[] generateInvoicePDF(Long invoiceId) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        writeInvoicePDF(invoiceId, baos);
+        return baos.toByteArray();
+    }
+
+    /**
+     * Render invoice PDF onto the stream (left open), e.g. straight into an HTTP response
+     */
+    @Transactional(readOnly = true)
+    public void writeInvoicePDF(Long invoiceId, OutputStream out) {
+        Invoice invoice = loadInvoiceForPdf(invoiceId);
+        pdfService.writeInvoicePDF(invoice, companyName(), out);
+    }
+
+    private Invoice loadInvoiceForPdf(Long invoiceId) {
         Invoice invoice = getInvoiceById(invoiceId);
         // Fetch line items if needed
         List<InvoiceLineItem> lineItems = invoiceLineItemRepository.findByInvoiceId(invoiceId);
         if (lineItems != null && !lineItems.isEmpty()) {
             invoice.setLineItems(lineItems);
         }
+        return invoice;
+    }
 
+    /**
+     * Company name shown on invoice PDFs and emails
+     */
+    public String companyName() {
         // Get company name from tenant config
-        String companyName = tenantConfigService.getCurrentTenantConfig()
+        return tenantConfigService.getCurrentTenantConfig()
                 .map(config -> config.getCompanyName())
                 .orElse("Maclures Cabs");
-
-        return pdfService.generateInvoicePDF(invoice, companyName);
     }
 
     /**
@@ -534,18 +578,13 @@ public class InvoiceService {
      */
     @Transactional
     public void sendInvoiceViaEmail(Long invoiceId, String recipientEmail) {
-        Invoice invoice = getInvoiceById(invoiceId);
-
-        // Generate PDF
-        byte[] pdfContent = generateInvoicePDF(invoiceId);
-
-        // Get company name from tenant config
-        String companyName = tenantConfigService.getCurrentTenantConfig()
-                .map(config -> config.getCompanyName())
-                .orElse("Maclures Cabs");
+        Invoice invoice = loadInvoiceForPdf(invoiceId);
+        String companyName = companyName();
 
-        // Send email
-        emailService.sendInvoiceEmail(invoice, pdfContent, recipientEmail, companyName);
+        // Render PDF to a temp file and send it
+        try (TempPdf pdf = TempPdf.write(out -> pdfService.writeInvoicePDF(invoice, companyName, out))) {
+            emailService.sendInvoiceEmail(invoice, pdf.file(), recipientEmail, companyName);
+        }
 
         // Update invoice status to SENT
         invoice.markAsSent();
@@ -554,5 +593,22 @@ public class InvoiceService {
         invoice.recordEmailSent(recipientEmail);
 
         invoiceRepository.save(invoice);
+        refreshReceivables(invoice);
+    }
+
+    /**
+     * Record an invoice email delivered by another sender (billing run): status SENT and resend tracking
+     */
+    @Transactional
+    public void recordInvoiceSent(Long invoiceId, String recipientEmail) {
+        Invoice invoice = getInvoiceById(invoiceId);
+        invoice.markAsSent();
+        invoice.recordEmailSent(recipientEmail);
+        invoiceRepository.save(invoice);
+        refreshReceivables(invoice);
+    }
+
+    private void refreshReceivables(Invoice invoice) {
+        receivablesService.refresh(List.of(invoice.getCustomer().getId()));
     }
 }
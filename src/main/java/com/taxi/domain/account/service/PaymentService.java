@@ -4,7 +4,11 @@ import com.taxi.domain.account.model.*;
 import com.taxi.domain.account.repository.*;
 import com.taxi.domain.account.model.AccountCredit;
 import com.taxi.domain.statement.model.Statement;
+import com.taxi.domain.report.service.DriverLedgerService;
 import com.taxi.domain.statement.repository.StatementRepository;
+import com.taxi.domain.statement.service.PeriodBalanceService;
+import com.taxi.infrastructure.datachange.DataSource;
+import com.taxi.infrastructure.datachange.DataVersionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -17,6 +21,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.Set;
 import java.util.UUID;
 
 @Slf4j
@@ -33,6 +39,10 @@ public class PaymentService {
     private final StatementRepository statementRepository;
     private final AccountChargeRepository accountChargeRepository;
     private final AccountCreditRepository accountCreditRepository;
+    private final PeriodBalanceService periodBalanceService;
+    private final DriverLedgerService driverLedgerService;
+    private final DataVersionService dataVersionService;
+    private final CustomerReceivablesService receivablesService;
 
     /**
      * Post a statement (DRAFT -> POSTED)
@@ -293,16 +303,8 @@ public class PaymentService {
             throw new IllegalStateException("Only POSTED batches can be marked completed");
         }
 
-        // Get all statement payments for this batch
-        List<StatementPayment> statementPayments = statementPaymentRepository.findByPaymentBatchId(batchId);
-
-        // Update statement payment records to COMPLETED
-        for (StatementPayment payment : statementPayments) {
-            payment.setStatus("COMPLETED");
-            payment.setPostedAt(LocalDateTime.now());
-            payment.setPostedBy(userId);
-            statementPaymentRepository.save(payment);
-        }
+        // Complete all statement payments of this batch with one update
+        int completed = statementPaymentRepository.markCompletedByPaymentBatchId(batchId, userId, LocalDateTime.now());
 
         // Extract payment amounts by statement ID from request body
         Map<Long, BigDecimal> paymentsByStatement = new HashMap<>();
@@ -319,38 +321,60 @@ public class PaymentService {
             }
         }
 
-        // Update statements using the statement IDs stored in the batch
+        // Statement IDs stored in the batch
+        List<Long> batchStatementIds = new ArrayList<>();
         if (batch.getStatementIds() != null && !batch.getStatementIds().isEmpty()) {
-            String[] statementIdArray = batch.getStatementIds().split(",");
-
-            for (String statementIdStr : statementIdArray) {
+            for (String statementIdStr : batch.getStatementIds().split(",")) {
                 try {
-                    Long statementId = Long.parseLong(statementIdStr.trim());
-                    Statement statement = statementRepository.findById(statementId)
-                            .orElseThrow(() -> new IllegalArgumentException("Statement not found: " + statementId));
+                    batchStatementIds.add(Long.parseLong(statementIdStr.trim()));
+                } catch (NumberFormatException e) {
+                    log.warn("Invalid statement ID in batch: {}", statementIdStr);
+                }
+            }
+        }
 
-                    // Get paid amount from the frontend data
-                    BigDecimal paidAmount = paymentsByStatement.getOrDefault(statementId, BigDecimal.ZERO);
+        // Statements of the batch and of its payments, loaded together
+        Set<Long> statementIds = new LinkedHashSet<>(batchStatementIds);
+        statementIds.addAll(statementPaymentRepository.findStatementIdsByPaymentBatchId(batchId));
+        Map<Long, Statement> statements = new HashMap<>();
+        for (Statement statement : statementRepository.findAllById(statementIds)) {
+            statements.put(statement.getId(), statement);
+        }
 
-                    if (paidAmount.compareTo(BigDecimal.ZERO) > 0) {
-                        statement.setPaidAmount(paidAmount);
-                    }
+        for (Long statementId : batchStatementIds) {
+            Statement statement = statements.get(statementId);
+            if (statement == null) {
+                throw new IllegalArgumentException("Statement not found: " + statementId);
+            }
 
-                    // Mark statement as paid
-                    statement.setStatus(com.taxi.domain.statement.model.StatementStatus.PAID);
-                    statementRepository.save(statement);
+            // Get paid amount from the frontend data
+            BigDecimal paidAmount = paymentsByStatement.getOrDefault(statementId, BigDecimal.ZERO);
 
-                    log.info("Statement {} marked as PAID with paid amount {}", statementId, paidAmount);
-                } catch (NumberFormatException e) {
-                    log.warn("Invalid statement ID in batch: {}", statementIdStr);
-                }
+            if (paidAmount.compareTo(BigDecimal.ZERO) > 0) {
+                statement.setPaidAmount(paidAmount);
             }
+
+            // Mark statement as paid
+            statement.setStatus(com.taxi.domain.statement.model.StatementStatus.PAID);
+
+            log.info("Statement {} marked as PAID with paid amount {}", statementId, paidAmount);
+        }
+
+        // Carry the new paid amounts and completed payments into the running balances
+        periodBalanceService.refresh(statementIds);
+
+        // The bulk payment update bypasses the entity listeners - invalidate cached reports and the
+        // ledgers of the paid persons directly (the statements themselves are saved through JPA)
+        dataVersionService.bump(DataSource.CHARGES);
+        for (Statement statement : statements.values()) {
+            driverLedgerService.recordChange(DriverLedgerService.Change.forPerson(
+                    statement.getPersonId(), statement.getPeriodFrom(), null));
         }
 
         batch.markProcessed(userId);
         paymentBatchRepository.save(batch);
 
-        log.info("Batch {} completed. {} statement payments processed", batchId, statementPayments.size());
+        log.info("Batch {} completed. {} statement payments processed", batchId, completed);
     }
 
     /**
@@ -548,6 +572,10 @@ public class PaymentService {
             log.info("Created account credit {} for overpayment: {}", credit.getId(), overpaymentAmount);
         }
 
+        if (payment.getCustomerId() != null) {
+            receivablesService.refresh(List.of(payment.getCustomerId()));
+        }
+
         return payment;
     }
 
@@ -601,6 +629,10 @@ public class PaymentService {
         log.info("Updated invoice {} amount_paid to {}, balance_due to {}",
                 charge.getInvoiceId(), invoice.getAmountPaid(), invoice.getBalanceDue());
 
+        if (payment.getCustomerId() != null) {
+            receivablesService.refresh(List.of(payment.getCustomerId()));
+        }
+
         return payment;
     }
 
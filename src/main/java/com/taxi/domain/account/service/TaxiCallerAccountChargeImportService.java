@@ -9,6 +9,7 @@ import com.taxi.domain.cab.model.Cab;
 import com.taxi.domain.cab.repository.CabRepository;
 import com.taxi.domain.driver.model.Driver;
 import com.taxi.domain.driver.repository.DriverRepository;
+import com.taxi.domain.report.service.DriverLedgerService;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import org.slf4j.Logger;
@@ -19,13 +20,29 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
 
 import java.math.BigDecimal;
+import java.sql.BatchUpdateException;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class TaxiCallerAccountChargeImportService {
@@ -35,6 +52,9 @@ public class TaxiCallerAccountChargeImportService {
     // Date/Time formatters for TaxiCaller format
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
     private static final DateTimeFormatter DATETIME_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+
+    // Rows per JDBC batch for the charge upsert
+    private static final int BATCH_SIZE = 500;
     
     // @Autowired
     // private TaxiCallerService taxiCallerService;
@@ -50,12 +70,24 @@ public class TaxiCallerAccountChargeImportService {
     
     @Autowired
     private DriverRepository driverRepository;
+
+    @Autowired
+    private DriverLedgerService driverLedgerService;
+
+    @Autowired
+    private CustomerReceivablesService receivablesService;
     
     @PersistenceContext
     private EntityManager entityManager;
     
     /**
      * Import account job reports from TaxiCaller and save to account_charge table
+     *
+     * Bulk path:
+     * 1. Cabs, drivers and account customers are preloaded into maps (one query each)
+     * 2. Missing customers are created in one JDBC batch
+     * 3. Existing unique keys for the covered dates are loaded once for duplicate detection
+     * 4. New charges are written with batched INSERT ... ON DUPLICATE KEY UPDATE
      */
     @Transactional
     public TaxiCallerImportResult importAccountJobReports(JSONArray taxiCallerTrips) {
@@ -69,8 +101,14 @@ public class TaxiCallerAccountChargeImportService {
             
             result.setTotalRecords(taxiCallerTrips.length());
             logger.info("Processing {} account job reports from TaxiCaller", taxiCallerTrips.length());
-            
-            // Process each trip
+
+            ImportLookups lookups = preloadLookups(taxiCallerTrips);
+
+            // Transform every row using the preloaded maps
+            Map<String, AccountCharge> chargesByKey = new LinkedHashMap<>();
+            LocalDate minDate = null;
+            LocalDate maxDate = null;
+
             for (int i = 0; i < taxiCallerTrips.length(); i++) {
                 try {
                     JSONObject tripData = taxiCallerTrips.getJSONObject(i);
@@ -84,35 +122,24 @@ public class TaxiCallerAccountChargeImportService {
                     }
                     
                     // Transform TaxiCaller data to AccountCharge
-                    AccountCharge charge = transformTaxiCallerToAccountCharge(tripData);
-                    
-                    // Check if record already exists by unique constraint fields
-                    java.util.Optional<AccountCharge> existingCharge = accountChargeRepository.findByUniqueConstraint(
-                            charge.getAccountId(),
+                    AccountCharge charge = transformTaxiCallerToAccountCharge(tripData, lookups);
+                    if (charge.getTripDate() == null) {
+                        throw new RuntimeException("Missing or invalid trip date");
+                    }
+
+                    // Same trip repeated within the payload
+                    String key = uniqueKey(charge.getAccountId(),
                             charge.getCab() != null ? charge.getCab().getId() : null,
                             charge.getDriver() != null ? charge.getDriver().getId() : null,
-                            charge.getTripDate(),
-                            charge.getStartTime(),
-                            charge.getJobCode()
-                    );
-                    
-                    if (existingCharge.isPresent()) {
-                        // Update existing record instead of creating duplicate
-                        // AccountCharge existing = existingCharge.get();
-                        // updateExistingCharge(existing, charge);
-                        // accountChargeRepository.save(existing);
-                        // result.incrementDuplicate(jobId);
+                            charge.getTripDate(), charge.getStartTime(), charge.getJobCode());
+                    if (chargesByKey.putIfAbsent(key, charge) != null) {
                         logger.debug("Duplicate ignore record job_id: {}", jobId);
-                    } else {
-                        // Save new charge
-                        accountChargeRepository.save(charge);
-                        result.incrementSuccess();
-                    }
-                    
-                    if ((i + 1) % 50 == 0) {
-                        logger.info("Processed {} / {} records", i + 1, taxiCallerTrips.length());
+                        continue;
                     }
-                    
+
+                    if (minDate == null || charge.getTripDate().isBefore(minDate)) minDate = charge.getTripDate();
+                    if (maxDate == null || charge.getTripDate().isAfter(maxDate)) maxDate = charge.getTripDate();
+
                 } catch (Exception e) {
                     String jobId = "unknown";
                     try {
@@ -126,6 +153,46 @@ public class TaxiCallerAccountChargeImportService {
                     logger.error(errorMsg, e);
                 }
             }
+
+            if (chargesByKey.isEmpty()) {
+                logger.info("Import completed: {}", result.toString());
+                return result;
+            }
+
+            // Check existing records once for the whole date range instead of once per row
+            Set<String> existingKeys = new HashSet<>();
+            for (Object[] row : accountChargeRepository.findUniqueKeysByTripDateBetween(minDate, maxDate)) {
+                existingKeys.add(uniqueKey((String) row[0], (Long) row[1], (Long) row[2],
+                        (LocalDate) row[3], (LocalTime) row[4], (String) row[5]));
+            }
+
+            List<AccountCharge> newCharges = new ArrayList<>();
+            for (Map.Entry<String, AccountCharge> entry : chargesByKey.entrySet()) {
+                if (existingKeys.contains(entry.getKey())) {
+                    logger.debug("Duplicate ignore record job_id: {}", entry.getValue().getJobCode());
+                } else {
+                    newCharges.add(entry.getValue());
+                }
+            }
+
+            upsertCharges(newCharges, result);
+
+            // JDBC writes bypass the entity listeners - record the drivers' ledger months directly
+            // (this also invalidates their cached owner reports)
+            Set<Long> customerIds = new HashSet<>();
+            for (AccountCharge charge : newCharges) {
+                if (charge.getAccountCustomer() != null) {
+                    customerIds.add(charge.getAccountCustomer().getId());
+                }
+            }
+            receivablesService.refresh(customerIds);
+            Set<Long> driverIds = new HashSet<>();
+            for (AccountCharge charge : newCharges) {
+                if (charge.getDriver() != null && driverIds.add(charge.getDriver().getId())) {
+                    driverLedgerService.recordChange(
+                            DriverLedgerService.Change.forPerson(charge.getDriver().getId(), minDate, maxDate.plusMonths(1)));
+                }
+            }
             
             logger.info("Import completed: {}", result.toString());
             
@@ -136,6 +203,181 @@ public class TaxiCallerAccountChargeImportService {
         
         return result;
     }
+
+    /**
+     * Cab, driver and account customer maps for one import run
+     */
+    private static class ImportLookups {
+        final Map<String, Cab> cabsByNumber = new HashMap<>();
+        final Map<String, Driver> driversByNumber = new HashMap<>();
+        final Map<String, AccountCustomer> customersByAccountId = new HashMap<>();
+        final Set<String> skippedAccountIds = new HashSet<>();
+    }
+
+    /**
+     * Load every cab, driver and customer referenced by the payload in one query each,
+     * and create the missing customers in a single batch.
+     */
+    private ImportLookups preloadLookups(JSONArray trips) {
+        Set<String> cabNumbers = new HashSet<>();
+        Set<String> driverNumbers = new HashSet<>();
+        Map<String, String> accountNumsById = new LinkedHashMap<>();
+
+        for (int i = 0; i < trips.length(); i++) {
+            JSONObject tripData = trips.optJSONObject(i);
+            if (tripData == null) {
+                continue;
+            }
+            String vehicleNum = tripData.optString("vehicle_num", "").trim();
+            if (!vehicleNum.isEmpty()) cabNumbers.add(vehicleNum);
+            String driverId = tripData.optString("driver_id", "").trim();
+            if (!driverId.isEmpty()) driverNumbers.add(driverId);
+            String accountNum = tripData.optString("account_num");
+            accountNumsById.putIfAbsent(parseAccountNumber(accountNum).accountId, accountNum);
+        }
+
+        ImportLookups lookups = new ImportLookups();
+        if (!cabNumbers.isEmpty()) {
+            cabRepository.findByCabNumberIn(cabNumbers).forEach(c -> lookups.cabsByNumber.put(c.getCabNumber(), c));
+        }
+        if (!driverNumbers.isEmpty()) {
+            driverRepository.findByDriverNumberIn(driverNumbers).forEach(d -> lookups.driversByNumber.put(d.getDriverNumber(), d));
+        }
+        accountCustomerRepository.findByAccountIdIn(accountNumsById.keySet())
+                .forEach(c -> lookups.customersByAccountId.putIfAbsent(c.getAccountId(), c));
+
+        Map<String, String> missing = new LinkedHashMap<>(accountNumsById);
+        missing.keySet().removeAll(lookups.customersByAccountId.keySet());
+        if (!missing.isEmpty()) {
+            lookups.skippedAccountIds.addAll(createCustomers(missing, lookups));
+        }
+
+        logger.info("Preloaded {} cabs, {} drivers, {} account customers ({} new, {} not created)",
+                lookups.cabsByNumber.size(), lookups.driversByNumber.size(), lookups.customersByAccountId.size(),
+                missing.size() - lookups.skippedAccountIds.size(), lookups.skippedAccountIds.size());
+        return lookups;
+    }
+
+    /**
+     * Create AccountCustomers for unknown account ids in one JDBC batch and add them to the lookups.
+     * Full account_num (e.g., "9777 48787772") is stored as the company name initially.
+     *
+     * A row whose company name is already taken (company_name is unique) is left as it is by the
+     * no-op update; its account id is returned as not created. Any other failure fails the batch.
+     */
+    private Set<String> createCustomers(Map<String, String> accountNumsById, ImportLookups lookups) {
+        String sql = "INSERT INTO account_customer " +
+                "(account_id, company_name, country, billing_period, account_type, is_active, created_at, updated_at) " +
+                "VALUES (?, ?, 'Canada', 'MONTHLY', 'PERSONAL', 1, ?, ?) " +
+                "ON DUPLICATE KEY UPDATE id = id";
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                for (Map.Entry<String, String> entry : accountNumsById.entrySet()) {
+                    ps.setString(1, entry.getKey());
+                    ps.setString(2, companyName(entry.getKey(), entry.getValue()));
+                    ps.setTimestamp(3, now);
+                    ps.setTimestamp(4, now);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+        });
+
+        // Update counts are not reliable with rewritten batches, so look the rows up instead
+        accountCustomerRepository.findByAccountIdIn(accountNumsById.keySet())
+                .forEach(c -> lookups.customersByAccountId.putIfAbsent(c.getAccountId(), c));
+        Set<String> skipped = new LinkedHashSet<>();
+        accountNumsById.forEach((accountId, accountNum) -> {
+            if (lookups.customersByAccountId.containsKey(accountId)) {
+                logger.info("Created new AccountCustomer for account_id: {} (full: {})", accountId, accountNum);
+            } else {
+                skipped.add(accountId);
+                logger.warn("AccountCustomer not created for account_id: {} - company name {} belongs to another customer",
+                        accountId, companyName(accountId, accountNum));
+            }
+        });
+        return skipped;
+    }
+
+    private static String companyName(String accountId, String accountNum) {
+        return accountNum != null && !accountNum.isBlank() ? accountNum : accountId;
+    }
+
+    /**
+     * Write new charges with batched INSERT ... ON DUPLICATE KEY UPDATE on uk_account_charge_trip.
+     * The update is a no-op so rows inserted concurrently keep their billing and manual edits.
+     */
+    private void upsertCharges(List<AccountCharge> charges, TaxiCallerImportResult result) {
+        if (charges.isEmpty()) {
+            return;
+        }
+        String sql = "INSERT INTO account_charge " +
+                "(account_id, sub_account, customer_id, job_code, trip_date, start_time, end_time, " +
+                "pickup_address, dropoff_address, passenger_name, cab_id, driver_id, fare_amount, tip_amount, " +
+                "notes, is_manual, is_paid, created_at, updated_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0, 0, ?, ?) " +
+                "ON DUPLICATE KEY UPDATE id = id";
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                for (int from = 0; from < charges.size(); from += BATCH_SIZE) {
+                    List<AccountCharge> chunk = charges.subList(from, Math.min(from + BATCH_SIZE, charges.size()));
+                    for (AccountCharge c : chunk) {
+                        ps.setString(1, c.getAccountId());
+                        ps.setString(2, c.getSubAccount());
+                        ps.setLong(3, c.getAccountCustomer().getId());
+                        ps.setString(4, c.getJobCode());
+                        ps.setDate(5, Date.valueOf(c.getTripDate()));
+                        ps.setTime(6, c.getStartTime() != null ? Time.valueOf(c.getStartTime()) : null);
+                        ps.setTime(7, c.getEndTime() != null ? Time.valueOf(c.getEndTime()) : null);
+                        ps.setString(8, c.getPickupAddress());
+                        ps.setString(9, c.getDropoffAddress());
+                        ps.setString(10, c.getPassengerName());
+                        ps.setObject(11, c.getCab() != null ? c.getCab().getId() : null, Types.BIGINT);
+                        ps.setObject(12, c.getDriver() != null ? c.getDriver().getId() : null, Types.BIGINT);
+                        ps.setBigDecimal(13, c.getFareAmount());
+                        ps.setBigDecimal(14, c.getTipAmount());
+                        ps.setString(15, c.getNotes());
+                        ps.setTimestamp(16, now);
+                        ps.setTimestamp(17, now);
+                        ps.addBatch();
+                    }
+
+                    int[] counts;
+                    try {
+                        counts = ps.executeBatch();
+                    } catch (BatchUpdateException e) {
+                        counts = e.getUpdateCounts();
+                        logger.error("Batch insert of account charges partially failed: {}", e.getMessage());
+                    }
+
+                    for (int k = 0; k < chunk.size(); k++) {
+                        int count = k < counts.length ? counts[k] : Statement.EXECUTE_FAILED;
+                        if (count == Statement.EXECUTE_FAILED) {
+                            result.incrementError("Failed to insert charge job_id: " + chunk.get(k).getJobCode());
+                        } else if (count == 0) {
+                            // Inserted by someone else since the duplicate check
+                            logger.debug("Duplicate ignore record job_id: {}", chunk.get(k).getJobCode());
+                        } else {
+                            result.incrementSuccess();
+                        }
+                    }
+                    logger.info("Processed {} / {} new charges", Math.min(from + BATCH_SIZE, charges.size()), charges.size());
+                }
+            }
+        });
+    }
+
+    /**
+     * Null-safe key matching uk_account_charge_trip
+     */
+    private static String uniqueKey(String accountId, Long cabId, Long driverId,
+                                     LocalDate tripDate, LocalTime startTime, String jobCode) {
+        return accountId + "|" + cabId + "|" + driverId + "|" + tripDate + "|" + startTime + "|" + jobCode;
+    }
     
     /**
      * Update existing charge with new data (preserves ID and certain fields)
@@ -178,7 +420,7 @@ public class TaxiCallerAccountChargeImportService {
      *   "cost_code": "48787772"
      * }
      */
-    private AccountCharge transformTaxiCallerToAccountCharge(JSONObject tripData) {
+    private AccountCharge transformTaxiCallerToAccountCharge(JSONObject tripData, ImportLookups lookups) {
         AccountCharge charge = new AccountCharge();
         
         // Parse job_id
@@ -191,8 +433,8 @@ public class TaxiCallerAccountChargeImportService {
         charge.setAccountId(accountInfo.accountId);        // "9777"
         charge.setSubAccount(accountInfo.subAccount);      // "48787772" or null
         
-        // Find or create AccountCustomer
-        AccountCustomer customer = findOrCreateCustomer(accountNum, tripData.optString("passenger"));
+        // Resolve AccountCustomer (missing customers were created during preload)
+        AccountCustomer customer = resolveCustomer(accountInfo.accountId, lookups);
         charge.setAccountCustomer(customer);
         
         // Parse dates and times
@@ -213,12 +455,12 @@ public class TaxiCallerAccountChargeImportService {
         
         // Find Cab by vehicle_num
         String vehicleNum = tripData.optString("vehicle_num"); // "150"
-        Cab cab = findCabByVehicleNumber(vehicleNum);
+        Cab cab = findCabByVehicleNumber(vehicleNum, lookups);
         charge.setCab(cab);
         
         // Find Driver by TaxiCaller driver_id
         String taxiCallerDriverId = tripData.optString("driver_id"); // "224855"
-        Driver driver = findDriverByExternalId(taxiCallerDriverId, tripData.optString("driver"));
+        Driver driver = findDriverByExternalId(taxiCallerDriverId, tripData.optString("driver"), lookups);
         charge.setDriver(driver);
         
         // Parse financial amounts
@@ -288,60 +530,41 @@ public class TaxiCallerAccountChargeImportService {
     }
     
     /**
-     * Extract account_id from account_num (for backward compatibility)
-     * 
-     * @deprecated Use parseAccountNumber() instead
-     */
-    @Deprecated
-    private String extractAccountId(String accountNum) {
-        return parseAccountNumber(accountNum).accountId;
-    }
-    
-    /**
-     * Find or create AccountCustomer
-     * Store full account_num (e.g., "9777 48787772") in customer record
-     * But use parent account_id (e.g., "9777") for grouping
+     * Resolve AccountCustomer by parent account_id (e.g., "9777") from the preloaded map
      */
-    private AccountCustomer findOrCreateCustomer(String accountNum, String passengerName) {
-        String accountId = extractAccountId(accountNum);
-        
-        // Try to find existing customer by account_num
-        AccountCustomer customer = accountCustomerRepository.findByAccountId(accountId)
-                .stream()
-                .findFirst()
-                .orElse(null);
-        
+    private AccountCustomer resolveCustomer(String accountId, ImportLookups lookups) {
+        AccountCustomer customer = lookups.customersByAccountId.get(accountId);
+        if (customer == null && lookups.skippedAccountIds.contains(accountId)) {
+            throw new RuntimeException("Account customer not created for account_id: " + accountId
+                    + " (its company name belongs to another customer)");
+        }
         if (customer == null) {
-            // Create new customer
-            customer = new AccountCustomer();
-            customer.setAccountId(accountId);
-            customer.setCompanyName(accountNum); // Store full account_num as company name initially
-            customer.setActive(true);
-            customer = accountCustomerRepository.save(customer);
-            logger.info("Created new AccountCustomer for account_id: {} (full: {})", accountId, accountNum);
+            throw new RuntimeException("Account customer could not be created for account_id: " + accountId);
         }
-        
         return customer;
     }
     
     /**
      * Find Cab by vehicle number (cab_number in database)
      */
-    private Cab findCabByVehicleNumber(String vehicleNum) {
+    private Cab findCabByVehicleNumber(String vehicleNum, ImportLookups lookups) {
         if (vehicleNum == null || vehicleNum.trim().isEmpty()) {
             logger.warn("Missing vehicle_num, cannot find cab");
             return null;
         }
         
-        return cabRepository.findByCabNumber(vehicleNum.trim())
-                .orElseThrow(() -> new RuntimeException("Cab not found with vehicle number: " + vehicleNum));
+        Cab cab = lookups.cabsByNumber.get(vehicleNum.trim());
+        if (cab == null) {
+            throw new RuntimeException("Cab not found with vehicle number: " + vehicleNum);
+        }
+        return cab;
     }
     
     /**
      * Find Driver by TaxiCaller external ID
      * You may need to add externalId field to Driver entity to store TaxiCaller driver_id
      */
-    private Driver findDriverByExternalId(String taxiCallerDriverId, String driverName) {
+    private Driver findDriverByExternalId(String taxiCallerDriverId, String driverName, ImportLookups lookups) {
         if (taxiCallerDriverId == null || taxiCallerDriverId.trim().isEmpty()) {
             logger.warn("Missing driver_id for driver: {}", driverName);
             return null;
@@ -349,8 +572,11 @@ public class TaxiCallerAccountChargeImportService {
         
         // Try to find by external ID (if you have this field)
        // Option 1: If you have externalId field
-        return driverRepository.findByDriverNumber(taxiCallerDriverId)
-                .orElseThrow(() -> new RuntimeException("Driver not found with external ID: " + taxiCallerDriverId));
+        Driver driver = lookups.driversByNumber.get(taxiCallerDriverId.trim());
+        if (driver == null) {
+            throw new RuntimeException("Driver not found with external ID: " + taxiCallerDriverId);
+        }
+        return driver;
         
         // Option 2: If you need to find by name (less reliable)
         // Parse "SINGH SAHDRA, SARBJIT" into lastName="SINGH SAHDRA", firstName="SARBJIT"
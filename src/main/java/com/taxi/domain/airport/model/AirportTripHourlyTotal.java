@@ -0,0 +1,65 @@
+package com.taxi.domain.airport.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Maintained aggregate of airport trips per (driver, cab, date, hour).
+ * Rebuilt for a cab-day whenever its airport trips are imported or reassigned,
+ * so reports read totals with one range scan instead of loading airport_trip_driver
+ * or airport_trips rows and summing in Java.
+ *
+ * Trips that could not be assigned to any driver are kept with an empty driver_number,
+ * so per-cab hour totals still match airport_trips.
+ */
+@Entity
+@Table(name = "airport_trip_hourly_total",
+       uniqueConstraints = {
+           @UniqueConstraint(name = "uk_atht_cab_date_hour_driver",
+                             columnNames = {"cab_number", "trip_date", "hour", "driver_number"})
+       },
+       indexes = {
+           @Index(name = "idx_atht_driver_date", columnList = "driver_number, trip_date, cab_number, trip_count")
+       })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AirportTripHourlyTotal {
+
+    public static final String UNASSIGNED = "";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "driver_number", length = 50, nullable = false)
+    private String driverNumber;
+
+    @Column(name = "cab_number", length = 50, nullable = false)
+    private String cabNumber;
+
+    @Column(name = "trip_date", nullable = false)
+    private LocalDate tripDate;
+
+    @Column(name = "hour", nullable = false)
+    private Integer hour;
+
+    @Column(name = "trip_count", nullable = false)
+    private Integer tripCount;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
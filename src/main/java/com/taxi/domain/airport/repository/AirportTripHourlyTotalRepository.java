@@ -0,0 +1,48 @@
+package com.taxi.domain.airport.repository;
+
+import com.taxi.domain.airport.model.AirportTripHourlyTotal;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface AirportTripHourlyTotalRepository extends JpaRepository<AirportTripHourlyTotal, Long> {
+
+    /**
+     * Trips per cab per day for a driver - one range scan on idx_atht_driver_date
+     * Returns [cabNumber, tripDate, trips] ordered by cab, date
+     */
+    @Query("SELECT t.cabNumber, t.tripDate, SUM(t.tripCount) FROM AirportTripHourlyTotal t " +
+           "WHERE t.driverNumber = :driverNumber " +
+           "AND t.tripDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY t.cabNumber, t.tripDate ORDER BY t.cabNumber, t.tripDate")
+    List<Object[]> sumTripsByCabAndDateForDriver(
+        @Param("driverNumber") String driverNumber,
+        @Param("startDate") LocalDate startDate,
+        @Param("endDate") LocalDate endDate);
+
+    /**
+     * Total trips for a driver in a date range
+     */
+    @Query("SELECT COALESCE(SUM(t.tripCount), 0) FROM AirportTripHourlyTotal t " +
+           "WHERE t.driverNumber = :driverNumber " +
+           "AND t.tripDate BETWEEN :startDate AND :endDate")
+    long sumTripsForDriver(
+        @Param("driverNumber") String driverNumber,
+        @Param("startDate") LocalDate startDate,
+        @Param("endDate") LocalDate endDate);
+
+    /**
+     * Remove a cab-day before it is rebuilt
+     */
+    @Modifying
+    @Query("DELETE FROM AirportTripHourlyTotal t WHERE t.cabNumber = :cabNumber AND t.tripDate = :tripDate")
+    void deleteByCabNumberAndTripDate(
+        @Param("cabNumber") String cabNumber,
+        @Param("tripDate") LocalDate tripDate);
+}
@@ -106,6 +106,8 @@ public class AirportChargeService {
      * @return Total trips in the hour range
      */
     private int countTripsForDateAndHours(String cabNumber, LocalDate date, int startHour, int endHour) {
+        // Straight from the cab-day row: cab totals do not depend on driver assignment
+        // (airport_trip_hourly_total is only rebuilt when assignment succeeds)
         Optional<AirportTrip> airportTrip = airportTripRepository.findByCabNumberAndTripDate(cabNumber, date);
 
         if (airportTrip.isEmpty()) {
@@ -0,0 +1,118 @@
+package com.taxi.domain.airport.service;
+
+import com.taxi.domain.airport.model.AirportTrip;
+import com.taxi.domain.airport.model.AirportTripDriver;
+import com.taxi.domain.airport.model.AirportTripHourlyTotal;
+import com.taxi.domain.airport.repository.AirportTripDriverRepository;
+import com.taxi.domain.airport.repository.AirportTripHourlyTotalRepository;
+import com.taxi.domain.airport.repository.AirportTripRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Maintains airport_trip_hourly_total and answers airport trip totals from it.
+ *
+ * A cab-day is rebuilt from its AirportTrip hourly counts plus its airport_trip_driver
+ * assignments every time drivers are (re)assigned, which happens on every import - and from
+ * its stored assignments when assignment fails, so its trips still count as UNASSIGNED.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AirportTripAggregateService {
+
+    private final AirportTripHourlyTotalRepository hourlyTotalRepository;
+    private final AirportTripRepository airportTripRepository;
+    private final AirportTripDriverRepository airportTripDriverRepository;
+
+    /**
+     * Replace the aggregate rows for one cab-day.
+     * Hours with trips but no assignment are stored against UNASSIGNED.
+     */
+    @Transactional
+    public void refresh(AirportTrip airportTrip, List<AirportTripDriver> assignments) {
+        String cabNumber = airportTrip.getCabNumber();
+        LocalDate tripDate = airportTrip.getTripDate();
+
+        hourlyTotalRepository.deleteByCabNumberAndTripDate(cabNumber, tripDate);
+
+        // hour -> driver -> trips
+        Map<Integer, Map<String, Integer>> byHour = new TreeMap<>();
+        int[] assignedByHour = new int[24];
+        for (AirportTripDriver atd : assignments) {
+            byHour.computeIfAbsent(atd.getHour(), h -> new LinkedHashMap<>())
+                    .merge(atd.getDriverNumber(), atd.getTripCount(), Integer::sum);
+            assignedByHour[atd.getHour()] += atd.getTripCount();
+        }
+        for (int hour = 0; hour <= 23; hour++) {
+            int unassigned = airportTrip.getTripsByHour(hour) - assignedByHour[hour];
+            if (unassigned > 0) {
+                byHour.computeIfAbsent(hour, h -> new LinkedHashMap<>())
+                        .merge(AirportTripHourlyTotal.UNASSIGNED, unassigned, Integer::sum);
+            }
+        }
+
+        List<AirportTripHourlyTotal> rows = new ArrayList<>();
+        byHour.forEach((hour, drivers) -> drivers.forEach((driverNumber, trips) ->
+                rows.add(AirportTripHourlyTotal.builder()
+                        .driverNumber(driverNumber)
+                        .cabNumber(cabNumber)
+                        .tripDate(tripDate)
+                        .hour(hour)
+                        .tripCount(trips)
+                        .build())));
+        hourlyTotalRepository.saveAll(rows);
+    }
+
+    /**
+     * Replace the aggregate rows for one cab-day from its stored assignments
+     */
+    @Transactional
+    public void refresh(AirportTrip airportTrip) {
+        refresh(airportTrip, airportTripDriverRepository.findByAirportTripIdOrderByHour(airportTrip.getId()));
+    }
+
+    /**
+     * Rebuild the aggregate for every airport trip in a date range
+     * (backfill, or repair after direct edits to airport_trip_driver)
+     */
+    @Transactional
+    public int rebuild(LocalDate startDate, LocalDate endDate) {
+        List<AirportTrip> trips = airportTripRepository.findByTripDateBetweenOrderByTripDateDesc(startDate, endDate);
+        for (AirportTrip trip : trips) {
+            refresh(trip);
+        }
+        log.info("Rebuilt airport trip totals for {} cab-days ({} to {})", trips.size(), startDate, endDate);
+        return trips.size();
+    }
+
+    /**
+     * Total airport trips assigned to a driver in a period
+     */
+    public int countDriverTrips(String driverNumber, LocalDate startDate, LocalDate endDate) {
+        return (int) hourlyTotalRepository.sumTripsForDriver(driverNumber, startDate, endDate);
+    }
+
+    /**
+     * Trips assigned to a driver in a period, as cab -> date -> trips (cabs and dates in order)
+     */
+    public Map<String, Map<LocalDate, Integer>> getDriverTripsByCabAndDate(String driverNumber,
+                                                                          LocalDate startDate,
+                                                                          LocalDate endDate) {
+        Map<String, Map<LocalDate, Integer>> result = new LinkedHashMap<>();
+        for (Object[] row : hourlyTotalRepository.sumTripsByCabAndDateForDriver(driverNumber, startDate, endDate)) {
+            result.computeIfAbsent((String) row[0], k -> new TreeMap<>())
+                    .put((LocalDate) row[1], ((Number) row[2]).intValue());
+        }
+        return result;
+    }
+}
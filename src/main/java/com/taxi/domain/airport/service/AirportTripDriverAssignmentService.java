@@ -39,6 +39,7 @@ public class AirportTripDriverAssignmentService {
     private final AirportTripDriverRepository airportTripDriverRepository;
     private final CabShiftRepository cabShiftRepository;
     private final ShiftOwnershipRepository shiftOwnershipRepository;
+    private final AirportTripAggregateService airportTripAggregateService;
 
     /**
      * Assign all hourly trips for an AirportTrip to drivers.
@@ -98,6 +99,9 @@ public class AirportTripDriverAssignmentService {
             airportTripDriverRepository.saveAll(assignments);
         }
 
+        // Keep airport_trip_hourly_total in step with the new assignments
+        airportTripAggregateService.refresh(airportTrip, assignments);
+
         log.debug("Assigned {} trips across {} hour-slots for cab {} on {}",
                 totalAssigned, assignments.size(), cabNumber, tripDate);
 
@@ -294,6 +294,14 @@ public interface CabAttributeValueRepository extends JpaRepository<CabAttributeV
         @Param("shift") CabShift shift,
         @Param("date") LocalDate date);
 
+    /**
+     * All shift-level attribute values (including history), for CabAttributeTimeline
+     */
+    @Query("SELECT v FROM CabAttributeValue v " +
+           "JOIN FETCH v.attributeType " +
+           "WHERE v.shift IS NOT NULL")
+    List<CabAttributeValue> findAllShiftAttributes();
+
     /**
      * Find all active shifts with a specific attribute type
      * Returns the distinct shifts that have the attribute (not the CabAttributeValue objects)
@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,6 +20,9 @@ public interface CabRepository extends JpaRepository<Cab, Long> {
 
     Optional<Cab> findByCabNumber(String cabNumber);
 
+    // Bulk lookup for imports (one query instead of one per row)
+    List<Cab> findByCabNumberIn(Collection<String> cabNumbers);
+
     Optional<Cab> findByRegistrationNumber(String registrationNumber);
 
     // Note: cabType, status, hasAirportLicense are now at shift level, not cab level
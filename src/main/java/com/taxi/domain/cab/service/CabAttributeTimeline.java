@@ -0,0 +1,193 @@
+package com.taxi.domain.cab.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.taxi.domain.cab.model.CabAttributeType;
+import com.taxi.domain.cab.model.CabAttributeValue;
+import com.taxi.domain.cab.repository.CabAttributeTypeRepository;
+import com.taxi.domain.cab.repository.CabAttributeValueRepository;
+import com.taxi.infrastructure.datachange.DataSource;
+import com.taxi.infrastructure.datachange.DataVersionService;
+import com.taxi.infrastructure.datachange.EntityChangeObserver.ChangeType;
+import com.taxi.infrastructure.datachange.TransactionalChangeObserver;
+import com.taxi.infrastructure.multitenancy.TenantContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory timeline of shift-level attribute assignments, for report and expense code that
+ * asks "does this shift have attribute X" once per shift and per expense.
+ *
+ * All CabAttributeValue rows of a tenant that belong to a shift are loaded in one query and
+ * held as per-shift, per-type interval lists (sorted by start date), together with the
+ * attribute types by code. Snapshots live in a size-bounded cache, one per tenant, under the
+ * tenant's FLEET version (DataVersionService). CabAttributeValue and CabAttributeType writes
+ * bump it in their transaction, so the next lookup on every node - comparing the version once
+ * per transaction - reloads the snapshot.
+ */
+@Component
+@Slf4j
+public class CabAttributeTimeline implements TransactionalChangeObserver<DataSource> {
+
+    private final CabAttributeValueRepository attributeValueRepository;
+    private final CabAttributeTypeRepository attributeTypeRepository;
+    private final DataVersionService dataVersionService;
+    private final Cache<String, Snapshot> snapshots;
+
+    public CabAttributeTimeline(CabAttributeValueRepository attributeValueRepository,
+                                CabAttributeTypeRepository attributeTypeRepository,
+                                DataVersionService dataVersionService,
+                                @Value("${cab.attribute-timeline.max-tenants:100}") long maxTenants,
+                                @Value("${cab.attribute-timeline.idle-minutes:120}") long idleMinutes) {
+        this.attributeValueRepository = attributeValueRepository;
+        this.attributeTypeRepository = attributeTypeRepository;
+        this.dataVersionService = dataVersionService;
+        this.snapshots = Caffeine.newBuilder()
+                .maximumSize(maxTenants)
+                .expireAfterAccess(Duration.ofMinutes(idleMinutes))
+                .build();
+    }
+
+    private record Snapshot(long version,
+                            Map<Long, Map<Long, List<CabAttributeValue>>> byShift,
+                            Map<String, CabAttributeType> typesByCode) {}
+
+    @Override
+    public Collection<DataSource> keysFor(Object entity, ChangeType changeType, PreviousState previous) {
+        return entity instanceof CabAttributeValue || entity instanceof CabAttributeType
+                ? List.of(DataSource.FLEET)
+                : List.of();
+    }
+
+    @Override
+    public void beforeCommit(Set<DataSource> sources) {
+        sources.forEach(dataVersionService::bump);
+    }
+
+    /**
+     * Whether the shift has an assignment of the attribute type covering the date
+     * (same as CabAttributeValueRepository.findAttributeOnDateByShift being present)
+     */
+    public boolean hasAttributeOn(Long shiftId, Long attributeTypeId, LocalDate date) {
+        List<CabAttributeValue> intervals = snapshot().byShift()
+                .getOrDefault(shiftId, Map.of())
+                .getOrDefault(attributeTypeId, List.of());
+        for (CabAttributeValue value : intervals) {
+            if (value.getStartDate().isAfter(date)) {
+                break;
+            }
+            if (value.isActiveOn(date)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Attribute assignments of the shift covering the date
+     */
+    public List<CabAttributeValue> attributesOn(Long shiftId, LocalDate date) {
+        List<CabAttributeValue> result = new ArrayList<>();
+        for (List<CabAttributeValue> intervals : snapshot().byShift().getOrDefault(shiftId, Map.of()).values()) {
+            for (CabAttributeValue value : intervals) {
+                if (value.isActiveOn(date)) {
+                    result.add(value);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Open-ended assignments of the shift (same as CabAttributeValueRepository.findCurrentAttributesByShiftId)
+     */
+    public List<CabAttributeValue> currentAttributes(Long shiftId) {
+        List<CabAttributeValue> result = new ArrayList<>();
+        for (List<CabAttributeValue> intervals : snapshot().byShift().getOrDefault(shiftId, Map.of()).values()) {
+            for (CabAttributeValue value : intervals) {
+                if (value.isCurrent()) {
+                    result.add(value);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Whether the shift has an open-ended assignment of the attribute type
+     */
+    public boolean hasCurrentAttribute(Long shiftId, Long attributeTypeId) {
+        return snapshot().byShift()
+                .getOrDefault(shiftId, Map.of())
+                .getOrDefault(attributeTypeId, List.of())
+                .stream()
+                .anyMatch(CabAttributeValue::isCurrent);
+    }
+
+    /**
+     * Attribute type by code (e.g. "AIRPORT_PLATE"), or null if there is none
+     */
+    public CabAttributeType attributeType(String attributeCode) {
+        return snapshot().typesByCode().get(attributeCode);
+    }
+
+    private Snapshot snapshot() {
+        String tenant = tenant();
+        // Read before loading: a write committed during the load leaves the result outdated
+        long version = dataVersionService.version(DataSource.FLEET);
+        Snapshot snapshot = snapshots.getIfPresent(tenant);
+        if (snapshot != null && snapshot.version() == version) {
+            return snapshot;
+        }
+        snapshot = load(version);
+        if (DataVersionService.isCacheableRead()) {
+            snapshots.put(tenant, snapshot);
+        }
+        return snapshot;
+    }
+
+    private Snapshot load(long version) {
+        List<CabAttributeValue> values = attributeValueRepository.findAllShiftAttributes();
+
+        Map<Long, Map<Long, List<CabAttributeValue>>> byShift = new HashMap<>();
+        for (CabAttributeValue value : values) {
+            if (value.getStartDate() == null) {
+                continue;
+            }
+            // The shift is a lazy reference; its id is available without loading it
+            byShift.computeIfAbsent(value.getShift().getId(), k -> new HashMap<>())
+                    .computeIfAbsent(value.getAttributeType().getId(), k -> new ArrayList<>())
+                    .add(value);
+        }
+        byShift.values().forEach(types -> types.replaceAll((typeId, intervals) -> {
+            intervals.sort(Comparator.comparing(CabAttributeValue::getStartDate));
+            return List.copyOf(intervals);
+        }));
+
+        Map<String, CabAttributeType> typesByCode = new HashMap<>();
+        for (CabAttributeType type : attributeTypeRepository.findAll()) {
+            if (type.getAttributeCode() != null) {
+                typesByCode.put(type.getAttributeCode(), type);
+            }
+        }
+
+        log.debug("Loaded {} shift attribute values for {} shifts", values.size(), byShift.size());
+        return new Snapshot(version, byShift, typesByCode);
+    }
+
+    private static String tenant() {
+        String tenant = TenantContext.peekCurrentTenant();
+        return tenant != null ? tenant : TenantContext.SYSTEM_TENANT;
+    }
+}
@@ -5,6 +5,7 @@ import com.opencsv.exceptions.CsvException;
 import com.taxi.domain.airport.model.AirportTrip;
 import com.taxi.domain.airport.model.AirportTripDriver;
 import com.taxi.domain.airport.repository.AirportTripRepository;
+import com.taxi.domain.airport.service.AirportTripAggregateService;
 import com.taxi.domain.airport.service.AirportTripDriverAssignmentService;
 import com.taxi.domain.cab.model.Cab;
 import com.taxi.domain.cab.repository.CabRepository;
@@ -31,6 +32,7 @@ public class AirportTripUploadService {
     private final AirportTripRepository airportTripRepository;
     private final CabRepository cabRepository;
     private final AirportTripDriverAssignmentService driverAssignmentService;
+    private final AirportTripAggregateService airportTripAggregateService;
 
     private static final Pattern CAB_NUMBER_PATTERN = Pattern.compile(
         "(?:MACLURES?\\s*)(\\d+[A-Za-z]?)", Pattern.CASE_INSENSITIVE);
@@ -190,6 +192,8 @@ public class AirportTripUploadService {
                         log.warn("Driver assignment failed for cab {} date {}: {}",
                                 dto.getCabNumber(), dto.getTripDate(), e.getMessage());
                         driverAssignmentErrors++;
+                        // Keep the hourly totals in step with the new counts anyway
+                        airportTripAggregateService.refresh(savedRecord);
                     }
                 }
 
@@ -0,0 +1,37 @@
+package com.taxi.domain.dataview;
+
+import java.time.LocalDate;
+
+/**
+ * Columns shown in the airport trips grid (hour fields keep the entity's JSON names)
+ */
+public record AirportTripRow(Long id,
+                             String cabNumber,
+                             String shift,
+                             String driverNumber,
+                             LocalDate tripDate,
+                             Integer grandTotal,
+                             Integer hour00,
+                             Integer hour01,
+                             Integer hour02,
+                             Integer hour03,
+                             Integer hour04,
+                             Integer hour05,
+                             Integer hour06,
+                             Integer hour07,
+                             Integer hour08,
+                             Integer hour09,
+                             Integer hour10,
+                             Integer hour11,
+                             Integer hour12,
+                             Integer hour13,
+                             Integer hour14,
+                             Integer hour15,
+                             Integer hour16,
+                             Integer hour17,
+                             Integer hour18,
+                             Integer hour19,
+                             Integer hour20,
+                             Integer hour21,
+                             Integer hour22,
+                             Integer hour23) {}
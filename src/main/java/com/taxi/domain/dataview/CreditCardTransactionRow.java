@@ -0,0 +1,27 @@
+package com.taxi.domain.dataview;
+
+import com.taxi.domain.payment.model.CreditCardTransaction;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Columns shown in the credit card transactions grid
+ */
+public record CreditCardTransactionRow(Long id,
+                                       LocalDate transactionDate,
+                                       LocalTime transactionTime,
+                                       LocalDate settlementDate,
+                                       String merchantId,
+                                       String terminalId,
+                                       String authorizationCode,
+                                       String cardType,
+                                       String cardLastFour,
+                                       String cabNumber,
+                                       String driverNumber,
+                                       BigDecimal amount,
+                                       BigDecimal tipAmount,
+                                       CreditCardTransaction.TransactionStatus transactionStatus,
+                                       Boolean isSettled,
+                                       String uploadBatchId) {}
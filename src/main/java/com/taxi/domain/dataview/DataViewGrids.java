@@ -0,0 +1,99 @@
+package com.taxi.domain.dataview;
+
+import com.taxi.domain.dataview.GridDefinition.SortKey;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Grid definitions for the data view screens
+ */
+public final class DataViewGrids {
+
+    private DataViewGrids() {}
+
+    private static final Function<String, Object> STRING = s -> s;
+
+    public static final GridDefinition<CreditCardTransactionRow> CREDIT_CARD_TRANSACTIONS = new GridDefinition<>(
+            "credit-card-transactions",
+            "CreditCardTransaction",
+            CreditCardTransactionRow.class,
+            "e.id, e.transactionDate, e.transactionTime, e.settlementDate, e.merchantId, e.terminalId, " +
+            "e.authorizationCode, e.cardType, e.cardLastFour, e.cabNumber, e.driverNumber, e.amount, e.tipAmount, " +
+            "e.transactionStatus, e.isSettled, e.uploadBatchId",
+            "e.transactionDate",
+            false,
+            Map.of("cabNumber", "e.cabNumber",
+                   "driverNumber", "e.driverNumber",
+                   "merchantId", "e.merchantId",
+                   "cardType", "e.cardType",
+                   "uploadBatchId", "e.uploadBatchId"),
+            List.of("cabNumber", "driverNumber"),
+            Map.of("transactionDate", List.of(
+                           new SortKey<>("e.transactionDate", CreditCardTransactionRow::transactionDate, LocalDate::parse),
+                           new SortKey<>("e.transactionTime", CreditCardTransactionRow::transactionTime, LocalTime::parse)),
+                   "amount", List.of(
+                           new SortKey<>("e.amount", CreditCardTransactionRow::amount, BigDecimal::new)),
+                   "merchantId", List.of(
+                           new SortKey<>("e.merchantId", CreditCardTransactionRow::merchantId, STRING))),
+            "transactionDate",
+            true,
+            CreditCardTransactionRow::id);
+
+    public static final GridDefinition<MileageRecordRow> MILEAGE_RECORDS = new GridDefinition<>(
+            "mileage-records",
+            "MileageRecord",
+            MileageRecordRow.class,
+            "e.id, e.cabNumber, e.driverNumber, e.logonTime, e.logoffTime, " +
+            "e.mileageA, e.mileageB, e.mileageC, e.totalMileage, e.shiftHours",
+            "e.logonTime",
+            true,
+            Map.of("cabNumber", "e.cabNumber",
+                   "driverNumber", "e.driverNumber"),
+            List.of("driverNumber"),
+            Map.of("logonTime", List.of(
+                           new SortKey<>("e.logonTime", MileageRecordRow::logonTime, LocalDateTime::parse)),
+                   "cabNumber", List.of(
+                           new SortKey<>("e.cabNumber", MileageRecordRow::cabNumber, STRING),
+                           new SortKey<>("e.logonTime", MileageRecordRow::logonTime, LocalDateTime::parse))),
+            "logonTime",
+            true,
+            MileageRecordRow::id);
+
+    public static final GridDefinition<AirportTripRow> AIRPORT_TRIPS = new GridDefinition<>(
+            "airport-trips",
+            "AirportTrip",
+            AirportTripRow.class,
+            "e.id, e.cabNumber, e.shift, e.driverNumber, e.tripDate, e.grandTotal, " +
+            "e.hour00, e.hour01, e.hour02, e.hour03, e.hour04, e.hour05, e.hour06, e.hour07, e.hour08, e.hour09, e.hour10, e.hour11, e.hour12, e.hour13, e.hour14, e.hour15, e.hour16, e.hour17, e.hour18, e.hour19, e.hour20, e.hour21, e.hour22, e.hour23",
+            "e.tripDate",
+            false,
+            Map.of("cabNumber", "e.cabNumber",
+                   "driverNumber", "e.driverNumber",
+                   "shift", "e.shift"),
+            List.of("driverNumber"),
+            Map.of("tripDate", List.of(
+                           new SortKey<>("e.tripDate", AirportTripRow::tripDate, LocalDate::parse)),
+                   "grandTotal", List.of(
+                           new SortKey<>("e.grandTotal", AirportTripRow::grandTotal, Integer::valueOf)),
+                   "cabNumber", List.of(
+                           new SortKey<>("e.cabNumber", AirportTripRow::cabNumber, STRING),
+                           new SortKey<>("e.tripDate", AirportTripRow::tripDate, LocalDate::parse))),
+            "tripDate",
+            true,
+            AirportTripRow::id);
+
+    private static final Map<String, GridDefinition<?>> BY_NAME = Map.of(
+            CREDIT_CARD_TRANSACTIONS.name(), CREDIT_CARD_TRANSACTIONS,
+            MILEAGE_RECORDS.name(), MILEAGE_RECORDS,
+            AIRPORT_TRIPS.name(), AIRPORT_TRIPS);
+
+    public static GridDefinition<?> byName(String name) {
+        return BY_NAME.get(name);
+    }
+}
@@ -0,0 +1,30 @@
+package com.taxi.domain.dataview;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+
+/**
+ * Cached grid row counts. Separate bean so the @Cacheable proxy applies.
+ * Entries expire with the cache spec (5 minutes), so totals can briefly lag imports.
+ */
+@Service
+public class GridCountService {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Cacheable(cacheNames = "data_view_counts",
+               key = "T(com.taxi.infrastructure.multitenancy.TenantContext).getCurrentTenant() + '_' + #cacheKey")
+    @Transactional(readOnly = true)
+    public long count(String cacheKey, String jpql, Map<String, Object> params) {
+        TypedQuery<Long> query = entityManager.createQuery(jpql, Long.class);
+        params.forEach(query::setParameter);
+        return query.getSingleResult();
+    }
+}
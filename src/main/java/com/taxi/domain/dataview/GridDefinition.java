@@ -0,0 +1,35 @@
+package com.taxi.domain.dataview;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Describes one grid: the entity it reads, the projected row type, and which
+ * filters and sorts the client may ask for. Only paths declared here ever reach JPQL.
+ *
+ * @param selectList      constructor arguments for rowType, e.g. "e.id, e.cabNumber"
+ * @param datePath        path the startDate/endDate range applies to
+ * @param dateIsTimestamp true when datePath is a UTC timestamp and the range is in Pacific days
+ * @param filters         filter name -> path
+ * @param nullableFilters filter names that accept "N/A" for IS NULL
+ * @param sorts           sort name -> keyset columns (non-null paths only; id is always appended)
+ */
+public record GridDefinition<T>(String name,
+                                String entity,
+                                Class<T> rowType,
+                                String selectList,
+                                String datePath,
+                                boolean dateIsTimestamp,
+                                Map<String, String> filters,
+                                List<String> nullableFilters,
+                                Map<String, List<SortKey<T>>> sorts,
+                                String defaultSort,
+                                boolean defaultDescending,
+                                Function<T, Long> id) {
+
+    /**
+     * One keyset column: its JPQL path, how to read it from a row, and how to parse it back from a cursor
+     */
+    public record SortKey<T>(String path, Function<T, Object> extractor, Function<String, Object> parser) {}
+}
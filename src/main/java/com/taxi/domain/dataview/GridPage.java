@@ -0,0 +1,15 @@
+package com.taxi.domain.dataview;
+
+import java.util.List;
+
+/**
+ * One page of projected grid rows.
+ *
+ * @param nextCursor    pass back as cursor to fetch the following page; null on the last page
+ * @param totalElements row count for the filter, cached for a few minutes (may lag recent imports)
+ */
+public record GridPage<T>(List<T> content,
+                          int size,
+                          boolean hasMore,
+                          String nextCursor,
+                          long totalElements) {}
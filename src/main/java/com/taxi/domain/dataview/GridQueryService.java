@@ -0,0 +1,185 @@
+package com.taxi.domain.dataview;
+
+import com.taxi.domain.dataview.GridDefinition.SortKey;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Runs data view grid queries from a GridDefinition and a GridRequest.
+ *
+ * - One JPQL constructor-expression query returning only the grid's columns (no managed entities)
+ * - Keyset pagination: the cursor carries the last row's sort values + id, so deep pages
+ *   are an index range read instead of OFFSET scanning
+ * - Total count is cached per tenant/filter (GridCountService) instead of a COUNT(*) per page
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GridQueryService {
+
+    public static final int MAX_PAGE_SIZE = 500;
+
+    private static final String NULL_FILTER = "N/A";
+    private static final String CURSOR_SEPARATOR = "\u001F";
+
+    // Timestamps are stored in UTC, date filters are Pacific days (-08:00, as the repository queries)
+    private static final int UTC_OFFSET_HOURS = 8;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final GridCountService gridCountService;
+
+    @Transactional(readOnly = true)
+    public <T> GridPage<T> query(GridDefinition<T> def, GridRequest request) {
+        int size = Math.max(1, Math.min(request.size(), MAX_PAGE_SIZE));
+
+        // ---- WHERE (filters only; shared by the page and count queries) ----
+        Map<String, Object> params = new LinkedHashMap<>();
+        StringBuilder where = new StringBuilder(" FROM ").append(def.entity()).append(" e WHERE ");
+        if (def.dateIsTimestamp()) {
+            where.append(def.datePath()).append(" >= :rangeStart AND ").append(def.datePath()).append(" < :rangeEnd");
+            params.put("rangeStart", request.startDate().atStartOfDay().plusHours(UTC_OFFSET_HOURS));
+            params.put("rangeEnd", request.endDate().plusDays(1).atStartOfDay().plusHours(UTC_OFFSET_HOURS));
+        } else {
+            where.append(def.datePath()).append(" BETWEEN :rangeStart AND :rangeEnd");
+            params.put("rangeStart", request.startDate());
+            params.put("rangeEnd", request.endDate());
+        }
+
+        // Sorted so the count cache key doesn't depend on request parameter order
+        Map<String, String> filters = request.filters() != null ? new TreeMap<>(request.filters()) : Map.of();
+        for (Map.Entry<String, String> filter : filters.entrySet()) {
+            String path = def.filters().get(filter.getKey());
+            String value = filter.getValue();
+            if (path == null || value == null || value.isBlank()) {
+                continue;
+            }
+            if (NULL_FILTER.equalsIgnoreCase(value) && def.nullableFilters().contains(filter.getKey())) {
+                where.append(" AND ").append(path).append(" IS NULL");
+            } else {
+                String param = "f_" + filter.getKey();
+                where.append(" AND ").append(path).append(" = :").append(param);
+                params.put(param, value);
+            }
+        }
+
+        // ---- ORDER BY + keyset ----
+        String sortName = def.defaultSort();
+        boolean descending = def.defaultDescending();
+        if (request.sort() != null && !request.sort().isBlank()) {
+            String[] parts = request.sort().split(",");
+            if (def.sorts().containsKey(parts[0].trim())) {
+                sortName = parts[0].trim();
+                descending = parts.length < 2 || !"asc".equalsIgnoreCase(parts[1].trim());
+            }
+        }
+        List<SortKey<T>> keys = def.sorts().get(sortName);
+        String dir = descending ? " DESC" : " ASC";
+
+        StringBuilder pageWhere = new StringBuilder(where);
+        Map<String, Object> pageParams = new LinkedHashMap<>(params);
+        boolean keyset = request.cursor() != null && !request.cursor().isBlank();
+        if (keyset) {
+            appendKeyset(pageWhere, pageParams, keys, decodeCursor(request.cursor(), keys), descending);
+        }
+
+        StringBuilder orderBy = new StringBuilder(" ORDER BY ");
+        for (SortKey<T> key : keys) {
+            orderBy.append(key.path()).append(dir).append(", ");
+        }
+        orderBy.append("e.id").append(dir);
+
+        String jpql = "SELECT new " + def.rowType().getName() + "(" + def.selectList() + ")" + pageWhere + orderBy;
+        TypedQuery<T> query = entityManager.createQuery(jpql, def.rowType());
+        pageParams.forEach(query::setParameter);
+        if (!keyset && request.page() > 0) {
+            query.setFirstResult(request.page() * size);
+        }
+        query.setMaxResults(size + 1);
+
+        List<T> rows = query.getResultList();
+        boolean hasMore = rows.size() > size;
+        if (hasMore) {
+            rows = new ArrayList<>(rows.subList(0, size));
+        }
+        String nextCursor = hasMore ? encodeCursor(rows.get(rows.size() - 1), keys, def) : null;
+
+        long total = gridCountService.count(def.name() + "|" + where + "|" + params,
+                "SELECT COUNT(e)" + where, params);
+
+        return new GridPage<>(rows, size, hasMore, nextCursor, total);
+    }
+
+    /**
+     * (k1, k2, id) after the cursor, expanded as
+     * k1 > :c0 OR (k1 = :c0 AND k2 > :c1) OR (k1 = :c0 AND k2 = :c1 AND id > :cid)
+     */
+    private <T> void appendKeyset(StringBuilder where, Map<String, Object> params,
+                                  List<SortKey<T>> keys, List<Object> values, boolean descending) {
+        String op = descending ? " < " : " > ";
+        List<String> paths = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            paths.add(keys.get(i).path());
+            params.put("c" + i, values.get(i));
+        }
+        paths.add("e.id");
+        params.put("c" + keys.size(), values.get(keys.size()));
+
+        where.append(" AND (");
+        for (int i = 0; i < paths.size(); i++) {
+            if (i > 0) where.append(" OR ");
+            where.append("(");
+            for (int j = 0; j < i; j++) {
+                where.append(paths.get(j)).append(" = :c").append(j).append(" AND ");
+            }
+            where.append(paths.get(i)).append(op).append(":c").append(i).append(")");
+        }
+        where.append(")");
+    }
+
+    private <T> String encodeCursor(T row, List<SortKey<T>> keys, GridDefinition<T> def) {
+        StringBuilder raw = new StringBuilder();
+        for (SortKey<T> key : keys) {
+            raw.append(key.extractor().apply(row)).append(CURSOR_SEPARATOR);
+        }
+        raw.append(def.id().apply(row));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private <T> List<Object> decodeCursor(String cursor, List<SortKey<T>> keys) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        String[] parts = raw.split(CURSOR_SEPARATOR, -1);
+        if (parts.length != keys.size() + 1) {
+            throw new IllegalArgumentException("Cursor does not match the requested sort");
+        }
+        List<Object> values = new ArrayList<>();
+        try {
+            for (int i = 0; i < keys.size(); i++) {
+                values.add(keys.get(i).parser().apply(parts[i]));
+            }
+            values.add(Long.valueOf(parts[keys.size()]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor does not match the requested sort");
+        }
+        return values;
+    }
+}
@@ -0,0 +1,21 @@
+package com.taxi.domain.dataview;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Filter/sort/page spec for a data view grid query.
+ *
+ * @param filters  grid filter name -> value; unknown names are ignored, "N/A" means "is null"
+ *                 where the grid allows it
+ * @param sort     "field" or "field,asc|desc"; null for the grid default
+ * @param cursor   opaque keyset cursor from the previous page's nextCursor (preferred for deep pages)
+ * @param page     offset page number, only used when no cursor is given
+ */
+public record GridRequest(LocalDate startDate,
+                          LocalDate endDate,
+                          Map<String, String> filters,
+                          String sort,
+                          int size,
+                          String cursor,
+                          int page) {}
@@ -0,0 +1,18 @@
+package com.taxi.domain.dataview;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Columns shown in the mileage records grid
+ */
+public record MileageRecordRow(Long id,
+                               String cabNumber,
+                               String driverNumber,
+                               LocalDateTime logonTime,
+                               LocalDateTime logoffTime,
+                               BigDecimal mileageA,
+                               BigDecimal mileageB,
+                               BigDecimal mileageC,
+                               BigDecimal totalMileage,
+                               BigDecimal shiftHours) {}
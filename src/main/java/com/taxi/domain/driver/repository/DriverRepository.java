@@ -9,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,6 +21,9 @@ public interface DriverRepository extends JpaRepository<Driver, Long>, JpaSpecif
 
     Optional<Driver> findByDriverNumber(String driverNumber);
 
+    // Bulk lookup for imports (one query instead of one per row)
+    List<Driver> findByDriverNumberIn(Collection<String> driverNumbers);
+
     Optional<Driver> findByUsername(String username);
 
     List<Driver> findByStatus(Driver.DriverStatus status);
@@ -33,6 +33,18 @@ public interface DriverTripRepository extends JpaRepository<DriverTrip, Long> {
             @Param("tripDate") LocalDate tripDate
     );
 
+    /**
+     * Unique-constraint keys of all trips in a date range (bulk duplicate detection for imports)
+     * Returns [jobCode, driverId, cabId, tripDate]
+     */
+    @Query("SELECT dt.jobCode, d.id, c.id, dt.tripDate FROM DriverTrip dt " +
+           "LEFT JOIN dt.driver d LEFT JOIN dt.cab c " +
+           "WHERE dt.tripDate BETWEEN :startDate AND :endDate")
+    List<Object[]> findUniqueKeysByTripDateBetween(
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+
     /**
      * Find trips by driver within a date range
      */
@@ -7,6 +7,9 @@ import com.taxi.domain.driver.repository.DriverRepository;
 import com.taxi.domain.drivertrip.dto.DriverTripImportResult;
 import com.taxi.domain.drivertrip.model.DriverTrip;
 import com.taxi.domain.drivertrip.repository.DriverTripRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import org.slf4j.Logger;
@@ -16,12 +19,25 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.sql.BatchUpdateException;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
-import java.util.Optional;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class TaxiCallerDriverTripImportService {
@@ -31,6 +47,9 @@ public class TaxiCallerDriverTripImportService {
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
     private static final DateTimeFormatter DATETIME_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
 
+    // Rows per JDBC batch for the trip upsert
+    private static final int BATCH_SIZE = 500;
+
     @Autowired
     private DriverTripRepository driverTripRepository;
 
@@ -40,6 +59,9 @@ public class TaxiCallerDriverTripImportService {
     @Autowired
     private DriverRepository driverRepository;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
     /**
      * Import driver job reports from TaxiCaller and save to driver_trips table.
      *
@@ -73,6 +95,15 @@ public class TaxiCallerDriverTripImportService {
             result.setTotalRecords(trips.length());
             logger.info("Processing {} driver job reports from TaxiCaller", trips.length());
 
+            // Resolve drivers and cabs from maps loaded once for the whole payload
+            Map<String, Driver> driversByNumber = new HashMap<>();
+            Map<String, Cab> cabsByNumber = new HashMap<>();
+            preloadDriversAndCabs(trips, driversByNumber, cabsByNumber);
+
+            Map<String, DriverTrip> tripsByKey = new LinkedHashMap<>();
+            LocalDate minDate = null;
+            LocalDate maxDate = null;
+
             for (int i = 0; i < trips.length(); i++) {
                 try {
                     JSONObject tripData = trips.getJSONObject(i);
@@ -84,27 +115,20 @@ public class TaxiCallerDriverTripImportService {
                         continue;
                     }
 
-                    DriverTrip trip = transformToDriverTrip(tripData);
-
-                    // Check for duplicate by unique constraint
-                    Optional<DriverTrip> existing = driverTripRepository.findByUniqueConstraint(
-                            trip.getJobCode(),
-                            trip.getDriver() != null ? trip.getDriver().getId() : null,
-                            trip.getCab() != null ? trip.getCab().getId() : null,
-                            trip.getTripDate()
-                    );
+                    DriverTrip trip = transformToDriverTrip(tripData, driversByNumber, cabsByNumber);
+                    if (trip.getTripDate() == null) {
+                        throw new RuntimeException("Missing or invalid trip date");
+                    }
 
-                    if (existing.isPresent()) {
+                    // Same trip repeated within the payload
+                    if (tripsByKey.putIfAbsent(uniqueKey(trip), trip) != null) {
                         logger.debug("Duplicate driver trip, job_id: {}", jobId);
                         result.incrementDuplicate(jobId);
-                    } else {
-                        driverTripRepository.save(trip);
-                        result.incrementSuccess();
+                        continue;
                     }
 
-                    if ((i + 1) % 50 == 0) {
-                        logger.info("Processed {} / {} driver trip records", i + 1, trips.length());
-                    }
+                    if (minDate == null || trip.getTripDate().isBefore(minDate)) minDate = trip.getTripDate();
+                    if (maxDate == null || trip.getTripDate().isAfter(maxDate)) maxDate = trip.getTripDate();
 
                 } catch (Exception e) {
                     String jobId = "unknown";
@@ -121,6 +145,26 @@ public class TaxiCallerDriverTripImportService {
                 }
             }
 
+            if (!tripsByKey.isEmpty()) {
+                // Check for duplicates by unique constraint once for the whole date range
+                Set<String> existingKeys = new HashSet<>();
+                for (Object[] row : driverTripRepository.findUniqueKeysByTripDateBetween(minDate, maxDate)) {
+                    existingKeys.add(uniqueKey((String) row[0], (Long) row[1], (Long) row[2], (LocalDate) row[3]));
+                }
+
+                List<DriverTrip> newTrips = new ArrayList<>();
+                for (Map.Entry<String, DriverTrip> entry : tripsByKey.entrySet()) {
+                    if (existingKeys.contains(entry.getKey())) {
+                        logger.debug("Duplicate driver trip, job_id: {}", entry.getValue().getJobCode());
+                        result.incrementDuplicate(entry.getValue().getJobCode());
+                    } else {
+                        newTrips.add(entry.getValue());
+                    }
+                }
+
+                upsertTrips(newTrips, result);
+            }
+
             logger.info("Driver trip import completed: {}", result.toString());
 
         } catch (Exception e) {
@@ -131,10 +175,119 @@ public class TaxiCallerDriverTripImportService {
         return result;
     }
 
+    /**
+     * Load every driver (by driver_username → driver_number) and cab (by vehicle_num)
+     * referenced in the payload with one query each
+     */
+    private void preloadDriversAndCabs(JSONArray trips, Map<String, Driver> driversByNumber, Map<String, Cab> cabsByNumber) {
+        Set<String> driverNumbers = new HashSet<>();
+        Set<String> cabNumbers = new HashSet<>();
+
+        for (int i = 0; i < trips.length(); i++) {
+            JSONObject tripData = trips.optJSONObject(i);
+            if (tripData == null) {
+                continue;
+            }
+            String driverUsername = String.valueOf(tripData.opt("driver_username"));
+            if (!driverUsername.isEmpty() && !"null".equals(driverUsername)) driverNumbers.add(driverUsername);
+            String vehicleNum = tripData.optString("vehicle_num", "").trim();
+            if (!vehicleNum.isEmpty()) cabNumbers.add(vehicleNum);
+        }
+
+        if (!driverNumbers.isEmpty()) {
+            driverRepository.findByDriverNumberIn(driverNumbers).forEach(d -> driversByNumber.put(d.getDriverNumber(), d));
+        }
+        if (!cabNumbers.isEmpty()) {
+            cabRepository.findByCabNumberIn(cabNumbers).forEach(c -> cabsByNumber.put(c.getCabNumber(), c));
+        }
+        logger.info("Preloaded {} drivers and {} cabs for driver trip import", driversByNumber.size(), cabsByNumber.size());
+    }
+
+    /**
+     * Write new trips with batched INSERT ... ON DUPLICATE KEY UPDATE on uk_driver_trip_job.
+     * The update is a no-op: a trip inserted concurrently is counted as a duplicate, as before.
+     */
+    private void upsertTrips(List<DriverTrip> newTrips, DriverTripImportResult result) {
+        if (newTrips.isEmpty()) {
+            return;
+        }
+        String sql = "INSERT INTO driver_trips " +
+                "(job_code, driver_username, driver_name, driver_id, cab_id, trip_date, start_time, end_time, " +
+                "pickup_address, dropoff_address, passenger_name, account_number, company_id, fare_amount, tip_amount, " +
+                "created_at, updated_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+                "ON DUPLICATE KEY UPDATE id = id";
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                for (int from = 0; from < newTrips.size(); from += BATCH_SIZE) {
+                    List<DriverTrip> chunk = newTrips.subList(from, Math.min(from + BATCH_SIZE, newTrips.size()));
+                    for (DriverTrip t : chunk) {
+                        ps.setString(1, t.getJobCode());
+                        ps.setString(2, t.getDriverUsername());
+                        ps.setString(3, t.getDriverName());
+                        ps.setObject(4, t.getDriver() != null ? t.getDriver().getId() : null, Types.BIGINT);
+                        ps.setObject(5, t.getCab() != null ? t.getCab().getId() : null, Types.BIGINT);
+                        ps.setDate(6, Date.valueOf(t.getTripDate()));
+                        ps.setTime(7, t.getStartTime() != null ? Time.valueOf(t.getStartTime()) : null);
+                        ps.setTime(8, t.getEndTime() != null ? Time.valueOf(t.getEndTime()) : null);
+                        ps.setString(9, t.getPickupAddress());
+                        ps.setString(10, t.getDropoffAddress());
+                        ps.setString(11, t.getPassengerName());
+                        ps.setString(12, t.getAccountNumber());
+                        ps.setString(13, t.getCompanyId());
+                        ps.setBigDecimal(14, t.getFareAmount());
+                        ps.setBigDecimal(15, t.getTipAmount());
+                        ps.setTimestamp(16, now);
+                        ps.setTimestamp(17, now);
+                        ps.addBatch();
+                    }
+
+                    int[] counts;
+                    try {
+                        counts = ps.executeBatch();
+                    } catch (BatchUpdateException e) {
+                        counts = e.getUpdateCounts();
+                        logger.error("Batch insert of driver trips partially failed: {}", e.getMessage());
+                    }
+
+                    for (int k = 0; k < chunk.size(); k++) {
+                        int count = k < counts.length ? counts[k] : Statement.EXECUTE_FAILED;
+                        if (count == Statement.EXECUTE_FAILED) {
+                            result.incrementError("Failed to insert driver trip job_id: " + chunk.get(k).getJobCode());
+                        } else if (count == 0) {
+                            result.incrementDuplicate(chunk.get(k).getJobCode());
+                        } else {
+                            result.incrementSuccess();
+                        }
+                    }
+                    logger.info("Processed {} / {} new driver trip records",
+                            Math.min(from + BATCH_SIZE, newTrips.size()), newTrips.size());
+                }
+            }
+        });
+    }
+
+    private static String uniqueKey(DriverTrip trip) {
+        return uniqueKey(trip.getJobCode(),
+                trip.getDriver() != null ? trip.getDriver().getId() : null,
+                trip.getCab() != null ? trip.getCab().getId() : null,
+                trip.getTripDate());
+    }
+
+    /**
+     * Null-safe key matching uk_driver_trip_job
+     */
+    private static String uniqueKey(String jobCode, Long driverId, Long cabId, LocalDate tripDate) {
+        return jobCode + "|" + driverId + "|" + cabId + "|" + tripDate;
+    }
+
     /**
      * Transform TaxiCaller JSON to DriverTrip entity
      */
-    private DriverTrip transformToDriverTrip(JSONObject tripData) {
+    private DriverTrip transformToDriverTrip(JSONObject tripData, Map<String, Driver> driversByNumber,
+                                             Map<String, Cab> cabsByNumber) {
         DriverTrip trip = DriverTrip.builder().build();
 
         // Job ID
@@ -150,28 +303,20 @@ public class TaxiCallerDriverTripImportService {
 
         // Find Driver entity by driver_username (stored as driverNumber)
         if (driverUsername != null && !driverUsername.isEmpty() && !"null".equals(driverUsername)) {
-            try {
-                Optional<Driver> driverOpt = driverRepository.findByDriverNumber(driverUsername);
-                driverOpt.ifPresent(trip::setDriver);
-                if (driverOpt.isEmpty()) {
-                    logger.debug("Driver not found for username: {}", driverUsername);
-                }
-            } catch (Exception e) {
-                logger.warn("Error finding driver for username {}: {}", driverUsername, e.getMessage());
+            Driver driver = driversByNumber.get(driverUsername);
+            trip.setDriver(driver);
+            if (driver == null) {
+                logger.debug("Driver not found for username: {}", driverUsername);
             }
         }
 
         // Find Cab by vehicle_num
         String vehicleNum = tripData.optString("vehicle_num", "");
         if (!vehicleNum.isEmpty()) {
-            try {
-                Optional<Cab> cabOpt = cabRepository.findByCabNumber(vehicleNum.trim());
-                cabOpt.ifPresent(trip::setCab);
-                if (cabOpt.isEmpty()) {
-                    logger.debug("Cab not found for vehicle_num: {}", vehicleNum);
-                }
-            } catch (Exception e) {
-                logger.warn("Error finding cab for vehicle_num {}: {}", vehicleNum, e.getMessage());
+            Cab cab = cabsByNumber.get(vehicleNum.trim());
+            trip.setCab(cab);
+            if (cab == null) {
+                logger.debug("Cab not found for vehicle_num: {}", vehicleNum);
             }
         }
 
@@ -47,6 +47,7 @@ public class EftConfig {
     @Column(name = "return_account_number", nullable = false, length = 12)
     private String returnAccountNumber;
 
+    // Next file creation number, kept in step with the EftFileGenerationService sequence
     @Column(name = "file_creation_number", nullable = false)
     @Builder.Default
     private Integer fileCreationNumber = 1;
@@ -71,14 +72,4 @@ public class EftConfig {
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
     }
-
-    /**
-     * Get the next file creation number and increment.
-     * Wraps around at 9999.
-     */
-    public int getNextFileCreationNumber() {
-        int current = fileCreationNumber;
-        fileCreationNumber = (fileCreationNumber % 9999) + 1;
-        return current;
-    }
 }
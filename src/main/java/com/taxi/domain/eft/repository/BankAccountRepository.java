@@ -4,6 +4,7 @@ import com.taxi.domain.eft.model.BankAccount;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,4 +13,7 @@ public interface BankAccountRepository extends JpaRepository<BankAccount, Long>
     List<BankAccount> findByDriverId(Long driverId);
     Optional<BankAccount> findByDriverIdAndIsActiveTrue(Long driverId);
     List<BankAccount> findByIsActiveTrue();
+
+    // Active accounts of many drivers at once
+    List<BankAccount> findByDriverIdInAndIsActiveTrue(Collection<Long> driverIds);
 }
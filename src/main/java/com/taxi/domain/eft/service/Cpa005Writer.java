@@ -0,0 +1,189 @@
+package com.taxi.domain.eft.service;
+
+import com.taxi.domain.eft.model.EftConfig;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoField;
+import java.util.Arrays;
+
+/**
+ * Writes a CPA Standard 005 credit file record by record in a single pass: header, credit
+ * segments packed six to a physical record, trailer. Fields go straight to the writer and are
+ * padded from shared filler arrays, and the parts of a credit segment that only depend on the
+ * EFT configuration are built once per file.
+ *
+ * Not thread-safe; one instance per file. The caller owns (and closes) the writer.
+ */
+final class Cpa005Writer {
+
+    static final int SEGMENT_LENGTH = 240;
+    static final int SEGMENTS_PER_RECORD = 6;
+    static final int RECORD_LENGTH = 1464;
+
+    private static final char[] SPACES = filled(' ', RECORD_LENGTH);
+    private static final char[] ZEROS = filled('0', 14);
+
+    private final Writer out;
+    private final EftConfig config;
+    private final int fileCreationNum;
+
+    // Per-file constant parts of a credit segment
+    private final String creditType;       // 1-4: record type + transaction code
+    private final String fundsDate;        // 15-21: date funds available + leading zero
+    private final String originatorShort;  // 67-84: stored txn type + originator short name
+    private final String originatorLong;   // 115-139: originator long name + user ID
+    private final String returnRouting;    // 165-240: return account + sundry/filler
+
+    private int segmentsInRecord;
+    private int creditCount;
+    private BigDecimal totalCredits = BigDecimal.ZERO;
+
+    Cpa005Writer(Writer out, EftConfig config, int fileCreationNum, LocalDate processingDate) {
+        this.out = out;
+        this.config = config;
+        this.fileCreationNum = fileCreationNum;
+
+        this.creditType = "C" + padRight(config.getTransactionCode(), 3);
+        this.fundsDate = toJulianDate(processingDate) + "0";
+        this.originatorShort = "000" + padRight(config.getOriginatorShortName(), 15);
+        this.originatorLong = padRight(config.getOriginatorLongName(), 15) + padRight(config.getOriginatorId(), 10);
+        this.returnRouting = "0"
+                + padLeft(config.getReturnInstitutionId(), 3, '0')
+                + padLeft(config.getReturnTransitNumber(), 5, '0')
+                + padRight(config.getReturnAccountNumber(), 12)
+                + padRight("", 15 + 22 + 18);
+    }
+
+    /**
+     * Header record (Type A); write it first
+     */
+    void header(LocalDate creationDate) throws IOException {
+        out.write('A');                                                 // 1: Record type
+        out.write('1');                                                 // 2: Record count
+        writeRight(config.getOriginatorId(), 10);                       // 3-12: Originator ID
+        writeLeft(fileCreationNum, 4);                                  // 13-16: File creation number
+        out.write(toJulianDate(creationDate));                          // 17-22: Creation date (0YYDDD)
+        writeRight(config.getProcessingCentre(), 5);                    // 23-27: Processing centre
+        fill(21);                                                       // 28-48: Filler
+        writeRight(config.getCurrencyCode(), 3);                        // 49-51: Currency
+        fill(RECORD_LENGTH - 51);                                       // 52-1464: Filler
+        out.write('\n');
+    }
+
+    /**
+     * One credit segment (Type C); a physical record is padded and closed after every sixth
+     */
+    void credit(BigDecimal amount, String institution, String transit, String account, String payeeName,
+                String itemTrace, String crossReference) throws IOException {
+        long amountCents = amount.movePointRight(2).longValue();
+
+        out.write(creditType);                                          // 1-4: Record type + transaction code
+        writeLeft(amountCents, 10);                                     // 5-14: Amount in cents
+        out.write(fundsDate);                                           // 15-21: Date funds available + leading zero
+        writeLeft(institution, 3);                                      // 22-24: Payee institution
+        writeLeft(transit, 5);                                          // 25-29: Payee transit
+        writeRight(account, 12);                                        // 30-41: Payee account
+        writeRight(itemTrace, 25);                                      // 42-66: Item trace
+        out.write(originatorShort);                                     // 67-84: Stored txn type + short name
+        writeRight(payeeName, 30);                                      // 85-114: Payee name
+        out.write(originatorLong);                                      // 115-139: Long name + user ID
+        writeRight(crossReference, 25);                                 // 140-164: Cross-reference
+        out.write(returnRouting);                                       // 165-240: Return routing + filler
+
+        totalCredits = totalCredits.add(amount);
+        creditCount++;
+        if (++segmentsInRecord == SEGMENTS_PER_RECORD) {
+            endRecord();
+        }
+    }
+
+    /**
+     * Pad the last physical record and write the trailer record (Type Z)
+     */
+    void finish() throws IOException {
+        if (segmentsInRecord > 0) {
+            endRecord();
+        }
+
+        out.write('Z');                                                 // 1: Record type
+        fill(3);                                                        // 2-4: Filler
+        writeRight(config.getOriginatorId(), 10);                       // 5-14: Originator ID
+        writeLeft(fileCreationNum, 8);                                  // 15-22: File creation number
+        out.write(ZEROS, 0, 14);                                        // 23-36: Total debits (zero - credits only)
+        out.write(ZEROS, 0, 8);                                         // 37-44: Debit count
+        writeLeft(totalCredits.movePointRight(2).longValue(), 14);      // 45-58: Total credits in cents
+        writeLeft(creditCount, 8);                                      // 59-66: Credit count
+        out.write(ZEROS, 0, 14);                                        // 67-80: Error correction debits
+        out.write(ZEROS, 0, 8);                                         // 81-88: Error correction debit count
+        out.write(ZEROS, 0, 14);                                        // 89-102: Error correction credits
+        out.write(ZEROS, 0, 8);                                         // 103-110: Error correction credit count
+        fill(RECORD_LENGTH - 110);                                      // 111-1464: Filler
+        out.write('\n');
+        out.flush();
+    }
+
+    // ==================== Field Writers ====================
+
+    // Pad the physical record to 1464 characters (six segments fill 1440)
+    private void endRecord() throws IOException {
+        fill(RECORD_LENGTH - segmentsInRecord * SEGMENT_LENGTH);
+        out.write('\n');
+        segmentsInRecord = 0;
+    }
+
+    private void writeRight(String value, int len) throws IOException {
+        int n = value == null ? 0 : Math.min(value.length(), len);
+        if (n > 0) {
+            out.write(value, 0, n);
+        }
+        fill(len - n);
+    }
+
+    private void writeLeft(String value, int len) throws IOException {
+        int n = value == null ? 0 : Math.min(value.length(), len);
+        out.write(ZEROS, 0, len - n);
+        if (n > 0) {
+            out.write(value, 0, n);
+        }
+    }
+
+    private void writeLeft(long value, int len) throws IOException {
+        writeLeft(Long.toString(value), len);
+    }
+
+    private void fill(int len) throws IOException {
+        out.write(SPACES, 0, len);
+    }
+
+    // ==================== Utility Methods ====================
+
+    /**
+     * Convert a LocalDate to CPA Julian format: 0YYDDD
+     */
+    private static String toJulianDate(LocalDate date) {
+        int year = date.getYear() % 100;
+        int dayOfYear = date.get(ChronoField.DAY_OF_YEAR);
+        return "0" + padLeft(String.valueOf(year), 2, '0') + padLeft(String.valueOf(dayOfYear), 3, '0');
+    }
+
+    private static String padRight(String str, int len) {
+        if (str == null) str = "";
+        if (str.length() >= len) return str.substring(0, len);
+        return str + " ".repeat(len - str.length());
+    }
+
+    private static String padLeft(String str, int len, char pad) {
+        if (str == null) str = "";
+        if (str.length() >= len) return str.substring(0, len);
+        return String.valueOf(pad).repeat(len - str.length()) + str;
+    }
+
+    private static char[] filled(char c, int len) {
+        char[] chars = new char[len];
+        Arrays.fill(chars, c);
+        return chars;
+    }
+}
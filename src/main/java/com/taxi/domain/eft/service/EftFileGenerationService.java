@@ -10,30 +10,62 @@ import com.taxi.domain.eft.model.EftFileGeneration;
 import com.taxi.domain.eft.repository.BankAccountRepository;
 import com.taxi.domain.eft.repository.EftConfigRepository;
 import com.taxi.domain.eft.repository.EftFileGenerationRepository;
-import lombok.RequiredArgsConstructor;
+import com.taxi.infrastructure.sequence.SequenceAllocator;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
-
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
-import java.time.temporal.ChronoField;
 import java.util.*;
+import java.util.function.Consumer;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class EftFileGenerationService {
 
-    private static final int SEGMENT_LENGTH = 240;
-    private static final int SEGMENTS_PER_RECORD = 6;
-    private static final int RECORD_LENGTH = 1464;
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Sequence of CPA 005 file creation numbers, taken a block of 1 at a time so they follow
+     * issue order on every instance and a restart from the settings screen applies at once.
+     * Mirrored in EftConfig.fileCreationNumber for the settings screen.
+     */
+    private static final String FILE_CREATION_SEQUENCE = "EFT-FILE-CREATION";
 
     private final EftConfigRepository eftConfigRepository;
     private final BankAccountRepository bankAccountRepository;
     private final EftFileGenerationRepository eftFileGenerationRepository;
     private final PaymentBatchRepository paymentBatchRepository;
     private final StatementPaymentRepository statementPaymentRepository;
+    private final SequenceAllocator sequenceAllocator;
+    private final TransactionTemplate transaction;
+
+    public EftFileGenerationService(EftConfigRepository eftConfigRepository,
+                                    BankAccountRepository bankAccountRepository,
+                                    EftFileGenerationRepository eftFileGenerationRepository,
+                                    PaymentBatchRepository paymentBatchRepository,
+                                    StatementPaymentRepository statementPaymentRepository,
+                                    SequenceAllocator sequenceAllocator,
+                                    PlatformTransactionManager transactionManager) {
+        this.eftConfigRepository = eftConfigRepository;
+        this.bankAccountRepository = bankAccountRepository;
+        this.eftFileGenerationRepository = eftFileGenerationRepository;
+        this.paymentBatchRepository = paymentBatchRepository;
+        this.statementPaymentRepository = statementPaymentRepository;
+        this.sequenceAllocator = sequenceAllocator;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
 
     /**
      * Generate a CPA Standard 005 EFT file for a posted payment batch.
@@ -41,6 +73,54 @@ public class EftFileGenerationService {
      */
     @Transactional
     public EftGenerationResult generateEftFile(Long batchId, String generatedBy) {
+        EftFile file = prepareEftFile(batchId, generatedBy);
+        int physicalRecords = 2 + (file.recordCount + Cpa005Writer.SEGMENTS_PER_RECORD - 1) / Cpa005Writer.SEGMENTS_PER_RECORD;
+        StringWriter content = new StringWriter(physicalRecords * (Cpa005Writer.RECORD_LENGTH + 1));
+        try {
+            writeEftFile(file, content);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        EftGenerationResult result = new EftGenerationResult();
+        result.fileContent = content.toString();
+        result.fileName = file.fileName;
+        result.recordCount = file.recordCount;
+        result.totalAmount = file.totalAmount;
+        result.warnings = file.warnings;
+        result.generationId = file.generationId;
+        return result;
+    }
+
+    /**
+     * Generate a CPA Standard 005 EFT file for a posted payment batch and write it to out,
+     * e.g. straight into a download response. beforeWrite is called with the recorded file
+     * (name, record count) before its first byte is written.
+     *
+     * The generation is recorded in a transaction that commits before writing starts, so no
+     * locks are held while a slow client downloads. If the file then cannot be written, its
+     * generation is marked FAILED and its file creation number stays used; generating again
+     * takes the next one.
+     */
+    public EftFile streamEftFile(Long batchId, String generatedBy, Consumer<EftFile> beforeWrite,
+                                 OutputStream out) throws IOException {
+        EftFile file = transaction.execute(status -> prepareEftFile(batchId, generatedBy));
+        beforeWrite.accept(file);
+        try {
+            writeEftFile(file, out);
+        } catch (IOException | RuntimeException e) {
+            markFailed(file);
+            throw e;
+        }
+        return file;
+    }
+
+    /**
+     * Validate a posted payment batch, match its Direct Deposit payments to bank accounts,
+     * take the next file creation number and record the generation, in the caller's
+     * transaction. The file itself is written afterwards with writeEftFile.
+     */
+    private EftFile prepareEftFile(Long batchId, String generatedBy) {
         PaymentBatch batch = paymentBatchRepository.findById(batchId)
                 .orElseThrow(() -> new IllegalArgumentException("Payment batch not found: " + batchId));
 
@@ -66,64 +146,41 @@ public class EftFileGenerationService {
             throw new IllegalStateException("No Direct Deposit payments found in this batch. EFT only generates for DD payment method.");
         }
 
-        // Look up bank accounts for each payee
-        List<EftPaymentRecord> eftRecords = new ArrayList<>();
+        List<EftPaymentRecord> eftRecords = new ArrayList<>(ddPayments.size());
         List<String> warnings = new ArrayList<>();
+        BigDecimal totalCredits = BigDecimal.ZERO;
+
+        // Look up the active bank accounts of all payees in one query
+        Map<Long, List<BankAccount>> bankAccounts = findActiveBankAccounts(ddPayments);
 
         for (StatementPayment payment : ddPayments) {
-            Optional<BankAccount> bankAccountOpt = bankAccountRepository.findByDriverIdAndIsActiveTrue(payment.getPersonId());
-            if (bankAccountOpt.isEmpty()) {
+            List<BankAccount> accounts = bankAccounts.getOrDefault(payment.getPersonId(), List.of());
+            if (accounts.isEmpty()) {
                 warnings.add(payment.getPersonName() + " (ID: " + payment.getPersonId() + ") - No active bank account on file");
                 continue;
             }
-            BankAccount bankAccount = bankAccountOpt.get();
-            eftRecords.add(new EftPaymentRecord(payment, bankAccount));
+            if (accounts.size() > 1) {
+                // No telling which account the money should go to
+                log.warn("Payee {} has {} active bank accounts; left out of the EFT file for batch {}",
+                        payment.getPersonId(), accounts.size(), batchId);
+                warnings.add(payment.getPersonName() + " (ID: " + payment.getPersonId() + ") - " + accounts.size() +
+                        " active bank accounts on file; deactivate all but one");
+                continue;
+            }
+            eftRecords.add(new EftPaymentRecord(payment, accounts.get(0)));
+            totalCredits = totalCredits.add(payment.getAmount());
         }
 
         if (eftRecords.isEmpty()) {
             throw new IllegalStateException("No payments could be included in EFT file. " +
-                    warnings.size() + " payment(s) skipped due to missing bank accounts.");
+                    warnings.size() + " payment(s) skipped due to missing or ambiguous bank accounts.");
         }
 
         // Get and increment file creation number
-        int fileCreationNum = config.getNextFileCreationNumber();
+        int fileCreationNum = nextFileCreationNumber(config);
         eftConfigRepository.save(config);
 
-        // Build the file
         LocalDate processingDate = batch.getBatchDate();
-        StringBuilder fileContent = new StringBuilder();
-
-        // Header record (Type A)
-        fileContent.append(buildHeaderRecord(config, fileCreationNum, processingDate));
-        fileContent.append("\n");
-
-        // Detail records (Type C for credits)
-        BigDecimal totalCredits = BigDecimal.ZERO;
-        int creditCount = 0;
-
-        // Pack segments into physical records (6 segments per record)
-        List<String> segments = new ArrayList<>();
-        for (EftPaymentRecord rec : eftRecords) {
-            String segment = buildCreditSegment(config, rec, processingDate);
-            segments.add(segment);
-            totalCredits = totalCredits.add(rec.payment.getAmount());
-            creditCount++;
-        }
-
-        // Pack 6 segments per physical record
-        for (int i = 0; i < segments.size(); i += SEGMENTS_PER_RECORD) {
-            StringBuilder physicalRecord = new StringBuilder();
-            for (int j = i; j < Math.min(i + SEGMENTS_PER_RECORD, segments.size()); j++) {
-                physicalRecord.append(segments.get(j));
-            }
-            // Pad to 1464 characters
-            fileContent.append(padRight(physicalRecord.toString(), RECORD_LENGTH));
-            fileContent.append("\n");
-        }
-
-        // Trailer record (Type Z)
-        fileContent.append(buildTrailerRecord(config, fileCreationNum, totalCredits, creditCount));
-        fileContent.append("\n");
 
         // Generate filename
         String fileName = String.format("EFT_%s_%s_%04d.txt",
@@ -136,7 +193,7 @@ public class EftFileGenerationService {
                 .batchId(batchId)
                 .fileCreationNumber(fileCreationNum)
                 .fileName(fileName)
-                .recordCount(creditCount)
+                .recordCount(eftRecords.size())
                 .totalCreditAmount(totalCredits)
                 .totalDebitAmount(BigDecimal.ZERO)
                 .status("GENERATED")
@@ -144,122 +201,116 @@ public class EftFileGenerationService {
                 .build();
         eftFileGenerationRepository.save(generation);
 
-        log.info("Generated EFT file {} for batch {}: {} records, total ${}", fileName, batchId, creditCount, totalCredits);
+        log.info("Generated EFT file {} for batch {}: {} records, total ${}", fileName, batchId, eftRecords.size(), totalCredits);
 
-        EftGenerationResult result = new EftGenerationResult();
-        result.fileContent = fileContent.toString();
-        result.fileName = fileName;
-        result.recordCount = creditCount;
-        result.totalAmount = totalCredits;
-        result.warnings = warnings;
-        result.generationId = generation.getId();
-        return result;
+        EftFile file = new EftFile(config, fileCreationNum, processingDate, eftRecords);
+        file.fileName = fileName;
+        file.recordCount = eftRecords.size();
+        file.totalAmount = totalCredits;
+        file.warnings = warnings;
+        file.generationId = generation.getId();
+        return file;
     }
 
     /**
-     * Get generation history for a batch.
+     * Write a prepared EFT file to the stream in one pass; the stream is flushed, not closed
      */
-    public List<EftFileGeneration> getGenerationHistory(Long batchId) {
-        return eftFileGenerationRepository.findByBatchId(batchId);
+    static void writeEftFile(EftFile file, OutputStream out) throws IOException {
+        writeEftFile(file, new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE));
     }
 
-    // ==================== CPA 005 Record Builders ====================
-
-    private String buildHeaderRecord(EftConfig config, int fileCreationNum, LocalDate date) {
-        StringBuilder rec = new StringBuilder();
-        rec.append("A");                                                // 1: Record type
-        rec.append("1");                                                // 2: Record count
-        rec.append(padRight(config.getOriginatorId(), 10));             // 3-12: Originator ID
-        rec.append(padLeft(String.valueOf(fileCreationNum), 4, '0'));   // 13-16: File creation number
-        rec.append(toJulianDate(date));                                 // 17-22: Creation date (0YYDDD)
-        rec.append(padRight(config.getProcessingCentre(), 5));          // 23-27: Processing centre
-        rec.append(padRight("", 21));                                   // 28-48: Filler
-        rec.append(padRight(config.getCurrencyCode(), 3));              // 49-51: Currency
-        rec.append(padRight("", 1413));                                 // 52-1464: Filler
-        return padRight(rec.toString(), RECORD_LENGTH);
+    private static void writeEftFile(EftFile file, Writer out) throws IOException {
+        Cpa005Writer writer = new Cpa005Writer(out, file.config, file.fileCreationNum, file.processingDate);
+        writer.header(file.processingDate);
+        for (EftPaymentRecord rec : file.records) {
+            StatementPayment payment = rec.payment;
+            BankAccount bank = rec.bankAccount;
+            writer.credit(payment.getAmount(), bank.getInstitutionNumber(), bank.getTransitNumber(),
+                    bank.getAccountNumber(), bank.getAccountHolderName(),
+                    payment.getPaymentNumber(), payment.getPersonName());
+        }
+        writer.finish();
     }
 
-    private String buildCreditSegment(EftConfig config, EftPaymentRecord rec, LocalDate fundsDate) {
-        StatementPayment payment = rec.payment;
-        BankAccount bank = rec.bankAccount;
-
-        // Amount in cents
-        long amountCents = payment.getAmount().movePointRight(2).longValue();
-
-        StringBuilder seg = new StringBuilder();
-        seg.append("C");                                                          // 1: Record type
-        seg.append(padRight(config.getTransactionCode(), 3));                     // 2-4: Transaction code (200=Payroll)
-        seg.append(padLeft(String.valueOf(amountCents), 10, '0'));                 // 5-14: Amount in cents
-        seg.append(toJulianDate(fundsDate));                                      // 15-20: Date funds available
-        seg.append("0");                                                          // 21: Leading zero
-        seg.append(padLeft(bank.getInstitutionNumber(), 3, '0'));                  // 22-24: Payee institution
-        seg.append(padLeft(bank.getTransitNumber(), 5, '0'));                      // 25-29: Payee transit
-        seg.append(padRight(bank.getAccountNumber(), 12));                         // 30-41: Payee account
-        seg.append(padRight(payment.getPaymentNumber() != null ? payment.getPaymentNumber() : "", 25)); // 42-66: Item trace
-        seg.append("000");                                                        // 67-69: Stored txn type
-        seg.append(padRight(config.getOriginatorShortName(), 15));                 // 70-84: Originator short name
-        seg.append(padRight(bank.getAccountHolderName(), 30));                     // 85-114: Payee name
-        seg.append(padRight(config.getOriginatorLongName(), 15));                  // 115-129: Originator long name
-        seg.append(padRight(config.getOriginatorId(), 10));                        // 130-139: Originator user ID
-        seg.append(padRight(payment.getPersonName() != null ? payment.getPersonName() : "", 25)); // 140-164: Cross-reference
-        seg.append("0");                                                          // 165: Return routing leading zero
-        seg.append(padLeft(config.getReturnInstitutionId(), 3, '0'));              // 166-168: Return institution
-        seg.append(padLeft(config.getReturnTransitNumber(), 5, '0'));              // 169-173: Return transit
-        seg.append(padRight(config.getReturnAccountNumber(), 12));                 // 174-185: Return account
-        seg.append(padRight("", 15));                                             // 186-200: Sundry info
-        seg.append(padRight("", 22));                                             // 201-222: Filler + sundry
-        seg.append(padRight("", 18));                                             // 223-240: Filler
-
-        return padRight(seg.toString(), SEGMENT_LENGTH);
+    private void markFailed(EftFile file) {
+        try {
+            transaction.executeWithoutResult(status -> eftFileGenerationRepository.findById(file.generationId)
+                    .ifPresent(generation -> generation.setStatus("FAILED")));
+        } catch (RuntimeException e) {
+            log.error("Could not mark EFT file {} as failed: {}", file.fileName, e.getMessage(), e);
+        }
     }
 
-    private String buildTrailerRecord(EftConfig config, int fileCreationNum, BigDecimal totalCredits, int creditCount) {
-        long totalCreditCents = totalCredits.movePointRight(2).longValue();
-
-        StringBuilder rec = new StringBuilder();
-        rec.append("Z");                                                // 1: Record type
-        rec.append(padRight("", 3));                                    // 2-4: Filler
-        rec.append(padRight(config.getOriginatorId(), 10));             // 5-14: Originator ID
-        rec.append(padLeft(String.valueOf(fileCreationNum), 8, '0'));   // 15-22: File creation number
-        rec.append(padLeft("0", 14, '0'));                              // 23-36: Total debits (zero - credits only)
-        rec.append(padLeft("0", 8, '0'));                               // 37-44: Debit count
-        rec.append(padLeft(String.valueOf(totalCreditCents), 14, '0')); // 45-58: Total credits in cents
-        rec.append(padLeft(String.valueOf(creditCount), 8, '0'));       // 59-66: Credit count
-        rec.append(padLeft("0", 14, '0'));                              // 67-80: Error correction debits
-        rec.append(padLeft("0", 8, '0'));                               // 81-88: Error correction debit count
-        rec.append(padLeft("0", 14, '0'));                              // 89-102: Error correction credits
-        rec.append(padLeft("0", 8, '0'));                               // 103-110: Error correction credit count
-        rec.append(padRight("", 1354));                                 // 111-1464: Filler
-
-        return padRight(rec.toString(), RECORD_LENGTH);
+    /**
+     * Active bank accounts of the payees, in one query
+     */
+    private Map<Long, List<BankAccount>> findActiveBankAccounts(List<StatementPayment> payments) {
+        Set<Long> payeeIds = new HashSet<>();
+        for (StatementPayment payment : payments) {
+            if (payment.getPersonId() != null) {
+                payeeIds.add(payment.getPersonId());
+            }
+        }
+        Map<Long, List<BankAccount>> byPayee = new HashMap<>();
+        if (payeeIds.isEmpty()) {
+            return byPayee;
+        }
+        for (BankAccount account : bankAccountRepository.findByDriverIdInAndIsActiveTrue(payeeIds)) {
+            byPayee.computeIfAbsent(account.getDriver().getId(), k -> new ArrayList<>()).add(account);
+        }
+        return byPayee;
     }
 
-    // ==================== Utility Methods ====================
-
     /**
-     * Convert a LocalDate to CPA Julian format: 0YYDDD
+     * Continue file creation numbers from the one set in the EFT settings
      */
-    private String toJulianDate(LocalDate date) {
-        int year = date.getYear() % 100;
-        int dayOfYear = date.get(ChronoField.DAY_OF_YEAR);
-        return "0" + padLeft(String.valueOf(year), 2, '0') + padLeft(String.valueOf(dayOfYear), 3, '0');
+    public void restartFileCreationNumbers(int nextFileCreationNumber) {
+        sequenceAllocator.reset(FILE_CREATION_SEQUENCE, nextFileCreationNumber - 1L);
     }
 
-    private static String padRight(String str, int len) {
-        if (str == null) str = "";
-        if (str.length() >= len) return str.substring(0, len);
-        return str + " ".repeat(len - str.length());
+    /**
+     * Next file creation number, wrapping around at 9999
+     */
+    private int nextFileCreationNumber(EftConfig config) {
+        long next = sequenceAllocator.next(FILE_CREATION_SEQUENCE, 1, () -> config.getFileCreationNumber() - 1);
+        int fileCreationNum = (int) ((next - 1) % 9999) + 1;
+        config.setFileCreationNumber((fileCreationNum % 9999) + 1);
+        return fileCreationNum;
     }
 
-    private static String padLeft(String str, int len, char pad) {
-        if (str == null) str = "";
-        if (str.length() >= len) return str.substring(0, len);
-        return String.valueOf(pad).repeat(len - str.length()) + str;
+    /**
+     * Get generation history for a batch.
+     */
+    public List<EftFileGeneration> getGenerationHistory(Long batchId) {
+        return eftFileGenerationRepository.findByBatchId(batchId);
     }
 
     // ==================== Inner Classes ====================
 
-    private record EftPaymentRecord(StatementPayment payment, BankAccount bankAccount) {}
+    record EftPaymentRecord(StatementPayment payment, BankAccount bankAccount) {}
+
+    /**
+     * A generated EFT file that has been recorded but not yet written
+     */
+    public static class EftFile {
+        public String fileName;
+        public int recordCount;
+        public BigDecimal totalAmount;
+        public List<String> warnings;
+        public Long generationId;
+
+        private final EftConfig config;
+        private final int fileCreationNum;
+        private final LocalDate processingDate;
+        private final List<EftPaymentRecord> records;
+
+        EftFile(EftConfig config, int fileCreationNum, LocalDate processingDate, List<EftPaymentRecord> records) {
+            this.config = config;
+            this.fileCreationNum = fileCreationNum;
+            this.processingDate = processingDate;
+            this.records = records;
+        }
+    }
 
     public static class EftGenerationResult {
         public String fileContent;
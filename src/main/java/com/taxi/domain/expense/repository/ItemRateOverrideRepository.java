@@ -60,4 +60,10 @@ public interface ItemRateOverrideRepository extends JpaRepository<ItemRateOverri
             @Param("ownerDriverNumber") String ownerDriverNumber,
             @Param("startDate") LocalDate startDate,
             @Param("endDate") LocalDate endDate);
+
+    /**
+     * All active overrides with their item rate (for the in-memory rate tables)
+     */
+    @Query("SELECT o FROM ItemRateOverride o JOIN FETCH o.itemRate WHERE o.isActive = true")
+    List<ItemRateOverride> findAllActiveWithItemRate();
 }
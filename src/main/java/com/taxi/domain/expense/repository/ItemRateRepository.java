@@ -82,4 +82,10 @@ public interface ItemRateRepository extends JpaRepository<ItemRate, Long> {
      * Count active rates
      */
     long countByIsActiveTrue();
+
+    /**
+     * All rates with their attribute type (for the in-memory rate tables)
+     */
+    @Query("SELECT r FROM ItemRate r LEFT JOIN FETCH r.attributeType")
+    List<ItemRate> findAllWithAttributeType();
 }
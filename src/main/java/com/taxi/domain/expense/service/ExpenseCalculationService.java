@@ -1,6 +1,6 @@
 package com.taxi.domain.expense.service;
 
-import com.taxi.domain.cab.repository.CabAttributeValueRepository;
+import com.taxi.domain.cab.service.CabAttributeTimeline;
 import com.taxi.domain.driver.model.Driver;
 import com.taxi.domain.driver.repository.DriverRepository;
 import com.taxi.domain.expense.model.OneTimeExpense;
@@ -51,7 +51,7 @@ public class ExpenseCalculationService {
     private final OneTimeExpenseRepository oneTimeExpenseRepository;
     private final DriverRepository driverRepository;
     private final CabShiftRepository cabShiftRepository;
-    private final CabAttributeValueRepository cabAttributeValueRepository;
+    private final CabAttributeTimeline cabAttributeTimeline;
 
     /**
      * Calculate all recurring expenses for a person (driver or owner)
@@ -134,7 +134,7 @@ public class ExpenseCalculationService {
                 // For each shift, get its currently active attributes and find expenses for those attributes
                 Set<Long> attributeTypeIds = new java.util.HashSet<>();
                 for (CabShift shift : personShifts) {
-                    var shiftAttributes = cabAttributeValueRepository.findCurrentAttributesByShiftId(shift.getId());
+                    var shiftAttributes = cabAttributeTimeline.currentAttributes(shift.getId());
                     shiftAttributes.forEach(attr -> attributeTypeIds.add(attr.getAttributeType().getId()));
                 }
 
@@ -260,7 +260,7 @@ public class ExpenseCalculationService {
                 // Find which shifts have this attribute
                 int expandedCount = 0;
                 for (CabShift shift : personShifts) {
-                    var shiftAttributes = cabAttributeValueRepository.findCurrentAttributesByShiftId(shift.getId());
+                    var shiftAttributes = cabAttributeTimeline.currentAttributes(shift.getId());
                     boolean hasAttribute = shiftAttributes.stream()
                             .anyMatch(attr -> attr.getAttributeType().getId().equals(expense.getAttributeTypeId()));
 
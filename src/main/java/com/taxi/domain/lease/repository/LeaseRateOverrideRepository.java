@@ -149,4 +149,4 @@ public interface LeaseRateOverrideRepository extends JpaRepository<LeaseRateOver
         @Param("startDate") LocalDate startDate,
         @Param("endDate") LocalDate endDate
     );
-}
\ No newline at end of file
+}
@@ -10,6 +10,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.DayOfWeek;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -112,4 +113,10 @@ public interface LeaseRateRepository extends JpaRepository<LeaseRate, Long> {
      * Count rates for a plan
      */
     long countByLeasePlan(LeasePlan leasePlan);
+
+    /**
+     * Find all rates of several lease plans
+     */
+    @Query("SELECT lr FROM LeaseRate lr WHERE lr.leasePlan.id IN :planIds")
+    List<LeaseRate> findByLeasePlanIdIn(@Param("planIds") Collection<Long> planIds);
 }
@@ -0,0 +1,202 @@
+package com.taxi.domain.lease.service;
+
+import com.taxi.domain.lease.model.LeaseRateOverride;
+import com.taxi.domain.lease.repository.LeaseRateOverrideRepository;
+import com.taxi.infrastructure.datachange.DataSource;
+import com.taxi.infrastructure.datachange.DataVersionService;
+import com.taxi.infrastructure.datachange.EntityChangeObserver.ChangeType;
+import com.taxi.infrastructure.datachange.TransactionalChangeObserver;
+import com.taxi.infrastructure.multitenancy.TenantContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-tenant compiled index of lease rate overrides, answering getApplicableLeaseRate
+ * lookups without a query.
+ *
+ * Active overrides are grouped by (owner, beneficiary, cab, shift type, day of week), each
+ * dimension either a value or "all". Within a group the date axis is split at every start
+ * and end date, and each segment keeps the override that wins there, so a lookup is a
+ * floor search per group. A shift matches at most 8 groups per tier (exact or "all" on cab,
+ * shift and day); the best of those wins, in the same order the queries used:
+ * - beneficiary overrides: priority DESC, id DESC
+ * - owner-level overrides: priority DESC, createdAt DESC
+ *
+ * Built from the whole table on first use and kept under the tenant's RATES version
+ * (DataVersionService). Override writes bump that version in their transaction, so the next
+ * lookup on any node - checking the version once per transaction - rebuilds the index.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LeaseRateOverrideIndex implements TransactionalChangeObserver<DataSource> {
+
+    private static final String ALL = "";
+
+    private static final Comparator<LeaseRateOverride> BENEFICIARY_ORDER =
+            Comparator.comparing(LeaseRateOverrideIndex::priority).reversed()
+                    .thenComparing(LeaseRateOverride::getId, Comparator.nullsLast(Comparator.reverseOrder()));
+
+    private static final Comparator<LeaseRateOverride> OWNER_ORDER =
+            Comparator.comparing(LeaseRateOverrideIndex::priority).reversed()
+                    .thenComparing(LeaseRateOverride::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()))
+                    .thenComparing(LeaseRateOverride::getId, Comparator.nullsLast(Comparator.reverseOrder()));
+
+    private final LeaseRateOverrideRepository leaseRateOverrideRepository;
+    private final DataVersionService dataVersionService;
+
+    private final Map<String, Compiled> indexes = new ConcurrentHashMap<>();
+
+    private record GroupKey(String owner, String beneficiary, String cab, String shiftType, String dayOfWeek) {}
+
+    /**
+     * Date segments of one group: segment start -> winning override (null where none applies)
+     */
+    private record Timeline(TreeMap<LocalDate, LeaseRateOverride> segments) {
+        LeaseRateOverride at(LocalDate date) {
+            Entry<LocalDate, LeaseRateOverride> entry = segments.floorEntry(date);
+            return entry != null ? entry.getValue() : null;
+        }
+    }
+
+    private record Compiled(long version, Map<GroupKey, Timeline> groups) {}
+
+    @Override
+    public Collection<DataSource> keysFor(Object entity, ChangeType changeType, PreviousState previous) {
+        return entity instanceof LeaseRateOverride ? List.of(DataSource.RATES) : List.of();
+    }
+
+    @Override
+    public void beforeCommit(Set<DataSource> sources) {
+        sources.forEach(dataVersionService::bump);
+    }
+
+    /**
+     * Winning override for a shift - beneficiary overrides first, then owner-level - or null
+     */
+    public LeaseRateOverride find(String ownerDriverNumber, String workingDriverNumber,
+                                  String cabNumber, String shiftType, LocalDate date) {
+        Map<GroupKey, Timeline> groups = compiled().groups();
+        String owner = normalize(ownerDriverNumber);
+        String cab = normalize(cabNumber);
+        String shift = normalize(shiftType);
+        String day = date.getDayOfWeek().toString();
+
+        String beneficiary = normalize(workingDriverNumber);
+        if (!beneficiary.isEmpty()) {
+            LeaseRateOverride match = best(groups, owner, beneficiary, cab, shift, day, date, BENEFICIARY_ORDER);
+            if (match != null) {
+                return match;
+            }
+        }
+        return best(groups, owner, ALL, cab, shift, day, date, OWNER_ORDER);
+    }
+
+    private static LeaseRateOverride best(Map<GroupKey, Timeline> groups, String owner, String beneficiary,
+                                          String cab, String shift, String day, LocalDate date,
+                                          Comparator<LeaseRateOverride> order) {
+        LeaseRateOverride best = null;
+        for (String c : new String[] { cab, ALL }) {
+            for (String s : new String[] { shift, ALL }) {
+                for (String d : new String[] { day, ALL }) {
+                    Timeline timeline = groups.get(new GroupKey(owner, beneficiary, c, s, d));
+                    LeaseRateOverride candidate = timeline != null ? timeline.at(date) : null;
+                    if (candidate != null && (best == null || order.compare(candidate, best) < 0)) {
+                        best = candidate;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    private Compiled compiled() {
+        String tenant = tenant();
+        // Read before loading: a write committed during the build leaves the result outdated
+        long version = dataVersionService.version(DataSource.RATES);
+        Compiled compiled = indexes.get(tenant);
+        if (compiled != null && compiled.version() == version) {
+            return compiled;
+        }
+        compiled = new Compiled(version, compile(leaseRateOverrideRepository.findAll()));
+        if (DataVersionService.isCacheableRead()) {
+            indexes.put(tenant, compiled);
+        }
+        log.debug("Compiled lease rate override index for tenant {}: {} groups", tenant, compiled.groups().size());
+        return compiled;
+    }
+
+    private static Map<GroupKey, Timeline> compile(List<LeaseRateOverride> overrides) {
+        Map<GroupKey, List<LeaseRateOverride>> grouped = new HashMap<>();
+        for (LeaseRateOverride o : overrides) {
+            if (!Boolean.TRUE.equals(o.getIsActive()) || o.getStartDate() == null || o.getOwnerDriverNumber() == null) {
+                continue;
+            }
+            GroupKey key = new GroupKey(normalize(o.getOwnerDriverNumber()), normalize(o.getBeneficiaryDriverNumber()),
+                    normalize(o.getCabNumber()), normalize(o.getShiftType()), normalize(o.getDayOfWeek()));
+            grouped.computeIfAbsent(key, k -> new ArrayList<>()).add(o);
+        }
+
+        Map<GroupKey, Timeline> groups = new HashMap<>(grouped.size() * 2);
+        grouped.forEach((key, members) -> {
+            Comparator<LeaseRateOverride> order = key.beneficiary().isEmpty() ? OWNER_ORDER : BENEFICIARY_ORDER;
+            members.sort(order);
+
+            // Segment boundaries: every start date, and the day after every end date
+            TreeSet<LocalDate> boundaries = new TreeSet<>();
+            for (LeaseRateOverride o : members) {
+                boundaries.add(o.getStartDate());
+                if (o.getEndDate() != null) {
+                    boundaries.add(o.getEndDate().plusDays(1));
+                }
+            }
+
+            TreeMap<LocalDate, LeaseRateOverride> segments = new TreeMap<>();
+            for (LocalDate boundary : boundaries) {
+                // Members are in winning order, so the first one covering the segment wins it
+                LeaseRateOverride winner = null;
+                for (LeaseRateOverride o : members) {
+                    if (!o.getStartDate().isAfter(boundary)
+                            && (o.getEndDate() == null || !o.getEndDate().isBefore(boundary))) {
+                        winner = o;
+                        break;
+                    }
+                }
+                segments.put(boundary, winner);
+            }
+            groups.put(key, new Timeline(segments));
+        });
+        return groups;
+    }
+
+    private static int priority(LeaseRateOverride o) {
+        return o.getPriority() != null ? o.getPriority() : 0;
+    }
+
+    /**
+     * Matching is case-insensitive and null/empty means "all"
+     */
+    private static String normalize(String value) {
+        return value == null ? ALL : value.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static String tenant() {
+        String tenant = TenantContext.peekCurrentTenant();
+        return tenant != null ? tenant : TenantContext.SYSTEM_TENANT;
+    }
+}
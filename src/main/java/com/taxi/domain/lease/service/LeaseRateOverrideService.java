@@ -9,7 +9,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
@@ -27,6 +26,7 @@ public class LeaseRateOverrideService {
 
     private final LeaseRateOverrideRepository leaseRateOverrideRepository;
     private final DriverRepository driverRepository;
+    private final LeaseRateOverrideIndex overrideIndex;
 
     /**
      * Result object for lease rate override lookup
@@ -78,6 +78,8 @@ public class LeaseRateOverrideService {
      * 3. Return the first (highest priority) match found
      * 4. If no override found, return null (caller should use default rate)
      *
+     * Resolved in memory by LeaseRateOverrideIndex, so it is cheap enough to call per shift.
+     *
      * @param ownerDriverNumber The cab owner
      * @param workingDriverNumber The driver actually working the shift (for beneficiary check)
      * @param cabNumber The cab number
@@ -85,7 +87,6 @@ public class LeaseRateOverrideService {
      * @param date The date of the shift
      * @return OverrideRateResult with base and mileage components, or null if no override
      */
-    @Transactional(readOnly = true)
     public OverrideRateResult getApplicableLeaseRate(
             String ownerDriverNumber,
             String workingDriverNumber,
@@ -102,126 +103,19 @@ public class LeaseRateOverrideService {
             return null;
         }
 
-        DayOfWeek dayOfWeek = date.getDayOfWeek();
-        String dayOfWeekStr = dayOfWeek.toString();
-
-        log.debug("Searching for lease rate: owner='{}', driver='{}', cab='{}', shift='{}', date='{}'",
+        // Both tiers are answered by the compiled per-tenant index (no query per shift)
+        LeaseRateOverride matched = overrideIndex.find(
             ownerDriverNumber, workingDriverNumber, cabNumber, shiftType, date);
 
-        // ✅ STEP 1: Check for driver-specific (beneficiary) overrides FIRST
-        if (workingDriverNumber != null && !workingDriverNumber.isEmpty()) {
-            List<LeaseRateOverride> beneficiaryOverrides = leaseRateOverrideRepository.findBeneficiaryOverrides(
-                ownerDriverNumber, workingDriverNumber, cabNumber, shiftType, dayOfWeekStr, date);
-
-            if (!beneficiaryOverrides.isEmpty()) {
-                LeaseRateOverride matched = beneficiaryOverrides.get(0);
-                log.debug("Beneficiary override found: id={}, beneficiary={}, structured={}, priority={}",
-                    matched.getId(), matched.getBeneficiaryDriverNumber(), matched.isStructuredMode(), matched.getPriority());
-                return convertToResult(matched);
-            }
-        }
-
-        // ✅ STEP 2: Check for owner-level (non-beneficiary) overrides
-        List<LeaseRateOverride> allOwnerOverrides = leaseRateOverrideRepository
-            .findByOwnerDriverNumberOrderByPriorityDescCreatedAtDesc(ownerDriverNumber);
-
-        if (allOwnerOverrides.isEmpty()) {
-            log.debug("No overrides found for owner: '{}'", ownerDriverNumber);
+        if (matched == null) {
+            log.debug("No matching override for owner='{}', driver='{}', cab='{}', shift='{}', date='{}'",
+                ownerDriverNumber, workingDriverNumber, cabNumber, shiftType, date);
             return null;
         }
 
-        log.debug("Found {} total overrides for owner '{}', checking for owner-level matches",
-            allOwnerOverrides.size(), ownerDriverNumber);
-
-        for (LeaseRateOverride override : allOwnerOverrides) {
-            // Skip beneficiary-specific overrides (already checked in STEP 1)
-            if (override.getBeneficiaryDriverNumber() != null && !override.getBeneficiaryDriverNumber().isEmpty()) {
-                log.debug("  Override {}: beneficiary-specific, skip in owner-level search", override.getId());
-                continue;
-            }
-
-            log.info("  Checking Override {}...", override.getId());
-
-            // Check 1: Is active flag
-            if (!override.getIsActive()) {
-                log.info("    ✗ Check 1 (Active): isActive={} - SKIP", override.getIsActive());
-                continue;
-            }
-            log.info("    ✓ Check 1 (Active): isActive=true");
-
-            // Check 2: Date range validation
-            if (date.isBefore(override.getStartDate())) {
-                log.info("    ✗ Check 2 (Date Range): requested date {} is BEFORE startDate {} - SKIP",
-                    date, override.getStartDate());
-                continue;
-            }
-            log.info("    ✓ Check 2a (Date Range): requested date {} is >= startDate {}", date, override.getStartDate());
-
-            if (override.getEndDate() != null && date.isAfter(override.getEndDate())) {
-                log.info("    ✗ Check 2 (Date Range): requested date {} is AFTER endDate {} - SKIP",
-                    date, override.getEndDate());
-                continue;
-            }
-            if (override.getEndDate() != null) {
-                log.info("    ✓ Check 2b (Date Range): requested date {} is <= endDate {}", date, override.getEndDate());
-            } else {
-                log.info("    ✓ Check 2b (Date Range): endDate is NULL (no expiry)");
-            }
-
-            // Check 3: Cab number match
-            if (override.getCabNumber() != null && !override.getCabNumber().isEmpty()) {
-                if (!override.getCabNumber().equalsIgnoreCase(cabNumber)) {
-                    log.info("    ✗ Check 3 (Cab): override cab='{}' does NOT match requested cab='{}' - SKIP",
-                        override.getCabNumber(), cabNumber);
-                    continue;
-                }
-                log.info("    ✓ Check 3 (Cab): override cab='{}' matches requested cab='{}'",
-                    override.getCabNumber(), cabNumber);
-            } else {
-                log.info("    ✓ Check 3 (Cab): override cabNumber is NULL (matches all cabs)");
-            }
-
-            // Check 4: Shift type match
-            if (override.getShiftType() != null && !override.getShiftType().isEmpty()) {
-                if (!override.getShiftType().equalsIgnoreCase(shiftType)) {
-                    log.info("    ✗ Check 4 (Shift): override shift='{}' does NOT match requested shift='{}' - SKIP",
-                        override.getShiftType(), shiftType);
-                    continue;
-                }
-                log.info("    ✓ Check 4 (Shift): override shift='{}' matches requested shift='{}'",
-                    override.getShiftType(), shiftType);
-            } else {
-                log.info("    ✓ Check 4 (Shift): override shiftType is NULL (matches all shifts)");
-            }
-
-            // Check 5: Day of week match
-            if (override.getDayOfWeek() != null && !override.getDayOfWeek().isEmpty()) {
-                if (!override.getDayOfWeek().equalsIgnoreCase(dayOfWeekStr)) {
-                    log.info("    ✗ Check 5 (Day): override day='{}' does NOT match requested day='{}' - SKIP",
-                        override.getDayOfWeek(), dayOfWeekStr);
-                    continue;
-                }
-                log.info("    ✓ Check 5 (Day): override day='{}' matches requested day='{}'",
-                    override.getDayOfWeek(), dayOfWeekStr);
-            } else {
-                log.info("    ✓ Check 5 (Day): override dayOfWeek is NULL (matches all days)");
-            }
-
-            // All checks passed! This is the highest priority match
-            log.info("✓✓✓ MATCH FOUND! Override id={}, structured={}, priority={}, cab={}, shift={}, day={}",
-                override.getId(), override.isStructuredMode(), override.getPriority(),
-                override.getCabNumber() != null ? override.getCabNumber() : "ALL",
-                override.getShiftType() != null ? override.getShiftType() : "ALL",
-                override.getDayOfWeek() != null ? override.getDayOfWeek() : "ALL");
-            log.info("=== LEASE RATE LOOKUP END (OWNER-LEVEL MATCH) ===");
-
-            return convertToResult(override);
-        }
-
-        log.info("✗✗✗ NO MATCHING OVERRIDE FOUND after checking all {} overrides for owner='{}', driver='{}', cab='{}', shift='{}', day='{}'",
-            allOwnerOverrides.size(), ownerDriverNumber, workingDriverNumber, cabNumber, shiftType, dayOfWeekStr);
-        log.info("=== LEASE RATE LOOKUP END (NOT FOUND) ===");
-        return null;
+        log.debug("Override matched: id={}, beneficiary={}, structured={}, priority={}",
+            matched.getId(), matched.getBeneficiaryDriverNumber(), matched.isStructuredMode(), matched.getPriority());
+        return convertToResult(matched);
     }
 
     /**
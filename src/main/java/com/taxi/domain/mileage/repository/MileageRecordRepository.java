@@ -10,6 +10,7 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -147,4 +148,19 @@ public interface MileageRecordRepository extends JpaRepository<MileageRecord, Lo
         @Param("driverNumber") String driverNumber,
         @Param("logonTime") LocalDateTime logonTime,
         @Param("logoffTime") LocalDateTime logoffTime);
+
+    /**
+     * Bulk variant of findByDriverNumberAndShiftTimes: every record of the given drivers that
+     * overlaps [from, to] with the same 15 minute tolerance. Callers narrow it per shift.
+     */
+    @Query(value = "SELECT m.* FROM mileage_records m " +
+           "WHERE m.driver_number IN (:driverNumbers) " +
+           "AND m.logon_time <= DATE_ADD(:toTime, INTERVAL 15 MINUTE) " +
+           "AND (m.logoff_time IS NULL OR m.logoff_time >= DATE_SUB(:fromTime, INTERVAL 15 MINUTE)) " +
+           "ORDER BY m.driver_number, m.logon_time ASC",
+           nativeQuery = true)
+    List<MileageRecord> findByDriverNumbersOverlapping(
+        @Param("driverNumbers") Collection<String> driverNumbers,
+        @Param("fromTime") LocalDateTime fromTime,
+        @Param("toTime") LocalDateTime toTime);
 }
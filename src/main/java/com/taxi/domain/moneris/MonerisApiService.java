@@ -1,27 +1,28 @@
 package com.taxi.domain.moneris;
 
-import com.taxi.domain.payment.model.CreditCardTransaction;
-import com.taxi.domain.payment.repository.CreditCardTransactionRepository;
-import com.taxi.domain.shift.model.DriverShift;
-import com.taxi.domain.shift.repository.DriverShiftRepository;
-import lombok.RequiredArgsConstructor;
+import com.taxi.domain.moneris.MonerisResponseParser.CardTotal;
+import com.taxi.domain.moneris.MonerisResponseParser.MonerisResponse;
+import com.taxi.domain.moneris.MonerisResponseParser.MonerisTransaction;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.*;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
-import org.w3c.dom.*;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import java.io.ByteArrayInputStream;
-import java.math.BigDecimal;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 
 /**
  * Service for communicating with the Moneris Gateway API.
@@ -30,9 +31,14 @@ import java.util.*;
  * Moneris Gateway endpoints:
  *   Production: https://www3.moneris.com/gateway2/servlet/MpgRequest
  *   Test:       https://esqa.moneris.com/gateway2/servlet/MpgRequest
+ *   Mock:       moneris.mock.url (local MonerisMockController, environment "MOCK")
+ *
+ * Requests go through the shared pooled monerisHttpClient with connect/read timeouts.
+ * Bulk sync fetches stores concurrently on monerisSyncExecutor; the fetch threads only do
+ * HTTP + StAX parsing, and each store's results are written on the calling (tenant-bound)
+ * thread by MonerisTransactionWriter as soon as that store completes.
  */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class MonerisApiService {
 
@@ -40,10 +46,25 @@ public class MonerisApiService {
     private static final String TEST_URL = "https://esqa.moneris.com/gateway2/servlet/MpgRequest";
 
     private final MonerisConfigRepository monerisConfigRepository;
-    private final CreditCardTransactionRepository transactionRepository;
-    private final DriverShiftRepository driverShiftRepository;
-
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final MonerisTransactionWriter transactionWriter;
+    private final HttpClient httpClient;
+    private final ThreadPoolTaskExecutor syncExecutor;
+
+    @Value("${moneris.http.read-timeout-ms:30000}")
+    private long readTimeoutMs;
+
+    @Value("${moneris.mock.url:http://localhost:8080/api/test/moneris/MpgRequest}")
+    private String mockUrl;
+
+    public MonerisApiService(MonerisConfigRepository monerisConfigRepository,
+                             MonerisTransactionWriter transactionWriter,
+                             @Qualifier("monerisHttpClient") HttpClient httpClient,
+                             @Qualifier("monerisSyncExecutor") ThreadPoolTaskExecutor syncExecutor) {
+        this.monerisConfigRepository = monerisConfigRepository;
+        this.transactionWriter = transactionWriter;
+        this.httpClient = httpClient;
+        this.syncExecutor = syncExecutor;
+    }
 
     // ========================
     // CRUD for Moneris Config
@@ -88,9 +109,9 @@ public class MonerisApiService {
 
         try {
             String response = sendRequest(xml, environment);
-            Document doc = parseXml(response);
-            String responseCode = getXmlValue(doc, "ResponseCode");
-            String message = getXmlValue(doc, "Message");
+            MonerisResponse parsed = parse(response);
+            String responseCode = parsed.responseCode();
+            String message = parsed.message();
 
             result.put("storeId", storeId);
             result.put("environment", environment);
@@ -132,9 +153,9 @@ public class MonerisApiService {
 
     /**
      * Sync transactions from all configured Moneris accounts for a date range.
-     * Iterates through each moneris_config entry and attempts to pull transactions.
+     * Stores are fetched in parallel; each store is written in its own transaction
+     * as soon as its fetch completes, so one slow or failing store doesn't hold the rest.
      */
-    @Transactional
     public Map<String, Object> syncAllTransactions(LocalDate startDate, LocalDate endDate) {
         List<MonerisConfig> configs = monerisConfigRepository.findAll();
         Map<String, Object> result = new LinkedHashMap<>();
@@ -142,19 +163,52 @@ public class MonerisApiService {
         result.put("endDate", endDate.toString());
         result.put("configCount", configs.size());
 
+        String uploadBatchId = "MONERIS-" + UUID.randomUUID();
+        ExecutorCompletionService<StoreFetch> completion = new ExecutorCompletionService<>(syncExecutor);
+        Map<Future<StoreFetch>, MonerisConfig> submitted = new HashMap<>();
+        for (MonerisConfig config : configs) {
+            submitted.put(completion.submit(() -> fetchStore(config, startDate, endDate)), config);
+        }
+
+        Map<Long, Map<String, Object>> resultsByConfig = new HashMap<>();
+        for (int i = 0; i < configs.size(); i++) {
+            try {
+                Future<StoreFetch> done = completion.take();
+                MonerisConfig config = submitted.get(done);
+                resultsByConfig.put(config.getId(), writeStore(done.get(), uploadBatchId));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("Moneris sync interrupted after {} of {} stores", i, configs.size());
+                break;
+            } catch (ExecutionException e) {
+                // fetchStore catches its own errors, so this is unexpected
+                log.error("Moneris fetch task failed", e.getCause());
+            }
+        }
+
         int totalNew = 0;
         int totalDuplicates = 0;
         int totalErrors = 0;
         List<Map<String, Object>> perCabResults = new ArrayList<>();
 
+        // Report in config order regardless of completion order
         for (MonerisConfig config : configs) {
-            Map<String, Object> cabResult = syncTransactionsForConfig(config, startDate, endDate);
+            Map<String, Object> cabResult = resultsByConfig.get(config.getId());
+            if (cabResult == null) {
+                cabResult = baseResult(config);
+                cabResult.put("connected", false);
+                cabResult.put("error", "Sync did not complete for this store");
+                cabResult.put("newTransactions", 0);
+                cabResult.put("duplicates", 0);
+                cabResult.put("errors", 1);
+            }
             perCabResults.add(cabResult);
             totalNew += (int) cabResult.getOrDefault("newTransactions", 0);
             totalDuplicates += (int) cabResult.getOrDefault("duplicates", 0);
             totalErrors += (int) cabResult.getOrDefault("errors", 0);
         }
 
+        result.put("uploadBatchId", uploadBatchId);
         result.put("totalNewTransactions", totalNew);
         result.put("totalDuplicates", totalDuplicates);
         result.put("totalErrors", totalErrors);
@@ -165,42 +219,75 @@ public class MonerisApiService {
     /**
      * Sync transactions for a single Moneris config (one cab/store).
      */
-    @Transactional
     public Map<String, Object> syncTransactionsForConfig(MonerisConfig config, LocalDate startDate, LocalDate endDate) {
-        Map<String, Object> result = new LinkedHashMap<>();
-        result.put("configId", config.getId());
-        result.put("cabNumber", config.getCabNumber());
-        result.put("storeId", config.getMonerisStoreId());
-        result.put("merchantNumber", config.getMerchantNumber());
+        return writeStore(fetchStore(config, startDate, endDate), "MONERIS-" + UUID.randomUUID());
+    }
 
-        int newCount = 0;
-        int duplicateCount = 0;
-        int errorCount = 0;
+    /**
+     * Result of one store's fetch - produced on the executor, no DB access
+     */
+    private record StoreFetch(MonerisConfig config, MonerisResponse response, Exception error) {}
 
+    private StoreFetch fetchStore(MonerisConfig config, LocalDate startDate, LocalDate endDate) {
         try {
-            // Try open_totals to verify connection and get batch info
+            // open_totals is the only listing-style operation the Gateway API offers;
+            // Transaction elements are picked up when the endpoint returns them (e.g. the mock)
             String xml = buildXml(config.getMonerisStoreId(), config.getMonerisApiToken(),
                     "<open_totals><ecr_number>1</ecr_number></open_totals>");
-            String response = sendRequest(xml, config.getMonerisEnvironment());
-            log.info("Moneris open_totals for cab {} (store {}): {}", config.getCabNumber(), config.getMonerisStoreId(), response);
+            MonerisResponse response = fetch(xml, config.getMonerisEnvironment());
+
+            List<MonerisTransaction> inRange = response.transactions().stream()
+                    .filter(t -> t.transDate() == null
+                            || (!t.transDate().isBefore(startDate) && !t.transDate().isAfter(endDate)))
+                    .collect(Collectors.toList());
+            return new StoreFetch(config, new MonerisResponse(response.responseCode(), response.message(),
+                    response.cardTotals(), inRange), null);
+        } catch (Exception e) {
+            log.error("Moneris sync failed for cab {} store {}", config.getCabNumber(), config.getMonerisStoreId(), e);
+            return new StoreFetch(config, null, e);
+        }
+    }
 
-            Document doc = parseXml(response);
-            String responseCode = getXmlValue(doc, "ResponseCode");
-            result.put("responseCode", responseCode);
-            result.put("connected", responseCode != null);
+    private Map<String, Object> writeStore(StoreFetch fetch, String uploadBatchId) {
+        MonerisConfig config = fetch.config();
+        Map<String, Object> result = baseResult(config);
 
-            // The legacy Gateway API doesn't have a transaction-listing endpoint.
-            // open_totals gives batch-level summaries only.
-            // We log the connection status and return guidance.
+        if (fetch.error() != null) {
+            result.put("connected", false);
+            result.put("error", fetch.error().getMessage());
+            result.put("newTransactions", 0);
+            result.put("duplicates", 0);
+            result.put("errors", 1);
+            return result;
+        }
+
+        MonerisResponse response = fetch.response();
+        result.put("responseCode", response.responseCode());
+        result.put("connected", response.responseCode() != null);
+
+        int newCount = 0;
+        int duplicateCount = 0;
+        int errorCount = 0;
+
+        if (response.transactions().isEmpty()) {
             result.put("message",
                     "Connected to Moneris (Store: " + config.getMonerisStoreId() + "). " +
                     "The Gateway API returns batch totals only — individual transactions require CSV upload from the Moneris Go Portal, " +
                     "or migration to the Moneris Unified API (api.moneris.io) with OAuth credentials.");
-        } catch (Exception e) {
-            log.error("Moneris sync failed for cab {} store {}", config.getCabNumber(), config.getMonerisStoreId(), e);
-            result.put("connected", false);
-            result.put("error", e.getMessage());
-            errorCount++;
+        } else {
+            try {
+                MonerisTransactionWriter.WriteResult written =
+                        transactionWriter.write(config, response.transactions(), uploadBatchId);
+                newCount = written.getNewTransactions();
+                duplicateCount = written.getDuplicates();
+                errorCount = written.getErrors();
+                result.put("message", "Fetched " + response.transactions().size() + " transactions");
+            } catch (Exception e) {
+                log.error("Writing Moneris transactions failed for cab {} store {}",
+                        config.getCabNumber(), config.getMonerisStoreId(), e);
+                result.put("error", e.getMessage());
+                errorCount = response.transactions().size();
+            }
         }
 
         result.put("newTransactions", newCount);
@@ -209,6 +296,15 @@ public class MonerisApiService {
         return result;
     }
 
+    private Map<String, Object> baseResult(MonerisConfig config) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("configId", config.getId());
+        result.put("cabNumber", config.getCabNumber());
+        result.put("storeId", config.getMonerisStoreId());
+        result.put("merchantNumber", config.getMerchantNumber());
+        return result;
+    }
+
     // ========================
     // Open Totals
     // ========================
@@ -230,18 +326,16 @@ public class MonerisApiService {
         result.put("rawResponse", response);
 
         try {
-            Document doc = parseXml(response);
-            result.put("responseCode", getXmlValue(doc, "ResponseCode"));
-            result.put("message", getXmlValue(doc, "Message"));
+            MonerisResponse parsed = parse(response);
+            result.put("responseCode", parsed.responseCode());
+            result.put("message", parsed.message());
 
-            NodeList cardTotals = doc.getElementsByTagName("CardType");
             List<Map<String, String>> cards = new ArrayList<>();
-            for (int i = 0; i < cardTotals.getLength(); i++) {
-                Element el = (Element) cardTotals.item(i);
+            for (CardTotal total : parsed.cardTotals()) {
                 Map<String, String> card = new LinkedHashMap<>();
-                card.put("type", getChildText(el, "Type"));
-                card.put("count", getChildText(el, "Count"));
-                card.put("amount", getChildText(el, "Amount"));
+                card.put("type", total.type());
+                card.put("count", total.count());
+                card.put("amount", total.amount());
                 cards.add(card);
             }
             result.put("cardTotals", cards);
@@ -264,38 +358,57 @@ public class MonerisApiService {
                 "</request>";
     }
 
-    private String sendRequest(String xml, String environment) {
-        String url = "PROD".equals(environment) ? PROD_URL : TEST_URL;
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_XML);
-        HttpEntity<String> entity = new HttpEntity<>(xml, headers);
+    private String resolveUrl(String environment) {
+        if ("PROD".equals(environment)) return PROD_URL;
+        if ("MOCK".equals(environment)) return mockUrl;
+        return TEST_URL;
+    }
 
+    private HttpRequest buildRequest(String xml, String environment) {
+        String url = resolveUrl(environment);
         log.debug("Sending Moneris request to {}", url);
-        ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.POST, entity, String.class);
-
-        if (!response.getStatusCode().is2xxSuccessful()) {
-            throw new RuntimeException("Moneris API returned HTTP " + response.getStatusCode());
-        }
-        return response.getBody();
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofMillis(readTimeoutMs))
+                .header("Content-Type", "application/xml")
+                .POST(HttpRequest.BodyPublishers.ofString(xml, StandardCharsets.UTF_8))
+                .build();
     }
 
-    private Document parseXml(String xml) throws Exception {
-        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-        factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
-        factory.setFeature("http://xml.org/sax/features/external-general-entities", false);
-        factory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
-        DocumentBuilder builder = factory.newDocumentBuilder();
-        return builder.parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+    /**
+     * Send a request and return the raw body (connection test / open totals, where the raw XML is shown)
+     */
+    private String sendRequest(String xml, String environment) {
+        try {
+            HttpResponse<String> response = httpClient.send(buildRequest(xml, environment),
+                    HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+            if (response.statusCode() / 100 != 2) {
+                throw new RuntimeException("Moneris API returned HTTP " + response.statusCode());
+            }
+            return response.body();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Moneris request interrupted", e);
+        } catch (java.io.IOException e) {
+            throw new RuntimeException("Moneris request failed: " + e.getMessage(), e);
+        }
     }
 
-    private String getXmlValue(Document doc, String tagName) {
-        NodeList nodes = doc.getElementsByTagName(tagName);
-        return nodes.getLength() > 0 ? nodes.item(0).getTextContent() : null;
+    /**
+     * Send a request and stream-parse the body without buffering it as a String
+     */
+    private MonerisResponse fetch(String xml, String environment) throws Exception {
+        HttpResponse<InputStream> response = httpClient.send(buildRequest(xml, environment),
+                HttpResponse.BodyHandlers.ofInputStream());
+        try (InputStream body = response.body()) {
+            if (response.statusCode() / 100 != 2) {
+                throw new RuntimeException("Moneris API returned HTTP " + response.statusCode());
+            }
+            return MonerisResponseParser.parse(body);
+        }
     }
 
-    private String getChildText(Element parent, String tagName) {
-        NodeList nodes = parent.getElementsByTagName(tagName);
-        return nodes.getLength() > 0 ? nodes.item(0).getTextContent() : null;
+    private MonerisResponse parse(String xml) throws Exception {
+        return MonerisResponseParser.parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
     }
 
     private String escapeXml(String val) {
@@ -0,0 +1,196 @@
+package com.taxi.domain.moneris;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming (StAX) parser for Moneris Gateway XML responses.
+ *
+ * Reads the receipt header (ResponseCode, Message), batch totals (CardType blocks)
+ * and any Transaction elements in a single forward pass without building a DOM,
+ * so large responses are never held in memory twice.
+ *
+ * Transaction element layout (as returned by the mock endpoint):
+ * <pre>
+ * &lt;Transaction&gt;
+ *   &lt;TransID&gt;..&lt;/TransID&gt; &lt;AuthCode&gt;..&lt;/AuthCode&gt; &lt;TerminalId&gt;..&lt;/TerminalId&gt;
+ *   &lt;TransDate&gt;2026-03-01&lt;/TransDate&gt; &lt;TransTime&gt;13:45:10&lt;/TransTime&gt;
+ *   &lt;Card&gt;V&lt;/Card&gt; &lt;MaskedPan&gt;4520***2498&lt;/MaskedPan&gt;
+ *   &lt;Amount&gt;24.50&lt;/Amount&gt; &lt;Tip&gt;3.00&lt;/Tip&gt;
+ *   &lt;TransType&gt;purchase|refund&lt;/TransType&gt; &lt;Settled&gt;true&lt;/Settled&gt;
+ *   &lt;SettlementDate&gt;2026-03-02&lt;/SettlementDate&gt; &lt;BatchNo&gt;..&lt;/BatchNo&gt; &lt;ReferenceNum&gt;..&lt;/ReferenceNum&gt;
+ * &lt;/Transaction&gt;
+ * </pre>
+ */
+public final class MonerisResponseParser {
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createFactory();
+
+    private MonerisResponseParser() {}
+
+    private static XMLInputFactory createFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        // No DTDs / external entities (XXE)
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+
+    /**
+     * Parsed Moneris response
+     */
+    public record MonerisResponse(String responseCode,
+                                  String message,
+                                  List<CardTotal> cardTotals,
+                                  List<MonerisTransaction> transactions) {}
+
+    /**
+     * Batch total for one card type
+     */
+    public record CardTotal(String type, String count, String amount) {}
+
+    /**
+     * One transaction line
+     */
+    public record MonerisTransaction(String transId,
+                                     String authCode,
+                                     String terminalId,
+                                     LocalDate transDate,
+                                     LocalTime transTime,
+                                     String card,
+                                     String maskedPan,
+                                     BigDecimal amount,
+                                     BigDecimal tip,
+                                     String transType,
+                                     boolean settled,
+                                     LocalDate settlementDate,
+                                     String batchNo,
+                                     String referenceNum) {}
+
+    public static MonerisResponse parse(InputStream in) throws XMLStreamException {
+        XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(in, "UTF-8");
+        try {
+            String responseCode = null;
+            String message = null;
+            List<CardTotal> cardTotals = new ArrayList<>();
+            List<MonerisTransaction> transactions = new ArrayList<>();
+
+            while (reader.hasNext()) {
+                if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                    continue;
+                }
+                switch (reader.getLocalName()) {
+                    case "ResponseCode":
+                        if (responseCode == null) responseCode = nullIfBlank(reader.getElementText());
+                        break;
+                    case "Message":
+                        if (message == null) message = nullIfBlank(reader.getElementText());
+                        break;
+                    case "CardType":
+                        cardTotals.add(toCardTotal(readChildren(reader, "CardType")));
+                        break;
+                    case "Transaction":
+                        transactions.add(toTransaction(readChildren(reader, "Transaction")));
+                        break;
+                    default:
+                        break;
+                }
+            }
+            return new MonerisResponse(responseCode, message, cardTotals, transactions);
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Flatten the current element's descendants until its end tag.
+     * Leaf values are keyed by local name (first occurrence wins) and by path
+     * (e.g. "Purchase/Count"); the element's own mixed text is kept under "_text"
+     * (real Gateway responses put the card type as text: &lt;CardType&gt;V&lt;Purchase&gt;...).
+     */
+    private static Map<String, String> readChildren(XMLStreamReader reader, String elementName) throws XMLStreamException {
+        Map<String, String> values = new HashMap<>();
+        Deque<String> path = new ArrayDeque<>();
+        StringBuilder ownText = new StringBuilder();
+        StringBuilder text = new StringBuilder();
+
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                path.push(reader.getLocalName());
+                text.setLength(0);
+            } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA) {
+                (path.isEmpty() ? ownText : text).append(reader.getText());
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                if (path.isEmpty()) {
+                    // End of elementName
+                    break;
+                }
+                String name = path.pop();
+                String value = nullIfBlank(text.toString());
+                if (value != null) {
+                    values.putIfAbsent(name, value);
+                    values.putIfAbsent(pathKey(path, name), value);
+                }
+                text.setLength(0);
+            }
+        }
+        String own = nullIfBlank(ownText.toString());
+        if (own != null) {
+            values.put("_text", own);
+        }
+        return values;
+    }
+
+    private static String pathKey(Deque<String> parents, String name) {
+        StringBuilder key = new StringBuilder();
+        Iterator<String> it = parents.descendingIterator();
+        while (it.hasNext()) {
+            key.append(it.next()).append('/');
+        }
+        return key.append(name).toString();
+    }
+
+    private static CardTotal toCardTotal(Map<String, String> v) {
+        String type = v.getOrDefault("Type", v.get("_text"));
+        String count = v.getOrDefault("Purchase/Count", v.get("Count"));
+        String amount = v.getOrDefault("Purchase/Amount", v.get("Amount"));
+        return new CardTotal(type, count, amount);
+    }
+
+    private static MonerisTransaction toTransaction(Map<String, String> v) {
+        return new MonerisTransaction(
+                v.get("TransID"),
+                v.get("AuthCode"),
+                v.get("TerminalId"),
+                v.get("TransDate") != null ? LocalDate.parse(v.get("TransDate")) : null,
+                v.get("TransTime") != null ? LocalTime.parse(v.get("TransTime")) : null,
+                v.get("Card"),
+                v.get("MaskedPan"),
+                v.get("Amount") != null ? new BigDecimal(v.get("Amount")) : null,
+                v.get("Tip") != null ? new BigDecimal(v.get("Tip")) : BigDecimal.ZERO,
+                v.get("TransType"),
+                "true".equalsIgnoreCase(v.get("Settled")),
+                v.get("SettlementDate") != null ? LocalDate.parse(v.get("SettlementDate")) : null,
+                v.get("BatchNo"),
+                v.get("ReferenceNum"));
+    }
+
+    private static String nullIfBlank(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+}
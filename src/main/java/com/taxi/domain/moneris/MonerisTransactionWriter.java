@@ -0,0 +1,232 @@
+package com.taxi.domain.moneris;
+
+import com.taxi.domain.moneris.MonerisResponseParser.MonerisTransaction;
+import com.taxi.domain.payment.repository.CreditCardTransactionRepository;
+import com.taxi.domain.report.service.DriverLedgerService;
+import com.taxi.domain.shift.model.DriverShift;
+import com.taxi.domain.shift.repository.DriverShiftRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.BatchUpdateException;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Writes Moneris transactions for one store into credit_card_transaction
+ * using JDBC batched upserts keyed on uk_cc_transaction_natural
+ * (merchant_id, terminal_id, authorization_code, transaction_date, transaction_time).
+ *
+ * Existing rows only get their settlement fields refreshed; everything else
+ * (driver assignment, notes, manual edits) is left alone.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MonerisTransactionWriter {
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String UPSERT_SQL = "INSERT INTO credit_card_transaction " +
+            "(transaction_id, authorization_code, merchant_id, terminal_id, transaction_date, transaction_time, " +
+            "settlement_date, card_type, card_last_four, cardholder_number, cab_number, driver_number, " +
+            "amount, tip_amount, transaction_status, is_settled, is_refunded, batch_number, reference_number, " +
+            "upload_batch_id, upload_filename, upload_date, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 'MONERIS_API', ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE " +
+            // updated_at first so it compares against the old settlement values
+            "updated_at = IF(is_settled <> VALUES(is_settled) OR NOT (settlement_date <=> VALUES(settlement_date)), " +
+            "VALUES(updated_at), updated_at), " +
+            "transaction_status = IF(transaction_status = 'PENDING' AND VALUES(is_settled) = 1, 'SETTLED', transaction_status), " +
+            "is_settled = VALUES(is_settled), " +
+            "settlement_date = COALESCE(VALUES(settlement_date), settlement_date), " +
+            "batch_number = COALESCE(VALUES(batch_number), batch_number)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final CreditCardTransactionRepository transactionRepository;
+    private final DriverShiftRepository driverShiftRepository;
+    private final DriverLedgerService driverLedgerService;
+
+    /**
+     * Counts for one store's write
+     */
+    @Getter
+    public static class WriteResult {
+        private int newTransactions;
+        private int duplicates;
+        private int errors;
+    }
+
+    /**
+     * Upsert all transactions returned for a store in one transaction.
+     * Runs on the calling (tenant-bound) thread, never on the fetch pool.
+     */
+    @Transactional
+    public WriteResult write(MonerisConfig config, List<MonerisTransaction> transactions, String uploadBatchId) {
+        WriteResult result = new WriteResult();
+        List<MonerisTransaction> valid = new ArrayList<>();
+        for (MonerisTransaction t : transactions) {
+            if (t.authCode() == null || t.transDate() == null || t.transTime() == null || t.amount() == null) {
+                log.warn("Skipping Moneris transaction {} for store {}: missing auth code, date, time or amount",
+                        t.transId(), config.getMonerisStoreId());
+                result.errors++;
+            } else {
+                valid.add(t);
+            }
+        }
+        if (valid.isEmpty()) {
+            return result;
+        }
+
+        String merchantId = config.getMerchantNumber() != null ? config.getMerchantNumber() : config.getMonerisStoreId();
+        LocalDate minDate = valid.stream().map(MonerisTransaction::transDate).min(Comparator.naturalOrder()).get();
+        LocalDate maxDate = valid.stream().map(MonerisTransaction::transDate).max(Comparator.naturalOrder()).get();
+
+        // One query each for existing keys and the cab's shifts instead of one per transaction
+        Set<String> existingKeys = new HashSet<>();
+        for (Object[] row : transactionRepository.findNaturalKeysByMerchantAndDateRange(merchantId, minDate, maxDate)) {
+            existingKeys.add(naturalKey((String) row[0], (String) row[1], (LocalDate) row[2], (LocalTime) row[3]));
+        }
+        List<DriverShift> shifts = config.getCabNumber() != null
+                ? driverShiftRepository.findByCabNumberAndDateRange(config.getCabNumber(), minDate.minusDays(1), maxDate.plusDays(1))
+                : List.of();
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(UPSERT_SQL)) {
+                for (int from = 0; from < valid.size(); from += BATCH_SIZE) {
+                    List<MonerisTransaction> chunk = valid.subList(from, Math.min(from + BATCH_SIZE, valid.size()));
+                    List<Boolean> existed = new ArrayList<>(chunk.size());
+                    for (MonerisTransaction t : chunk) {
+                        String terminalId = t.terminalId() != null ? t.terminalId() : config.getMonerisStoreId();
+                        boolean refund = t.transType() != null && t.transType().toLowerCase().contains("refund");
+                        String status = refund ? "REFUNDED" : (t.settled() ? "SETTLED" : "PENDING");
+
+                        existed.add(!existingKeys.add(naturalKey(terminalId, t.authCode(), t.transDate(), t.transTime())));
+
+                        ps.setString(1, t.transId());
+                        ps.setString(2, t.authCode());
+                        ps.setString(3, merchantId);
+                        ps.setString(4, terminalId);
+                        ps.setDate(5, Date.valueOf(t.transDate()));
+                        ps.setTime(6, Time.valueOf(t.transTime()));
+                        ps.setDate(7, t.settlementDate() != null ? Date.valueOf(t.settlementDate()) : null);
+                        ps.setString(8, normalizeCardType(t.card()));
+                        ps.setString(9, lastFour(t.maskedPan()));
+                        ps.setString(10, t.maskedPan());
+                        ps.setString(11, config.getCabNumber());
+                        ps.setString(12, findDriverNumber(shifts, t.transDate(), t.transTime()));
+                        ps.setBigDecimal(13, t.amount());
+                        ps.setBigDecimal(14, t.tip() != null ? t.tip() : BigDecimal.ZERO);
+                        ps.setString(15, status);
+                        ps.setBoolean(16, t.settled());
+                        ps.setBoolean(17, refund);
+                        ps.setString(18, t.batchNo());
+                        ps.setString(19, t.referenceNum());
+                        ps.setString(20, uploadBatchId);
+                        ps.setTimestamp(21, now);
+                        ps.setTimestamp(22, now);
+                        ps.setTimestamp(23, now);
+                        ps.addBatch();
+                    }
+
+                    int[] counts;
+                    try {
+                        counts = ps.executeBatch();
+                    } catch (BatchUpdateException e) {
+                        counts = e.getUpdateCounts();
+                        log.error("Batch upsert of Moneris transactions for store {} partially failed: {}",
+                                config.getMonerisStoreId(), e.getMessage());
+                    }
+
+                    for (int k = 0; k < chunk.size(); k++) {
+                        int count = k < counts.length ? counts[k] : Statement.EXECUTE_FAILED;
+                        if (count == Statement.EXECUTE_FAILED) {
+                            result.errors++;
+                        } else if (existed.get(k)) {
+                            result.duplicates++;
+                        } else {
+                            result.newTransactions++;
+                        }
+                    }
+                }
+            }
+        });
+
+        // JDBC writes bypass the entity listeners - record the affected ledger months directly
+        // (this also invalidates the cached owner reports of those months)
+        if (result.newTransactions > 0) {
+            driverLedgerService.recordChange(DriverLedgerService.Change.between(minDate, maxDate.plusMonths(1)));
+        }
+
+        log.info("Moneris store {} (cab {}): {} new, {} existing, {} errors",
+                config.getMonerisStoreId(), config.getCabNumber(),
+                result.newTransactions, result.duplicates, result.errors);
+        return result;
+    }
+
+    /**
+     * Same shift matching as the CSV upload: minute-truncated time, open shifts capped at 12 hours
+     */
+    private String findDriverNumber(List<DriverShift> shifts, LocalDate date, LocalTime time) {
+        LocalDateTime txnTime = LocalDateTime.of(date, time.truncatedTo(ChronoUnit.MINUTES));
+        for (DriverShift shift : shifts) {
+            LocalDateTime start = shift.getLogonTime();
+            if (start == null) {
+                continue;
+            }
+            LocalDateTime end = shift.getLogoffTime() != null ? shift.getLogoffTime() : start.plusHours(12);
+            if (!txnTime.isBefore(start) && !txnTime.isAfter(end)) {
+                return shift.getDriverNumber();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Moneris card codes: V, M, AX, DC, NO, C1, P (Interac debit)
+     */
+    private static String normalizeCardType(String card) {
+        if (card == null) return null;
+        switch (card.trim().toUpperCase()) {
+            case "V": return "VISA";
+            case "M": return "MASTERCARD";
+            case "AX": return "AMEX";
+            case "NO": return "DISCOVER";
+            case "P": return "DEBIT";
+            default: return card.trim();
+        }
+    }
+
+    private static String lastFour(String maskedPan) {
+        if (maskedPan == null) return null;
+        String digits = maskedPan.replaceAll("\\D", "");
+        return digits.length() >= 4 ? digits.substring(digits.length() - 4) : null;
+    }
+
+    private static String naturalKey(String terminalId, String authCode, LocalDate date, LocalTime time) {
+        return terminalId + "|" + authCode + "|" + date + "|" + time;
+    }
+}
@@ -23,6 +23,7 @@ import java.time.LocalTime;
         },
         indexes = {
                 @Index(name = "idx_cc_transaction_date", columnList = "transaction_date"),
+                @Index(name = "idx_cc_date_time", columnList = "transaction_date, transaction_time"),
                 @Index(name = "idx_cc_settlement_date", columnList = "settlement_date"),
                 @Index(name = "idx_cc_driver_number", columnList = "driver_number"),
                 @Index(name = "idx_cc_cab_number", columnList = "cab_number"),
@@ -233,4 +233,18 @@ public interface CreditCardTransactionRepository extends JpaRepository<CreditCar
         LocalDate transactionDate,
         LocalTime transactionTime
     );
-}
\ No newline at end of file
+
+    /**
+     * Natural keys (terminal_id, authorization_code, transaction_date, transaction_time)
+     * for one merchant in a date range - used to classify bulk upserts as new vs existing
+     */
+    @Query("SELECT t.terminalId, t.authorizationCode, t.transactionDate, t.transactionTime " +
+           "FROM CreditCardTransaction t " +
+           "WHERE t.merchantId = :merchantId " +
+           "AND t.transactionDate BETWEEN :startDate AND :endDate")
+    List<Object[]> findNaturalKeysByMerchantAndDateRange(
+        @Param("merchantId") String merchantId,
+        @Param("startDate") LocalDate startDate,
+        @Param("endDate") LocalDate endDate
+    );
+}
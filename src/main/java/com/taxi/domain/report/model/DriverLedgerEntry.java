@@ -0,0 +1,63 @@
+package com.taxi.domain.report.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * One materialized amount of a driver's monthly owner report: person × day × summary column.
+ *
+ * Rows for a (person, month) are replaced as a unit by DriverLedgerService whenever the
+ * period is stale. Period-level amounts (recurring expenses, taxes, commissions, balance)
+ * are dated on the first of the month.
+ */
+@Entity
+@Table(name = "driver_ledger_entry",
+        indexes = {
+            @Index(name = "idx_dle_period_person", columnList = "period_start, person_id"),
+            @Index(name = "idx_dle_person_date", columnList = "person_id, entry_date")
+        })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DriverLedgerEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "person_id", nullable = false)
+    private Long personId;
+
+    @Column(name = "period_start", nullable = false)
+    private LocalDate periodStart;
+
+    @Column(name = "entry_date", nullable = false)
+    private LocalDate entryDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "bucket", nullable = false, length = 30)
+    private LedgerBucket bucket;
+
+    // Breakdown column key (e.g. "CC", "RECURRING:Dispatch Fee"); null for totals-only amounts
+    @Column(name = "breakdown_key", length = 500)
+    private String breakdownKey;
+
+    @Column(name = "display_name", length = 500)
+    private String displayName;
+
+    @Column(name = "amount", nullable = false, precision = 12, scale = 2)
+    private BigDecimal amount;
+
+    @Column(name = "trip_count", nullable = false)
+    @Builder.Default
+    private Integer tripCount = 0;
+
+    // Position in the owner report, so breakdown columns keep their order
+    @Column(name = "line_no", nullable = false)
+    private Integer lineNo;
+}
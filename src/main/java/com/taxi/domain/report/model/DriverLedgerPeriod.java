@@ -0,0 +1,46 @@
+package com.taxi.domain.report.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Freshness of one person's ledger month.
+ *
+ * Writes to shifts, charges, transactions, expenses, rates and statements mark the affected
+ * periods stale (staleSince = now). A rebuild only clears the flag if nothing went stale
+ * after it started, so a change committed mid-rebuild is never lost.
+ */
+@Entity
+@Table(name = "driver_ledger_period",
+        uniqueConstraints = @UniqueConstraint(name = "uk_dlp_person_period", columnNames = {"person_id", "period_start"}),
+        indexes = @Index(name = "idx_dlp_period_stale", columnList = "period_start, stale"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DriverLedgerPeriod {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "person_id", nullable = false)
+    private Long personId;
+
+    @Column(name = "period_start", nullable = false)
+    private LocalDate periodStart;
+
+    @Column(name = "stale", nullable = false)
+    @Builder.Default
+    private Boolean stale = true;
+
+    @Column(name = "stale_since")
+    private LocalDateTime staleSince;
+
+    @Column(name = "computed_at")
+    private LocalDateTime computedAt;
+}
@@ -0,0 +1,42 @@
+package com.taxi.domain.report.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * Change counter of the owner report data of one person (0 = every person) and month.
+ *
+ * Bumped with the driver ledger's stale marks, in the writing transaction; openEnded rows also
+ * cover every later month (changes without an end, such as a statement's carried balance).
+ */
+@Entity
+@Table(name = "driver_ledger_version",
+        uniqueConstraints = @UniqueConstraint(name = "uk_dlv_person_period",
+                columnNames = {"person_id", "period_start", "open_ended"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DriverLedgerVersion {
+
+    public static final long EVERY_PERSON = 0L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "person_id", nullable = false)
+    private Long personId;
+
+    @Column(name = "period_start", nullable = false)
+    private LocalDate periodStart;
+
+    @Column(name = "open_ended", nullable = false)
+    private Boolean openEnded;
+
+    @Column(name = "version", nullable = false)
+    private Long version;
+}
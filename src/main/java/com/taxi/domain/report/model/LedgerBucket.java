@@ -0,0 +1,35 @@
+package com.taxi.domain.report.model;
+
+/**
+ * Driver summary column a ledger amount rolls up into.
+ * Mirrors the DriverSummaryDTO revenue/expense fields.
+ */
+public enum LedgerBucket {
+    // Revenues
+    LEASE_REVENUE,
+    CARD_REVENUE,
+    CHARGES_REVENUE,
+    OTHER_REVENUE,
+    TRANSFER_REVENUE,       // Balance transfers - counted in total revenue only
+
+    // Expenses
+    FIXED_EXPENSE,          // Recurring expenses
+    LEASE_EXPENSE,
+    AIRPORT_EXPENSE,
+    INSURANCE_EXPENSE,
+    OTHER_EXPENSE,          // Other one-time expenses
+    TAX_EXPENSE,
+    COMMISSION_EXPENSE,
+
+    // Balance
+    PREVIOUS_BALANCE,
+    PAID;
+
+    public boolean isRevenue() {
+        return ordinal() <= TRANSFER_REVENUE.ordinal();
+    }
+
+    public boolean isExpense() {
+        return ordinal() >= FIXED_EXPENSE.ordinal() && ordinal() <= COMMISSION_EXPENSE.ordinal();
+    }
+}
@@ -0,0 +1,30 @@
+package com.taxi.domain.report.repository;
+
+import com.taxi.domain.report.model.DriverLedgerEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DriverLedgerEntryRepository extends JpaRepository<DriverLedgerEntry, Long> {
+
+    @Modifying
+    @Query("DELETE FROM DriverLedgerEntry e WHERE e.personId = :personId AND e.periodStart = :periodStart")
+    int deleteByPersonIdAndPeriodStart(@Param("personId") Long personId, @Param("periodStart") LocalDate periodStart);
+
+    /**
+     * Every person's summary lines for a month in one grouped scan of idx_dle_period_person.
+     * Returns [personId, bucket, breakdownKey, displayName, SUM(amount), SUM(tripCount)],
+     * in report order per person.
+     */
+    @Query("SELECT e.personId, e.bucket, e.breakdownKey, e.displayName, SUM(e.amount), SUM(e.tripCount) " +
+           "FROM DriverLedgerEntry e WHERE e.periodStart = :periodStart " +
+           "GROUP BY e.personId, e.bucket, e.breakdownKey, e.displayName " +
+           "ORDER BY e.personId, MIN(e.lineNo)")
+    List<Object[]> sumByPersonForPeriod(@Param("periodStart") LocalDate periodStart);
+}
@@ -0,0 +1,51 @@
+package com.taxi.domain.report.repository;
+
+import com.taxi.domain.report.model.DriverLedgerPeriod;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface DriverLedgerPeriodRepository extends JpaRepository<DriverLedgerPeriod, Long> {
+
+    Optional<DriverLedgerPeriod> findByPersonIdAndPeriodStart(Long personId, LocalDate periodStart);
+
+    List<DriverLedgerPeriod> findByPeriodStart(LocalDate periodStart);
+
+    List<DriverLedgerPeriod> findByPeriodStartAndStaleTrue(LocalDate periodStart);
+
+    @Modifying
+    @Query("UPDATE DriverLedgerPeriod p SET p.stale = true, p.staleSince = :now")
+    int markAllStale(@Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE DriverLedgerPeriod p SET p.stale = true, p.staleSince = :now " +
+           "WHERE p.periodStart BETWEEN :fromPeriod AND :toPeriod")
+    int markStaleBetween(@Param("fromPeriod") LocalDate fromPeriod,
+                         @Param("toPeriod") LocalDate toPeriod,
+                         @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE DriverLedgerPeriod p SET p.stale = true, p.staleSince = :now " +
+           "WHERE p.personId IN :personIds AND p.periodStart BETWEEN :fromPeriod AND :toPeriod")
+    int markStaleForPersonsBetween(@Param("personIds") Collection<Long> personIds,
+                                   @Param("fromPeriod") LocalDate fromPeriod,
+                                   @Param("toPeriod") LocalDate toPeriod,
+                                   @Param("now") LocalDateTime now);
+
+    /**
+     * Clear the stale flag unless the period was marked stale after the rebuild started
+     */
+    @Modifying
+    @Query("UPDATE DriverLedgerPeriod p SET p.stale = false, p.computedAt = :startedAt " +
+           "WHERE p.id = :id AND (p.staleSince IS NULL OR p.staleSince < :startedAt)")
+    int markFresh(@Param("id") Long id, @Param("startedAt") LocalDateTime startedAt);
+}
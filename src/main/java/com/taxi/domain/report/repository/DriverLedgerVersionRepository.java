@@ -0,0 +1,42 @@
+package com.taxi.domain.report.repository;
+
+import com.taxi.domain.report.model.DriverLedgerVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+
+@Repository
+public interface DriverLedgerVersionRepository extends JpaRepository<DriverLedgerVersion, Long> {
+
+    @Modifying
+    @Query(value = "INSERT INTO driver_ledger_version (person_id, period_start, open_ended, version) " +
+                   "VALUES (:personId, :periodStart, :openEnded, 1) " +
+                   "ON DUPLICATE KEY UPDATE version = version + 1", nativeQuery = true)
+    int bump(@Param("personId") Long personId,
+             @Param("periodStart") LocalDate periodStart,
+             @Param("openEnded") boolean openEnded);
+
+    /**
+     * Sum of the counters overlapping [fromPeriod, toPeriod] for the person, or for anyone
+     * when personId is null. Counters only grow, so the sum moves with each of them.
+     */
+    @Query(value = "SELECT COALESCE(SUM(v.version), 0) FROM driver_ledger_version v " +
+                   "WHERE (:personId IS NULL OR v.person_id IN (0, :personId)) " +
+                   "AND ((v.open_ended = TRUE AND v.period_start <= :toPeriod) " +
+                   "  OR (v.open_ended = FALSE AND v.period_start BETWEEN :fromPeriod AND :toPeriod))",
+           nativeQuery = true)
+    Number sumVersions(@Param("personId") Long personId,
+                       @Param("fromPeriod") LocalDate fromPeriod,
+                       @Param("toPeriod") LocalDate toPeriod);
+
+    /**
+     * Version of the person's (null: anyone's) owner report data between the two dates
+     */
+    default long versionOf(Long personId, LocalDate from, LocalDate to) {
+        return sumVersions(personId, from.withDayOfMonth(1), to.withDayOfMonth(1)).longValue();
+    }
+}
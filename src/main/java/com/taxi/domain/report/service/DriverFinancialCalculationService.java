@@ -7,31 +7,19 @@ import com.taxi.domain.charges.service.CustomerChargeDataProvider;
 import com.taxi.domain.charges.dto.CustomerChargeDTO;
 import com.taxi.domain.cab.model.Cab;
 import com.taxi.domain.cab.model.CabAttributeType;
-import com.taxi.domain.cab.model.CabAttributeValue;
-import com.taxi.domain.cab.repository.CabAttributeTypeRepository;
-import com.taxi.domain.cab.repository.CabAttributeValueRepository;
+import com.taxi.domain.cab.service.CabAttributeTimeline;
 import com.taxi.domain.driver.model.Driver;
 import com.taxi.domain.driver.repository.DriverRepository;
 import com.taxi.domain.expense.model.ItemRate;
-import com.taxi.domain.expense.model.ItemRateOverride;
-import com.taxi.domain.expense.repository.ItemRateRepository;
-import com.taxi.domain.expense.repository.ItemRateOverrideRepository;
-import com.taxi.domain.lease.model.LeaseRate;
 import com.taxi.domain.lease.repository.LeaseRateRepository;
-import com.taxi.domain.lease.service.LeaseCalculationService;
-import com.taxi.domain.lease.service.LeaseRateOverrideService;
 import com.taxi.domain.airport.model.AirportTrip;
-import com.taxi.domain.airport.repository.AirportTripDriverRepository;
 import com.taxi.domain.airport.repository.AirportTripRepository;
-import com.taxi.domain.mileage.repository.MileageRecordRepository;
+import com.taxi.domain.airport.service.AirportTripAggregateService;
 import com.taxi.domain.payment.model.CreditCardTransaction;
 import com.taxi.domain.payment.repository.CreditCardTransactionRepository;
-import com.taxi.domain.profile.model.ItemRateChargedTo;
-import com.taxi.domain.profile.model.ItemRateUnitType;
 import com.taxi.domain.shift.model.CabShift;
 import com.taxi.domain.shift.model.DriverShift;
 import com.taxi.domain.shift.model.ShiftOwnership;
-import com.taxi.domain.shift.model.ShiftType;
 import com.taxi.domain.shift.repository.CabShiftRepository;
 import com.taxi.domain.shift.repository.DriverShiftRepository;
 import com.taxi.domain.shift.service.ShiftValidationService;
@@ -79,7 +67,6 @@ public class DriverFinancialCalculationService {
 
     private final DriverRepository driverRepository;
     private final DriverShiftRepository driverShiftRepository;
-    private final LeaseCalculationService leaseCalculationService;
     private final com.taxi.domain.shift.repository.ShiftOwnershipRepository shiftOwnershipRepository;
     private final AccountChargeRepository accountChargeRepository;
     private final CreditCardTransactionRepository creditCardTransactionRepository;
@@ -87,30 +74,22 @@ public class DriverFinancialCalculationService {
     private final LeaseRateRepository leaseRateRepository;
     private final ShiftValidationService shiftValidationService;
 
-    // ✅ NEW: Lease rate override service for custom owner rates
-    private final LeaseRateOverrideService leaseRateOverrideService;
-
-    // ✅ NEW: Item rate repositories for insurance & per-unit expenses
-    private final ItemRateRepository itemRateRepository;
-    private final ItemRateOverrideRepository itemRateOverrideRepository;
-
     // ✅ NEW: Airport charge service for calculating airport trip charges
     private final com.taxi.domain.airport.service.AirportChargeService airportChargeService;
 
-    // ✅ NEW: Mileage record repository for looking up actual miles when DriverShift.TotalDistance is missing
-    private final MileageRecordRepository mileageRecordRepository;
-
     // Attribute repositories for resolving airport trip rates per attribute
     private final CustomerChargeProviderFactory chargeProviderFactory;
-    private final CabAttributeTypeRepository cabAttributeTypeRepository;
-    private final CabAttributeValueRepository cabAttributeValueRepository;
+    private final CabAttributeTimeline cabAttributeTimeline;
 
     // Pre-computed driver trip assignments
-    private final AirportTripDriverRepository airportTripDriverRepository;
+    private final AirportTripAggregateService airportTripAggregateService;
 
     // Direct airport trips table (fallback for legacy data without driver assignments)
     private final AirportTripRepository airportTripRepository;
 
+    // Bulk-loaded lease inputs and in-memory lease/insurance pricing
+    private final LeaseEngine leaseEngine;
+
     /**
      * ═══════════════════════════════════════════════════════════════════════
      * LEASE REVENUE CALCULATION
@@ -134,20 +113,6 @@ public class DriverFinancialCalculationService {
         List<ShiftOwnership> ownerships = shiftOwnershipRepository.findOwnershipsInRange(
                 owner.getId(), startDate, endDate);
 
-        System.out.println("=== LEASE REVENUE DEBUG ===");
-        System.out.println("Owner: " + ownerDriverNumber + " (" + owner.getFullName() + ")");
-        System.out.println("Report Period: " + startDate + " to " + endDate);
-        System.out.println("Found " + ownerships.size() + " ownerships");
-        for (ShiftOwnership so : ownerships) {
-            System.out.println("  - Shift ID: " + so.getShift().getId() +
-                             ", Cab: " + so.getShift().getCab().getCabNumber() +
-                             ", Type: " + so.getShift().getShiftType() +
-                             ", Start: " + so.getStartDate() +
-                             ", End: " + so.getEndDate() +
-                             ", Status: " + so.getShift().getStatus());
-        }
-        System.out.println("===========================");
-
         log.debug("   ✓ Driver owned {} shifts during period {} to {}",
                 ownerships.size(), startDate, endDate);
 
@@ -163,35 +128,45 @@ public class DriverFinancialCalculationService {
 
         int skippedInactive = 0;
         int totalProcessed = 0;
+
         java.util.Set<Long> processedShiftIds = new java.util.HashSet<>();  // Track processed shifts
+        List<CabShift> ownedShifts = new java.util.ArrayList<>();
 
         for (ShiftOwnership ownership : ownerships) {
             CabShift cabShift = ownership.getShift();
 
             // ✅ FIX: Skip if we've already processed this shift (deduplicate)
-            if (processedShiftIds.contains(cabShift.getId())) {
+            if (!processedShiftIds.add(cabShift.getId())) {
                 log.debug("   ⊘ SKIP: Already processed shift {} ", cabShift.getId());
                 continue;
             }
-            processedShiftIds.add(cabShift.getId());
 
-            Cab cab = cabShift.getCab();
-            
             if (!shiftValidationService.isCabShiftActive(cabShift)) {
                 skippedInactive++;
                 log.debug("   ⊘ SKIP: {} {} (shift: {})",
-                        cab.getCabNumber(), cabShift.getShiftType(),
+                        cabShift.getCab().getCabNumber(), cabShift.getShiftType(),
                         cabShift.getStatus());
                 continue;
             }
-            
-            List<DriverShift> driverShifts = driverShiftRepository
-                    .findByCabNumberAndLogonTimeBetween(
-                            cab.getCabNumber(), startDateTime, endDateTime);
+            ownedShifts.add(cabShift);
+        }
+
+        // All driver shifts of the owned cabs in one query
+        java.util.Set<String> cabNumbers = ownedShifts.stream()
+                .map(cabShift -> cabShift.getCab().getCabNumber())
+                .collect(java.util.stream.Collectors.toSet());
+        java.util.Map<String, List<DriverShift>> shiftsByCab = cabNumbers.isEmpty() ? java.util.Map.of()
+                : driverShiftRepository.findByCabNumberInAndLogonTimeBetween(cabNumbers, startDateTime, endDateTime)
+                        .stream()
+                        .collect(java.util.stream.Collectors.groupingBy(DriverShift::getCabNumber));
+
+        List<LeaseCandidate> candidates = new java.util.ArrayList<>();
+        for (CabShift cabShift : ownedShifts) {
+            Cab cab = cabShift.getCab();
 
             // ✅ FIX: Deduplicate driver shifts by (driver, logonTime) to prevent adding duplicates
             java.util.Map<String, DriverShift> uniqueDriverShifts = new java.util.LinkedHashMap<>();
-            for (DriverShift ds : driverShifts) {
+            for (DriverShift ds : shiftsByCab.getOrDefault(cab.getCabNumber(), List.of())) {
                 String key = ds.getDriverNumber() + "|" + ds.getLogonTime();
                 uniqueDriverShifts.putIfAbsent(key, ds);
             }
@@ -209,27 +184,39 @@ public class DriverFinancialCalculationService {
                     continue;
                 }
 
-                LeaseRevenueDTO leaseItem = calculateLeaseForShift(
-                    driverShift, cab, owner, cabShift.getShiftType().name(), cabShift);
+                candidates.add(new LeaseCandidate(driverShift, cabShift, owner));
+            }
+        }
+
+        // Rates, mileage and working driver names for every candidate in one load
+        LeaseEngine.Inputs inputs = leaseEngine.load(
+                candidates.stream().map(LeaseCandidate::driverShift).toList());
 
-                if (leaseItem != null) {
-                    totalProcessed++;
-                    report.addLeaseItem(leaseItem);
-                    log.debug("   ✓ Added Lease: {} {} on {} = ${}",
-                            cab.getCabNumber(), cabShift.getShiftType(),
-                            leaseItem.getShiftDate(), leaseItem.getTotalLease());
+        for (LeaseCandidate candidate : candidates) {
+            DriverShift driverShift = candidate.driverShift();
+            CabShift cabShift = candidate.cabShift();
+            Cab cab = cabShift.getCab();
 
-                    // Calculate insurance revenue using the same miles from lease calculation
-                    InsuranceMileageDTO insuranceItem = calculateInsuranceExpenseForShift(
-                        driverShift, cab, owner, cabShift.getShiftType().name(),
-                        leaseItem.getMiles());
+            LeaseRevenueDTO leaseItem = calculateLeaseForShift(
+                inputs, driverShift, cab, owner, cabShift.getShiftType().name(), cabShift);
 
-                    if (insuranceItem != null) {
-                        report.addInsuranceMileage(insuranceItem);
-                        log.debug("   ✓ Added Insurance: {} {} on {} = ${}",
-                                cab.getCabNumber(), cabShift.getShiftType(),
-                                insuranceItem.getShiftDate(), insuranceItem.getTotalInsuranceMileage());
-                    }
+            if (leaseItem != null) {
+                totalProcessed++;
+                report.addLeaseItem(leaseItem);
+                log.debug("   ✓ Added Lease: {} {} on {} = ${}",
+                        cab.getCabNumber(), cabShift.getShiftType(),
+                        leaseItem.getShiftDate(), leaseItem.getTotalLease());
+
+                // Calculate insurance revenue using the same miles from lease calculation
+                InsuranceMileageDTO insuranceItem = calculateInsuranceExpenseForShift(
+                    driverShift, cab, owner, cabShift.getShiftType().name(),
+                    leaseItem.getMiles());
+
+                if (insuranceItem != null) {
+                    report.addInsuranceMileage(insuranceItem);
+                    log.debug("   ✓ Added Insurance: {} {} on {} = ${}",
+                            cab.getCabNumber(), cabShift.getShiftType(),
+                            insuranceItem.getShiftDate(), insuranceItem.getTotalInsuranceMileage());
                 }
             }
         }
@@ -254,107 +241,16 @@ public class DriverFinancialCalculationService {
 
     private LeaseCalculationResult calculateShiftLeaseAmount(
             DriverShift shift, Cab cab, Driver owner, String shiftType, CabShift cabShift) {
-        // ✅ FIX: Extract CabShift attributes for correct LeaseRate lookup
-        com.taxi.domain.cab.model.CabType cabType = (cabShift != null) ? cabShift.getCabType() : null;
-        boolean hasAirportLicense = (cabShift != null && cabShift.getHasAirportLicense() != null)
-                ? cabShift.getHasAirportLicense() : false;
-
-        LocalDate shiftDate = shift.getLogonTime().toLocalDate();
-
-        // ✅ Check for override (structured or flat)
-        LeaseRateOverrideService.OverrideRateResult overrideResult =
-            leaseRateOverrideService.getApplicableLeaseRate(
-                owner.getDriverNumber(),
-                shift.getDriverNumber(),
-                cab.getCabNumber(),
-                shiftType,
-                shiftDate
-            );
-
-        BigDecimal baseRate;
-        BigDecimal mileageRate;
-
-        if (overrideResult != null) {
-            // Override found - use its rates
-            baseRate = overrideResult.getBaseRate();
-            mileageRate = overrideResult.getMileageRate();
-
-            if (overrideResult.isStructured()) {
-                log.debug("   💰 Using STRUCTURED override: base=${}, mileage=${}/mile (override ID={})",
-                    baseRate, mileageRate, overrideResult.getOverrideId());
-            } else {
-                log.debug("   💰 Using FLAT RATE override: total=${} (override ID={}, no mileage component)",
-                    baseRate, overrideResult.getOverrideId());
-            }
-        } else {
-            // No override - use default LeaseRate
-            LeaseRate leaseRate = leaseCalculationService.findApplicableRate(
-                cabType,
-                hasAirportLicense,
-                shift.getLogonTime()
-            );
-
-            if (leaseRate != null) {
-                baseRate = leaseRate.getBaseRate();
-                mileageRate = leaseRate.getMileageRate() != null ? leaseRate.getMileageRate() : BigDecimal.ZERO;
-                log.debug("   💰 Using DEFAULT lease rate: base=${}, mileage=${}/mile",
-                    baseRate, mileageRate);
-            } else {
-                // Fallback if no rate found
-                baseRate = new BigDecimal("50.00");
-                mileageRate = BigDecimal.ZERO;
-                log.warn("   ⚠️ No lease rate found, using fallback: base=${}, mileage=$0/mile", baseRate);
-            }
-        }
-
-        // ✅ FIX: Get actual miles from DriverShift or MileageRecord
-        // Do NOT default to 10 miles - use actual recorded miles or 0
-        BigDecimal miles = shift.getTotalDistance();
-
-        // If DriverShift doesn't have miles, try to fetch from MileageRecord
-        if (miles == null || miles.compareTo(BigDecimal.ZERO) == 0) {
-            try {
-                List<com.taxi.domain.mileage.model.MileageRecord> mileageRecords =
-                    mileageRecordRepository.findByDriverNumberAndShiftTimes(
-                        shift.getDriverNumber(),
-                        shift.getLogonTime(),
-                        shift.getLogoffTime()
-                    );
-
-                if (!mileageRecords.isEmpty()) {
-                    // ✅ Sum mileageB + mileageC (Tariff 2 + Paid mileage) to match detail modal calculation
-                    // This ensures lease and insurance use the same mileage value
-                    miles = mileageRecords.stream()
-                        .map(m -> {
-                            BigDecimal mileageB = m.getMileageB() != null ? m.getMileageB() : BigDecimal.ZERO;
-                            BigDecimal mileageC = m.getMileageC() != null ? m.getMileageC() : BigDecimal.ZERO;
-                            return mileageB.add(mileageC);
-                        })
-                        .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-                    if (miles.compareTo(BigDecimal.ZERO) > 0) {
-                        log.debug("   Miles (B+C) for shift {} (driver {}, cab {}): ${} from MileageRecord (not from DriverShift.TotalDistance)",
-                            shift.getId(), shift.getDriverNumber(), shift.getCabNumber(), miles);
-                    }
-                }
-            } catch (Exception e) {
-                log.warn("   Error fetching mileage records for shift {}: {}", shift.getId(), e.getMessage());
-            }
-        }
-
-        // If still no miles found, use 0 (not 10)
-        if (miles == null || miles.compareTo(BigDecimal.ZERO) == 0) {
-            miles = BigDecimal.ZERO;
-            log.debug("   No miles recorded for shift {} (driver {}, cab {}), using 0 for mileage calculation",
-                shift.getId(), shift.getDriverNumber(), shift.getCabNumber());
-        }
-
-        BigDecimal mileageLease = mileageRate.multiply(miles);
-        BigDecimal totalLease = baseRate.add(mileageLease);
-
-        return new LeaseCalculationResult(baseRate, mileageRate, miles, mileageLease, totalLease);
+        // Single shift: load just its own inputs and price it like the bulk paths do
+        LeaseEngine.Inputs inputs = leaseEngine.loadLeaseOnly(shift);
+        return leaseEngine.calculate(inputs, shift, owner.getDriverNumber(), cab.getCabNumber(), shiftType, cabShift);
     }
 
+    /**
+     * A driver shift that owes lease to the owner of its cab shift
+     */
+    private record LeaseCandidate(DriverShift driverShift, CabShift cabShift, Driver owner) {}
+
     /**
      * Simple result object for lease calculation (made public for debugging)
      */
@@ -376,15 +272,14 @@ public class DriverFinancialCalculationService {
     }
 
     private LeaseRevenueDTO calculateLeaseForShift(
-            DriverShift shift, Cab cab, Driver owner, String shiftType, CabShift cabShift) {
+            LeaseEngine.Inputs inputs, DriverShift shift, Cab cab, Driver owner, String shiftType, CabShift cabShift) {
         try {
             // ✅ Use shared calculation with CabShift for correct mileage rate lookup
-            LeaseCalculationResult leaseCalc = calculateShiftLeaseAmount(shift, cab, owner, shiftType, cabShift);
+            LeaseCalculationResult leaseCalc = leaseEngine.calculate(
+                    inputs, shift, owner.getDriverNumber(), cab.getCabNumber(), shiftType, cabShift);
             
-            // Look up driver name from repository (DriverShift.driverName is transient/not stored)
-            String workingDriverName = driverRepository.findByDriverNumber(shift.getDriverNumber())
-                    .map(Driver::getFullName)
-                    .orElse(shift.getDriverNumber()); // fallback to driver number if not found
+            // Driver name from the preloaded names (DriverShift.driverName is transient/not stored)
+            String workingDriverName = inputs.driverName(shift.getDriverNumber());
             
             return LeaseRevenueDTO.builder()
                     .shiftId(shift.getId())
@@ -609,15 +504,35 @@ public class DriverFinancialCalculationService {
         int skippedOwnShift = 0;
         int totalProcessed = 0;
 
-        for (DriverShift driverShift : uniqueDriverShifts.values()) {
-            if (!"COMPLETED".equals(driverShift.getStatus())) {
-                continue;
-            }
-            
-            CabShift cabShift = findCabShiftForDriverShift(driverShift);
-            if (cabShift == null) {
+        List<DriverShift> completedShifts = uniqueDriverShifts.values().stream()
+                .filter(ds -> "COMPLETED".equals(ds.getStatus()))
+                .toList();
+
+        // Cab shifts of every cab driven, and their ownerships over the period, in two queries
+        java.util.Set<String> cabNumbers = completedShifts.stream()
+                .map(DriverShift::getCabNumber)
+                .filter(Objects::nonNull)
+                .collect(java.util.stream.Collectors.toSet());
+        java.util.Map<String, List<CabShift>> cabShiftsByKey = cabNumbers.isEmpty() ? java.util.Map.of()
+                : cabShiftRepository.findByCabNumberIn(cabNumbers).stream()
+                        .collect(java.util.stream.Collectors.groupingBy(
+                                cs -> cs.getCab().getCabNumber() + "|" + cs.getShiftType().name()));
+        java.util.Set<Long> cabShiftIds = cabShiftsByKey.values().stream()
+                .flatMap(List::stream)
+                .map(CabShift::getId)
+                .collect(java.util.stream.Collectors.toSet());
+        java.util.Map<Long, List<ShiftOwnership>> ownershipsByShift = cabShiftIds.isEmpty() ? java.util.Map.of()
+                : shiftOwnershipRepository.findOwnershipsOfShiftsInRange(cabShiftIds, startDate, endDate).stream()
+                        .collect(java.util.stream.Collectors.groupingBy(so -> so.getShift().getId()));
+
+        List<LeaseCandidate> candidates = new java.util.ArrayList<>();
+        for (DriverShift driverShift : completedShifts) {
+            List<CabShift> matchingCabShifts = cabShiftsByKey.get(
+                    driverShift.getCabNumber() + "|" + driverShift.getPrimaryShiftType());
+            if (matchingCabShifts == null || matchingCabShifts.size() != 1) {
                 continue;
             }
+            CabShift cabShift = matchingCabShifts.get(0);
 
             if (!shiftValidationService.isCabShiftActive(cabShift)) {
                 skippedInactive++;
@@ -630,8 +545,11 @@ public class DriverFinancialCalculationService {
             // ✅ CRITICAL FIX: Get the owner at the time of the shift, not the current owner
             // This ensures consistency with lease revenue which calculates based on shift ownership at time of driving
             LocalDate shiftDate = driverShift.getLogonTime().toLocalDate();
-            java.util.Optional<ShiftOwnership> ownershipAtTime = shiftOwnershipRepository.findOwnershipOnDate(
-                    cabShift.getId(), shiftDate);
+            java.util.Optional<ShiftOwnership> ownershipAtTime = ownershipsByShift
+                    .getOrDefault(cabShift.getId(), List.of()).stream()
+                    .filter(so -> !so.getStartDate().isAfter(shiftDate)
+                            && (so.getEndDate() == null || !so.getEndDate().isBefore(shiftDate)))
+                    .findFirst();
 
             if (ownershipAtTime.isEmpty()) {
                 log.debug("   ⊘ SKIP NO OWNERSHIP: {} on {} (no owner record found)",
@@ -646,17 +564,20 @@ public class DriverFinancialCalculationService {
                 continue; // Driver drove own shift
             }
 
-            // ✅ CONSISTENCY CHECK: Verify shift types match
-            // This ensures lease expense uses the same logic as lease revenue calculation
-            if (!cabShift.getShiftType().name().equals(driverShift.getPrimaryShiftType())) {
-                log.debug("   ⊘ SKIP SHIFT TYPE MISMATCH: {} {} (driver shift type: {})",
-                        cabShift.getCab().getCabNumber(), cabShift.getShiftType(),
-                        driverShift.getPrimaryShiftType());
-                continue;
-            }
+            candidates.add(new LeaseCandidate(driverShift, cabShift, shiftOwner));
+        }
+
+        // Rates and mileage for every candidate in one load
+        LeaseEngine.Inputs inputs = leaseEngine.load(
+                candidates.stream().map(LeaseCandidate::driverShift).toList());
+
+        for (LeaseCandidate candidate : candidates) {
+            DriverShift driverShift = candidate.driverShift();
+            CabShift cabShift = candidate.cabShift();
+            Driver shiftOwner = candidate.owner();
 
             LeaseExpenseDTO leaseItem = calculateLeaseExpenseForShift(
-                    driverShift, cabShift.getCab(), shiftOwner, cabShift.getShiftType().name(), cabShift);
+                    inputs, driverShift, cabShift.getCab(), shiftOwner, cabShift.getShiftType().name(), cabShift);
 
             if (leaseItem != null) {
                 totalProcessed++;
@@ -688,10 +609,11 @@ public class DriverFinancialCalculationService {
     }
 
     private LeaseExpenseDTO calculateLeaseExpenseForShift(
-            DriverShift shift, Cab cab, Driver owner, String shiftType, CabShift cabShift) {
+            LeaseEngine.Inputs inputs, DriverShift shift, Cab cab, Driver owner, String shiftType, CabShift cabShift) {
         try {
             // ✅ Use shared calculation with CabShift for correct mileage rate lookup
-            LeaseCalculationResult leaseCalc = calculateShiftLeaseAmount(shift, cab, owner, shiftType, cabShift);
+            LeaseCalculationResult leaseCalc = leaseEngine.calculate(
+                    inputs, shift, owner.getDriverNumber(), cab.getCabNumber(), shiftType, cabShift);
 
             return LeaseExpenseDTO.builder()
                     .shiftId(shift.getId())
@@ -737,42 +659,18 @@ public class DriverFinancialCalculationService {
                 return null;
             }
 
-            // Get insurance mileage rate from ItemRate system (INSURANCE type, charged to DRIVER)
-            List<ItemRate> insuranceRates = itemRateRepository.findByUnitTypeAndChargedToAndIsActiveTrueOrderByName(
-                    ItemRateUnitType.INSURANCE, ItemRateChargedTo.DRIVER);
+            // Insurance mileage rate from ItemRate system (INSURANCE type, charged to DRIVER),
+            // with item rate overrides (per-owner, per-cab, per-shift, per-day) applied
+            BigDecimal insuranceRate = leaseEngine.insuranceRate(owner.getDriverNumber(),
+                    cab.getCabNumber(), shiftType, shift.getLogonTime().toLocalDate());
 
-            if (insuranceRates.isEmpty()) {
+            if (insuranceRate == null) {
                 log.debug("No insurance rates configured for driver, skipping insurance calculation");
                 return null;
             }
 
-            // Use first insurance rate as base
-            ItemRate baseInsuranceRate = insuranceRates.get(0);
-            BigDecimal insuranceRate = baseInsuranceRate.getRate();
-
-            // Check for item rate overrides (per-owner, per-cab, per-shift, per-day)
-            if (owner.getDriverNumber() != null) {
-                LocalDate shiftDate = shift.getLogonTime().toLocalDate();
-                List<ItemRateOverride> applicableOverrides = itemRateOverrideRepository
-                    .findActiveOverridesForRate(baseInsuranceRate.getId(), owner.getDriverNumber(), shiftDate);
-
-                if (!applicableOverrides.isEmpty()) {
-                    String dayOfWeek = shiftDate.getDayOfWeek().toString();
-
-                    for (ItemRateOverride override : applicableOverrides) {
-                        if (override.matches(cab.getCabNumber(), shiftType, dayOfWeek)) {
-                            insuranceRate = override.getOverrideRate();
-                            log.debug("Using insurance override rate ${}/mile for owner {} cab {} {} shift",
-                                    insuranceRate, owner.getDriverNumber(), cab.getCabNumber(), shiftType);
-                            break;
-                        }
-                    }
-                }
-            }
-
             // Calculate insurance expense: miles × insurance rate
-            BigDecimal totalInsurance = insuranceRate.multiply(miles)
-                    .setScale(2, java.math.RoundingMode.HALF_UP);
+            BigDecimal totalInsurance = LeaseEngine.insuranceAmount(insuranceRate, miles);
 
             log.debug("Calculated insurance expense for driver {}: {} miles × ${}/mile = ${}",
                     owner.getDriverNumber(), miles, insuranceRate, totalInsurance);
@@ -808,24 +706,20 @@ public class DriverFinancialCalculationService {
             List<CabShift> cabShifts = cabShiftRepository.findByCabNumber(cabNumber);
             if (cabShifts.isEmpty()) return null;
 
-            CabAttributeType airportPlateType = cabAttributeTypeRepository.findByAttributeCode("AIRPORT_PLATE").orElse(null);
-            CabAttributeType transponderType = cabAttributeTypeRepository.findByAttributeCode("TRANSPONDER").orElse(null);
+            CabAttributeType airportPlateType = cabAttributeTimeline.attributeType("AIRPORT_PLATE");
+            CabAttributeType transponderType = cabAttributeTimeline.attributeType("TRANSPONDER");
 
             // Check AIRPORT_PLATE first (takes priority)
             for (CabShift cabShift : cabShifts) {
                 if (airportPlateType != null) {
-                    Optional<CabAttributeValue> ap = cabAttributeValueRepository.findAttributeOnDateByShift(
-                        cabShift, airportPlateType, date);
-                    if (ap.isPresent()) return airportPlateType.getId();
+                    if (cabAttributeTimeline.hasAttributeOn(cabShift.getId(), airportPlateType.getId(), date)) return airportPlateType.getId();
                 }
             }
 
             // Then TRANSPONDER
             for (CabShift cabShift : cabShifts) {
                 if (transponderType != null) {
-                    Optional<CabAttributeValue> tr = cabAttributeValueRepository.findAttributeOnDateByShift(
-                        cabShift, transponderType, date);
-                    if (tr.isPresent()) return transponderType.getId();
+                    if (cabAttributeTimeline.hasAttributeOn(cabShift.getId(), transponderType.getId(), date)) return transponderType.getId();
                 }
             }
 
@@ -836,26 +730,6 @@ public class DriverFinancialCalculationService {
         }
     }
 
-    private CabShift findCabShiftForDriverShift(DriverShift driverShift) {
-        try {
-            String cabNumber = driverShift.getCabNumber();
-            String shiftTypeStr = driverShift.getPrimaryShiftType();
-            
-            if (cabNumber == null || shiftTypeStr == null) {
-                return null;
-            }
-            
-            ShiftType shiftType = ShiftType.valueOf(shiftTypeStr);
-            
-            return cabShiftRepository.findByCabNumberAndShiftType(cabNumber, shiftType)
-                    .orElse(null);
-                    
-        } catch (Exception e) {
-            log.error("Error finding cab shift: {}", e.getMessage());
-            return null;
-        }
-    }
-
     /**
      * ═══════════════════════════════════════════════════════════════════════
      * SHARED LEASE EXPENSE CALCULATION
@@ -989,18 +863,8 @@ public class DriverFinancialCalculationService {
             return 0;
         }
 
-        int totalTrips = 0;
-
-        // PRIMARY: Use pre-computed driver assignments from airport_trip_driver table
-        // Track which cabs are handled so fallback only covers remaining cabs
-        java.util.Set<String> cabsHandled = new java.util.HashSet<>();
-        List<com.taxi.domain.airport.model.AirportTripDriver> assignments =
-                airportTripDriverRepository.findByDriverNumberAndTripDateBetweenOrderByTripDateAscHourAsc(
-                        driverNumber, startDate, endDate);
-
-        for (com.taxi.domain.airport.model.AirportTripDriver atd : assignments) {
-            totalTrips += atd.getTripCount();
-        }
+        // Pre-computed driver assignments, summed by the database from airport_trip_hourly_total
+        int totalTrips = airportTripAggregateService.countDriverTrips(driverNumber, startDate, endDate);
 
         if (totalTrips > 0) {
             log.debug("Airport trips for driver {} ({} to {}): {} from airport_trip_driver assignments only",
@@ -1020,18 +884,11 @@ public class DriverFinancialCalculationService {
             return BigDecimal.ZERO;
         }
 
-        // PRIMARY: Use pre-computed airport_trip_driver assignments, track handled cabs
-        List<com.taxi.domain.airport.model.AirportTripDriver> assignments =
-                airportTripDriverRepository.findByDriverNumberAndTripDateBetweenOrderByTripDateAscHourAsc(
-                        driverNumber, startDate, endDate);
-
+        // PRIMARY: Use pre-computed airport_trip_driver assignments (aggregated per cab/day)
         java.util.Map<String, Integer> tripsByCab = new java.util.HashMap<>();
-        java.util.Set<String> cabsHandled = new java.util.HashSet<>();
-
-        for (com.taxi.domain.airport.model.AirportTripDriver atd : assignments) {
-            tripsByCab.merge(atd.getCabNumber(), atd.getTripCount(), Integer::sum);
-            cabsHandled.add(atd.getCabNumber());
-        }
+        airportTripAggregateService.getDriverTripsByCabAndDate(driverNumber, startDate, endDate)
+                .forEach((cabNumber, byDate) -> tripsByCab.put(cabNumber,
+                        byDate.values().stream().mapToInt(Integer::intValue).sum()));
 
         BigDecimal totalExpense = BigDecimal.ZERO;
         for (java.util.Map.Entry<String, Integer> entry : tripsByCab.entrySet()) {
@@ -0,0 +1,244 @@
+package com.taxi.domain.report.service;
+
+import com.taxi.domain.account.model.AccountCharge;
+import com.taxi.domain.account.model.StatementPayment;
+import com.taxi.domain.airport.model.AirportTrip;
+import com.taxi.domain.airport.model.AirportTripHourlyTotal;
+import com.taxi.domain.cab.model.CabAttributeValue;
+import com.taxi.domain.driver.model.Driver;
+import com.taxi.domain.expense.model.ExpenseCategory;
+import com.taxi.domain.expense.model.ItemRate;
+import com.taxi.domain.expense.model.ItemRateOverride;
+import com.taxi.domain.expense.model.OneTimeExpense;
+import com.taxi.domain.expense.model.RecurringExpense;
+import com.taxi.domain.lease.model.LeasePlan;
+import com.taxi.domain.lease.model.LeaseRate;
+import com.taxi.domain.lease.model.LeaseRateOverride;
+import com.taxi.domain.mileage.model.MileageRecord;
+import com.taxi.domain.payment.model.CreditCardTransaction;
+import com.taxi.domain.report.service.DriverLedgerService.Change;
+import com.taxi.domain.revenue.entity.OtherRevenue;
+import com.taxi.domain.revenue.model.Revenue;
+import com.taxi.domain.shift.model.DriverShift;
+import com.taxi.domain.shift.model.ShiftLog;
+import com.taxi.domain.shift.model.ShiftOwnership;
+import com.taxi.domain.statement.model.LegacyBalance;
+import com.taxi.domain.statement.model.Statement;
+import com.taxi.domain.statement.model.StatementBalanceTransfer;
+import com.taxi.domain.statement.model.TransferExecution;
+import com.taxi.domain.tax.model.CommissionCategoryAssignment;
+import com.taxi.domain.tax.model.CommissionRate;
+import com.taxi.domain.tax.model.TaxCategoryAssignment;
+import com.taxi.domain.tax.model.TaxRate;
+import com.taxi.infrastructure.datachange.EntityChangeObserver.ChangeType;
+import com.taxi.infrastructure.datachange.TransactionalChangeObserver;
+import com.taxi.infrastructure.multitenancy.TenantTimeZones;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Maps writes to the ledger periods they affect. The periods are marked stale in the writing
+ * transaction, just before it commits. An update marks the periods of both its previous and its
+ * new date and person, so the months a record moved away from are rebuilt too.
+ *
+ * - Card transactions / account charges: that driver, the month and the next one
+ *   (active owners are settled on the previous month's card and charge revenue)
+ * - Shifts, shift logs and their revenue, mileage, airport trips, one-time expenses: every person
+ *   for that month (lease income goes to the shift owner, expenses can target groups)
+ * - Recurring expenses, rates, plans, overrides, category assignments, ownership, cab attributes
+ *   and transfers: every person for the months they are effective
+ * - Other revenue: every person for that month
+ * - Statements and statement payments: that person from the statement period on
+ *   (previous balance carries forward)
+ * - Transfer executions: every person from the transfer period on
+ * - Legacy balances: that driver from the effective date on
+ * - Expense categories: everything
+ *
+ * A record without a date is in no period and marks nothing. Driver, cab and cab shift records
+ * are not tracked (shift status changes are frequent and do not move amounts); OwnerReportCache
+ * entries pick up renames when they expire.
+ */
+@Component
+@RequiredArgsConstructor
+public class DriverLedgerChangeObserver implements TransactionalChangeObserver<Change> {
+
+    private static final LocalDate EARLIEST_PERIOD = LocalDate.of(2000, 1, 1);
+
+    private final DriverLedgerService ledgerService;
+    private final TenantTimeZones timeZones;
+
+    @Override
+    public Collection<Change> keysFor(Object entity, ChangeType changeType, PreviousState previous) {
+        Set<Change> changes = new HashSet<>();
+        if (entity instanceof CreditCardTransaction t) {
+            // Without the previous driver, an update may have moved it from anyone
+            boolean anyDriver = changeType == ChangeType.UPDATE && !previous.isKnown();
+            add(changes, cardChange(t.getTransactionDate(), anyDriver ? null : t.getDriverNumber()));
+            if (previous.isKnown()) {
+                add(changes, cardChange((LocalDate) previous.get("transactionDate"),
+                        (String) previous.get("driverNumber")));
+            }
+        } else if (entity instanceof AccountCharge c) {
+            boolean anyDriver = changeType == ChangeType.UPDATE && !previous.isKnown();
+            add(changes, chargeChange(c.getTripDate(), anyDriver ? null : c.getDriver()));
+            if (previous.isKnown()) {
+                add(changes, chargeChange((LocalDate) previous.get("tripDate"), (Driver) previous.get("driver")));
+            }
+        } else if (entity instanceof DriverShift s) {
+            add(changes, shiftMonth(s.getLogonTime()));
+            add(changes, shiftMonth((LocalDateTime) previous.get("logonTime")));
+        } else if (entity instanceof MileageRecord m) {
+            add(changes, shiftMonth(m.getLogonTime()));
+            add(changes, shiftMonth((LocalDateTime) previous.get("logonTime")));
+        } else if (entity instanceof Revenue r) {
+            add(changes, shiftMonth(r.getTimestamp()));
+            add(changes, shiftMonth((LocalDateTime) previous.get("timestamp")));
+        } else if (entity instanceof ShiftLog l) {
+            add(changes, day(l.getLogDate()));
+            add(changes, day((LocalDate) previous.get("logDate")));
+        } else if (entity instanceof AirportTrip a) {
+            add(changes, day(a.getTripDate()));
+            add(changes, day((LocalDate) previous.get("tripDate")));
+        } else if (entity instanceof AirportTripHourlyTotal a) {
+            add(changes, day(a.getTripDate()));
+            add(changes, day((LocalDate) previous.get("tripDate")));
+        } else if (entity instanceof OtherRevenue r) {
+            add(changes, day(r.getRevenueDate()));
+            add(changes, day((LocalDate) previous.get("revenueDate")));
+        } else if (entity instanceof OneTimeExpense e) {
+            add(changes, day(e.getExpenseDate()));
+            add(changes, day((LocalDate) previous.get("expenseDate")));
+        } else if (entity instanceof Statement s) {
+            add(changes, fromPeriod(s.getPersonId(), s.getPeriodFrom()));
+            add(changes, fromPeriod((Long) previous.get("personId"), (LocalDate) previous.get("periodFrom")));
+        } else if (entity instanceof StatementPayment p) {
+            // Paid amount of some statement of that person, and every balance carried after it
+            add(changes, fromPeriod(p.getPersonId(), EARLIEST_PERIOD));
+            add(changes, fromPeriod((Long) previous.get("personId"), EARLIEST_PERIOD));
+        } else if (entity instanceof TransferExecution t) {
+            add(changes, t.getPeriodFrom() != null ? Change.from(t.getPeriodFrom()) : null);
+            LocalDate previousFrom = (LocalDate) previous.get("periodFrom");
+            add(changes, previousFrom != null ? Change.from(previousFrom) : null);
+        } else if (entity instanceof LegacyBalance b) {
+            add(changes, legacyChange(b.getDriverNumber(), b.getEffectiveDate()));
+            if (previous.isKnown()) {
+                add(changes, legacyChange((String) previous.get("driverNumber"), (LocalDate) previous.get("effectiveDate")));
+            }
+        } else if (entity instanceof LeaseRate r) {
+            // The plan's dates; all of them if the plan is not loaded
+            LeasePlan plan = r.getLeasePlan();
+            add(changes, plan != null && Hibernate.isInitialized(plan)
+                    ? effective(plan.getEffectiveFrom(), plan.getEffectiveTo())
+                    : Change.all());
+        } else if (entity instanceof ExpenseCategory) {
+            add(changes, Change.all());
+        } else {
+            String[] dates = effectiveDates(entity);
+            if (dates != null) {
+                add(changes, effective(entity));
+                if (previous.isKnown()) {
+                    add(changes, effective((LocalDate) previous.get(dates[0]), (LocalDate) previous.get(dates[1])));
+                }
+            }
+        }
+        return changes;
+    }
+
+    @Override
+    public void beforeCommit(Set<Change> changes) {
+        ledgerService.recordChanges(changes);
+    }
+
+    /**
+     * Names of the start and end date of a record effective over a range (null when open),
+     * or null if the entity is not tracked that way
+     */
+    private static String[] effectiveDates(Object entity) {
+        if (entity instanceof RecurringExpense || entity instanceof ItemRate || entity instanceof LeasePlan
+                || entity instanceof TaxRate || entity instanceof CommissionRate) {
+            return new String[] {"effectiveFrom", "effectiveTo"};
+        }
+        if (entity instanceof TaxCategoryAssignment || entity instanceof CommissionCategoryAssignment) {
+            return new String[] {"assignedAt", "unassignedAt"};
+        }
+        if (entity instanceof ItemRateOverride || entity instanceof LeaseRateOverride
+                || entity instanceof ShiftOwnership || entity instanceof StatementBalanceTransfer
+                || entity instanceof CabAttributeValue) {
+            return new String[] {"startDate", "endDate"};
+        }
+        return null;
+    }
+
+    private static Change effective(Object entity) {
+        if (entity instanceof RecurringExpense e) return effective(e.getEffectiveFrom(), e.getEffectiveTo());
+        if (entity instanceof ItemRate r) return effective(r.getEffectiveFrom(), r.getEffectiveTo());
+        if (entity instanceof LeasePlan p) return effective(p.getEffectiveFrom(), p.getEffectiveTo());
+        if (entity instanceof TaxRate r) return effective(r.getEffectiveFrom(), r.getEffectiveTo());
+        if (entity instanceof CommissionRate r) return effective(r.getEffectiveFrom(), r.getEffectiveTo());
+        if (entity instanceof TaxCategoryAssignment a) return effective(a.getAssignedAt(), a.getUnassignedAt());
+        if (entity instanceof CommissionCategoryAssignment a) return effective(a.getAssignedAt(), a.getUnassignedAt());
+        if (entity instanceof ItemRateOverride o) return effective(o.getStartDate(), o.getEndDate());
+        if (entity instanceof LeaseRateOverride o) return effective(o.getStartDate(), o.getEndDate());
+        if (entity instanceof ShiftOwnership o) return effective(o.getStartDate(), o.getEndDate());
+        if (entity instanceof StatementBalanceTransfer t) return effective(t.getStartDate(), t.getEndDate());
+        if (entity instanceof CabAttributeValue v) return effective(v.getStartDate(), v.getEndDate());
+        throw new IllegalArgumentException("No effective dates on " + entity.getClass().getName());
+    }
+
+    /**
+     * Every person for the months of [from, to]; a missing start is the earliest period,
+     * a missing end is open-ended
+     */
+    private static Change effective(LocalDate from, LocalDate to) {
+        return Change.between(from != null ? from : EARLIEST_PERIOD, to);
+    }
+
+    private static Change cardChange(LocalDate date, String driverNumber) {
+        if (date == null) return null;
+        return driverNumber != null
+                ? Change.forDriver(driverNumber, date, date.plusMonths(1))
+                : Change.between(date, date.plusMonths(1));
+    }
+
+    private static Change chargeChange(LocalDate date, Driver driver) {
+        if (date == null) return null;
+        return driver != null
+                ? Change.forPerson(driver.getId(), date, date.plusMonths(1))
+                : Change.between(date, date.plusMonths(1));
+    }
+
+    private static Change fromPeriod(Long personId, LocalDate from) {
+        return personId != null && from != null ? Change.forPerson(personId, from, null) : null;
+    }
+
+    private static Change legacyChange(String driverNumber, LocalDate effectiveDate) {
+        return driverNumber != null && effectiveDate != null ? Change.forDriver(driverNumber, effectiveDate, null) : null;
+    }
+
+    private static Change day(LocalDate date) {
+        return date != null ? Change.between(date, date) : null;
+    }
+
+    /**
+     * Shift timestamps are UTC; cover both the UTC and the tenant's local date
+     */
+    private Change shiftMonth(LocalDateTime logonTime) {
+        if (logonTime == null) return null;
+        LocalDate utcDate = logonTime.toLocalDate();
+        LocalDate localDate = timeZones.localDate(logonTime);
+        return localDate.isBefore(utcDate) ? Change.between(localDate, utcDate) : Change.between(utcDate, localDate);
+    }
+
+    private static void add(Set<Change> changes, Change change) {
+        if (change != null) {
+            changes.add(change.toMonths());
+        }
+    }
+}
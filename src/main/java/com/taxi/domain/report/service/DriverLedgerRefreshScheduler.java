@@ -0,0 +1,59 @@
+package com.taxi.domain.report.service;
+
+import com.taxi.domain.driver.model.Driver;
+import com.taxi.domain.driver.repository.DriverRepository;
+import com.taxi.infrastructure.multitenancy.TenantContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the current and previous month's driver ledger warm, so the month summary rarely
+ * has to rebuild anything on the request path.
+ *
+ * Configuration:
+ * - report.ledger.refresh.enabled=true/false
+ * - report.ledger.refresh.interval-ms=600000 (delay between runs)
+ * - report.ledger.refresh.tenants=maclures (comma-separated)
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "report.ledger.refresh.enabled", havingValue = "true")
+public class DriverLedgerRefreshScheduler {
+
+    private final DriverLedgerService driverLedgerService;
+    private final DriverRepository driverRepository;
+
+    @Value("${report.ledger.refresh.tenants:maclures}")
+    private List<String> tenants;
+
+    @Scheduled(
+        fixedDelayString = "${report.ledger.refresh.interval-ms:600000}",
+        initialDelayString = "${report.ledger.refresh.initial-delay-ms:120000}"
+    )
+    public void refreshStaleLedgers() {
+        for (String tenant : tenants) {
+            try {
+                TenantContext.setCurrentTenant(tenant.trim());
+                List<Long> personIds = driverRepository.findByStatus(Driver.DriverStatus.ACTIVE).stream()
+                        .map(Driver::getId)
+                        .collect(Collectors.toList());
+                YearMonth current = YearMonth.now();
+                driverLedgerService.refreshMonth(current.minusMonths(1), personIds);
+                driverLedgerService.refreshMonth(current, personIds);
+            } catch (Exception e) {
+                log.error("Driver ledger refresh failed for tenant {}: {}", tenant, e.getMessage(), e);
+            } finally {
+                TenantContext.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.taxi.domain.report.service;
+
+import com.taxi.domain.report.service.DriverSummaryAssembler.Line;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps the materialized driver ledger (driver_ledger_entry) in step with the data behind
+ * owner reports.
+ *
+ * - Writes record a Change (DriverLedgerChangeObserver for JPA writes, bulk import paths directly)
+ * - A change marks the driver_ledger_period rows it affects stale in the writing transaction, so
+ *   a committed edit is reflected in the next summary on every node, also after a restart
+ * - Stale person-months are rebuilt from generateOwnerReport, one transaction each
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DriverLedgerService {
+
+    private final DriverLedgerStore ledgerStore;
+
+    /**
+     * Dates whose ledger periods must be recomputed.
+     * from == null means every period; to == null means every period from 'from' on.
+     * personId/driverNumber narrow it to one person, otherwise all persons are affected.
+     */
+    public record Change(Long personId, String driverNumber, LocalDate from, LocalDate to) {
+
+        public static Change all() {
+            return new Change(null, null, null, null);
+        }
+
+        public static Change from(LocalDate from) {
+            return new Change(null, null, from, null);
+        }
+
+        public static Change between(LocalDate from, LocalDate to) {
+            return new Change(null, null, from, to);
+        }
+
+        public static Change forPerson(Long personId, LocalDate from, LocalDate to) {
+            return new Change(personId, null, from, to);
+        }
+
+        public static Change forDriver(String driverNumber, LocalDate from, LocalDate to) {
+            return new Change(null, driverNumber, from, to);
+        }
+
+        /**
+         * The same change on month starts, so repeated writes to one month compare equal
+         */
+        public Change toMonths() {
+            return new Change(personId, driverNumber,
+                    from != null ? from.withDayOfMonth(1) : null,
+                    to != null ? to.withDayOfMonth(1) : null);
+        }
+    }
+
+    /**
+     * Mark the periods affected by a change stale, in the caller's transaction: the marks commit
+     * or roll back with the write itself. JPA writes are recorded by DriverLedgerChangeObserver
+     * before they commit; JDBC bulk paths call this directly.
+     */
+    public void recordChange(Change change) {
+        recordChanges(List.of(change.toMonths()));
+    }
+
+    /**
+     * Same as recordChange, for month-normalized changes (Change.toMonths)
+     */
+    public void recordChanges(Collection<Change> changes) {
+        int marked = ledgerStore.markStale(new ArrayList<>(changes));
+        log.debug("Recorded {} ledger changes, {} periods marked stale", changes.size(), marked);
+    }
+
+    /**
+     * Version of the data behind a person's owner reports for the given dates (or, with personId
+     * null, anyone's). It moves with every recorded change overlapping them, once that commits:
+     * a result cached under the version is current as long as it is unchanged. Versions live in
+     * driver_ledger_version, so every node sees the same ones.
+     */
+    public long dataVersion(Long personId, LocalDate from, LocalDate to) {
+        return ledgerStore.dataVersion(personId, from, to);
+    }
+
+    /**
+     * Version of all owner report data
+     */
+    public long dataVersion() {
+        return ledgerStore.dataVersion(null, null, null);
+    }
+
+    /**
+     * Bring a month up to date for the given persons: rebuild every person-month that is stale
+     * or has never been computed.
+     * Returns the freshly computed lines by person id (persons that were already fresh are absent).
+     */
+    public Map<Long, List<Line>> refreshMonth(YearMonth month, Collection<Long> personIds) {
+        Set<Long> fresh = ledgerStore.findFreshPersonIds(month.atDay(1));
+
+        Map<Long, List<Line>> rebuilt = new LinkedHashMap<>();
+        long start = System.currentTimeMillis();
+        for (Long personId : personIds) {
+            if (fresh.contains(personId)) {
+                continue;
+            }
+            try {
+                rebuilt.put(personId, ledgerStore.rebuild(personId, month));
+            } catch (Exception e) {
+                // Period stays stale and is retried next time
+                log.error("Error rebuilding ledger for person {} ({}): {}", personId, month, e.getMessage(), e);
+                rebuilt.put(personId, List.of());
+            }
+        }
+        if (!rebuilt.isEmpty()) {
+            log.info("Rebuilt {} ledger periods for {} in {} ms ({} already fresh)",
+                    rebuilt.size(), month, System.currentTimeMillis() - start, personIds.size() - rebuilt.size());
+        }
+        return rebuilt;
+    }
+
+    /**
+     * Every person's summary lines for a month (call refreshMonth first)
+     */
+    public Map<Long, List<Line>> readMonth(YearMonth month) {
+        return ledgerStore.readMonth(month.atDay(1));
+    }
+}
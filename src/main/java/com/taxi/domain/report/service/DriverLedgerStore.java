@@ -0,0 +1,194 @@
+package com.taxi.domain.report.service;
+
+import com.taxi.domain.driver.model.Driver;
+import com.taxi.domain.driver.repository.DriverRepository;
+import com.taxi.domain.report.model.DriverLedgerEntry;
+import com.taxi.domain.report.model.DriverLedgerPeriod;
+import com.taxi.domain.report.model.DriverLedgerVersion;
+import com.taxi.domain.report.model.LedgerBucket;
+import com.taxi.domain.report.repository.DriverLedgerEntryRepository;
+import com.taxi.domain.report.repository.DriverLedgerPeriodRepository;
+import com.taxi.domain.report.repository.DriverLedgerVersionRepository;
+import com.taxi.domain.report.service.DriverLedgerService.Change;
+import com.taxi.domain.report.service.DriverSummaryAssembler.Line;
+import com.taxi.web.dto.report.OwnerReportDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Reads and writes driver_ledger_period / driver_ledger_entry / driver_ledger_version.
+ *
+ * Reads and rebuilds run in their own transaction: the ledger is refreshed from read-only report
+ * requests, each person-month should commit (and free its persistence context) on its own,
+ * and reads must see rebuilds committed after the caller's transaction started. Changes are
+ * recorded in the writer's transaction instead, so they commit with the write.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DriverLedgerStore {
+
+    // Open-ended change ranges are clamped to these periods
+    private static final LocalDate FIRST_PERIOD = LocalDate.of(2000, 1, 1);
+    private static final LocalDate LAST_PERIOD = LocalDate.of(9999, 12, 1);
+
+    // Longer changes are versioned as open-ended rather than month by month
+    private static final int MAX_VERSIONED_MONTHS = 24;
+
+    private final DriverLedgerEntryRepository entryRepository;
+    private final DriverLedgerPeriodRepository periodRepository;
+    private final DriverLedgerVersionRepository versionRepository;
+    private final DriverRepository driverRepository;
+    private final FinancialStatementService financialStatementService;
+
+    /**
+     * Persons whose ledger for the month is computed and not stale
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public Set<Long> findFreshPersonIds(LocalDate periodStart) {
+        return periodRepository.findByPeriodStart(periodStart).stream()
+                .filter(p -> !Boolean.TRUE.equals(p.getStale()))
+                .map(DriverLedgerPeriod::getPersonId)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Every person's summary lines for a month, from one grouped query
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public Map<Long, List<Line>> readMonth(LocalDate periodStart) {
+        Map<Long, List<Line>> linesByPerson = new HashMap<>();
+        for (Object[] row : entryRepository.sumByPersonForPeriod(periodStart)) {
+            linesByPerson.computeIfAbsent((Long) row[0], k -> new ArrayList<>())
+                    .add(new Line(periodStart, (LedgerBucket) row[1], (String) row[2], (String) row[3],
+                            row[4] != null ? (BigDecimal) row[4] : BigDecimal.ZERO,
+                            row[5] != null ? ((Number) row[5]).intValue() : 0));
+        }
+        return linesByPerson;
+    }
+
+    /**
+     * Mark the periods touched by a set of changes stale and bump their versions, in the
+     * caller's transaction if there is one
+     */
+    @Transactional
+    public int markStale(List<Change> changes) {
+        LocalDateTime now = LocalDateTime.now();
+        if (changes.stream().anyMatch(c -> c.from() == null)) {
+            versionRepository.bump(DriverLedgerVersion.EVERY_PERSON, FIRST_PERIOD, true);
+            return periodRepository.markAllStale(now);
+        }
+
+        Set<String> driverNumbers = changes.stream()
+                .map(Change::driverNumber)
+                .filter(n -> n != null)
+                .collect(Collectors.toSet());
+        Map<String, Long> personIds = new HashMap<>();
+        if (!driverNumbers.isEmpty()) {
+            for (Driver driver : driverRepository.findByDriverNumberIn(driverNumbers)) {
+                personIds.put(driver.getDriverNumber(), driver.getId());
+            }
+        }
+
+        int marked = 0;
+        for (Change change : changes) {
+            LocalDate fromPeriod = change.from().withDayOfMonth(1);
+            LocalDate toPeriod = change.to() != null ? change.to().withDayOfMonth(1) : LAST_PERIOD;
+            Long personId = change.personId() != null ? change.personId() : personIds.get(change.driverNumber());
+            if (personId != null) {
+                marked += periodRepository.markStaleForPersonsBetween(List.of(personId), fromPeriod, toPeriod, now);
+                bumpVersions(personId, fromPeriod, change.to() != null ? toPeriod : null);
+            } else if (change.driverNumber() == null) {
+                marked += periodRepository.markStaleBetween(fromPeriod, toPeriod, now);
+                bumpVersions(DriverLedgerVersion.EVERY_PERSON, fromPeriod, change.to() != null ? toPeriod : null);
+            }
+            // else: unknown driver number - no ledger rows to invalidate, nobody's report reads it
+        }
+        return marked;
+    }
+
+    private void bumpVersions(Long personId, LocalDate fromPeriod, LocalDate toPeriod) {
+        if (toPeriod == null || fromPeriod.plusMonths(MAX_VERSIONED_MONTHS).isBefore(toPeriod)) {
+            versionRepository.bump(personId, fromPeriod, true);
+            return;
+        }
+        for (LocalDate period = fromPeriod; !period.isAfter(toPeriod); period = period.plusMonths(1)) {
+            versionRepository.bump(personId, period, false);
+        }
+    }
+
+    /**
+     * Sum of the versions overlapping the dates, for one person's reports or (personId null) anyone's
+     */
+    @Transactional(readOnly = true)
+    public long dataVersion(Long personId, LocalDate from, LocalDate to) {
+        return versionRepository.versionOf(personId, from != null ? from : FIRST_PERIOD, to != null ? to : LAST_PERIOD);
+    }
+
+    /**
+     * Recompute one person-month from generateOwnerReport and replace its ledger rows.
+     * Returns the summary lines just written.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public List<Line> rebuild(Long personId, YearMonth month) {
+        LocalDateTime startedAt = LocalDateTime.now();
+        LocalDate periodStart = month.atDay(1);
+
+        DriverLedgerPeriod period = periodRepository.findByPersonIdAndPeriodStart(personId, periodStart)
+                .orElseGet(() -> periodRepository.save(DriverLedgerPeriod.builder()
+                        .personId(personId)
+                        .periodStart(periodStart)
+                        .build()));
+
+        OwnerReportDTO report = financialStatementService.generateOwnerReport(personId, periodStart, month.atEndOfMonth());
+        List<Line> lines = DriverSummaryAssembler.toLines(report, periodStart);
+
+        entryRepository.deleteByPersonIdAndPeriodStart(personId, periodStart);
+        entryRepository.saveAll(toEntries(personId, periodStart, lines));
+        periodRepository.markFresh(period.getId(), startedAt);
+        return lines;
+    }
+
+    /**
+     * One row per (day, bucket, column) - a month of card transactions collapses to one row per day
+     */
+    private List<DriverLedgerEntry> toEntries(Long personId, LocalDate periodStart, List<Line> lines) {
+        Map<List<Object>, DriverLedgerEntry> merged = new LinkedHashMap<>();
+        for (int i = 0; i < lines.size(); i++) {
+            Line line = lines.get(i);
+            int lineNo = i;
+            DriverLedgerEntry entry = merged.computeIfAbsent(
+                    Arrays.asList(line.date(), line.bucket(), line.key(), line.displayName()),
+                    k -> DriverLedgerEntry.builder()
+                            .personId(personId)
+                            .periodStart(periodStart)
+                            .entryDate(line.date())
+                            .bucket(line.bucket())
+                            .breakdownKey(line.key())
+                            .displayName(line.displayName())
+                            .amount(BigDecimal.ZERO)
+                            .tripCount(0)
+                            .lineNo(lineNo)
+                            .build());
+            entry.setAmount(entry.getAmount().add(line.amount()));
+            entry.setTripCount(entry.getTripCount() + line.tripCount());
+        }
+        return new ArrayList<>(merged.values());
+    }
+}
@@ -0,0 +1,83 @@
+package com.taxi.domain.report.service;
+
+import com.taxi.domain.driver.model.Driver;
+import com.taxi.domain.report.service.DriverSummaryAssembler.Line;
+import com.taxi.domain.statement.model.Statement;
+import com.taxi.domain.statement.repository.StatementRepository;
+import com.taxi.web.dto.report.DriverSummaryDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Builds the all-driver month summary from the materialized ledger:
+ * only stale person-months are recomputed, everything else comes from one grouped query.
+ *
+ * Only whole calendar months are served (ledger periods are months, and previous balance /
+ * paid amount are per statement period); other ranges return empty and the caller falls back
+ * to per-driver owner reports.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DriverLedgerSummaryService {
+
+    private final DriverLedgerService ledgerService;
+    private final StatementRepository statementRepository;
+
+    /**
+     * Summaries for the given drivers, in the given order (including drivers with no activity),
+     * or empty if the range is not exactly one calendar month
+     */
+    public Optional<List<DriverSummaryDTO>> summarizeMonth(List<Driver> drivers, LocalDate startDate, LocalDate endDate) {
+        YearMonth month = YearMonth.from(startDate);
+        if (!startDate.equals(month.atDay(1)) || !endDate.equals(month.atEndOfMonth())) {
+            return Optional.empty();
+        }
+        long startTime = System.currentTimeMillis();
+
+        List<Long> personIds = drivers.stream().map(Driver::getId).collect(Collectors.toList());
+        Map<Long, List<Line>> rebuilt = ledgerService.refreshMonth(month, personIds);
+
+        // One grouped query for everyone; persons whose rebuild just failed get no lines
+        // (a zero summary, as the per-driver path returns on error)
+        Map<Long, List<Line>> linesByPerson = ledgerService.readMonth(month);
+        linesByPerson.putAll(rebuilt);
+
+        // Statement status for every person in one query
+        Map<Long, String> statementStatus = new HashMap<>();
+        for (Statement statement : statementRepository.findByPeriod(startDate, endDate)) {
+            if (startDate.equals(statement.getPeriodFrom()) && endDate.equals(statement.getPeriodTo())
+                    && statement.getStatus() != null) {
+                // Ordered by generatedDate DESC - keep the latest
+                statementStatus.putIfAbsent(statement.getPersonId(), statement.getStatus().name());
+            }
+        }
+
+        List<DriverSummaryDTO> summaries = new ArrayList<>(drivers.size());
+        for (Driver driver : drivers) {
+            DriverSummaryDTO summary = DriverSummaryDTO.builder()
+                    .driverId(driver.getId())
+                    .driverNumber(driver.getDriverNumber())
+                    .driverName(driver.getFullName())
+                    .isOwner(driver.getIsOwner())
+                    .statementStatus(statementStatus.get(driver.getId()))
+                    .build();
+            DriverSummaryAssembler.apply(summary, linesByPerson.getOrDefault(driver.getId(), List.of()));
+            summaries.add(summary);
+        }
+
+        log.info("Built ledger summary for {} drivers ({}) in {} ms, {} periods recomputed",
+                drivers.size(), month, System.currentTimeMillis() - startTime, rebuilt.size());
+        return Optional.of(summaries);
+    }
+}
@@ -0,0 +1,196 @@
+package com.taxi.domain.report.service;
+
+import com.taxi.domain.report.model.LedgerBucket;
+import com.taxi.web.dto.expense.StatementLineItem;
+import com.taxi.web.dto.report.DriverSummaryDTO;
+import com.taxi.web.dto.report.OwnerReportDTO;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Converts an owner report into summary lines and summary lines into a DriverSummaryDTO.
+ *
+ * Shared by the per-driver summary (ReportService, straight from generateOwnerReport) and the
+ * materialized ledger (DriverLedgerService stores the lines, DriverLedgerSummaryService reads
+ * them back aggregated), so both produce identical columns and totals.
+ */
+public final class DriverSummaryAssembler {
+
+    private DriverSummaryAssembler() {}
+
+    /**
+     * One summary amount: bucket + breakdown column (key null = totals only)
+     */
+    public record Line(LocalDate date, LedgerBucket bucket, String key, String displayName,
+                       BigDecimal amount, int tripCount) {}
+
+    /**
+     * Flatten an owner report into summary lines, in report order.
+     * Lines without their own date (recurring, tax, commission, balance) are dated periodStart.
+     */
+    public static List<Line> toLines(OwnerReportDTO report, LocalDate periodStart) {
+        List<Line> lines = new ArrayList<>();
+
+        for (OwnerReportDTO.RevenueLineItem rev : report.getRevenues()) {
+            LocalDate date = rev.getRevenueDate() != null ? rev.getRevenueDate() : periodStart;
+            String subType = rev.getRevenueSubType();
+            if ("CARD_REVENUE".equals(subType)) {
+                lines.add(new Line(date, LedgerBucket.CARD_REVENUE, "CC", "Credit Card", amount(rev.getAmount()), 0));
+            } else if ("ACCOUNT_REVENUE".equals(subType)) {
+                lines.add(new Line(date, LedgerBucket.CHARGES_REVENUE, "CHARGES", "Charges", amount(rev.getAmount()), 0));
+            } else if ("LEASE_INCOME".equals(subType)) {
+                lines.add(new Line(date, LedgerBucket.LEASE_REVENUE, "LEASE_INC", "Lease Income", amount(rev.getAmount()), 0));
+            } else if ("OTHER_REVENUE".equals(subType) || "SHIFT_REVENUE".equals(subType)) {
+                // For OTHER_REVENUE, use description as unique key
+                String description = rev.getDescription() != null ? rev.getDescription().trim() : "Other Revenue";
+                lines.add(new Line(date, LedgerBucket.OTHER_REVENUE, "OTHER:" + description, description, amount(rev.getAmount()), 0));
+            } else {
+                // Transfers etc. - part of total revenue, no column of their own
+                lines.add(new Line(date, LedgerBucket.TRANSFER_REVENUE, null, null, amount(rev.getAmount()), 0));
+            }
+        }
+
+        if (report.getRecurringExpenses() != null) {
+            for (StatementLineItem exp : report.getRecurringExpenses()) {
+                String categoryName = exp.getCategoryName() != null ? exp.getCategoryName() : "Recurring Expense";
+                lines.add(new Line(periodStart, LedgerBucket.FIXED_EXPENSE, "RECURRING:" + categoryName, categoryName,
+                        amount(exp.getAmount()), 0));
+            }
+        }
+
+        if (report.getOneTimeExpenses() != null) {
+            for (StatementLineItem exp : report.getOneTimeExpenses()) {
+                LocalDate date = exp.getDate() != null ? exp.getDate() : periodStart;
+                String categoryCode = exp.getCategoryCode();
+                if ("LEASE_EXP".equals(categoryCode)) {
+                    lines.add(new Line(date, LedgerBucket.LEASE_EXPENSE, "LEASE_EXP", "Lease Expense", amount(exp.getAmount()), 0));
+                } else if ("AIRPORT_TRIP".equals(categoryCode)) {
+                    int trips = exp.getTripCount() != null ? exp.getTripCount() : 0;
+                    lines.add(new Line(date, LedgerBucket.AIRPORT_EXPENSE, "AIRPORT", "Airport Trips", amount(exp.getAmount()), trips));
+                } else {
+                    String categoryName = exp.getCategoryName() != null ? exp.getCategoryName() : "Other Expense";
+                    lines.add(new Line(date, LedgerBucket.OTHER_EXPENSE, "ONETIME:" + categoryName, categoryName,
+                            amount(exp.getAmount()), 0));
+                }
+            }
+        }
+
+        if (report.getInsuranceMileageExpenses() != null) {
+            for (StatementLineItem exp : report.getInsuranceMileageExpenses()) {
+                LocalDate date = exp.getDate() != null ? exp.getDate() : periodStart;
+                lines.add(new Line(date, LedgerBucket.INSURANCE_EXPENSE, "INSURANCE", "Insurance Mileage", amount(exp.getAmount()), 0));
+            }
+        }
+
+        if (report.getTaxExpenses() != null) {
+            for (OwnerReportDTO.TaxLineItem tax : report.getTaxExpenses()) {
+                lines.add(new Line(periodStart, LedgerBucket.TAX_EXPENSE,
+                        "TAX:" + tax.getTaxTypeCode() + ":" + tax.getExpenseCategoryName(),
+                        tax.getTaxTypeName() + " on " + tax.getExpenseCategoryName(),
+                        amount(tax.getAmount()), 0));
+            }
+        }
+
+        if (report.getCommissionExpenses() != null) {
+            for (OwnerReportDTO.CommissionLineItem comm : report.getCommissionExpenses()) {
+                lines.add(new Line(periodStart, LedgerBucket.COMMISSION_EXPENSE,
+                        "COMM:" + comm.getCommissionTypeCode() + ":" + comm.getRevenueCategoryName(),
+                        comm.getCommissionTypeName() + " on " + comm.getRevenueCategoryName(),
+                        amount(comm.getAmount()), 0));
+            }
+        }
+
+        lines.add(new Line(periodStart, LedgerBucket.PREVIOUS_BALANCE, null, null, amount(report.getPreviousBalance()), 0));
+        lines.add(new Line(periodStart, LedgerBucket.PAID, null, null, amount(report.getPaidAmount()), 0));
+        return lines;
+    }
+
+    /**
+     * Fill a summary's amounts, totals and itemized breakdown from its lines
+     */
+    public static void apply(DriverSummaryDTO summary, List<Line> lines) {
+        Map<LedgerBucket, BigDecimal> totals = new EnumMap<>(LedgerBucket.class);
+        for (LedgerBucket bucket : LedgerBucket.values()) {
+            totals.put(bucket, BigDecimal.ZERO);
+        }
+        int airportTripCount = 0;
+        Map<String, DriverSummaryDTO.ItemizedBreakdown> revenueMap = new LinkedHashMap<>();
+        Map<String, DriverSummaryDTO.ItemizedBreakdown> expenseMap = new LinkedHashMap<>();
+
+        for (Line line : lines) {
+            totals.merge(line.bucket(), line.amount(), BigDecimal::add);
+            if (line.bucket() == LedgerBucket.AIRPORT_EXPENSE) {
+                airportTripCount += line.tripCount();
+            }
+            if (line.key() == null || line.bucket() == LedgerBucket.INSURANCE_EXPENSE) {
+                continue;
+            }
+            Map<String, DriverSummaryDTO.ItemizedBreakdown> target = line.bucket().isRevenue() ? revenueMap : expenseMap;
+            DriverSummaryDTO.ItemizedBreakdown item = target.computeIfAbsent(line.key(), k ->
+                    DriverSummaryDTO.ItemizedBreakdown.builder()
+                            .key(k)
+                            .displayName(line.displayName())
+                            .amount(BigDecimal.ZERO)
+                            .build());
+            item.setAmount(item.getAmount().add(line.amount()));
+        }
+
+        BigDecimal insurance = totals.get(LedgerBucket.INSURANCE_EXPENSE);
+        if (insurance.compareTo(BigDecimal.ZERO) > 0) {
+            expenseMap.put("INSURANCE", DriverSummaryDTO.ItemizedBreakdown.builder()
+                    .key("INSURANCE").displayName("Insurance Mileage").amount(insurance).build());
+        }
+        if (expenseMap.containsKey("AIRPORT") && airportTripCount > 0) {
+            expenseMap.get("AIRPORT").setDisplayName(String.format("Airport Trips (%d trips)", airportTripCount));
+        }
+
+        summary.setLeaseRevenue(totals.get(LedgerBucket.LEASE_REVENUE));
+        summary.setCreditCardRevenue(totals.get(LedgerBucket.CARD_REVENUE));
+        summary.setChargesRevenue(totals.get(LedgerBucket.CHARGES_REVENUE));
+        summary.setOtherRevenue(totals.get(LedgerBucket.OTHER_REVENUE));
+
+        summary.setFixedExpense(totals.get(LedgerBucket.FIXED_EXPENSE));
+        summary.setLeaseExpense(totals.get(LedgerBucket.LEASE_EXPENSE));
+        summary.setVariableExpense(BigDecimal.ZERO);
+        summary.setOtherExpense(totals.get(LedgerBucket.OTHER_EXPENSE));
+        summary.setInsuranceMileageExpense(insurance);
+        summary.setAirportTripCount(airportTripCount);
+        summary.setAirportTripCost(totals.get(LedgerBucket.AIRPORT_EXPENSE));
+        summary.setTaxExpense(totals.get(LedgerBucket.TAX_EXPENSE));
+        summary.setCommissionExpense(totals.get(LedgerBucket.COMMISSION_EXPENSE));
+
+        BigDecimal totalRevenue = BigDecimal.ZERO;
+        BigDecimal totalExpense = BigDecimal.ZERO;
+        for (Map.Entry<LedgerBucket, BigDecimal> total : totals.entrySet()) {
+            if (total.getKey().isRevenue()) {
+                totalRevenue = totalRevenue.add(total.getValue());
+            } else if (total.getKey().isExpense()) {
+                totalExpense = totalExpense.add(total.getValue());
+            }
+        }
+        summary.setTotalRevenue(totalRevenue);
+        summary.setTotalExpense(totalExpense);
+
+        // Net and outstanding include the balance carried from the prior period
+        BigDecimal previousBalance = totals.get(LedgerBucket.PREVIOUS_BALANCE);
+        BigDecimal paid = totals.get(LedgerBucket.PAID);
+        BigDecimal netOwed = previousBalance.add(totalRevenue).subtract(totalExpense);
+        summary.setPreviousBalance(previousBalance);
+        summary.setNetOwed(netOwed);
+        summary.setPaid(paid);
+        summary.setOutstanding(netOwed.subtract(paid));
+
+        summary.setRevenueBreakdown(new ArrayList<>(revenueMap.values()));
+        summary.setExpenseBreakdown(new ArrayList<>(expenseMap.values()));
+    }
+
+    private static BigDecimal amount(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,105 @@
+package com.taxi.domain.report.service;
+
+import com.taxi.domain.driver.model.Driver;
+import com.taxi.domain.statement.model.Statement;
+import com.taxi.domain.statement.repository.StatementRepository;
+import com.taxi.web.dto.report.DriverSummaryDTO;
+import com.taxi.web.dto.report.OwnerReportDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * Financial summary of one driver for a date range, straight from generateOwnerReport.
+ *
+ * Shared by ReportService (single driver, full and async reports) and
+ * DriverSummarySnapshotService (parallel snapshot build), so every summary uses the
+ * same logic as the individual owner report.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DriverSummaryCalculator {
+
+    private final FinancialStatementService financialStatementService;
+    private final StatementRepository statementRepository;
+
+    /**
+     * Summary for one driver; a zero summary if the owner report fails
+     */
+    public DriverSummaryDTO summarize(Driver driver, LocalDate startDate, LocalDate endDate) {
+        log.debug("Calculating summary for driver: {} using generateOwnerReport", driver.getDriverNumber());
+
+        DriverSummaryDTO summary = DriverSummaryDTO.builder()
+                .driverId(driver.getId())
+                .driverNumber(driver.getDriverNumber())
+                .driverName(driver.getFullName())
+                .isOwner(driver.getIsOwner())
+                .build();
+
+        try {
+            OwnerReportDTO fullReport =
+                    financialStatementService.generateOwnerReport(driver.getId(), startDate, endDate);
+            fullReport.calculateTotals();
+
+            // Same line mapping the materialized ledger stores (DriverSummaryAssembler),
+            // so the per-driver and ledger-backed summaries always agree
+            DriverSummaryAssembler.apply(summary, DriverSummaryAssembler.toLines(fullReport, startDate));
+
+            // Check if a statement already exists for this person and period
+            Optional<Statement> existingStatement =
+                    statementRepository.findByPersonIdAndPeriodFromAndPeriodTo(driver.getId(), startDate, endDate);
+            if (existingStatement.isPresent()) {
+                summary.setStatementStatus(existingStatement.get().getStatus().name());
+            }
+
+            log.debug("Completed summary for {}: Revenue=${}, Expense=${}, NetOwed=${}, Outstanding=${}",
+                    driver.getDriverNumber(),
+                    summary.getTotalRevenue(),
+                    summary.getTotalExpense(),
+                    summary.getNetOwed(),
+                    summary.getOutstanding());
+
+        } catch (Exception e) {
+            log.error("Error calculating summary for driver {}: {}", driver.getDriverNumber(), e.getMessage(), e);
+            // Return zero summary on error rather than crashing
+            summary.setLeaseRevenue(BigDecimal.ZERO);
+            summary.setCreditCardRevenue(BigDecimal.ZERO);
+            summary.setChargesRevenue(BigDecimal.ZERO);
+            summary.setOtherRevenue(BigDecimal.ZERO);
+            summary.setFixedExpense(BigDecimal.ZERO);
+            summary.setLeaseExpense(BigDecimal.ZERO);
+            summary.setVariableExpense(BigDecimal.ZERO);
+            summary.setOtherExpense(BigDecimal.ZERO);
+            summary.setPaid(BigDecimal.ZERO);
+            summary.setOutstanding(BigDecimal.ZERO);
+            summary.setTotalRevenue(BigDecimal.ZERO);
+            summary.setTotalExpense(BigDecimal.ZERO);
+            summary.setNetOwed(BigDecimal.ZERO);
+        }
+
+        return summary;
+    }
+
+    /**
+     * True if the driver has any revenue or expense in the range
+     */
+    public static boolean hasFinancialActivity(DriverSummaryDTO summary) {
+        return nonZero(summary.getLeaseRevenue())
+                || nonZero(summary.getCreditCardRevenue())
+                || nonZero(summary.getChargesRevenue())
+                || nonZero(summary.getOtherRevenue())
+                || nonZero(summary.getFixedExpense())
+                || nonZero(summary.getLeaseExpense())
+                || nonZero(summary.getVariableExpense())
+                || nonZero(summary.getOtherExpense());
+    }
+
+    private static boolean nonZero(BigDecimal value) {
+        return value != null && value.compareTo(BigDecimal.ZERO) != 0;
+    }
+}
@@ -0,0 +1,320 @@
+package com.taxi.domain.report.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.taxi.domain.driver.model.Driver;
+import com.taxi.domain.driver.repository.DriverRepository;
+import com.taxi.infrastructure.multitenancy.TenantContext;
+import com.taxi.web.dto.report.DriverSummaryDTO;
+import com.taxi.web.dto.report.DriverSummaryReportDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * All-driver summary snapshots for the paginated driver summary report.
+ *
+ * The first request for a (tenant, period, person type) computes every driver once - from the
+ * materialized ledger for whole months, otherwise one owner report per driver on reportExecutor -
+ * and every page, sort order and grand total is then served from memory.
+ *
+ * Snapshots are keyed on DriverLedgerService.dataVersion(), so any recorded write to summary
+ * data makes the next request build a new one; the cache is size-bounded with a TTL as a backstop.
+ * Cached summaries are shared between requests and must not be modified.
+ */
+@Service
+@Slf4j
+public class DriverSummarySnapshotService {
+
+    private static final Comparator<String> TEXT_ORDER =
+            Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER);
+
+    private static final Comparator<Row> NAME_ORDER =
+            Comparator.comparing(Row::lastName, TEXT_ORDER).thenComparing(Row::firstName, TEXT_ORDER);
+
+    private static final Map<String, Function<DriverSummaryDTO, BigDecimal>> AMOUNT_FIELDS = Map.ofEntries(
+            Map.entry("leaseRevenue", DriverSummaryDTO::getLeaseRevenue),
+            Map.entry("creditCardRevenue", DriverSummaryDTO::getCreditCardRevenue),
+            Map.entry("chargesRevenue", DriverSummaryDTO::getChargesRevenue),
+            Map.entry("otherRevenue", DriverSummaryDTO::getOtherRevenue),
+            Map.entry("fixedExpense", DriverSummaryDTO::getFixedExpense),
+            Map.entry("leaseExpense", DriverSummaryDTO::getLeaseExpense),
+            Map.entry("variableExpense", DriverSummaryDTO::getVariableExpense),
+            Map.entry("otherExpense", DriverSummaryDTO::getOtherExpense),
+            Map.entry("insuranceMileageExpense", DriverSummaryDTO::getInsuranceMileageExpense),
+            Map.entry("airportTripCost", DriverSummaryDTO::getAirportTripCost),
+            Map.entry("taxExpense", DriverSummaryDTO::getTaxExpense),
+            Map.entry("commissionExpense", DriverSummaryDTO::getCommissionExpense),
+            Map.entry("totalRevenue", DriverSummaryDTO::getTotalRevenue),
+            Map.entry("totalExpense", DriverSummaryDTO::getTotalExpense),
+            Map.entry("netOwed", DriverSummaryDTO::getNetOwed),
+            Map.entry("previousBalance", DriverSummaryDTO::getPreviousBalance),
+            Map.entry("paid", DriverSummaryDTO::getPaid),
+            Map.entry("outstanding", DriverSummaryDTO::getOutstanding));
+
+    private final DriverRepository driverRepository;
+    private final DriverSummaryCalculator summaryCalculator;
+    private final DriverLedgerSummaryService ledgerSummaryService;
+    private final DriverLedgerService ledgerService;
+    private final ThreadPoolTaskExecutor reportExecutor;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean ledgerEnabled;
+
+    // Futures so concurrent requests for the same key wait for one build instead of starting their own
+    private final Cache<SnapshotKey, CompletableFuture<Snapshot>> snapshots;
+
+    public DriverSummarySnapshotService(DriverRepository driverRepository,
+                                        DriverSummaryCalculator summaryCalculator,
+                                        DriverLedgerSummaryService ledgerSummaryService,
+                                        DriverLedgerService ledgerService,
+                                        @Qualifier("reportExecutor") ThreadPoolTaskExecutor reportExecutor,
+                                        PlatformTransactionManager transactionManager,
+                                        @Value("${report.ledger.enabled:true}") boolean ledgerEnabled,
+                                        @Value("${report.snapshot.max-entries:20}") long maxEntries,
+                                        @Value("${report.snapshot.ttl-minutes:15}") long ttlMinutes) {
+        this.driverRepository = driverRepository;
+        this.summaryCalculator = summaryCalculator;
+        this.ledgerSummaryService = ledgerSummaryService;
+        this.ledgerService = ledgerService;
+        this.reportExecutor = reportExecutor;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.ledgerEnabled = ledgerEnabled;
+        this.snapshots = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .build();
+    }
+
+    /**
+     * Identity of a snapshot; personType is ALL, DRIVER or OWNER
+     */
+    public record SnapshotKey(String tenant, LocalDate startDate, LocalDate endDate,
+                              String personType, long dataVersion) {}
+
+    /**
+     * One driver with financial activity, with the name parts used for sorting
+     */
+    public record Row(DriverSummaryDTO summary, String firstName, String lastName) {}
+
+    /**
+     * Drivers with financial activity in name order, and their totals (page* fields)
+     */
+    public record Snapshot(List<Row> rows, DriverSummaryReportDTO totals, LocalDateTime createdAt) {}
+
+    /**
+     * The current snapshot for the period and person type, built on first use
+     */
+    public Snapshot getSnapshot(LocalDate startDate, LocalDate endDate, String personType) {
+        String tenant = TenantContext.peekCurrentTenant();
+        SnapshotKey key = new SnapshotKey(tenant != null ? tenant : TenantContext.SYSTEM_TENANT,
+                startDate, endDate, normalize(personType), ledgerService.dataVersion());
+
+        CompletableFuture<Snapshot> created = new CompletableFuture<>();
+        CompletableFuture<Snapshot> existing = snapshots.asMap().putIfAbsent(key, created);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException re ? re : e;
+            }
+        }
+
+        try {
+            Snapshot snapshot = build(key);
+            created.complete(snapshot);
+            return snapshot;
+        } catch (RuntimeException e) {
+            snapshots.invalidate(key);
+            created.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * One page of the snapshot in the requested order, with page totals and grand totals
+     */
+    public DriverSummaryReportDTO getPage(LocalDate startDate, LocalDate endDate, String personType, Pageable pageable) {
+        Snapshot snapshot = getSnapshot(startDate, endDate, personType);
+
+        List<Row> rows = new ArrayList<>(snapshot.rows());
+        rows.sort(comparator(pageable.getSort()));
+
+        int size = pageable.getPageSize();
+        int from = (int) Math.min(pageable.getOffset(), rows.size());
+        int to = Math.min(from + size, rows.size());
+
+        DriverSummaryReportDTO report = DriverSummaryReportDTO.builder()
+                .startDate(startDate)
+                .endDate(endDate)
+                .currentPage(pageable.getPageNumber())
+                .totalPages((rows.size() + size - 1) / size)
+                .totalElements((long) rows.size())
+                .pageSize(size)
+                .build();
+        for (Row row : rows.subList(from, to)) {
+            report.addDriverSummary(row.summary());
+        }
+        report.calculatePageTotals();
+        copyGrandTotals(snapshot.totals(), report);
+        return report;
+    }
+
+    private Snapshot build(SnapshotKey key) {
+        long startTime = System.currentTimeMillis();
+
+        Specification<Driver> spec = Specification.where(
+                (root, query, cb) -> cb.equal(root.get("status"), Driver.DriverStatus.ACTIVE));
+        if ("DRIVER".equals(key.personType())) {
+            spec = spec.and((root, query, cb) -> cb.equal(root.get("isOwner"), false));
+        } else if ("OWNER".equals(key.personType())) {
+            spec = spec.and((root, query, cb) -> cb.equal(root.get("isOwner"), true));
+        }
+        List<Driver> drivers = driverRepository.findAll(spec, Sort.by("lastName", "firstName"));
+
+        Optional<List<DriverSummaryDTO>> ledgerSummaries = ledgerEnabled
+                ? ledgerSummaryService.summarizeMonth(drivers, key.startDate(), key.endDate())
+                : Optional.empty();
+        List<DriverSummaryDTO> summaries = ledgerSummaries.isPresent()
+                ? ledgerSummaries.get()
+                : summarizeInParallel(drivers, key.tenant(), key.startDate(), key.endDate());
+
+        List<Row> rows = new ArrayList<>();
+        DriverSummaryReportDTO totals = DriverSummaryReportDTO.builder()
+                .startDate(key.startDate())
+                .endDate(key.endDate())
+                .build();
+        for (int i = 0; i < drivers.size(); i++) {
+            DriverSummaryDTO summary = summaries.get(i);
+            if (!DriverSummaryCalculator.hasFinancialActivity(summary)) {
+                continue;
+            }
+            Driver driver = drivers.get(i);
+            rows.add(new Row(summary, driver.getFirstName(), driver.getLastName()));
+            totals.addDriverSummary(summary);
+        }
+        totals.calculateGrandTotals();
+
+        log.info("Built driver summary snapshot {} to {} ({}): {} of {} drivers with activity in {} ms{}",
+                key.startDate(), key.endDate(), key.personType(), rows.size(), drivers.size(),
+                System.currentTimeMillis() - startTime, ledgerSummaries.isPresent() ? " (ledger)" : "");
+        return new Snapshot(List.copyOf(rows), totals, LocalDateTime.now());
+    }
+
+    /**
+     * One owner report per driver on reportExecutor, each in its own read-only transaction.
+     * Results are in driver order.
+     */
+    private List<DriverSummaryDTO> summarizeInParallel(List<Driver> drivers, String tenant,
+                                                       LocalDate startDate, LocalDate endDate) {
+        List<Future<DriverSummaryDTO>> futures = new ArrayList<>(drivers.size());
+        for (Driver driver : drivers) {
+            futures.add(reportExecutor.submit(() -> summarizeForTenant(tenant, driver, startDate, endDate)));
+        }
+
+        List<DriverSummaryDTO> summaries = new ArrayList<>(drivers.size());
+        try {
+            for (Future<DriverSummaryDTO> future : futures) {
+                summaries.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(f -> f.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while building driver summary snapshot", e);
+        } catch (ExecutionException e) {
+            futures.forEach(f -> f.cancel(true));
+            throw new IllegalStateException("Failed to build driver summary snapshot: " + e.getCause().getMessage(),
+                    e.getCause());
+        }
+        return summaries;
+    }
+
+    private DriverSummaryDTO summarizeForTenant(String tenant, Driver driver, LocalDate startDate, LocalDate endDate) {
+        return TenantContext.callInTenant(tenant, () ->
+                readOnlyTransaction.execute(status -> summaryCalculator.summarize(driver, startDate, endDate)));
+    }
+
+    /**
+     * Requested order (driverName sorts by last name, unknown fields are ignored), then by name
+     */
+    private static Comparator<Row> comparator(Sort sort) {
+        Comparator<Row> result = null;
+        for (Sort.Order order : sort) {
+            Comparator<Row> field = fieldComparator(order.getProperty());
+            if (field == null) {
+                continue;
+            }
+            if (order.isDescending()) {
+                field = field.reversed();
+            }
+            result = result == null ? field : result.thenComparing(field);
+        }
+        return result == null ? NAME_ORDER : result.thenComparing(NAME_ORDER);
+    }
+
+    private static Comparator<Row> fieldComparator(String property) {
+        switch (property) {
+            case "lastName":
+            case "driverName":
+                return NAME_ORDER;
+            case "firstName":
+                return Comparator.comparing(Row::firstName, TEXT_ORDER);
+            case "driverNumber":
+                return Comparator.comparing(row -> row.summary().getDriverNumber(), TEXT_ORDER);
+            default:
+                Function<DriverSummaryDTO, BigDecimal> amount = AMOUNT_FIELDS.get(property);
+                if (amount == null) {
+                    return null;
+                }
+                return Comparator.comparing(row -> {
+                    BigDecimal value = amount.apply(row.summary());
+                    return value != null ? value : BigDecimal.ZERO;
+                });
+        }
+    }
+
+    private static void copyGrandTotals(DriverSummaryReportDTO totals, DriverSummaryReportDTO report) {
+        report.setGrandTotalLeaseRevenue(totals.getPageLeaseRevenue());
+        report.setGrandTotalCreditCardRevenue(totals.getPageCreditCardRevenue());
+        report.setGrandTotalChargesRevenue(totals.getPageChargesRevenue());
+        report.setGrandTotalOtherRevenue(totals.getPageOtherRevenue());
+        report.setGrandTotalFixedExpense(totals.getPageFixedExpense());
+        report.setGrandTotalLeaseExpense(totals.getPageLeaseExpense());
+        report.setGrandTotalVariableExpense(totals.getPageVariableExpense());
+        report.setGrandTotalOtherExpense(totals.getPageOtherExpense());
+        report.setGrandTotalRevenue(totals.getPageTotalRevenue());
+        report.setGrandTotalExpense(totals.getPageTotalExpense());
+        report.setGrandNetOwed(totals.getPageNetOwed());
+        report.setGrandPreviousBalance(totals.getPagePreviousBalance());
+        report.setGrandTotalPaid(totals.getPageTotalPaid());
+        report.setGrandTotalOutstanding(totals.getPageTotalOutstanding());
+    }
+
+    private static String normalize(String personType) {
+        if ("DRIVER".equalsIgnoreCase(personType)) return "DRIVER";
+        if ("OWNER".equalsIgnoreCase(personType)) return "OWNER";
+        return "ALL";
+    }
+}
@@ -1,10 +1,9 @@
 package com.taxi.domain.report.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import com.taxi.domain.cab.model.CabAttributeType;
-import com.taxi.domain.cab.model.CabAttributeValue;
-import com.taxi.domain.cab.repository.CabAttributeTypeRepository;
 import com.taxi.domain.cab.repository.CabRepository;
 import com.taxi.domain.driver.model.Driver;
 import com.taxi.domain.driver.repository.DriverRepository;
@@ -14,14 +13,12 @@ import com.taxi.domain.expense.model.RecurringExpense;
 import com.taxi.domain.expense.model.ItemRate;
 import com.taxi.domain.expense.model.ItemRateOverride;
 import com.taxi.domain.expense.repository.ItemRateRepository;
-import com.taxi.domain.expense.repository.ItemRateOverrideRepository;
 import com.taxi.domain.mileage.model.MileageRecord;
 import com.taxi.domain.mileage.repository.MileageRecordRepository;
 import com.taxi.domain.airport.model.AirportTrip;
-import com.taxi.domain.airport.model.AirportTripDriver;
-import com.taxi.domain.airport.repository.AirportTripDriverRepository;
 import com.taxi.domain.airport.repository.AirportTripRepository;
 import com.taxi.domain.airport.service.AirportChargeService;
+import com.taxi.domain.airport.service.AirportTripAggregateService;
 import com.taxi.domain.expense.service.ExpenseCalculationService;
 import com.taxi.domain.profile.model.ItemRateChargedTo;
 import com.taxi.domain.profile.model.ItemRateUnitType;
@@ -46,11 +43,13 @@ import com.taxi.domain.shift.repository.ShiftOwnershipRepository;
 import com.taxi.domain.statement.model.Statement;
 import com.taxi.domain.statement.model.StatementStatus;
 import com.taxi.domain.statement.repository.StatementRepository;
-import com.taxi.domain.cab.repository.CabAttributeValueRepository;
+import com.taxi.domain.statement.service.PeriodBalanceService;
+import com.taxi.domain.cab.service.CabAttributeTimeline;
 import com.taxi.web.dto.report.OwnerReportDTO;
 import com.taxi.web.dto.expense.StatementLineItem;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -79,10 +78,8 @@ public class FinancialStatementService {
     private final DriverFinancialCalculationService driverFinancialCalculationService;
     private final StatementRepository statementRepository;
     private final ObjectMapper objectMapper;
-    private final CabAttributeValueRepository cabAttributeValueRepository;
-    private final com.taxi.domain.account.repository.StatementPaymentRepository statementPaymentRepository;
+    private final CabAttributeTimeline cabAttributeTimeline;
     private final ItemRateRepository itemRateRepository;
-    private final ItemRateOverrideRepository itemRateOverrideRepository;
     private final MileageRecordRepository mileageRecordRepository;
     private final LeaseRateOverrideService leaseRateOverrideService;
     private final com.taxi.domain.statement.repository.LegacyBalanceRepository legacyBalanceRepository;
@@ -93,16 +90,17 @@ public class FinancialStatementService {
     private final ExpenseCalculationService expenseCalculationService;
     private final AirportChargeService airportChargeService;
     private final com.taxi.domain.shift.service.ShiftValidationService shiftValidationService;
-    private final com.taxi.domain.tax.repository.TaxCategoryAssignmentRepository taxCategoryAssignmentRepository;
-    private final com.taxi.domain.tax.repository.TaxRateRepository taxRateRepository;
     private final com.taxi.domain.tax.repository.CommissionCategoryAssignmentRepository commissionCategoryAssignmentRepository;
-    private final com.taxi.domain.tax.repository.CommissionRateRepository commissionRateRepository;
-    private final CabAttributeTypeRepository cabAttributeTypeRepository;
     private final AirportTripRepository airportTripRepository;
-    private final AirportTripDriverRepository airportTripDriverRepository;
+    private final AirportTripAggregateService airportTripAggregateService;
     private final CustomerChargeProviderFactory chargeProviderFactory;
     private final com.taxi.domain.statement.service.StatementBalanceTransferService statementBalanceTransferService;
     private final com.taxi.domain.statement.service.TransferExecutionService transferExecutionService;
+    private final OwnerReportCache ownerReportCache;
+    private final TemporalRateCache temporalRateCache;
+    private final com.taxi.domain.statement.service.StatementLineItemStore statementLineItemStore;
+    private final PeriodBalanceService periodBalanceService;
+    private final com.taxi.domain.revenue.repository.RevenueRepository revenueRepository;
     /**
      * Generate a financial statement for a driver for a date period
      * Shows all applicable recurring (prorated) and one-time charges
@@ -146,7 +144,7 @@ public class FinancialStatementService {
         // Fetch all active item rates during the period
         // Use mid-period date for determining active rates
         LocalDate checkDate = from.plusDays((ChronoUnit.DAYS.between(from, to) / 2));
-        List<ItemRate> rates = itemRateRepository.findActiveOnDate(checkDate);
+        List<ItemRate> rates = temporalRateCache.itemRatesOn(checkDate);
 
         log.info("Found {} item rates active on {} in period {} to {}",
                 rates.size(), checkDate, from, to);
@@ -174,7 +172,7 @@ public class FinancialStatementService {
 
                 // Check for owner overrides if this is an owner
                 if (Boolean.TRUE.equals(person.getIsOwner()) && person.getDriverNumber() != null) {
-                    List<ItemRateOverride> overrides = itemRateOverrideRepository.findActiveOverridesForRate(
+                    List<ItemRateOverride> overrides = temporalRateCache.itemRateOverridesOn(
                             rate.getId(), person.getDriverNumber(), from);
 
                     if (!overrides.isEmpty()) {
@@ -233,6 +231,12 @@ public class FinancialStatementService {
      * @param useSmartFleetsAI Optional override: null/true = use auto balance-forward, false = use legacy_balance_owed table
      */
     public OwnerReportDTO generateOwnerReport(Long personId, LocalDate from, LocalDate to, boolean includePendingTransfers, Boolean useModernCharges, Boolean useSmartFleetsAI) {
+        // Repeat views, exports and emails of unchanged data are served from OwnerReportCache
+        return ownerReportCache.get(personId, from, to, includePendingTransfers, useModernCharges, useSmartFleetsAI,
+            () -> computeOwnerReport(personId, from, to, includePendingTransfers, useModernCharges, useSmartFleetsAI));
+    }
+
+    private OwnerReportDTO computeOwnerReport(Long personId, LocalDate from, LocalDate to, boolean includePendingTransfers, Boolean useModernCharges, Boolean useSmartFleetsAI) {
         Driver person = driverRepository.findById(personId)
             .orElseThrow(() -> new RuntimeException("Driver/Owner not found: " + personId));
 
@@ -386,7 +390,7 @@ public class FinancialStatementService {
                     if (expense.getAttributeTypeId() == null) continue;
 
                     for (CabShift shift : relevantShifts) {
-                        var shiftAttributes = cabAttributeValueRepository.findCurrentAttributesByShiftId(shift.getId());
+                        var shiftAttributes = cabAttributeTimeline.currentAttributes(shift.getId());
                         boolean hasAttribute = shiftAttributes.stream()
                                 .anyMatch(attr -> attr.getAttributeType().getId().equals(expense.getAttributeTypeId()));
 
@@ -498,7 +502,7 @@ public class FinancialStatementService {
                 // Find which shifts have this attribute
                 int expandedCount = 0;
                 for (CabShift shift : relevantShifts) {
-                    var shiftAttributes = cabAttributeValueRepository.findCurrentAttributesByShiftId(shift.getId());
+                    var shiftAttributes = cabAttributeTimeline.currentAttributes(shift.getId());
                     boolean hasAttribute = shiftAttributes.stream()
                             .anyMatch(attr -> attr.getAttributeType().getId().equals(expense.getAttributeTypeId()));
 
@@ -672,19 +676,11 @@ public class FinancialStatementService {
 
             // PRIMARY PATH: use pre-computed airport_trip_driver assignments
             if (driverNumber != null && !driverNumber.isEmpty()) {
-                List<AirportTripDriver> driverTrips = airportTripDriverRepository
-                        .findByDriverNumberAndTripDateBetweenOrderByTripDateAscHourAsc(driverNumber, from, to);
-
-                if (!driverTrips.isEmpty()) {
-                    // Group by cab + date → one line item per cab per day
-                    Map<String, Map<LocalDate, Integer>> cabDateTrips = new LinkedHashMap<>();
-
-                    for (AirportTripDriver atd : driverTrips) {
-                        cabDateTrips
-                                .computeIfAbsent(atd.getCabNumber(), k -> new TreeMap<>())
-                                .merge(atd.getTripDate(), atd.getTripCount(), Integer::sum);
-                    }
+                // Already grouped by cab + date → one line item per cab per day
+                Map<String, Map<LocalDate, Integer>> cabDateTrips =
+                        airportTripAggregateService.getDriverTripsByCabAndDate(driverNumber, from, to);
 
+                if (!cabDateTrips.isEmpty()) {
                     for (Map.Entry<String, Map<LocalDate, Integer>> cabEntry : cabDateTrips.entrySet()) {
                         String cabNumber = cabEntry.getKey();
                         cabsHandledByDriverAssignments.add(cabNumber);
@@ -721,8 +717,8 @@ public class FinancialStatementService {
                         }
                     }
 
-                    log.info("Airport expense for person {} (driver {}): {} driver assignment records for cabs {}",
-                            personId, driverNumber, driverTrips.size(), cabsHandledByDriverAssignments);
+                    log.info("Airport expense for person {} (driver {}): cabs {}",
+                            personId, driverNumber, cabsHandledByDriverAssignments);
                 }
             }
 
@@ -746,9 +742,19 @@ public class FinancialStatementService {
             log.info("Found {} shift logs for driver {} between {} and {}", shiftLogs.size(), personId, from, to);
         }
 
+        // One query for the revenues of all shift logs instead of initializing each lazy collection
+        Map<Long, List<com.taxi.domain.revenue.model.Revenue>> revenuesByShiftLog = new HashMap<>();
+        if (!shiftLogs.isEmpty()) {
+            List<Long> shiftLogIds = shiftLogs.stream().map(ShiftLog::getId).toList();
+            for (com.taxi.domain.revenue.model.Revenue revenue : revenueRepository.findByShiftLogIdIn(shiftLogIds)) {
+                revenuesByShiftLog.computeIfAbsent(revenue.getShiftLog().getId(), k -> new ArrayList<>()).add(revenue);
+            }
+        }
+
         for (ShiftLog shiftLog : shiftLogs) {
-            if (shiftLog.getRevenues() != null && !shiftLog.getRevenues().isEmpty()) {
-                for (com.taxi.domain.revenue.model.Revenue revenue : shiftLog.getRevenues()) {
+            List<com.taxi.domain.revenue.model.Revenue> shiftRevenues = revenuesByShiftLog.get(shiftLog.getId());
+            if (shiftRevenues != null) {
+                for (com.taxi.domain.revenue.model.Revenue revenue : shiftRevenues) {
                     String revenueType = revenue.getRevenueType() != null ? revenue.getRevenueType().toString() : "OTHER";
                     String description = revenue.getDescription() != null ? revenue.getDescription() :
                         (revenue.getCustomerName() != null ? revenue.getCustomerName() : revenueType);
@@ -1102,6 +1108,9 @@ public class FinancialStatementService {
         // Mode B (useSmartFleetsAI = null/true): Use automatic balance from last FINALIZED/PAID statement (SmartFleets AI)
         BigDecimal carryforward = BigDecimal.ZERO;
 
+        // Previous statement and this period's statement, from the running balance table in one query
+        PeriodBalanceService.PersonBalances balances = periodBalanceService.balances(personId, from, to);
+
         if (useSmartFleetsAI != null && !useSmartFleetsAI) {
             // Use legacy balance from legacy_balance_owed table
             Optional<com.taxi.domain.statement.model.LegacyBalance> legacyBalance =
@@ -1118,23 +1127,15 @@ public class FinancialStatementService {
             }
         } else {
             // Use SmartFleets AI (automatic balance from previous statement)
-            Optional<Statement> lastStatement = statementRepository.findLatestByPersonIdAndStatusInAndPeriodToBefore(
-                    personId, List.of(StatementStatus.FINALIZED, StatementStatus.PAID), from);
-
-            if (lastStatement.isPresent()) {
-                Statement prev = lastStatement.get();
-                BigDecimal paidAmt = prev.getPaidAmount() != null ? prev.getPaidAmount() : BigDecimal.ZERO;
+            PeriodBalanceService.PeriodBalance prev = balances.previous();
 
+            if (prev != null) {
                 // For PAID statements: carry forward netDue - paidAmount (remaining balance after payment)
                 // For FINALIZED statements: carry forward netDue (no payment applied yet)
-                if (prev.getStatus() == StatementStatus.PAID) {
-                    carryforward = prev.getNetDue().subtract(paidAmt);
-                } else {
-                    carryforward = prev.getNetDue();
-                }
+                carryforward = prev.closingBalance();
 
                 log.info("Using SmartFleets AI balance for {} — previous {} statement: netDue={}, paid={}, carryforward={}",
-                        personId, prev.getStatus(), prev.getNetDue(), paidAmt, carryforward);
+                        personId, prev.status(), prev.netDue(), prev.paidAmount(), carryforward);
             } else {
                 log.info("No previous statement found for {} before {} (SmartFleets AI mode)", personId, from);
             }
@@ -1153,19 +1154,13 @@ public class FinancialStatementService {
         report.setStatementId(null);  // Not yet finalized
 
         // Calculate total payments linked to THIS period's statement (not by payment date range)
-        // Payments are linked to specific statements via statementId, so we look up the statement
-        // for this person+period and sum its completed payments. This avoids counting payments
-        // for previous periods that happened to be posted during the current date range.
-        BigDecimal totalPaidInPeriod = BigDecimal.ZERO;
-        Optional<Statement> currentStatement = statementRepository.findByPersonIdAndPeriodFromAndPeriodTo(personId, from, to);
-        if (currentStatement.isPresent()) {
-            List<com.taxi.domain.account.model.StatementPayment> statementPayments =
-                statementPaymentRepository.findCompletedPaymentsByStatement(currentStatement.get().getId());
-            for (com.taxi.domain.account.model.StatementPayment payment : statementPayments) {
-                totalPaidInPeriod = totalPaidInPeriod.add(payment.getAmount());
-            }
-            log.info("Found {} payments for person {} statement {} totaling ${}",
-                statementPayments.size(), personId, currentStatement.get().getId(), totalPaidInPeriod);
+        // Payments are linked to specific statements via statementId; the balance row of this
+        // person+period's statement holds the sum of its completed payments. This avoids counting
+        // payments for previous periods that happened to be posted during the current date range.
+        BigDecimal totalPaidInPeriod = balances.paymentsApplied();
+        if (balances.current() != null) {
+            log.info("Payments for person {} statement {} total ${}",
+                personId, balances.current().statementId(), totalPaidInPeriod);
         } else {
             log.info("No statement found for person {} in period {} to {} — paid amount is $0", personId, from, to);
         }
@@ -1220,10 +1215,10 @@ public class FinancialStatementService {
                 itemDates.add(getEffectiveDate(item, to));
             }
 
-            // Cache: date -> list of active assignments on that date
+            // Active assignments on each date (in-memory rate tables, no query per date)
             java.util.Map<LocalDate, List<com.taxi.domain.tax.model.TaxCategoryAssignment>> assignmentsByDate = new java.util.HashMap<>();
             for (LocalDate date : itemDates) {
-                assignmentsByDate.put(date, taxCategoryAssignmentRepository.findAssignmentsActiveOnDate(date));
+                assignmentsByDate.put(date, temporalRateCache.taxAssignmentsOn(date));
             }
 
             log.info("Tax calculation: {} unique expense dates across {} items, period {}-{}", itemDates.size(), allExpenseItems.size(), from, to);
@@ -1247,7 +1242,7 @@ public class FinancialStatementService {
                     if (!targetCategoryCode.equals(item.getCategoryCode())) continue;
 
                     // Look up tax rate active on the item's date
-                    var rateOpt = taxRateRepository.findActiveRateOnDate(assignment.getTaxType().getId(), itemDate);
+                    var rateOpt = temporalRateCache.taxRateOn(assignment.getTaxType().getId(), itemDate);
                     if (rateOpt.isEmpty()) continue;
                     var rate = rateOpt.get();
 
@@ -1315,10 +1310,7 @@ public class FinancialStatementService {
                 log.debug("No credit card revenue items found for merchant fee calculation");
             } else {
                 // Look up CREDIT_CARD_DISCOUNT commission type (stores merchant fee rates)
-                var commissionTypeOpt = commissionRateRepository.findAll().stream()
-                        .filter(r -> r.getCommissionType().getCode().equals("CREDIT_CARD_DISCOUNT"))
-                        .findFirst()
-                        .map(r -> r.getCommissionType());
+                var commissionTypeOpt = temporalRateCache.commissionType("CREDIT_CARD_DISCOUNT");
 
                 if (commissionTypeOpt.isEmpty()) {
                     log.warn("No CREDIT_CARD_DISCOUNT commission type found — credit card merchant fees will not be charged");
@@ -1339,7 +1331,7 @@ public class FinancialStatementService {
                         LocalDate transactionDate = rev.getRevenueDate() != null ? rev.getRevenueDate() : to;
 
                         // Look up merchant fee rate active on this transaction's date
-                        var rateOpt = commissionRateRepository.findActiveRateOnDate(
+                        var rateOpt = temporalRateCache.commissionRateOn(
                                 commissionType.getId(), transactionDate);
 
                         if (rateOpt.isEmpty()) {
@@ -1408,36 +1400,9 @@ public class FinancialStatementService {
     @Transactional
     public Statement finalizeStatement(OwnerReportDTO report) {
         try {
-            // Create line items list for serialization
-            Map<String, Object> lineItems = new HashMap<>();
-            lineItems.put("revenues", report.getRevenues());
-            lineItems.put("recurringExpenses", report.getRecurringExpenses());
-            lineItems.put("oneTimeExpenses", report.getOneTimeExpenses());
-            lineItems.put("perUnitExpenses", report.getPerUnitExpenses());
-            lineItems.put("insuranceMileageExpenses", report.getInsuranceMileageExpenses());
-            lineItems.put("airportTripExpenses", report.getAirportTripExpenses());
-
-            String lineItemsJson = objectMapper.writeValueAsString(lineItems);
-
-            Statement statement = Statement.builder()
-                .personId(report.getOwnerId())
-                .personType(report.getPersonType())
-                .personName(report.getOwnerName())
-                .periodFrom(report.getPeriodFrom())
-                .periodTo(report.getPeriodTo())
-                .generatedDate(LocalDateTime.now())
-                .totalRevenues(report.getTotalRevenues())
-                .totalRecurringExpenses(report.getTotalRecurringExpenses())
-                .totalOneTimeExpenses(report.getTotalOneTimeExpenses())
-                .totalExpenses(report.getTotalExpenses())
-                .previousBalance(report.getPreviousBalance())
-                .paidAmount(report.getPaidAmount() != null ? report.getPaidAmount() : BigDecimal.ZERO)
-                .netDue(report.getNetDue())
-                .status(StatementStatus.FINALIZED)
-                .lineItemsJson(lineItemsJson)
-                .build();
-
-            statement = statementRepository.save(statement);
+            Statement built = buildFinalizedStatement(report);
+            Statement statement = statementRepository.save(built);
+            statementLineItemStore.save(statement.getId(), built.getLineItemsJson());
             log.info("Finalized statement ID {} for person {} with net due {}", statement.getId(), statement.getPersonId(), statement.getNetDue());
 
             // Mark transfer executions as applied
@@ -1464,14 +1429,69 @@ public class FinancialStatementService {
                 }
             }
 
+            periodBalanceService.refresh(List.of(statement.getId()));
+
             return statement;
 
+        } catch (DataIntegrityViolationException e) {
+            // uk_statements_person_period: finalized meanwhile, e.g. by a month-end job
+            throw new IllegalStateException("A statement for person " + report.getOwnerId() + " from " +
+                    report.getPeriodFrom() + " to " + report.getPeriodTo() + " is already finalized", e);
         } catch (Exception e) {
             log.error("Error finalizing statement", e);
             throw new RuntimeException("Failed to finalize statement: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Line items frozen with a finalized statement (same JSON keys as the original map format)
+     */
+    record FrozenLineItems(
+        List<OwnerReportDTO.RevenueLineItem> revenues,
+        List<StatementLineItem> recurringExpenses,
+        List<StatementLineItem> oneTimeExpenses,
+        List<OwnerReportDTO.PerUnitExpenseLineItem> perUnitExpenses,
+        List<StatementLineItem> insuranceMileageExpenses,
+        List<StatementLineItem> airportTripExpenses) {}
+
+    private static <T> List<T> orEmpty(List<T> items) {
+        return items != null ? items : new ArrayList<>();
+    }
+
+    /**
+     * Build (without saving) the FINALIZED statement that freezes a report's numbers and line items
+     */
+    public Statement buildFinalizedStatement(OwnerReportDTO report) throws JsonProcessingException {
+        // Line items frozen with the statement
+        FrozenLineItems lineItems = new FrozenLineItems(
+            report.getRevenues(),
+            report.getRecurringExpenses(),
+            report.getOneTimeExpenses(),
+            report.getPerUnitExpenses(),
+            report.getInsuranceMileageExpenses(),
+            report.getAirportTripExpenses());
+
+        String lineItemsJson = objectMapper.writeValueAsString(lineItems);
+
+        return Statement.builder()
+            .personId(report.getOwnerId())
+            .personType(report.getPersonType())
+            .personName(report.getOwnerName())
+            .periodFrom(report.getPeriodFrom())
+            .periodTo(report.getPeriodTo())
+            .generatedDate(LocalDateTime.now())
+            .totalRevenues(report.getTotalRevenues())
+            .totalRecurringExpenses(report.getTotalRecurringExpenses())
+            .totalOneTimeExpenses(report.getTotalOneTimeExpenses())
+            .totalExpenses(report.getTotalExpenses())
+            .previousBalance(report.getPreviousBalance())
+            .paidAmount(report.getPaidAmount() != null ? report.getPaidAmount() : BigDecimal.ZERO)
+            .netDue(report.getNetDue())
+            .status(StatementStatus.FINALIZED)
+            .lineItemsJson(lineItemsJson)
+            .build();
+    }
+
     /**
      * Resolve the airport-related attribute type ID for a cab.
      * Checks for AIRPORT_PLATE first, then TRANSPONDER.
@@ -1485,15 +1505,13 @@ public class FinancialStatementService {
                 return null;
             }
 
-            CabAttributeType airportPlateType = cabAttributeTypeRepository.findByAttributeCode("AIRPORT_PLATE").orElse(null);
-            CabAttributeType transponderType = cabAttributeTypeRepository.findByAttributeCode("TRANSPONDER").orElse(null);
+            CabAttributeType airportPlateType = cabAttributeTimeline.attributeType("AIRPORT_PLATE");
+            CabAttributeType transponderType = cabAttributeTimeline.attributeType("TRANSPONDER");
 
             // Check each shift for AIRPORT_PLATE first (takes priority), then TRANSPONDER
             for (CabShift cabShift : cabShifts) {
                 if (airportPlateType != null) {
-                    Optional<CabAttributeValue> ap = cabAttributeValueRepository.findAttributeOnDateByShift(
-                        cabShift, airportPlateType, date);
-                    if (ap.isPresent()) {
+                    if (cabAttributeTimeline.hasAttributeOn(cabShift.getId(), airportPlateType.getId(), date)) {
                         log.debug("Cab {} has AIRPORT_PLATE on shift {} — attributeTypeId={}",
                                 cabNumber, cabShift.getShiftType(), airportPlateType.getId());
                         return airportPlateType.getId();
@@ -1503,9 +1521,7 @@ public class FinancialStatementService {
 
             for (CabShift cabShift : cabShifts) {
                 if (transponderType != null) {
-                    Optional<CabAttributeValue> tr = cabAttributeValueRepository.findAttributeOnDateByShift(
-                        cabShift, transponderType, date);
-                    if (tr.isPresent()) {
+                    if (cabAttributeTimeline.hasAttributeOn(cabShift.getId(), transponderType.getId(), date)) {
                         log.debug("Cab {} has TRANSPONDER on shift {} — attributeTypeId={}",
                                 cabNumber, cabShift.getShiftType(), transponderType.getId());
                         return transponderType.getId();
@@ -1546,62 +1562,10 @@ public class FinancialStatementService {
      */
     public OwnerReportDTO convertStatementToReport(Statement statement) {
         try {
-            // Deserialize line items from JSON
-            com.fasterxml.jackson.databind.JsonNode lineItemsNode = objectMapper.readTree(statement.getLineItemsJson() != null ? statement.getLineItemsJson() : "{}");
-
-            List<OwnerReportDTO.RevenueLineItem> revenues = new ArrayList<>();
-            List<StatementLineItem> recurringExpenses = new ArrayList<>();
-            List<StatementLineItem> oneTimeExpenses = new ArrayList<>();
-            List<OwnerReportDTO.PerUnitExpenseLineItem> perUnitExpenses = new ArrayList<>();
-
-            // Extract revenues
-            if (lineItemsNode.has("revenues") && lineItemsNode.get("revenues").isArray()) {
-                revenues = objectMapper.readValue(
-                    lineItemsNode.get("revenues").toString(),
-                    objectMapper.getTypeFactory().constructCollectionType(List.class, OwnerReportDTO.RevenueLineItem.class)
-                );
-            }
-
-            // Extract recurring expenses
-            if (lineItemsNode.has("recurringExpenses") && lineItemsNode.get("recurringExpenses").isArray()) {
-                recurringExpenses = objectMapper.readValue(
-                    lineItemsNode.get("recurringExpenses").toString(),
-                    objectMapper.getTypeFactory().constructCollectionType(List.class, StatementLineItem.class)
-                );
-            }
-
-            // Extract one-time expenses
-            if (lineItemsNode.has("oneTimeExpenses") && lineItemsNode.get("oneTimeExpenses").isArray()) {
-                oneTimeExpenses = objectMapper.readValue(
-                    lineItemsNode.get("oneTimeExpenses").toString(),
-                    objectMapper.getTypeFactory().constructCollectionType(List.class, StatementLineItem.class)
-                );
-            }
-
-            // Extract per-unit expenses
-            if (lineItemsNode.has("perUnitExpenses") && lineItemsNode.get("perUnitExpenses").isArray()) {
-                perUnitExpenses = objectMapper.readValue(
-                    lineItemsNode.get("perUnitExpenses").toString(),
-                    objectMapper.getTypeFactory().constructCollectionType(List.class, OwnerReportDTO.PerUnitExpenseLineItem.class)
-                );
-            }
-
-            // Extract insurance mileage expenses
-            List<StatementLineItem> insuranceMileageExpenses = new ArrayList<>();
-            if (lineItemsNode.has("insuranceMileageExpenses") && lineItemsNode.get("insuranceMileageExpenses").isArray()) {
-                insuranceMileageExpenses = objectMapper.readValue(
-                    lineItemsNode.get("insuranceMileageExpenses").toString(),
-                    objectMapper.getTypeFactory().constructCollectionType(List.class, StatementLineItem.class)
-                );
-            }
-
-            // Extract airport trip expenses
-            List<StatementLineItem> airportTripExpenses = new ArrayList<>();
-            if (lineItemsNode.has("airportTripExpenses") && lineItemsNode.get("airportTripExpenses").isArray()) {
-                airportTripExpenses = objectMapper.readValue(
-                    lineItemsNode.get("airportTripExpenses").toString(),
-                    objectMapper.getTypeFactory().constructCollectionType(List.class, StatementLineItem.class)
-                );
+            // Line items are read in one pass straight into their types
+            FrozenLineItems lineItems = statementLineItemStore.read(statement.getId(), FrozenLineItems.class);
+            if (lineItems == null) {
+                lineItems = new FrozenLineItems(null, null, null, null, null, null);
             }
 
             // Get driver info
@@ -1624,12 +1588,12 @@ public class FinancialStatementService {
                 .totalRecurringExpenses(statement.getTotalRecurringExpenses())
                 .totalOneTimeExpenses(statement.getTotalOneTimeExpenses())
                 .totalExpenses(statement.getTotalExpenses())
-                .revenues(revenues)
-                .recurringExpenses(recurringExpenses)
-                .oneTimeExpenses(oneTimeExpenses)
-                .perUnitExpenses(perUnitExpenses)
-                .insuranceMileageExpenses(insuranceMileageExpenses)
-                .airportTripExpenses(airportTripExpenses)
+                .revenues(orEmpty(lineItems.revenues()))
+                .recurringExpenses(orEmpty(lineItems.recurringExpenses()))
+                .oneTimeExpenses(orEmpty(lineItems.oneTimeExpenses()))
+                .perUnitExpenses(orEmpty(lineItems.perUnitExpenses()))
+                .insuranceMileageExpenses(orEmpty(lineItems.insuranceMileageExpenses()))
+                .airportTripExpenses(orEmpty(lineItems.airportTripExpenses()))
                 .build();
 
             // Calculate totals to set netDue
@@ -1728,7 +1692,7 @@ public class FinancialStatementService {
             // ✅ SECOND: If no LeaseRateOverride, check ItemRateOverride (from item_rate_overrides table)
             // IMPORTANT: Only check ItemRateOverride if we didn't get a LeaseRateOverride, even if the rate is $0
             if (!hasLeaseOverride && mileageRate.compareTo(BigDecimal.ZERO) == 0) {
-                List<ItemRate> activeMileageRates = itemRateRepository.findActiveOnDate(shiftDate);
+                List<ItemRate> activeMileageRates = temporalRateCache.itemRatesOn(shiftDate);
                 ItemRate baseMileageRate = activeMileageRates.stream()
                     .filter(rate -> "MILEAGE_RATE".equalsIgnoreCase(rate.getName()))
                     .findFirst()
@@ -1739,8 +1703,8 @@ public class FinancialStatementService {
 
                     // Check for ItemRateOverride
                     if (ownerDriverNumber != null) {
-                        List<ItemRateOverride> applicableOverrides = itemRateOverrideRepository
-                            .findActiveOverridesForRate(baseMileageRate.getId(), ownerDriverNumber, shiftDate);
+                        List<ItemRateOverride> applicableOverrides = temporalRateCache
+                            .itemRateOverridesOn(baseMileageRate.getId(), ownerDriverNumber, shiftDate);
 
                         if (!applicableOverrides.isEmpty()) {
                             for (ItemRateOverride override : applicableOverrides) {
@@ -4,10 +4,12 @@ import com.itextpdf.text.*;
 import com.itextpdf.text.pdf.PdfPCell;
 import com.itextpdf.text.pdf.PdfPTable;
 import com.itextpdf.text.pdf.PdfWriter;
+import com.taxi.utils.PdfStyles;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.text.DecimalFormat;
@@ -32,39 +34,46 @@ public class GstReturnPdfService {
     private static final BigDecimal GST_RATE = new BigDecimal("0.05");
 
     // Colors
-    private static final BaseColor CRA_BLUE = new BaseColor(0, 51, 102);
-    private static final BaseColor HEADER_BG = new BaseColor(0, 51, 102);
-    private static final BaseColor SECTION_BG = new BaseColor(240, 244, 248);
-    private static final BaseColor BORDER_COLOR = new BaseColor(200, 206, 213);
-    private static final BaseColor TOTAL_BG = new BaseColor(219, 234, 254);
-    private static final BaseColor REFUND_BG = new BaseColor(220, 252, 231);
-    private static final BaseColor OWING_BG = new BaseColor(254, 226, 226);
-    private static final BaseColor MAPLE_RED = new BaseColor(185, 28, 28);
+    private static final BaseColor CRA_BLUE = PdfStyles.color(0, 51, 102);
+    private static final BaseColor HEADER_BG = PdfStyles.color(0, 51, 102);
+    private static final BaseColor SECTION_BG = PdfStyles.color(240, 244, 248);
+    private static final BaseColor BORDER_COLOR = PdfStyles.color(200, 206, 213);
+    private static final BaseColor TOTAL_BG = PdfStyles.color(219, 234, 254);
+    private static final BaseColor REFUND_BG = PdfStyles.color(220, 252, 231);
+    private static final BaseColor OWING_BG = PdfStyles.color(254, 226, 226);
+    private static final BaseColor MAPLE_RED = PdfStyles.color(185, 28, 28);
 
     // Fonts
-    private final Font titleFont = new Font(Font.FontFamily.HELVETICA, 16, Font.BOLD, BaseColor.WHITE);
-    private final Font subtitleFont = new Font(Font.FontFamily.HELVETICA, 10, Font.NORMAL, new BaseColor(180, 198, 216));
-    private final Font sectionFont = new Font(Font.FontFamily.HELVETICA, 11, Font.BOLD, CRA_BLUE);
-    private final Font lineNoFont = new Font(Font.FontFamily.COURIER, 8, Font.BOLD, new BaseColor(107, 114, 128));
-    private final Font labelFont = new Font(Font.FontFamily.HELVETICA, 9, Font.NORMAL);
-    private final Font amountFont = new Font(Font.FontFamily.HELVETICA, 9, Font.BOLD);
-    private final Font totalLabelFont = new Font(Font.FontFamily.HELVETICA, 10, Font.BOLD);
-    private final Font totalAmountFont = new Font(Font.FontFamily.HELVETICA, 12, Font.BOLD);
-    private final Font noteFont = new Font(Font.FontFamily.HELVETICA, 7, Font.ITALIC, new BaseColor(107, 114, 128));
-    private final Font helpFont = new Font(Font.FontFamily.HELVETICA, 8, Font.NORMAL, new BaseColor(75, 85, 99));
-    private final Font resultFont = new Font(Font.FontFamily.HELVETICA, 13, Font.BOLD);
+    private final Font titleFont = PdfStyles.font(Font.FontFamily.HELVETICA, 16, Font.BOLD, BaseColor.WHITE);
+    private final Font subtitleFont = PdfStyles.font(Font.FontFamily.HELVETICA, 10, Font.NORMAL, PdfStyles.color(180, 198, 216));
+    private final Font sectionFont = PdfStyles.font(Font.FontFamily.HELVETICA, 11, Font.BOLD, CRA_BLUE);
+    private final Font lineNoFont = PdfStyles.font(Font.FontFamily.COURIER, 8, Font.BOLD, PdfStyles.color(107, 114, 128));
+    private final Font labelFont = PdfStyles.font(Font.FontFamily.HELVETICA, 9, Font.NORMAL);
+    private final Font amountFont = PdfStyles.font(Font.FontFamily.HELVETICA, 9, Font.BOLD);
+    private final Font totalLabelFont = PdfStyles.font(Font.FontFamily.HELVETICA, 10, Font.BOLD);
+    private final Font totalAmountFont = PdfStyles.font(Font.FontFamily.HELVETICA, 12, Font.BOLD);
+    private final Font noteFont = PdfStyles.font(Font.FontFamily.HELVETICA, 7, Font.ITALIC, PdfStyles.color(107, 114, 128));
+    private final Font helpFont = PdfStyles.font(Font.FontFamily.HELVETICA, 8, Font.NORMAL, PdfStyles.color(75, 85, 99));
+    private final Font resultFont = PdfStyles.font(Font.FontFamily.HELVETICA, 13, Font.BOLD);
 
     public byte[] generateGstReturnPdf(Map<String, Object> reportData) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        writeGstReturnPdf(reportData, baos);
+        return baos.toByteArray();
+    }
+
+    /**
+     * Write the GST/HST return worksheet PDF to the stream (left open).
+     */
+    public void writeGstReturnPdf(Map<String, Object> reportData, OutputStream out) {
         try {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
             Document document = new Document(PageSize.LETTER, 36, 36, 30, 30);
-            PdfWriter.getInstance(document, baos);
+            PdfWriter.getInstance(document, out).setCloseStream(false);
             document.open();
 
             addContent(document, reportData);
 
             document.close();
-            return baos.toByteArray();
         } catch (Exception e) {
             log.error("Error generating GST/HST return PDF", e);
             throw new RuntimeException("Failed to generate GST/HST return PDF: " + e.getMessage(), e);
@@ -103,7 +112,7 @@ public class GstReturnPdfService {
 
         Paragraph formTitle = new Paragraph();
         formTitle.setAlignment(Element.ALIGN_CENTER);
-        Chunk gst = new Chunk("GST/HST ", new Font(Font.FontFamily.HELVETICA, 20, Font.BOLD, MAPLE_RED));
+        Chunk gst = new Chunk("GST/HST ", PdfStyles.font(Font.FontFamily.HELVETICA, 20, Font.BOLD, MAPLE_RED));
         Chunk rest = new Chunk("Return Worksheet", titleFont);
         formTitle.add(gst);
         formTitle.add(rest);
@@ -211,7 +220,7 @@ public class GstReturnPdfService {
         resultBox.setWidthPercentage(100);
         PdfPCell resultCell = new PdfPCell();
         resultCell.setBackgroundColor(isRefund ? REFUND_BG : OWING_BG);
-        resultCell.setBorderColor(isRefund ? new BaseColor(34, 197, 94) : new BaseColor(239, 68, 68));
+        resultCell.setBorderColor(isRefund ? PdfStyles.color(34, 197, 94) : PdfStyles.color(239, 68, 68));
         resultCell.setPadding(15);
 
         String resultLine = isRefund ? "113" : "112";
@@ -222,7 +231,7 @@ public class GstReturnPdfService {
         resultP.setAlignment(Element.ALIGN_CENTER);
         resultP.add(new Chunk("Line " + resultLine + ": ", lineNoFont));
         resultP.add(new Chunk(resultLabel + "  ", totalLabelFont));
-        Font rFont = new Font(Font.FontFamily.HELVETICA, 16, Font.BOLD, isRefund ? new BaseColor(22, 163, 74) : MAPLE_RED);
+        Font rFont = PdfStyles.font(Font.FontFamily.HELVETICA, 16, Font.BOLD, isRefund ? PdfStyles.color(22, 163, 74) : MAPLE_RED);
         resultP.add(new Chunk("$" + CURRENCY.format(resultAmount), rFont));
         resultCell.addElement(resultP);
 
@@ -354,7 +363,7 @@ public class GstReturnPdfService {
     }
 
     private void addSubSectionTitle(Document document, String title) throws DocumentException {
-        Font f = new Font(Font.FontFamily.HELVETICA, 9, Font.BOLD, new BaseColor(75, 85, 99));
+        Font f = PdfStyles.font(Font.FontFamily.HELVETICA, 9, Font.BOLD, PdfStyles.color(75, 85, 99));
         Paragraph p = new Paragraph(title, f);
         p.setSpacingBefore(4);
         document.add(p);
@@ -365,14 +374,14 @@ public class GstReturnPdfService {
         cell.setBorderColor(BORDER_COLOR);
         cell.setPadding(6);
         Paragraph p = new Paragraph();
-        p.add(new Chunk(label + ": ", new Font(Font.FontFamily.HELVETICA, 7, Font.NORMAL, new BaseColor(107, 114, 128))));
-        p.add(new Chunk(value != null ? value : "", new Font(Font.FontFamily.HELVETICA, 9, Font.BOLD)));
+        p.add(new Chunk(label + ": ", PdfStyles.font(Font.FontFamily.HELVETICA, 7, Font.NORMAL, PdfStyles.color(107, 114, 128))));
+        p.add(new Chunk(value != null ? value : "", PdfStyles.font(Font.FontFamily.HELVETICA, 9, Font.BOLD)));
         cell.addElement(p);
         table.addCell(cell);
     }
 
     private void addSmallHeader(PdfPTable table, String text) {
-        Font f = new Font(Font.FontFamily.HELVETICA, 8, Font.BOLD, new BaseColor(55, 65, 81));
+        Font f = PdfStyles.font(Font.FontFamily.HELVETICA, 8, Font.BOLD, PdfStyles.color(55, 65, 81));
         PdfPCell cell = new PdfPCell(new Phrase(text, f));
         cell.setBackgroundColor(SECTION_BG);
         cell.setBorderColor(BORDER_COLOR);
@@ -381,7 +390,7 @@ public class GstReturnPdfService {
     }
 
     private void addSmallCell(PdfPTable table, String text, boolean bold) {
-        Font f = bold ? new Font(Font.FontFamily.HELVETICA, 8, Font.BOLD) : new Font(Font.FontFamily.HELVETICA, 8, Font.NORMAL);
+        Font f = bold ? PdfStyles.font(Font.FontFamily.HELVETICA, 8, Font.BOLD) : PdfStyles.font(Font.FontFamily.HELVETICA, 8, Font.NORMAL);
         PdfPCell cell = new PdfPCell(new Phrase(text, f));
         cell.setBorderColor(BORDER_COLOR);
         cell.setPadding(3);
@@ -390,7 +399,7 @@ public class GstReturnPdfService {
     }
 
     private void addSmallCellRight(PdfPTable table, String text) {
-        Font f = new Font(Font.FontFamily.HELVETICA, 8, Font.BOLD);
+        Font f = PdfStyles.font(Font.FontFamily.HELVETICA, 8, Font.BOLD);
         PdfPCell cell = new PdfPCell(new Phrase(text, f));
         cell.setBorderColor(BORDER_COLOR);
         cell.setPadding(3);
@@ -399,7 +408,7 @@ public class GstReturnPdfService {
     }
 
     private void addRefHeader(PdfPTable table, String... headers) {
-        Font f = new Font(Font.FontFamily.HELVETICA, 8, Font.BOLD, BaseColor.WHITE);
+        Font f = PdfStyles.font(Font.FontFamily.HELVETICA, 8, Font.BOLD, BaseColor.WHITE);
         for (String h : headers) {
             PdfPCell cell = new PdfPCell(new Phrase(h, f));
             cell.setBackgroundColor(CRA_BLUE);
@@ -410,7 +419,7 @@ public class GstReturnPdfService {
     }
 
     private void addRefRow(PdfPTable table, String item, String applicable, String notes) {
-        Font f = new Font(Font.FontFamily.HELVETICA, 8, Font.NORMAL);
+        Font f = PdfStyles.font(Font.FontFamily.HELVETICA, 8, Font.NORMAL);
         for (String val : new String[]{item, applicable, notes}) {
             PdfPCell cell = new PdfPCell(new Phrase(val, f));
             cell.setBorderColor(BORDER_COLOR);
@@ -519,7 +528,7 @@ public class GstReturnPdfService {
     // =====================
 
     private Paragraph spacer(float height) {
-        return new Paragraph(" ", new Font(Font.FontFamily.HELVETICA, height / 2));
+        return new Paragraph(" ", PdfStyles.font(Font.FontFamily.HELVETICA, height / 2));
     }
 
     private BigDecimal toBd(Object val) {
@@ -0,0 +1,297 @@
+package com.taxi.domain.report.service;
+
+import com.taxi.domain.cab.model.CabType;
+import com.taxi.domain.driver.model.Driver;
+import com.taxi.domain.driver.repository.DriverRepository;
+import com.taxi.domain.expense.model.ItemRate;
+import com.taxi.domain.expense.model.ItemRateOverride;
+import com.taxi.domain.lease.model.LeasePlan;
+import com.taxi.domain.lease.model.LeaseRate;
+import com.taxi.domain.lease.repository.LeasePlanRepository;
+import com.taxi.domain.lease.repository.LeaseRateRepository;
+import com.taxi.domain.lease.service.LeaseCalculationService.LeaseCalculationException;
+import com.taxi.domain.lease.service.LeaseRateOverrideService;
+import com.taxi.domain.lease.service.LeaseRateOverrideService.OverrideRateResult;
+import com.taxi.domain.mileage.model.MileageRecord;
+import com.taxi.domain.mileage.repository.MileageRecordRepository;
+import com.taxi.domain.profile.model.ItemRateChargedTo;
+import com.taxi.domain.profile.model.ItemRateUnitType;
+import com.taxi.domain.report.service.DriverFinancialCalculationService.LeaseCalculationResult;
+import com.taxi.domain.shift.model.CabShift;
+import com.taxi.domain.shift.model.DriverShift;
+import com.taxi.domain.shift.model.ShiftType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk lease calculation for DriverFinancialCalculationService.
+ *
+ * load() fetches everything a set of shifts needs - lease plans and rates, mileage records
+ * and working driver names - in a fixed number of queries; calculate() then prices each shift
+ * in memory with the same rules as LeaseCalculationService.findApplicableRate. Lease rate
+ * overrides come from LeaseRateOverrideService's compiled index, and the insurance rate and
+ * its overrides from TemporalRateCache, so neither queries per shift.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LeaseEngine {
+
+    // Used when the active plan has no rate for the shift (same as the per-shift path always did)
+    private static final BigDecimal FALLBACK_BASE_RATE = new BigDecimal("50.00");
+
+    // findByDriverNumberAndShiftTimes tolerance
+    private static final long MILEAGE_TOLERANCE_MINUTES = 15;
+
+    private final DriverRepository driverRepository;
+    private final LeasePlanRepository leasePlanRepository;
+    private final LeaseRateRepository leaseRateRepository;
+    private final LeaseRateOverrideService leaseRateOverrideService;
+    private final MileageRecordRepository mileageRecordRepository;
+    private final TemporalRateCache temporalRateCache;
+
+    private record RateKey(CabType cabType, boolean hasAirportLicense, ShiftType shiftType, DayOfWeek dayOfWeek) {}
+
+    /**
+     * Everything needed to price a set of shifts, indexed for lookup by owner, driver and date
+     */
+    public static final class Inputs {
+        private final List<LeasePlan> plans;
+        private final Map<Long, Map<RateKey, LeaseRate>> ratesByPlan;
+        private final Map<String, List<MileageRecord>> mileageByDriver;
+        private final Map<String, String> driverNames;
+
+        private Inputs(List<LeasePlan> plans,
+                       Map<Long, Map<RateKey, LeaseRate>> ratesByPlan,
+                       Map<String, List<MileageRecord>> mileageByDriver,
+                       Map<String, String> driverNames) {
+            this.plans = plans;
+            this.ratesByPlan = ratesByPlan;
+            this.mileageByDriver = mileageByDriver;
+            this.driverNames = driverNames;
+        }
+
+        /**
+         * Working driver name, falling back to the driver number
+         */
+        public String driverName(String driverNumber) {
+            return driverNames.getOrDefault(driverNumber, driverNumber);
+        }
+    }
+
+    /**
+     * Load lease, mileage and driver name inputs for the given shifts
+     */
+    public Inputs load(Collection<DriverShift> shifts) {
+        return load(shifts, true);
+    }
+
+    /**
+     * Lease inputs only (no driver names) - for pricing individual shifts
+     */
+    public Inputs loadLeaseOnly(DriverShift shift) {
+        return load(Collections.singletonList(shift), false);
+    }
+
+    private Inputs load(Collection<DriverShift> shifts, boolean withDetails) {
+        List<DriverShift> priced = shifts.stream()
+                .filter(s -> s.getLogonTime() != null)
+                .toList();
+
+        if (priced.isEmpty()) {
+            return new Inputs(List.of(), Map.of(), Map.of(), Map.of());
+        }
+
+        LocalDate from = priced.stream().map(s -> s.getLogonTime().toLocalDate()).min(LocalDate::compareTo).get();
+        LocalDate to = priced.stream().map(s -> s.getLogonTime().toLocalDate()).max(LocalDate::compareTo).get();
+
+        // Plans and their rates
+        List<LeasePlan> plans = leasePlanRepository.findPlansInRange(from, to);
+        Map<Long, Map<RateKey, LeaseRate>> ratesByPlan = new HashMap<>();
+        if (!plans.isEmpty()) {
+            List<Long> planIds = plans.stream().map(LeasePlan::getId).toList();
+            for (LeaseRate rate : leaseRateRepository.findByLeasePlanIdIn(planIds)) {
+                ratesByPlan.computeIfAbsent(rate.getLeasePlan().getId(), id -> new HashMap<>())
+                        .put(new RateKey(rate.getCabType(), rate.isHasAirportLicense(),
+                                rate.getShiftType(), rate.getDayOfWeek()), rate);
+            }
+        }
+
+        // Mileage records, only for shifts without a recorded distance
+        List<DriverShift> needMileage = priced.stream()
+                .filter(s -> !hasDistance(s) && s.getLogoffTime() != null && s.getDriverNumber() != null)
+                .toList();
+        Map<String, List<MileageRecord>> mileageByDriver = Map.of();
+        if (!needMileage.isEmpty()) {
+            Set<String> drivers = needMileage.stream().map(DriverShift::getDriverNumber).collect(Collectors.toSet());
+            LocalDateTime windowStart = needMileage.stream().map(DriverShift::getLogonTime)
+                    .min(LocalDateTime::compareTo).get();
+            LocalDateTime windowEnd = needMileage.stream().map(DriverShift::getLogoffTime)
+                    .max(LocalDateTime::compareTo).get();
+            mileageByDriver = mileageRecordRepository.findByDriverNumbersOverlapping(drivers, windowStart, windowEnd)
+                    .stream()
+                    .collect(Collectors.groupingBy(MileageRecord::getDriverNumber));
+        }
+
+        if (!withDetails) {
+            return new Inputs(plans, ratesByPlan, mileageByDriver, Map.of());
+        }
+
+        // Working driver names
+        Set<String> workingDrivers = priced.stream().map(DriverShift::getDriverNumber)
+                .filter(Objects::nonNull).collect(Collectors.toSet());
+        Map<String, String> driverNames = workingDrivers.isEmpty() ? Map.of()
+                : driverRepository.findByDriverNumberIn(workingDrivers).stream()
+                        .collect(Collectors.toMap(Driver::getDriverNumber, Driver::getFullName, (a, b) -> a));
+
+        log.debug("Lease inputs for {} shifts ({} to {}): {} plans, {} drivers with mileage",
+                priced.size(), from, to, plans.size(), mileageByDriver.size());
+
+        return new Inputs(plans, ratesByPlan, mileageByDriver, driverNames);
+    }
+
+    /**
+     * Lease for one shift: owner override if any, otherwise the active plan's rate (50.00 fallback),
+     * with miles from the shift or its overlapping mileage records
+     *
+     * @throws LeaseCalculationException if no plan, or more than one, is active on the shift date
+     */
+    public LeaseCalculationResult calculate(Inputs inputs, DriverShift shift, String ownerDriverNumber,
+                                            String cabNumber, String shiftType, CabShift cabShift) {
+        LocalDate shiftDate = shift.getLogonTime().toLocalDate();
+
+        OverrideRateResult override = leaseRateOverrideService.getApplicableLeaseRate(
+                ownerDriverNumber, shift.getDriverNumber(), cabNumber, shiftType, shiftDate);
+
+        BigDecimal baseRate;
+        BigDecimal mileageRate;
+        if (override != null) {
+            baseRate = override.getBaseRate();
+            mileageRate = override.getMileageRate();
+        } else {
+            CabType cabType = cabShift != null ? cabShift.getCabType() : null;
+            boolean hasAirportLicense = cabShift != null && Boolean.TRUE.equals(cabShift.getHasAirportLicense());
+            LeaseRate leaseRate = findRate(inputs, cabType, hasAirportLicense, shift.getLogonTime());
+            if (leaseRate != null) {
+                baseRate = leaseRate.getBaseRate();
+                mileageRate = leaseRate.getMileageRate() != null ? leaseRate.getMileageRate() : BigDecimal.ZERO;
+            } else {
+                baseRate = FALLBACK_BASE_RATE;
+                mileageRate = BigDecimal.ZERO;
+                log.warn("No lease rate found for shift {}, using fallback: base=${}", shift.getId(), baseRate);
+            }
+        }
+
+        BigDecimal miles = milesFor(inputs, shift);
+        BigDecimal mileageLease = mileageRate.multiply(miles);
+        return new LeaseCalculationResult(baseRate, mileageRate, miles, mileageLease, baseRate.add(mileageLease));
+    }
+
+    /**
+     * Insurance rate per mile for a shift: the first INSURANCE rate charged to DRIVER, or the
+     * owner's highest-priority override of it that matches - null if none is configured
+     */
+    public BigDecimal insuranceRate(String ownerDriverNumber, String cabNumber, String shiftType, LocalDate shiftDate) {
+        List<ItemRate> insuranceRates = temporalRateCache.activeItemRates(
+                ItemRateUnitType.INSURANCE, ItemRateChargedTo.DRIVER);
+        if (insuranceRates.isEmpty()) {
+            return null;
+        }
+        ItemRate insuranceRate = insuranceRates.get(0);
+        if (ownerDriverNumber != null) {
+            String dayOfWeek = shiftDate.getDayOfWeek().toString();
+            for (ItemRateOverride override : temporalRateCache.itemRateOverridesOn(
+                    insuranceRate.getId(), ownerDriverNumber, shiftDate)) {
+                if (override.matches(cabNumber, shiftType, dayOfWeek)) {
+                    return override.getOverrideRate();
+                }
+            }
+        }
+        return insuranceRate.getRate();
+    }
+
+    /**
+     * Insurance amount: miles x rate, 2 decimals
+     */
+    public static BigDecimal insuranceAmount(BigDecimal rate, BigDecimal miles) {
+        return rate.multiply(miles).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Same lookup as LeaseCalculationService.findApplicableRate, against the preloaded plans
+     */
+    private LeaseRate findRate(Inputs inputs, CabType cabType, boolean hasAirportLicense, LocalDateTime logonTime) {
+        LocalDate date = logonTime.toLocalDate();
+
+        List<LeasePlan> active = new ArrayList<>(1);
+        for (LeasePlan plan : inputs.plans) {
+            if (!plan.getEffectiveFrom().isAfter(date)
+                    && (plan.getEffectiveTo() == null || !plan.getEffectiveTo().isBefore(date))) {
+                active.add(plan);
+            }
+        }
+        if (active.isEmpty()) {
+            throw new LeaseCalculationException("No active lease plan found for date: " + date);
+        }
+        if (active.size() > 1) {
+            throw new LeaseCalculationException(
+                    active.size() + " lease plans are active on " + date + ", expected one");
+        }
+        if (cabType == null) {
+            return null;
+        }
+
+        // DAY: 00:00-11:59, NIGHT: 12:00-23:59
+        ShiftType shiftType = logonTime.getHour() < 12 ? ShiftType.DAY : ShiftType.NIGHT;
+        return inputs.ratesByPlan.getOrDefault(active.get(0).getId(), Map.of())
+                .get(new RateKey(cabType, hasAirportLicense, shiftType, date.getDayOfWeek()));
+    }
+
+    /**
+     * Shift distance, else mileageB + mileageC of the records overlapping the shift (15 min tolerance), else 0
+     */
+    private BigDecimal milesFor(Inputs inputs, DriverShift shift) {
+        if (hasDistance(shift)) {
+            return shift.getTotalDistance();
+        }
+        if (shift.getLogoffTime() == null) {
+            return BigDecimal.ZERO;
+        }
+        LocalDateTime latestLogon = shift.getLogoffTime().plusMinutes(MILEAGE_TOLERANCE_MINUTES);
+        LocalDateTime earliestLogoff = shift.getLogonTime().minusMinutes(MILEAGE_TOLERANCE_MINUTES);
+
+        BigDecimal miles = BigDecimal.ZERO;
+        for (MileageRecord m : inputs.mileageByDriver.getOrDefault(shift.getDriverNumber(), List.of())) {
+            if (m.getLogonTime() == null || m.getLogonTime().isAfter(latestLogon)) {
+                continue;
+            }
+            if (m.getLogoffTime() != null && m.getLogoffTime().isBefore(earliestLogoff)) {
+                continue;
+            }
+            BigDecimal mileageB = m.getMileageB() != null ? m.getMileageB() : BigDecimal.ZERO;
+            BigDecimal mileageC = m.getMileageC() != null ? m.getMileageC() : BigDecimal.ZERO;
+            miles = miles.add(mileageB).add(mileageC);
+        }
+        return miles;
+    }
+
+    private static boolean hasDistance(DriverShift shift) {
+        return shift.getTotalDistance() != null && shift.getTotalDistance().compareTo(BigDecimal.ZERO) != 0;
+    }
+}
@@ -0,0 +1,118 @@
+package com.taxi.domain.report.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.taxi.domain.report.repository.DriverLedgerVersionRepository;
+import com.taxi.infrastructure.datachange.DataSource;
+import com.taxi.infrastructure.datachange.DataVersionService;
+import com.taxi.infrastructure.multitenancy.TenantContext;
+import com.taxi.web.dto.report.OwnerReportDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Result cache for FinancialStatementService.generateOwnerReport.
+ *
+ * Entries are keyed by (tenant, person, period, flags) and remember the versions they were
+ * computed under: the driver ledger's version of that person and period (driver_ledger_version),
+ * plus the DataVersionService versions of the groups bulk jobs bump as a whole. Both are kept in
+ * the database, so a lookup only hits while none of them has moved on any node, and an edit only
+ * invalidates the reports whose person and period it touches. Reports are stored serialized and
+ * every hit returns a fresh copy - callers are free to modify what they get.
+ *
+ * A report is only stored if its versions did not move while it was computed, and never from a
+ * read-write transaction: that one may see its own uncommitted writes, and if it rolls back, the
+ * versions it bumped are handed out again by the next write.
+ */
+@Component
+@Slf4j
+public class OwnerReportCache {
+
+    // Groups an owner report reads that bulk jobs (payments, invoicing, finalization) bump as a whole
+    private static final DataSource[] BULK_SOURCES = {
+            DataSource.CHARGES, DataSource.CARD_TRANSACTIONS, DataSource.TRANSFERS};
+
+    private final DriverLedgerVersionRepository ledgerVersionRepository;
+    private final DataVersionService dataVersionService;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Cache<Key, Entry> reports;
+
+    public OwnerReportCache(DriverLedgerVersionRepository ledgerVersionRepository,
+                            DataVersionService dataVersionService,
+                            ObjectMapper objectMapper,
+                            @Value("${report.owner-cache.enabled:true}") boolean enabled,
+                            @Value("${report.owner-cache.max-entries:5000}") long maxEntries,
+                            @Value("${report.owner-cache.ttl-minutes:60}") long ttlMinutes) {
+        this.ledgerVersionRepository = ledgerVersionRepository;
+        this.dataVersionService = dataVersionService;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.reports = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .build();
+    }
+
+    private record Key(String tenant, Long personId, LocalDate from, LocalDate to,
+                       boolean includePendingTransfers, Boolean useModernCharges, Boolean useSmartFleetsAI) {}
+
+    private record Entry(List<Long> versions, byte[] report) {}
+
+    /**
+     * The cached report if it is still current, otherwise the loader's result (which is cached)
+     */
+    public OwnerReportDTO get(Long personId, LocalDate from, LocalDate to, boolean includePendingTransfers,
+                              Boolean useModernCharges, Boolean useSmartFleetsAI, Supplier<OwnerReportDTO> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        String tenant = TenantContext.peekCurrentTenant();
+        Key key = new Key(tenant != null ? tenant : TenantContext.SYSTEM_TENANT, personId, from, to,
+                includePendingTransfers, useModernCharges, useSmartFleetsAI);
+
+        List<Long> versions = versions(personId, from, to);
+
+        Entry entry = reports.getIfPresent(key);
+        if (entry != null && entry.versions().equals(versions)) {
+            try {
+                return objectMapper.readValue(entry.report(), OwnerReportDTO.class);
+            } catch (IOException e) {
+                log.warn("Discarding unreadable cached owner report for person {}: {}", personId, e.getMessage());
+                reports.invalidate(key);
+            }
+        }
+
+        OwnerReportDTO report = loader.get();
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return report;
+        }
+        if (!versions.equals(versions(personId, from, to))) {
+            log.debug("Owner report for person {} not cached: its data changed while it was computed", personId);
+            return report;
+        }
+        try {
+            reports.put(key, new Entry(versions, objectMapper.writeValueAsBytes(report)));
+        } catch (IOException e) {
+            log.warn("Owner report for person {} not cached: {}", personId, e.getMessage());
+        }
+        return report;
+    }
+
+    private List<Long> versions(Long personId, LocalDate from, LocalDate to) {
+        List<Long> versions = new ArrayList<>(dataVersionService.versions(BULK_SOURCES));
+        versions.add(ledgerVersionRepository.versionOf(personId, from, to));
+        return versions;
+    }
+}
@@ -13,10 +13,12 @@ import com.itextpdf.text.pdf.PdfPTable;
 import com.itextpdf.text.pdf.PdfWriter;
 import com.taxi.web.dto.report.OwnerReportDTO;
 import com.taxi.web.dto.expense.StatementLineItem;
+import com.taxi.utils.PdfStyles;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.text.DecimalFormat;
@@ -38,35 +40,43 @@ public class ReportPdfService {
     private static final Pattern CAB_NUMBER_PATTERN = Pattern.compile("Cab\\s+(\\d+)");
 
     // Colors matching the frontend modal
-    private static final BaseColor HEADER_BG = new BaseColor(44, 62, 80);
-    private static final BaseColor GREEN = new BaseColor(56, 142, 60);       // #388e3c - Lease Revenue
-    private static final BaseColor GREEN_LIGHT = new BaseColor(200, 230, 201); // #c8e6c9
-    private static final BaseColor GREEN_BG = new BaseColor(232, 245, 233);   // #e8f5e9
-    private static final BaseColor BLUE = new BaseColor(25, 118, 210);       // #1976d2 - Account Charges
-    private static final BaseColor BLUE_DARK = new BaseColor(21, 101, 192);  // #1565c0 - Airport Trips
-    private static final BaseColor RED = new BaseColor(211, 47, 47);         // #d32f2f - Credit Card
-    private static final BaseColor RED_LIGHT = new BaseColor(255, 205, 210); // #ffcdd2
-    private static final BaseColor RED_BG = new BaseColor(255, 235, 238);    // #ffebee
-    private static final BaseColor ORANGE = new BaseColor(245, 127, 0);      // #f57c00 - Other Revenues
-    private static final BaseColor ORANGE_DARK = new BaseColor(230, 81, 0);  // #e65100 - Recurring Expenses
-    private static final BaseColor YELLOW_ORANGE = new BaseColor(245, 127, 23); // #f57f17 - Lease Expenses
-    private static final BaseColor YELLOW_BG = new BaseColor(255, 243, 224); // #fff3e0
-    private static final BaseColor PINK = new BaseColor(194, 24, 91);        // #c2185b - One-Time / Insurance
-    private static final BaseColor OLIVE = new BaseColor(85, 139, 47);       // #558b2f - Per-Unit
-    private static final BaseColor GRAY_BG = new BaseColor(245, 245, 245);   // #f5f5f5
-
-    private final Font cellFont = new Font(Font.FontFamily.HELVETICA, 8, Font.NORMAL);
-    private final Font cellBoldFont = new Font(Font.FontFamily.HELVETICA, 8, Font.BOLD);
-    private final Font smallFont = new Font(Font.FontFamily.HELVETICA, 7, Font.NORMAL, new BaseColor(100, 100, 100));
+    private static final BaseColor HEADER_BG = PdfStyles.color(44, 62, 80);
+    private static final BaseColor GREEN = PdfStyles.color(56, 142, 60);       // #388e3c - Lease Revenue
+    private static final BaseColor GREEN_LIGHT = PdfStyles.color(200, 230, 201); // #c8e6c9
+    private static final BaseColor GREEN_BG = PdfStyles.color(232, 245, 233);   // #e8f5e9
+    private static final BaseColor BLUE = PdfStyles.color(25, 118, 210);       // #1976d2 - Account Charges
+    private static final BaseColor BLUE_DARK = PdfStyles.color(21, 101, 192);  // #1565c0 - Airport Trips
+    private static final BaseColor RED = PdfStyles.color(211, 47, 47);         // #d32f2f - Credit Card
+    private static final BaseColor RED_LIGHT = PdfStyles.color(255, 205, 210); // #ffcdd2
+    private static final BaseColor RED_BG = PdfStyles.color(255, 235, 238);    // #ffebee
+    private static final BaseColor ORANGE = PdfStyles.color(245, 127, 0);      // #f57c00 - Other Revenues
+    private static final BaseColor ORANGE_DARK = PdfStyles.color(230, 81, 0);  // #e65100 - Recurring Expenses
+    private static final BaseColor YELLOW_ORANGE = PdfStyles.color(245, 127, 23); // #f57f17 - Lease Expenses
+    private static final BaseColor YELLOW_BG = PdfStyles.color(255, 243, 224); // #fff3e0
+    private static final BaseColor PINK = PdfStyles.color(194, 24, 91);        // #c2185b - One-Time / Insurance
+    private static final BaseColor OLIVE = PdfStyles.color(85, 139, 47);       // #558b2f - Per-Unit
+    private static final BaseColor GRAY_BG = PdfStyles.color(245, 245, 245);   // #f5f5f5
+
+    private final Font cellFont = PdfStyles.font(Font.FontFamily.HELVETICA, 8, Font.NORMAL);
+    private final Font cellBoldFont = PdfStyles.font(Font.FontFamily.HELVETICA, 8, Font.BOLD);
+    private final Font smallFont = PdfStyles.font(Font.FontFamily.HELVETICA, 7, Font.NORMAL, PdfStyles.color(100, 100, 100));
 
     /**
      * Generate professional PDF report from OwnerReportDTO matching the modal detail view exactly.
      */
     public byte[] generateDriverReportPdf(OwnerReportDTO report) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        writeDriverReportPdf(report, baos);
+        return baos.toByteArray();
+    }
+
+    /**
+     * Write the driver report PDF to the stream (left open), e.g. the servlet response or a temp file.
+     */
+    public void writeDriverReportPdf(OwnerReportDTO report, OutputStream out) {
         try {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
             Document document = new Document(PageSize.LETTER, 36, 36, 36, 36);
-            PdfWriter.getInstance(document, baos);
+            PdfWriter.getInstance(document, out).setCloseStream(false);
             document.open();
 
             // 1. Header
@@ -169,7 +179,6 @@ public class ReportPdfService {
             addFooter(document);
 
             document.close();
-            return baos.toByteArray();
 
         } catch (DocumentException e) {
             log.error("Error generating PDF report", e);
@@ -188,12 +197,12 @@ public class ReportPdfService {
         cell.setBackgroundColor(HEADER_BG);
         cell.setPadding(15);
 
-        Font titleFont = new Font(Font.FontFamily.HELVETICA, 18, Font.BOLD, BaseColor.WHITE);
+        Font titleFont = PdfStyles.font(Font.FontFamily.HELVETICA, 18, Font.BOLD, BaseColor.WHITE);
         Paragraph title = new Paragraph("Financial Statement", titleFont);
         title.setAlignment(Element.ALIGN_CENTER);
         cell.addElement(title);
 
-        Font companyFont = new Font(Font.FontFamily.HELVETICA, 11, Font.NORMAL, new BaseColor(189, 195, 199));
+        Font companyFont = PdfStyles.font(Font.FontFamily.HELVETICA, 11, Font.NORMAL, PdfStyles.color(189, 195, 199));
         Paragraph company = new Paragraph("Smart Fleets", companyFont);
         company.setAlignment(Element.ALIGN_CENTER);
         cell.addElement(company);
@@ -202,13 +211,13 @@ public class ReportPdfService {
         document.add(headerTable);
 
         // Driver name, period, status
-        Font nameFont = new Font(Font.FontFamily.HELVETICA, 12, Font.BOLD, HEADER_BG);
+        Font nameFont = PdfStyles.font(Font.FontFamily.HELVETICA, 12, Font.BOLD, HEADER_BG);
         Paragraph name = new Paragraph(report.getOwnerName(), nameFont);
         name.setAlignment(Element.ALIGN_CENTER);
         name.setSpacingBefore(10);
         document.add(name);
 
-        Font periodFont = new Font(Font.FontFamily.HELVETICA, 9, Font.NORMAL, new BaseColor(100, 100, 100));
+        Font periodFont = PdfStyles.font(Font.FontFamily.HELVETICA, 9, Font.NORMAL, PdfStyles.color(100, 100, 100));
         String period = report.getPeriodFrom().format(DATE_FORMAT) + "  to  " + report.getPeriodTo().format(DATE_FORMAT);
         Paragraph periodPara = new Paragraph(period, periodFont);
         periodPara.setAlignment(Element.ALIGN_CENTER);
@@ -225,7 +234,7 @@ public class ReportPdfService {
     // ==================== FINANCIAL SUMMARY ====================
 
     private void addFinancialSummary(Document document, OwnerReportDTO report) throws DocumentException {
-        Font summaryTitle = new Font(Font.FontFamily.HELVETICA, 11, Font.BOLD, HEADER_BG);
+        Font summaryTitle = PdfStyles.font(Font.FontFamily.HELVETICA, 11, Font.BOLD, HEADER_BG);
         Paragraph title = new Paragraph("Financial Summary", summaryTitle);
         title.setSpacingBefore(5);
         document.add(title);
@@ -237,17 +246,17 @@ public class ReportPdfService {
         outer.setSpacingAfter(10);
 
         PdfPCell outerCell = new PdfPCell();
-        outerCell.setBorderColor(new BaseColor(200, 200, 200));
+        outerCell.setBorderColor(PdfStyles.color(200, 200, 200));
         outerCell.setPadding(10);
 
         // Two-column summary table
         PdfPTable summaryTable = new PdfPTable(2);
         summaryTable.setWidthPercentage(100);
 
-        Font labelFont = new Font(Font.FontFamily.HELVETICA, 9, Font.BOLD, new BaseColor(80, 80, 80));
-        Font valueFont = new Font(Font.FontFamily.HELVETICA, 9, Font.NORMAL, new BaseColor(60, 60, 60));
-        Font greenValueFont = new Font(Font.FontFamily.HELVETICA, 9, Font.BOLD, GREEN);
-        Font redValueFont = new Font(Font.FontFamily.HELVETICA, 9, Font.BOLD, RED);
+        Font labelFont = PdfStyles.font(Font.FontFamily.HELVETICA, 9, Font.BOLD, PdfStyles.color(80, 80, 80));
+        Font valueFont = PdfStyles.font(Font.FontFamily.HELVETICA, 9, Font.NORMAL, PdfStyles.color(60, 60, 60));
+        Font greenValueFont = PdfStyles.font(Font.FontFamily.HELVETICA, 9, Font.BOLD, GREEN);
+        Font redValueFont = PdfStyles.font(Font.FontFamily.HELVETICA, 9, Font.BOLD, RED);
 
         // Revenue breakdown
         addSummaryHeader(summaryTable, "REVENUES", GREEN);
@@ -279,7 +288,7 @@ public class ReportPdfService {
 
         addSummaryRow(summaryTable, "Total Revenues",
                 CURRENCY_FORMAT.format(report.getTotalRevenues() != null ? report.getTotalRevenues() : BigDecimal.ZERO),
-                new Font(Font.FontFamily.HELVETICA, 9, Font.BOLD, GREEN), greenValueFont);
+                PdfStyles.font(Font.FontFamily.HELVETICA, 9, Font.BOLD, GREEN), greenValueFont);
 
         // Divider
         addSummaryDivider(summaryTable);
@@ -287,7 +296,7 @@ public class ReportPdfService {
         // Expense breakdown
         addSummaryHeader(summaryTable, "EXPENSES", RED);
 
-        Font subItemFont = new Font(Font.FontFamily.HELVETICA, 8, Font.NORMAL, new BaseColor(100, 100, 100));
+        Font subItemFont = PdfStyles.font(Font.FontFamily.HELVETICA, 8, Font.NORMAL, PdfStyles.color(100, 100, 100));
 
         // Recurring Expenses with per-category breakdown
         if (report.getTotalRecurringExpenses() != null && report.getTotalRecurringExpenses().compareTo(BigDecimal.ZERO) != 0) {
@@ -371,7 +380,7 @@ public class ReportPdfService {
 
         addSummaryRow(summaryTable, "Total Expenses",
                 CURRENCY_FORMAT.format(report.getTotalExpenses() != null ? report.getTotalExpenses() : BigDecimal.ZERO),
-                new Font(Font.FontFamily.HELVETICA, 9, Font.BOLD, RED), redValueFont);
+                PdfStyles.font(Font.FontFamily.HELVETICA, 9, Font.BOLD, RED), redValueFont);
 
         // Divider
         addSummaryDivider(summaryTable);
@@ -385,7 +394,7 @@ public class ReportPdfService {
         // Net Due
         BigDecimal netDue = report.getNetDue() != null ? report.getNetDue() : BigDecimal.ZERO;
         String netLabel = netDue.compareTo(BigDecimal.ZERO) > 0 ? "NET PAYABLE" : "NET DUE";
-        Font netFont = new Font(Font.FontFamily.HELVETICA, 10, Font.BOLD,
+        Font netFont = PdfStyles.font(Font.FontFamily.HELVETICA, 10, Font.BOLD,
                 netDue.compareTo(BigDecimal.ZERO) > 0 ? GREEN : RED);
         String netValue = (netDue.compareTo(BigDecimal.ZERO) > 0 ? "" : "-") + CURRENCY_FORMAT.format(netDue.abs());
         addSummaryRow(summaryTable, netLabel, netValue, netFont, netFont);
@@ -431,9 +440,9 @@ public class ReportPdfService {
             addCabHeaderRow(table, "Cab " + cab, 6, GREEN_LIGHT, GREEN);
 
             BigDecimal cabSubtotal = BigDecimal.ZERO;
-            Font cabFont = new Font(Font.FontFamily.HELVETICA, 8, Font.BOLD, GREEN);
-            Font grayFont = new Font(Font.FontFamily.HELVETICA, 8, Font.NORMAL, new BaseColor(100, 100, 100));
-            Font greenBoldFont = new Font(Font.FontFamily.HELVETICA, 8, Font.BOLD, GREEN);
+            Font cabFont = PdfStyles.font(Font.FontFamily.HELVETICA, 8, Font.BOLD, GREEN);
+            Font grayFont = PdfStyles.font(Font.FontFamily.HELVETICA, 8, Font.NORMAL, PdfStyles.color(100, 100, 100));
+            Font greenBoldFont = PdfStyles.font(Font.FontFamily.HELVETICA, 8, Font.BOLD, GREEN);
 
             for (OwnerReportDTO.RevenueLineItem rev : items) {
                 addTableCell(table, "Cab " + cab, cabFont);
@@ -484,8 +493,8 @@ public class ReportPdfService {
         BigDecimal subtotalCommission = BigDecimal.ZERO;
         BigDecimal subtotalNet = BigDecimal.ZERO;
 
-        Font greenBold = new Font(Font.FontFamily.HELVETICA, 8, Font.BOLD, GREEN);
-        Font redBold = new Font(Font.FontFamily.HELVETICA, 8, Font.BOLD, RED);
+        Font greenBold = PdfStyles.font(Font.FontFamily.HELVETICA, 8, Font.BOLD, GREEN);
+        Font redBold = PdfStyles.font(Font.FontFamily.HELVETICA, 8, Font.BOLD, RED);
 
         for (OwnerReportDTO.RevenueLineItem rev : revenues) {
             BigDecimal amt = rev.getAmount() != null ? rev.getAmount() : BigDecimal.ZERO;
@@ -507,7 +516,7 @@ public class ReportPdfService {
         }
 
         // Subtotal row
-        Font boldFont = new Font(Font.FontFamily.HELVETICA, 8, Font.BOLD, new BaseColor(80, 80, 80));
+        Font boldFont = PdfStyles.font(Font.FontFamily.HELVETICA, 8, Font.BOLD, PdfStyles.color(80, 80, 80));
         PdfPCell labelCell = new PdfPCell(new Phrase("Credit Card Revenue Total:", boldFont));
         labelCell.setColspan(3);
         labelCell.setHorizontalAlignment(Element.ALIGN_RIGHT);
@@ -526,14 +535,14 @@ public class ReportPdfService {
         emptyCell.setPadding(5);
         table.addCell(emptyCell);
 
-        Font redTotalFont = new Font(Font.FontFamily.HELVETICA, 8, Font.BOLD, RED);
+        Font redTotalFont = PdfStyles.font(Font.FontFamily.HELVETICA, 8, Font.BOLD, RED);
         PdfPCell commCell = new PdfPCell(new Phrase(CURRENCY_FORMAT.format(subtotalCommission), redTotalFont));
         commCell.setHorizontalAlignment(Element.ALIGN_RIGHT);
         commCell.setBackgroundColor(GRAY_BG);
         commCell.setPadding(5);
         table.addCell(commCell);
 
-        Font greenTotalFont = new Font(Font.FontFamily.HELVETICA, 8, Font.BOLD, GREEN);
+        Font greenTotalFont = PdfStyles.font(Font.FontFamily.HELVETICA, 8, Font.BOLD, GREEN);
         PdfPCell netCell = new PdfPCell(new Phrase(CURRENCY_FORMAT.format(subtotalNet), greenTotalFont));
         netCell.setHorizontalAlignment(Element.ALIGN_RIGHT);
         netCell.setBackgroundColor(GRAY_BG);
@@ -571,7 +580,7 @@ public class ReportPdfService {
             subtotal = subtotal.add(rev.getAmount());
         }
 
-        addSubtotalRow(table, title + " Subtotal:", subtotal, 5, GRAY_BG, new BaseColor(80, 80, 80));
+        addSubtotalRow(table, title + " Subtotal:", subtotal, 5, GRAY_BG, PdfStyles.color(80, 80, 80));
 
         document.add(table);
     }
@@ -602,7 +611,7 @@ public class ReportPdfService {
             subtotal = subtotal.add(rev.getAmount());
         }
 
-        addSubtotalRow(table, "Account Charges Subtotal:", subtotal, 6, GRAY_BG, new BaseColor(80, 80, 80));
+        addSubtotalRow(table, "Account Charges Subtotal:", subtotal, 6, GRAY_BG, PdfStyles.color(80, 80, 80));
 
         document.add(table);
     }
@@ -627,7 +636,7 @@ public class ReportPdfService {
             subtotal = subtotal.add(exp.getAmount());
         }
 
-        addSubtotalRow(table, "Recurring Expenses Subtotal:", subtotal, 3, GRAY_BG, new BaseColor(80, 80, 80));
+        addSubtotalRow(table, "Recurring Expenses Subtotal:", subtotal, 3, GRAY_BG, PdfStyles.color(80, 80, 80));
 
         document.add(table);
     }
@@ -655,9 +664,9 @@ public class ReportPdfService {
 
         BigDecimal grandTotal = BigDecimal.ZERO;
 
-        Font cabFont = new Font(Font.FontFamily.HELVETICA, 8, Font.BOLD, RED);
-        Font grayFont = new Font(Font.FontFamily.HELVETICA, 8, Font.NORMAL, new BaseColor(100, 100, 100));
-        Font redBoldFont = new Font(Font.FontFamily.HELVETICA, 8, Font.BOLD, RED);
+        Font cabFont = PdfStyles.font(Font.FontFamily.HELVETICA, 8, Font.BOLD, RED);
+        Font grayFont = PdfStyles.font(Font.FontFamily.HELVETICA, 8, Font.NORMAL, PdfStyles.color(100, 100, 100));
+        Font redBoldFont = PdfStyles.font(Font.FontFamily.HELVETICA, 8, Font.BOLD, RED);
 
         for (String cab : sortedCabs) {
             List<StatementLineItem> items = grouped.get(cab);
@@ -709,15 +718,15 @@ public class ReportPdfService {
         table.setSpacingBefore(5);
         table.setSpacingAfter(10);
 
-        Font smallHeaderFont = new Font(Font.FontFamily.HELVETICA, 7, Font.BOLD, BaseColor.WHITE);
+        Font smallHeaderFont = PdfStyles.font(Font.FontFamily.HELVETICA, 7, Font.BOLD, BaseColor.WHITE);
         PdfPCell[] headers = createTableHeaderCells(new String[]{"Date", "Category", "Description", "Cab #", "Shift Type", "Details", "Amount"}, smallHeaderFont, PINK);
         for (PdfPCell h : headers) table.addCell(h);
 
         List<StatementLineItem> sorted = new ArrayList<>(expenses);
         sorted.sort(Comparator.comparing(e -> e.getDate() != null ? e.getDate().toString() : ""));
 
-        Font smallCellFont = new Font(Font.FontFamily.HELVETICA, 7, Font.NORMAL);
-        Font smallBoldCellFont = new Font(Font.FontFamily.HELVETICA, 7, Font.BOLD);
+        Font smallCellFont = PdfStyles.font(Font.FontFamily.HELVETICA, 7, Font.NORMAL);
+        Font smallBoldCellFont = PdfStyles.font(Font.FontFamily.HELVETICA, 7, Font.BOLD);
 
         BigDecimal subtotal = BigDecimal.ZERO;
         for (StatementLineItem exp : sorted) {
@@ -865,7 +874,7 @@ public class ReportPdfService {
                     ? amount.divide(miles, 2, RoundingMode.HALF_UP) : BigDecimal.ZERO;
 
             addTableCell(table, exp.getDate() != null ? exp.getDate().format(DATE_FORMAT) : "-", cellFont);
-            Font boldCell = new Font(Font.FontFamily.HELVETICA, 8, Font.BOLD);
+            Font boldCell = PdfStyles.font(Font.FontFamily.HELVETICA, 8, Font.BOLD);
             addTableCell(table, exp.getCabNumber() != null ? exp.getCabNumber() : "-", boldCell);
             addTableCell(table, miles.setScale(2, RoundingMode.HALF_UP).toString(), cellFont, Element.ALIGN_RIGHT);
             addTableCell(table, CURRENCY_FORMAT.format(rate), cellFont, Element.ALIGN_RIGHT);
@@ -893,14 +902,14 @@ public class ReportPdfService {
     // ==================== TAX EXPENSES ====================
 
     private void addTaxExpensesSection(Document document, List<OwnerReportDTO.TaxLineItem> taxes) throws DocumentException {
-        addSectionTitle(document, "Tax Charges", new BaseColor(106, 27, 154)); // purple
+        addSectionTitle(document, "Tax Charges", PdfStyles.color(106, 27, 154)); // purple
 
         PdfPTable table = new PdfPTable(new float[]{25, 25, 20, 10, 20});
         table.setWidthPercentage(100);
         table.setSpacingBefore(5);
         table.setSpacingAfter(10);
 
-        BaseColor purple = new BaseColor(106, 27, 154);
+        BaseColor purple = PdfStyles.color(106, 27, 154);
         addColoredHeaders(table, new String[]{"Tax", "On Expense", "Base Amount", "Rate", "Tax Amount"}, purple);
 
         BigDecimal subtotal = BigDecimal.ZERO;
@@ -913,21 +922,21 @@ public class ReportPdfService {
             subtotal = subtotal.add(tax.getAmount() != null ? tax.getAmount() : BigDecimal.ZERO);
         }
 
-        addSubtotalRow(table, "Tax Charges Subtotal:", subtotal, 5, GRAY_BG, new BaseColor(80, 80, 80));
+        addSubtotalRow(table, "Tax Charges Subtotal:", subtotal, 5, GRAY_BG, PdfStyles.color(80, 80, 80));
         document.add(table);
     }
 
     // ==================== COMMISSION EXPENSES ====================
 
     private void addCommissionExpensesSection(Document document, List<OwnerReportDTO.CommissionLineItem> commissions) throws DocumentException {
-        addSectionTitle(document, "Commission Charges", new BaseColor(0, 105, 92)); // teal
+        addSectionTitle(document, "Commission Charges", PdfStyles.color(0, 105, 92)); // teal
 
         PdfPTable table = new PdfPTable(new float[]{25, 25, 20, 10, 20});
         table.setWidthPercentage(100);
         table.setSpacingBefore(5);
         table.setSpacingAfter(10);
 
-        BaseColor teal = new BaseColor(0, 105, 92);
+        BaseColor teal = PdfStyles.color(0, 105, 92);
         addColoredHeaders(table, new String[]{"Commission", "On Revenue", "Base Amount", "Rate", "Commission Amount"}, teal);
 
         BigDecimal subtotal = BigDecimal.ZERO;
@@ -940,7 +949,7 @@ public class ReportPdfService {
             subtotal = subtotal.add(comm.getAmount() != null ? comm.getAmount() : BigDecimal.ZERO);
         }
 
-        addSubtotalRow(table, "Commission Charges Subtotal:", subtotal, 5, GRAY_BG, new BaseColor(80, 80, 80));
+        addSubtotalRow(table, "Commission Charges Subtotal:", subtotal, 5, GRAY_BG, PdfStyles.color(80, 80, 80));
         document.add(table);
     }
 
@@ -954,15 +963,15 @@ public class ReportPdfService {
 
         PdfPCell outerCell = new PdfPCell();
         outerCell.setBorder(PdfPCell.BOX);
-        outerCell.setBorderColor(new BaseColor(224, 224, 224));
+        outerCell.setBorderColor(PdfStyles.color(224, 224, 224));
         outerCell.setPadding(10);
-        outerCell.setBackgroundColor(new BaseColor(249, 249, 249));
+        outerCell.setBackgroundColor(PdfStyles.color(249, 249, 249));
 
         PdfPTable totals = new PdfPTable(2);
         totals.setWidthPercentage(100);
 
-        Font labelBold = new Font(Font.FontFamily.HELVETICA, 10, Font.BOLD, new BaseColor(60, 60, 60));
-        Font valueBold = new Font(Font.FontFamily.HELVETICA, 10, Font.BOLD, new BaseColor(60, 60, 60));
+        Font labelBold = PdfStyles.font(Font.FontFamily.HELVETICA, 10, Font.BOLD, PdfStyles.color(60, 60, 60));
+        Font valueBold = PdfStyles.font(Font.FontFamily.HELVETICA, 10, Font.BOLD, PdfStyles.color(60, 60, 60));
 
         // Total Revenues (green background)
         addTotalsRow(totals, "TOTAL REVENUES",
@@ -990,17 +999,17 @@ public class ReportPdfService {
         // Net Due/Payable (highlighted)
         BigDecimal netDue = report.getNetDue() != null ? report.getNetDue() : BigDecimal.ZERO;
         boolean isPayable = netDue.compareTo(BigDecimal.ZERO) > 0;
-        BaseColor netColor = isPayable ? new BaseColor(27, 94, 32) : new BaseColor(183, 28, 28);
+        BaseColor netColor = isPayable ? PdfStyles.color(27, 94, 32) : PdfStyles.color(183, 28, 28);
         BaseColor netBg = isPayable ? GREEN_LIGHT : RED_LIGHT;
         String netLabel = isPayable ? "NET PAYABLE" : "NET DUE";
         String netValue = (isPayable ? "" : "-") + CURRENCY_FORMAT.format(netDue.abs());
 
-        Font netLabelFont = new Font(Font.FontFamily.HELVETICA, 11, Font.BOLD, netColor);
-        Font netValueFont = new Font(Font.FontFamily.HELVETICA, 11, Font.BOLD, netColor);
+        Font netLabelFont = PdfStyles.font(Font.FontFamily.HELVETICA, 11, Font.BOLD, netColor);
+        Font netValueFont = PdfStyles.font(Font.FontFamily.HELVETICA, 11, Font.BOLD, netColor);
 
         PdfPCell netLabelCell = new PdfPCell(new Phrase(netLabel, netLabelFont));
         netLabelCell.setBorder(PdfPCell.TOP);
-        netLabelCell.setBorderColor(new BaseColor(153, 153, 153));
+        netLabelCell.setBorderColor(PdfStyles.color(153, 153, 153));
         netLabelCell.setBorderWidth(2);
         netLabelCell.setBackgroundColor(netBg);
         netLabelCell.setPadding(8);
@@ -1008,7 +1017,7 @@ public class ReportPdfService {
 
         PdfPCell netValueCell = new PdfPCell(new Phrase(netValue, netValueFont));
         netValueCell.setBorder(PdfPCell.TOP);
-        netValueCell.setBorderColor(new BaseColor(153, 153, 153));
+        netValueCell.setBorderColor(PdfStyles.color(153, 153, 153));
         netValueCell.setBorderWidth(2);
         netValueCell.setBackgroundColor(netBg);
         netValueCell.setPadding(8);
@@ -1031,7 +1040,7 @@ public class ReportPdfService {
     private void addFooter(Document document) throws DocumentException {
         document.add(new Paragraph(" "));
 
-        Font footerFont = new Font(Font.FontFamily.HELVETICA, 8, Font.NORMAL, new BaseColor(120, 120, 120));
+        Font footerFont = PdfStyles.font(Font.FontFamily.HELVETICA, 8, Font.NORMAL, PdfStyles.color(120, 120, 120));
         Paragraph footer = new Paragraph("This is an automated financial statement from Smart Fleets. For questions, please contact the office.", footerFont);
         footer.setAlignment(Element.ALIGN_CENTER);
         document.add(footer);
@@ -1062,14 +1071,14 @@ public class ReportPdfService {
     }
 
     private void addSectionTitle(Document document, String title, BaseColor color) throws DocumentException {
-        Font sectionFont = new Font(Font.FontFamily.HELVETICA, 10, Font.BOLD, color);
+        Font sectionFont = PdfStyles.font(Font.FontFamily.HELVETICA, 10, Font.BOLD, color);
         Paragraph section = new Paragraph(title, sectionFont);
         section.setSpacingBefore(8);
         document.add(section);
     }
 
     private void addColoredHeaders(PdfPTable table, String[] headers, BaseColor color) {
-        Font whiteFont = new Font(Font.FontFamily.HELVETICA, 8, Font.BOLD, BaseColor.WHITE);
+        Font whiteFont = PdfStyles.font(Font.FontFamily.HELVETICA, 8, Font.BOLD, BaseColor.WHITE);
         for (String header : headers) {
             PdfPCell cell = new PdfPCell(new Phrase(header, whiteFont));
             cell.setBackgroundColor(color);
@@ -1092,7 +1101,7 @@ public class ReportPdfService {
     }
 
     private void addCabHeaderRow(PdfPTable table, String cabLabel, int colspan, BaseColor bgColor, BaseColor textColor) {
-        Font cabHeaderFont = new Font(Font.FontFamily.HELVETICA, 8, Font.BOLD, textColor);
+        Font cabHeaderFont = PdfStyles.font(Font.FontFamily.HELVETICA, 8, Font.BOLD, textColor);
         PdfPCell cell = new PdfPCell(new Phrase(cabLabel, cabHeaderFont));
         cell.setColspan(colspan);
         cell.setBackgroundColor(bgColor);
@@ -1101,7 +1110,7 @@ public class ReportPdfService {
     }
 
     private void addSubtotalRow(PdfPTable table, String label, BigDecimal amount, int totalCols, BaseColor bgColor, BaseColor textColor) {
-        Font subtotalFont = new Font(Font.FontFamily.HELVETICA, 7, Font.BOLD, textColor);
+        Font subtotalFont = PdfStyles.font(Font.FontFamily.HELVETICA, 7, Font.BOLD, textColor);
 
         PdfPCell labelCell = new PdfPCell(new Phrase(label, subtotalFont));
         labelCell.setColspan(totalCols - 1);
@@ -1118,7 +1127,7 @@ public class ReportPdfService {
     }
 
     private void addGrandTotalRow(PdfPTable table, String label, BigDecimal amount, int totalCols, BaseColor bgColor) {
-        Font totalFont = new Font(Font.FontFamily.HELVETICA, 9, Font.BOLD);
+        Font totalFont = PdfStyles.font(Font.FontFamily.HELVETICA, 9, Font.BOLD);
 
         PdfPCell labelCell = new PdfPCell(new Phrase(label, totalFont));
         labelCell.setColspan(totalCols - 1);
@@ -1148,8 +1157,8 @@ public class ReportPdfService {
     }
 
     private void addTotalsRow(PdfPTable table, String label, String value, BaseColor bgColor, BaseColor textColor) {
-        Font labelFont = new Font(Font.FontFamily.HELVETICA, 10, Font.BOLD, textColor);
-        Font valueFont = new Font(Font.FontFamily.HELVETICA, 10, Font.BOLD, textColor);
+        Font labelFont = PdfStyles.font(Font.FontFamily.HELVETICA, 10, Font.BOLD, textColor);
+        Font valueFont = PdfStyles.font(Font.FontFamily.HELVETICA, 10, Font.BOLD, textColor);
 
         PdfPCell labelCell = new PdfPCell(new Phrase(label, labelFont));
         labelCell.setBorder(PdfPCell.NO_BORDER);
@@ -1179,7 +1188,7 @@ public class ReportPdfService {
     }
 
     private void addSummaryHeader(PdfPTable table, String text, BaseColor color) {
-        Font headerFont = new Font(Font.FontFamily.HELVETICA, 8, Font.BOLD, color);
+        Font headerFont = PdfStyles.font(Font.FontFamily.HELVETICA, 8, Font.BOLD, color);
         PdfPCell cell = new PdfPCell(new Phrase(text, headerFont));
         cell.setColspan(2);
         cell.setBorder(PdfPCell.BOTTOM);
@@ -1207,7 +1216,7 @@ public class ReportPdfService {
         PdfPCell divider = new PdfPCell();
         divider.setColspan(2);
         divider.setBorder(PdfPCell.TOP);
-        divider.setBorderColor(new BaseColor(220, 220, 220));
+        divider.setBorderColor(PdfStyles.color(220, 220, 220));
         divider.setPadding(4);
         table.addCell(divider);
     }
@@ -0,0 +1,365 @@
+package com.taxi.domain.report.service;
+
+import com.taxi.domain.account.service.BulkMailSender;
+import com.taxi.domain.account.service.EmailService;
+import com.taxi.domain.driver.model.Driver;
+import com.taxi.domain.driver.repository.DriverRepository;
+import com.taxi.domain.report.ReportJobStatus;
+import com.taxi.domain.statement.repository.StatementRepository;
+import com.taxi.infrastructure.multitenancy.TenantContext;
+import com.taxi.utils.TempPdf;
+import com.taxi.web.dto.report.OwnerReportDTO;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Emails period statements to many drivers as one background job.
+ *
+ * Each driver goes through a three-stage pipeline: the owner report is built on reportExecutor
+ * (the finalized statement if one exists for the period, otherwise a draft, as the statement
+ * screen shows it), the PDF is rendered to a temp file on the CPU-bound pdfRenderExecutor, and
+ * the email goes out on mailExecutor through a BulkMailSender batch - pooled SMTP connections,
+ * rate limited, with retries. A driver whose statement has nothing on it - no shift revenue,
+ * charges, expenses or transfers and no balance carried in or paid - is skipped without rendering
+ * or sending. At most a window of drivers is in the pipeline at once. Progress is
+ * reported through ReportJobStatus, and the outcome for each driver is kept with the job until
+ * the retention period ends.
+ */
+@Service
+@Slf4j
+public class StatementDistributionService {
+
+    public enum DeliveryState { PENDING, SENT, SKIPPED, FAILED }
+
+    /**
+     * Outcome for one driver of a job
+     */
+    public record Delivery(Long driverId, String driverNumber, String driverName, String email,
+                           DeliveryState state, int attempts, String error) {}
+
+    private record Job(ReportJobStatus status, Map<Long, Delivery> deliveries) {}
+
+    private record Rendered(OwnerReportDTO report, TempPdf pdf) {}
+
+    private final DriverRepository driverRepository;
+    private final StatementRepository statementRepository;
+    private final FinancialStatementService financialStatementService;
+    private final ReportPdfService reportPdfService;
+    private final EmailService emailService;
+    private final BulkMailSender bulkMailSender;
+    private final ThreadPoolTaskExecutor reportExecutor;
+    private final ThreadPoolTaskExecutor pdfRenderExecutor;
+    private final ThreadPoolTaskExecutor mailExecutor;
+    private final Executor jobExecutor;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int window;
+    private final long retentionHours;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    public StatementDistributionService(DriverRepository driverRepository,
+                                        StatementRepository statementRepository,
+                                        FinancialStatementService financialStatementService,
+                                        ReportPdfService reportPdfService,
+                                        EmailService emailService,
+                                        BulkMailSender bulkMailSender,
+                                        @Qualifier("reportExecutor") ThreadPoolTaskExecutor reportExecutor,
+                                        @Qualifier("pdfRenderExecutor") ThreadPoolTaskExecutor pdfRenderExecutor,
+                                        @Qualifier("mailExecutor") ThreadPoolTaskExecutor mailExecutor,
+                                        @Qualifier("uploadTaskExecutor") Executor jobExecutor,
+                                        PlatformTransactionManager transactionManager,
+                                        @Value("${report.statements.window:16}") int window,
+                                        @Value("${report.statements.retention-hours:24}") long retentionHours) {
+        this.driverRepository = driverRepository;
+        this.statementRepository = statementRepository;
+        this.financialStatementService = financialStatementService;
+        this.reportPdfService = reportPdfService;
+        this.emailService = emailService;
+        this.bulkMailSender = bulkMailSender;
+        this.reportExecutor = reportExecutor;
+        this.pdfRenderExecutor = pdfRenderExecutor;
+        this.mailExecutor = mailExecutor;
+        this.jobExecutor = jobExecutor;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.window = Math.max(1, window);
+        this.retentionHours = retentionHours;
+    }
+
+    /**
+     * Start emailing statements for the period to the given drivers (all active drivers when
+     * empty). Returns the job id immediately; poll ReportJobStatus and deliveries() for progress.
+     */
+    public String start(LocalDate from, LocalDate to, List<Long> driverIds) {
+        String jobId = UUID.randomUUID().toString();
+        ReportJobStatus status = ReportJobStatus.create(jobId);
+        status.setMessage("Queued");
+        Job job = new Job(status, Collections.synchronizedMap(new LinkedHashMap<>()));
+        jobs.put(jobId, job);
+
+        // ThreadLocal tenant does not carry over to the job thread
+        String tenant = TenantContext.getCurrentTenant();
+        jobExecutor.execute(() -> TenantContext.runInTenant(tenant, () -> {
+            run(jobId, job, from, to, driverIds);
+        }));
+
+        log.info("Started statement email job {} ({} to {}, {} drivers)", jobId, from, to,
+                driverIds == null || driverIds.isEmpty() ? "all active" : driverIds.size());
+        return jobId;
+    }
+
+    /**
+     * Per-driver outcomes of a job in driver name order, or null if the job is unknown or expired
+     */
+    public List<Delivery> deliveries(String jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null) {
+            return null;
+        }
+        synchronized (job.deliveries()) {
+            return new ArrayList<>(job.deliveries().values());
+        }
+    }
+
+    @Scheduled(fixedRate = 3600000) // hourly
+    public void cleanupExpiredJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(retentionHours);
+        Iterator<Map.Entry<String, Job>> it = jobs.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Job> entry = it.next();
+            LocalDateTime endTime = entry.getValue().status().getEndTime();
+            if (endTime != null && endTime.isBefore(cutoff)) {
+                ReportJobStatus.remove(entry.getKey());
+                it.remove();
+            }
+        }
+    }
+
+    private void run(String jobId, Job job, LocalDate from, LocalDate to, List<Long> driverIds) {
+        ReportJobStatus status = job.status();
+        status.setStatus(ReportJobStatus.Status.PROCESSING);
+        status.setMessage("Loading drivers...");
+        long startTime = System.currentTimeMillis();
+        try {
+            List<Driver> drivers = drivers(driverIds);
+            status.setTotalDrivers(drivers.size());
+            status.setMessage(String.format("Sending statements to %d drivers...", drivers.size()));
+            for (Driver driver : drivers) {
+                record(job, driver, DeliveryState.PENDING, 0, null);
+            }
+
+            String tenant = TenantContext.getCurrentTenant();
+            Semaphore inFlight = new Semaphore(window);
+            List<CompletableFuture<Void>> pipelines = new ArrayList<>();
+            try (BulkMailSender.Batch mail = bulkMailSender.open()) {
+                for (Driver driver : drivers) {
+                    if (driver.getEmail() == null || driver.getEmail().isBlank()) {
+                        record(job, driver, DeliveryState.SKIPPED, 0, "No email on file");
+                        progress(status);
+                        continue;
+                    }
+
+                    inFlight.acquire();
+                    CompletableFuture<Rendered> rendering = CompletableFuture
+                            .supplyAsync(() -> report(tenant, driver, from, to), reportExecutor)
+                            .thenApplyAsync(report -> isEmpty(report) ? null : render(report), pdfRenderExecutor);
+                    pipelines.add(rendering
+                            .thenAcceptAsync(rendered -> {
+                                if (rendered == null) {
+                                    record(job, driver, DeliveryState.SKIPPED, 0, "Nothing to report for the period");
+                                } else {
+                                    send(mail, job, driver, rendered);
+                                }
+                            }, mailExecutor)
+                            // Delete the PDF even when the send stage never ran (e.g. rejected by its executor)
+                            .whenComplete((ignored, e) -> rendering.thenAccept(rendered -> {
+                                if (rendered != null) {
+                                    rendered.pdf().close();
+                                }
+                            }))
+                            .handle((ignored, e) -> {
+                                if (e != null) {
+                                    fail(job, driver, e instanceof CompletionException && e.getCause() != null
+                                            ? e.getCause() : e);
+                                }
+                                progress(status);
+                                inFlight.release();
+                                return null;
+                            }));
+                }
+                CompletableFuture.allOf(pipelines.toArray(new CompletableFuture<?>[0])).join();
+            }
+
+            Map<DeliveryState, Integer> counts = counts(job);
+            status.setStatus(ReportJobStatus.Status.COMPLETED);
+            status.setMessage(String.format("Completed: %d sent, %d skipped, %d failed",
+                    counts.get(DeliveryState.SENT), counts.get(DeliveryState.SKIPPED), counts.get(DeliveryState.FAILED)));
+            log.info("Statement email job {} completed in {} ms: {}", jobId,
+                    System.currentTimeMillis() - startTime, status.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            status.setStatus(ReportJobStatus.Status.FAILED);
+            status.setMessage("Statement email job interrupted");
+        } catch (Exception e) {
+            log.error("Statement email job {} failed: {}", jobId, e.getMessage(), e);
+            status.setStatus(ReportJobStatus.Status.FAILED);
+            status.setMessage("Statement email job failed: " + e.getMessage());
+            synchronized (status) {
+                status.getErrors().add(e.getMessage());
+            }
+        } finally {
+            status.setEndTime(LocalDateTime.now());
+        }
+    }
+
+    private List<Driver> drivers(List<Long> driverIds) {
+        if (driverIds == null || driverIds.isEmpty()) {
+            Specification<Driver> active = Specification.where(
+                    (root, query, cb) -> cb.equal(root.get("status"), Driver.DriverStatus.ACTIVE));
+            return driverRepository.findAll(active, Sort.by("lastName", "firstName"));
+        }
+        List<Driver> drivers = new ArrayList<>(driverRepository.findAllById(driverIds));
+        drivers.sort(Comparator.comparing(Driver::getLastName, Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparing(Driver::getFirstName, Comparator.nullsLast(Comparator.naturalOrder())));
+        return drivers;
+    }
+
+    /**
+     * The statement the driver would see for the period: the saved one if it exists, else a draft
+     */
+    private OwnerReportDTO report(String tenant, Driver driver, LocalDate from, LocalDate to) {
+        return TenantContext.callInTenant(tenant, () -> readOnlyTransaction.execute(s ->
+                statementRepository.findByPersonIdAndPeriodFromAndPeriodTo(driver.getId(), from, to)
+                        .map(financialStatementService::convertStatementToReport)
+                        .orElseGet(() -> financialStatementService.generateOwnerReport(driver.getId(), from, to, null, null))));
+    }
+
+    /**
+     * True when the statement has no line items, no totals and no balance carried in, paid or due.
+     * Transfer executions are added as line items, so a driver with only a transfer is not empty.
+     */
+    private static boolean isEmpty(OwnerReportDTO report) {
+        return report.getRevenues().isEmpty()
+                && report.getHoldingRevenues().isEmpty()
+                && report.getRecurringExpenses().isEmpty()
+                && report.getOneTimeExpenses().isEmpty()
+                && report.getPerUnitExpenses().isEmpty()
+                && report.getInsuranceMileageExpenses().isEmpty()
+                && report.getAirportTripExpenses().isEmpty()
+                && report.getTaxExpenses().isEmpty()
+                && report.getCommissionExpenses().isEmpty()
+                && isZero(report.getTotalRevenues())
+                && isZero(report.getTotalExpenses())
+                && isZero(report.getPreviousBalance())
+                && isZero(report.getPaidAmount())
+                && isZero(report.getNetDue());
+    }
+
+    private static boolean isZero(BigDecimal amount) {
+        return amount == null || amount.signum() == 0;
+    }
+
+    private Rendered render(OwnerReportDTO report) {
+        return new Rendered(report, TempPdf.write(out -> reportPdfService.writeDriverReportPdf(report, out)));
+    }
+
+    private void send(BulkMailSender.Batch mail, Job job, Driver driver, Rendered rendered) {
+        try {
+            MimeMessage message = emailService.createDriverReportMessage(driver.getEmail(), driver.getFullName(),
+                    emailSummary(rendered.report()), rendered.pdf().file());
+            int attempts = mail.send(message);
+            record(job, driver, DeliveryState.SENT, attempts, null);
+        } catch (MessagingException e) {
+            throw new IllegalStateException("Could not build email: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while sending", e);
+        }
+    }
+
+    private void fail(Job job, Driver driver, Throwable e) {
+        log.warn("Statement email failed for driver {}: {}", driver.getDriverNumber(), e.getMessage());
+        int attempts = e instanceof BulkMailSender.DeliveryFailedException failed ? failed.getAttempts() : 0;
+        record(job, driver, DeliveryState.FAILED, attempts, e.getMessage());
+        synchronized (job.status()) {
+            job.status().getErrors().add("Driver " + driver.getDriverNumber() + ": " + e.getMessage());
+        }
+    }
+
+    private static void record(Job job, Driver driver, DeliveryState state, int attempts, String error) {
+        job.deliveries().put(driver.getId(), new Delivery(driver.getId(), driver.getDriverNumber(),
+                driver.getFullName(), driver.getEmail(), state, attempts, error));
+    }
+
+    private static void progress(ReportJobStatus status) {
+        synchronized (status) {
+            status.setProcessedDrivers(status.getProcessedDrivers() + 1);
+        }
+    }
+
+    private static Map<DeliveryState, Integer> counts(Job job) {
+        Map<DeliveryState, Integer> counts = new LinkedHashMap<>();
+        for (DeliveryState state : DeliveryState.values()) {
+            counts.put(state, 0);
+        }
+        synchronized (job.deliveries()) {
+            job.deliveries().values().forEach(d -> counts.merge(d.state(), 1, Integer::sum));
+        }
+        return counts;
+    }
+
+    /**
+     * Build a concise summary for email body - plain text style for best email compatibility
+     */
+    public static String emailSummary(OwnerReportDTO report) {
+        StringBuilder summary = new StringBuilder();
+
+        BigDecimal totalRevenues = report.getTotalRevenues() != null ? report.getTotalRevenues() : BigDecimal.ZERO;
+        BigDecimal totalExpenses = report.getTotalExpenses() != null ? report.getTotalExpenses() : BigDecimal.ZERO;
+        BigDecimal prevBalance = report.getPreviousBalance() != null ? report.getPreviousBalance() : BigDecimal.ZERO;
+        BigDecimal paidAmount = report.getPaidAmount() != null ? report.getPaidAmount() : BigDecimal.ZERO;
+        BigDecimal netDue = report.getNetDue() != null ? report.getNetDue() : BigDecimal.ZERO;
+
+        // Simple text format that works perfectly across all email clients
+        summary.append("<pre style=\"font-family: Arial, sans-serif; font-size: 13px; line-height: 1.8; color: #333; background: none; padding: 0; border: none;\">");
+        summary.append("Period:                  ").append(report.getPeriodFrom()).append(" to ").append(report.getPeriodTo()).append("\n");
+        summary.append("Total Revenues:          $").append(String.format("%,.2f", totalRevenues)).append("\n");
+        summary.append("Total Expenses:          $").append(String.format("%,.2f", totalExpenses)).append("\n");
+        summary.append("Previous Balance:        $").append(String.format("%,.2f", prevBalance)).append("\n");
+        summary.append("Amount Paid:             $").append(String.format("%,.2f", paidAmount)).append("\n");
+        summary.append("─────────────────────────────────────\n");
+
+        String netDueColor = netDue.compareTo(BigDecimal.ZERO) > 0 ? "color: #d32f2f;" : "color: #388e3c;";
+        summary.append("<strong style=\"").append(netDueColor).append(" font-size: 14px;\">Net Due:                 $").append(String.format("%,.2f", netDue.abs())).append("</strong>\n");
+        summary.append("</pre>");
+
+        return summary.toString();
+    }
+}
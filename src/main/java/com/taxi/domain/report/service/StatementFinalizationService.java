@@ -0,0 +1,232 @@
+package com.taxi.domain.report.service;
+
+import com.taxi.domain.driver.model.Driver;
+import com.taxi.domain.driver.repository.DriverRepository;
+import com.taxi.domain.report.ReportJobStatus;
+import com.taxi.domain.statement.model.Statement;
+import com.taxi.domain.statement.repository.StatementRepository;
+import com.taxi.domain.statement.service.StatementBatchWriter;
+import com.taxi.infrastructure.multitenancy.TenantContext;
+import com.taxi.web.dto.report.OwnerReportDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+
+/**
+ * Finalizes the statements of a period for many persons as one background job (month-end close).
+ *
+ * Owner reports are computed in parallel on reportExecutor, at most a window ahead of the writer,
+ * and written in chunks by StatementBatchWriter - one transaction and a few JDBC batches per
+ * chunk instead of a request, a save and two execution re-queries per person. Persons that
+ * already have a statement for the period are skipped, so a job that failed or was cut short
+ * can simply be started again; a chunk that collides with a statement finalized meanwhile is
+ * written once more without that person. Progress is reported through ReportJobStatus.
+ */
+@Service
+@Slf4j
+public class StatementFinalizationService {
+
+    private final DriverRepository driverRepository;
+    private final StatementRepository statementRepository;
+    private final FinancialStatementService financialStatementService;
+    private final StatementBatchWriter statementBatchWriter;
+    private final ThreadPoolTaskExecutor reportExecutor;
+    private final Executor jobExecutor;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int window;
+    private final int chunkSize;
+
+    public StatementFinalizationService(DriverRepository driverRepository,
+                                        StatementRepository statementRepository,
+                                        FinancialStatementService financialStatementService,
+                                        StatementBatchWriter statementBatchWriter,
+                                        @Qualifier("reportExecutor") ThreadPoolTaskExecutor reportExecutor,
+                                        @Qualifier("uploadTaskExecutor") Executor jobExecutor,
+                                        PlatformTransactionManager transactionManager,
+                                        @Value("${report.finalize.window:16}") int window,
+                                        @Value("${report.finalize.chunk-size:50}") int chunkSize) {
+        this.driverRepository = driverRepository;
+        this.statementRepository = statementRepository;
+        this.financialStatementService = financialStatementService;
+        this.statementBatchWriter = statementBatchWriter;
+        this.reportExecutor = reportExecutor;
+        this.jobExecutor = jobExecutor;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.window = Math.max(1, window);
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    /**
+     * Start finalizing the period for the given persons (all active drivers when empty).
+     * Returns the job id immediately; poll ReportJobStatus for progress.
+     */
+    public String start(LocalDate from, LocalDate to, List<Long> personIds, Long userId) {
+        String jobId = UUID.randomUUID().toString();
+        ReportJobStatus status = ReportJobStatus.create(jobId);
+        status.setMessage("Queued");
+
+        // ThreadLocal tenant does not carry over to the job thread
+        String tenant = TenantContext.getCurrentTenant();
+        jobExecutor.execute(() -> TenantContext.runInTenant(tenant, () -> {
+            run(jobId, status, from, to, personIds, userId);
+        }));
+
+        log.info("Started statement finalization job {} ({} to {}, {} persons)", jobId, from, to,
+                personIds == null || personIds.isEmpty() ? "all active" : personIds.size());
+        return jobId;
+    }
+
+    private void run(String jobId, ReportJobStatus status, LocalDate from, LocalDate to,
+                     List<Long> personIds, Long userId) {
+        status.setStatus(ReportJobStatus.Status.PROCESSING);
+        status.setMessage("Loading persons...");
+        long startTime = System.currentTimeMillis();
+        try {
+            List<Driver> persons = persons(personIds);
+            Set<Long> finalized = new HashSet<>(statementRepository.findPersonIdsWithStatement(from, to));
+            List<Driver> pending = persons.stream().filter(p -> !finalized.contains(p.getId())).toList();
+            int alreadyFinalized = persons.size() - pending.size();
+
+            status.setTotalDrivers(persons.size());
+            status.setProcessedDrivers(alreadyFinalized);
+            status.setMessage(String.format("Finalizing %d statements (%d already finalized)...",
+                    pending.size(), alreadyFinalized));
+
+            Counts counts = finalizeAll(pending, from, to, userId, status);
+
+            status.setStatus(ReportJobStatus.Status.COMPLETED);
+            status.setMessage(String.format("Completed: %d finalized, %d already finalized, %d failed, %d transfer executions finalized",
+                    counts.written, alreadyFinalized + counts.skipped, counts.failed, counts.executions));
+            log.info("Statement finalization job {} completed in {} ms: {}", jobId,
+                    System.currentTimeMillis() - startTime, status.getMessage());
+        } catch (Exception e) {
+            log.error("Statement finalization job {} failed: {}", jobId, e.getMessage(), e);
+            status.setStatus(ReportJobStatus.Status.FAILED);
+            status.setMessage("Statement finalization failed: " + e.getMessage());
+            status.getErrors().add(e.getMessage());
+        } finally {
+            status.setEndTime(LocalDateTime.now());
+        }
+    }
+
+    private static class Counts {
+        int written;
+        int skipped;
+        int failed;
+        int executions;
+    }
+
+    /**
+     * Compute reports on reportExecutor, keeping at most `window` in flight, and write them in chunks
+     */
+    private Counts finalizeAll(List<Driver> persons, LocalDate from, LocalDate to, Long userId,
+                               ReportJobStatus status) throws InterruptedException {
+        String tenant = TenantContext.getCurrentTenant();
+        Counts counts = new Counts();
+        Deque<Future<OwnerReportDTO>> inFlight = new ArrayDeque<>();
+        List<Statement> chunk = new ArrayList<>(chunkSize);
+        int next = 0;
+        try {
+            for (int i = 0; i < persons.size(); i++) {
+                while (next < persons.size() && inFlight.size() < window) {
+                    Driver person = persons.get(next++);
+                    inFlight.add(reportExecutor.submit(() -> report(tenant, person, from, to)));
+                }
+
+                Driver person = persons.get(i);
+                try {
+                    chunk.add(financialStatementService.buildFinalizedStatement(inFlight.removeFirst().get()));
+                } catch (ExecutionException e) {
+                    fail(status, counts, person, e.getCause());
+                } catch (InterruptedException e) {
+                    throw e;
+                } catch (Exception e) {
+                    fail(status, counts, person, e);
+                }
+
+                if (chunk.size() >= chunkSize) {
+                    write(chunk, userId, status, counts);
+                }
+            }
+            write(chunk, userId, status, counts);
+        } finally {
+            inFlight.forEach(f -> f.cancel(true));
+        }
+        return counts;
+    }
+
+    private void write(List<Statement> chunk, Long userId, ReportJobStatus status, Counts counts) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            StatementBatchWriter.WriteResult result;
+            try {
+                result = statementBatchWriter.write(chunk, userId);
+            } catch (StatementBatchWriter.DuplicateStatementException e) {
+                // Someone finalized a person of the chunk meanwhile; the retry skips that person
+                log.info("Rewriting {} finalized statements: {}", chunk.size(), e.getMessage());
+                result = statementBatchWriter.write(chunk, userId);
+            }
+            counts.written += result.getWritten().size();
+            counts.skipped += result.getSkipped();
+            counts.executions += result.getExecutionsFinalized();
+        } catch (Exception e) {
+            // The chunk's transaction rolled back - these persons are picked up again on a re-run
+            log.error("Failed to write {} finalized statements: {}", chunk.size(), e.getMessage(), e);
+            counts.failed += chunk.size();
+            status.getErrors().add(String.format("%d statements (persons %s): %s", chunk.size(),
+                    chunk.stream().map(Statement::getPersonId).toList(), e.getMessage()));
+        }
+        status.setProcessedDrivers(status.getProcessedDrivers() + chunk.size());
+        chunk.clear();
+    }
+
+    private void fail(ReportJobStatus status, Counts counts, Driver person, Throwable e) {
+        log.warn("Could not build statement for person {}: {}", person.getId(), e.getMessage());
+        counts.failed++;
+        status.getErrors().add("Driver " + person.getDriverNumber() + ": " + e.getMessage());
+        status.setProcessedDrivers(status.getProcessedDrivers() + 1);
+    }
+
+    private List<Driver> persons(List<Long> personIds) {
+        if (personIds == null || personIds.isEmpty()) {
+            Specification<Driver> active = Specification.where(
+                    (root, query, cb) -> cb.equal(root.get("status"), Driver.DriverStatus.ACTIVE));
+            return driverRepository.findAll(active, Sort.by("lastName", "firstName"));
+        }
+        List<Driver> persons = new ArrayList<>(driverRepository.findAllById(personIds));
+        persons.sort(Comparator.comparing(Driver::getLastName, Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparing(Driver::getFirstName, Comparator.nullsLast(Comparator.naturalOrder())));
+        return persons;
+    }
+
+    /**
+     * Draft report for the period, as the statement screen generates it before finalizing
+     */
+    private OwnerReportDTO report(String tenant, Driver person, LocalDate from, LocalDate to) {
+        return TenantContext.callInTenant(tenant, () -> readOnlyTransaction.execute(s ->
+                financialStatementService.generateOwnerReport(person.getId(), from, to, null, null)));
+    }
+}
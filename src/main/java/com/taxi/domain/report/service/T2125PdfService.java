@@ -4,10 +4,12 @@ import com.itextpdf.text.*;
 import com.itextpdf.text.pdf.PdfPCell;
 import com.itextpdf.text.pdf.PdfPTable;
 import com.itextpdf.text.pdf.PdfWriter;
+import com.taxi.utils.PdfStyles;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.text.DecimalFormat;
@@ -28,40 +30,47 @@ public class T2125PdfService {
     private static final DateTimeFormatter DATE_FMT = DateTimeFormatter.ofPattern("MMM dd, yyyy");
 
     // Colors
-    private static final BaseColor CRA_RED = new BaseColor(185, 28, 28);
-    private static final BaseColor HEADER_BG = new BaseColor(31, 41, 55);
-    private static final BaseColor SECTION_BG = new BaseColor(243, 244, 246);
-    private static final BaseColor LINE_BG = new BaseColor(249, 250, 251);
-    private static final BaseColor BORDER_COLOR = new BaseColor(209, 213, 219);
-    private static final BaseColor TOTAL_BG = new BaseColor(254, 243, 199);
+    private static final BaseColor CRA_RED = PdfStyles.color(185, 28, 28);
+    private static final BaseColor HEADER_BG = PdfStyles.color(31, 41, 55);
+    private static final BaseColor SECTION_BG = PdfStyles.color(243, 244, 246);
+    private static final BaseColor LINE_BG = PdfStyles.color(249, 250, 251);
+    private static final BaseColor BORDER_COLOR = PdfStyles.color(209, 213, 219);
+    private static final BaseColor TOTAL_BG = PdfStyles.color(254, 243, 199);
 
     // Fonts
-    private final Font titleFont = new Font(Font.FontFamily.HELVETICA, 16, Font.BOLD, BaseColor.WHITE);
-    private final Font subtitleFont = new Font(Font.FontFamily.HELVETICA, 10, Font.NORMAL, new BaseColor(156, 163, 175));
-    private final Font sectionFont = new Font(Font.FontFamily.HELVETICA, 11, Font.BOLD, new BaseColor(31, 41, 55));
-    private final Font lineNoFont = new Font(Font.FontFamily.COURIER, 8, Font.BOLD, new BaseColor(107, 114, 128));
-    private final Font labelFont = new Font(Font.FontFamily.HELVETICA, 9, Font.NORMAL);
-    private final Font amountFont = new Font(Font.FontFamily.HELVETICA, 9, Font.BOLD);
-    private final Font totalLabelFont = new Font(Font.FontFamily.HELVETICA, 10, Font.BOLD);
-    private final Font totalAmountFont = new Font(Font.FontFamily.HELVETICA, 11, Font.BOLD);
-    private final Font noteFont = new Font(Font.FontFamily.HELVETICA, 7, Font.ITALIC, new BaseColor(107, 114, 128));
-    private final Font headerInfoFont = new Font(Font.FontFamily.HELVETICA, 9, Font.NORMAL, new BaseColor(209, 213, 219));
-    private final Font headerInfoBoldFont = new Font(Font.FontFamily.HELVETICA, 9, Font.BOLD, BaseColor.WHITE);
+    private final Font titleFont = PdfStyles.font(Font.FontFamily.HELVETICA, 16, Font.BOLD, BaseColor.WHITE);
+    private final Font subtitleFont = PdfStyles.font(Font.FontFamily.HELVETICA, 10, Font.NORMAL, PdfStyles.color(156, 163, 175));
+    private final Font sectionFont = PdfStyles.font(Font.FontFamily.HELVETICA, 11, Font.BOLD, PdfStyles.color(31, 41, 55));
+    private final Font lineNoFont = PdfStyles.font(Font.FontFamily.COURIER, 8, Font.BOLD, PdfStyles.color(107, 114, 128));
+    private final Font labelFont = PdfStyles.font(Font.FontFamily.HELVETICA, 9, Font.NORMAL);
+    private final Font amountFont = PdfStyles.font(Font.FontFamily.HELVETICA, 9, Font.BOLD);
+    private final Font totalLabelFont = PdfStyles.font(Font.FontFamily.HELVETICA, 10, Font.BOLD);
+    private final Font totalAmountFont = PdfStyles.font(Font.FontFamily.HELVETICA, 11, Font.BOLD);
+    private final Font noteFont = PdfStyles.font(Font.FontFamily.HELVETICA, 7, Font.ITALIC, PdfStyles.color(107, 114, 128));
+    private final Font headerInfoFont = PdfStyles.font(Font.FontFamily.HELVETICA, 9, Font.NORMAL, PdfStyles.color(209, 213, 219));
+    private final Font headerInfoBoldFont = PdfStyles.font(Font.FontFamily.HELVETICA, 9, Font.BOLD, BaseColor.WHITE);
 
     /**
      * Generate T2125 worksheet PDF from report data.
      */
     public byte[] generateT2125Pdf(Map<String, Object> reportData) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        writeT2125Pdf(reportData, baos);
+        return baos.toByteArray();
+    }
+
+    /**
+     * Write the T2125 worksheet PDF to the stream (left open).
+     */
+    public void writeT2125Pdf(Map<String, Object> reportData, OutputStream out) {
         try {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
             Document document = new Document(PageSize.LETTER, 36, 36, 30, 30);
-            PdfWriter.getInstance(document, baos);
+            PdfWriter.getInstance(document, out).setCloseStream(false);
             document.open();
 
             addContent(document, reportData);
 
             document.close();
-            return baos.toByteArray();
         } catch (Exception e) {
             log.error("Error generating T2125 PDF", e);
             throw new RuntimeException("Failed to generate T2125 PDF: " + e.getMessage(), e);
@@ -86,7 +95,7 @@ public class T2125PdfService {
 
         Paragraph formTitle = new Paragraph();
         formTitle.setAlignment(Element.ALIGN_CENTER);
-        Chunk t2125 = new Chunk("T2125", new Font(Font.FontFamily.HELVETICA, 20, Font.BOLD, CRA_RED));
+        Chunk t2125 = new Chunk("T2125", PdfStyles.font(Font.FontFamily.HELVETICA, 20, Font.BOLD, CRA_RED));
         Chunk rest = new Chunk("  Statement of Business or Professional Activities", titleFont);
         formTitle.add(t2125);
         formTitle.add(rest);
@@ -334,15 +343,15 @@ public class T2125PdfService {
         cell.setPadding(6);
 
         Paragraph p = new Paragraph();
-        p.add(new Chunk(label + ": ", new Font(Font.FontFamily.HELVETICA, 7, Font.NORMAL, new BaseColor(107, 114, 128))));
-        p.add(new Chunk(value != null ? value : "", new Font(Font.FontFamily.HELVETICA, 9, Font.BOLD)));
+        p.add(new Chunk(label + ": ", PdfStyles.font(Font.FontFamily.HELVETICA, 7, Font.NORMAL, PdfStyles.color(107, 114, 128))));
+        p.add(new Chunk(value != null ? value : "", PdfStyles.font(Font.FontFamily.HELVETICA, 9, Font.BOLD)));
         cell.addElement(p);
 
         table.addCell(cell);
     }
 
     private void addDetailHeader(PdfPTable table, String title) {
-        Font hFont = new Font(Font.FontFamily.HELVETICA, 8, Font.BOLD, new BaseColor(55, 65, 81));
+        Font hFont = PdfStyles.font(Font.FontFamily.HELVETICA, 8, Font.BOLD, PdfStyles.color(55, 65, 81));
         PdfPCell cell = new PdfPCell(new Phrase(title, hFont));
         cell.setColspan(2);
         cell.setBackgroundColor(SECTION_BG);
@@ -352,13 +361,13 @@ public class T2125PdfService {
     }
 
     private void addDetailRow(PdfPTable table, String label, BigDecimal amount) {
-        PdfPCell labelCell = new PdfPCell(new Phrase(label, new Font(Font.FontFamily.HELVETICA, 8, Font.NORMAL)));
+        PdfPCell labelCell = new PdfPCell(new Phrase(label, PdfStyles.font(Font.FontFamily.HELVETICA, 8, Font.NORMAL)));
         labelCell.setBorderColor(BORDER_COLOR);
         labelCell.setPaddingLeft(12);
         labelCell.setPadding(3);
         table.addCell(labelCell);
 
-        PdfPCell amtCell = new PdfPCell(new Phrase(CURRENCY.format(amount), new Font(Font.FontFamily.HELVETICA, 8, Font.BOLD)));
+        PdfPCell amtCell = new PdfPCell(new Phrase(CURRENCY.format(amount), PdfStyles.font(Font.FontFamily.HELVETICA, 8, Font.BOLD)));
         amtCell.setBorderColor(BORDER_COLOR);
         amtCell.setHorizontalAlignment(Element.ALIGN_RIGHT);
         amtCell.setPadding(3);
@@ -402,7 +411,7 @@ public class T2125PdfService {
     }
 
     private Paragraph spacer(float height) {
-        Paragraph p = new Paragraph(" ", new Font(Font.FontFamily.HELVETICA, height / 2));
+        Paragraph p = new Paragraph(" ", PdfStyles.font(Font.FontFamily.HELVETICA, height / 2));
         return p;
     }
 
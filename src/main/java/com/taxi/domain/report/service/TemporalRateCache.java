@@ -0,0 +1,313 @@
+package com.taxi.domain.report.service;
+
+import com.taxi.domain.cab.model.CabAttributeType;
+import com.taxi.domain.expense.model.ExpenseCategory;
+import com.taxi.domain.expense.model.ItemRate;
+import com.taxi.domain.expense.model.ItemRateOverride;
+import com.taxi.domain.expense.repository.ItemRateOverrideRepository;
+import com.taxi.domain.expense.repository.ItemRateRepository;
+import com.taxi.domain.profile.model.ItemRateChargedTo;
+import com.taxi.domain.profile.model.ItemRateUnitType;
+import com.taxi.domain.tax.model.CommissionRate;
+import com.taxi.domain.tax.model.CommissionType;
+import com.taxi.domain.tax.model.TaxCategoryAssignment;
+import com.taxi.domain.tax.model.TaxRate;
+import com.taxi.domain.tax.model.TaxType;
+import com.taxi.domain.tax.repository.CommissionRateRepository;
+import com.taxi.domain.tax.repository.TaxCategoryAssignmentRepository;
+import com.taxi.domain.tax.repository.TaxRateRepository;
+import com.taxi.infrastructure.datachange.DataSource;
+import com.taxi.infrastructure.datachange.DataVersionService;
+import com.taxi.infrastructure.datachange.EntityChangeObserver.ChangeType;
+import com.taxi.infrastructure.datachange.TransactionalChangeObserver;
+import com.taxi.infrastructure.multitenancy.TenantContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory, date-versioned copies of the rate tables read during report generation:
+ * tax rates, tax category assignments, commission rates, item rates and item rate overrides.
+ *
+ * Each family is loaded for a tenant on first use, in one query, into immutable timelines
+ * (the date axis split at every effective-from / effective-to boundary), so an "effective on
+ * date" lookup is a floor search with no query. Lookups return what the corresponding
+ * repository query returned, in the same order.
+ *
+ * Loaded tables are kept under the tenant's RATES version (DataVersionService), which writes to
+ * any family's entities bump in their transaction. A lookup compares it - read once per
+ * transaction - and reloads a family loaded under an older version, on every node.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TemporalRateCache implements TransactionalChangeObserver<DataSource> {
+
+    private final TaxRateRepository taxRateRepository;
+    private final CommissionRateRepository commissionRateRepository;
+    private final TaxCategoryAssignmentRepository taxCategoryAssignmentRepository;
+    private final ItemRateRepository itemRateRepository;
+    private final ItemRateOverrideRepository itemRateOverrideRepository;
+    private final DataVersionService dataVersionService;
+
+    private enum Family { TAX_RATES, TAX_ASSIGNMENTS, COMMISSION_RATES, ITEM_RATES, ITEM_RATE_OVERRIDES }
+
+    private record Key(String tenant, Family family) {}
+
+    private record Loaded(long version, Object table) {}
+
+    private final Map<Key, Loaded> tables = new ConcurrentHashMap<>();
+
+    private record CommissionTable(Map<Long, Timeline<CommissionRate>> ratesByType,
+                                   Map<String, CommissionType> typesByCode) {}
+
+    private record ItemRateTable(Timeline<ItemRate> activeRates, List<ItemRate> allActive) {}
+
+    private record OverrideKey(Long itemRateId, String ownerDriverNumber) {}
+
+    // ─────────────────────────────────────────────────────────────────────────
+    // Lookups
+    // ─────────────────────────────────────────────────────────────────────────
+
+    /**
+     * Same as TaxRateRepository.findActiveRateOnDate
+     */
+    public Optional<TaxRate> taxRateOn(Long taxTypeId, LocalDate date) {
+        Map<Long, Timeline<TaxRate>> rates = table(Family.TAX_RATES, this::loadTaxRates);
+        Timeline<TaxRate> timeline = rates.get(taxTypeId);
+        return timeline != null ? timeline.first(date) : Optional.empty();
+    }
+
+    /**
+     * Same as TaxCategoryAssignmentRepository.findAssignmentsActiveOnDate
+     */
+    public List<TaxCategoryAssignment> taxAssignmentsOn(LocalDate date) {
+        Timeline<TaxCategoryAssignment> assignments = table(Family.TAX_ASSIGNMENTS, this::loadTaxAssignments);
+        return assignments.on(date);
+    }
+
+    /**
+     * Same as CommissionRateRepository.findActiveRateOnDate
+     */
+    public Optional<CommissionRate> commissionRateOn(Long commissionTypeId, LocalDate date) {
+        CommissionTable table = table(Family.COMMISSION_RATES, this::loadCommissionRates);
+        Timeline<CommissionRate> timeline = table.ratesByType().get(commissionTypeId);
+        return timeline != null ? timeline.first(date) : Optional.empty();
+    }
+
+    /**
+     * Commission type with the given code, if any commission rate uses it
+     */
+    public Optional<CommissionType> commissionType(String code) {
+        CommissionTable table = table(Family.COMMISSION_RATES, this::loadCommissionRates);
+        return Optional.ofNullable(table.typesByCode().get(code));
+    }
+
+    /**
+     * Same as ItemRateRepository.findActiveOnDate (ordered by name)
+     */
+    public List<ItemRate> itemRatesOn(LocalDate date) {
+        ItemRateTable table = table(Family.ITEM_RATES, this::loadItemRates);
+        return table.activeRates().on(date);
+    }
+
+    /**
+     * Same as ItemRateRepository.findByUnitTypeAndChargedToAndIsActiveTrueOrderByName
+     */
+    public List<ItemRate> activeItemRates(ItemRateUnitType unitType, ItemRateChargedTo chargedTo) {
+        ItemRateTable table = table(Family.ITEM_RATES, this::loadItemRates);
+        return table.allActive().stream()
+                .filter(r -> r.getUnitType() == unitType && r.getChargedTo() == chargedTo)
+                .toList();
+    }
+
+    /**
+     * Same as ItemRateOverrideRepository.findActiveOverridesForRate (highest priority first)
+     */
+    public List<ItemRateOverride> itemRateOverridesOn(Long itemRateId, String ownerDriverNumber, LocalDate date) {
+        Map<OverrideKey, Timeline<ItemRateOverride>> overrides =
+                table(Family.ITEM_RATE_OVERRIDES, this::loadItemRateOverrides);
+        Timeline<ItemRateOverride> timeline = overrides.get(new OverrideKey(itemRateId, ownerDriverNumber));
+        return timeline != null ? timeline.on(date) : List.of();
+    }
+
+    // ─────────────────────────────────────────────────────────────────────────
+    // Invalidation
+    // ─────────────────────────────────────────────────────────────────────────
+
+    @Override
+    public Collection<DataSource> keysFor(Object entity, ChangeType changeType, PreviousState previous) {
+        // Entities the tables are loaded from (types, categories and attribute types joined in)
+        boolean rates = entity instanceof TaxRate || entity instanceof TaxType
+                || entity instanceof TaxCategoryAssignment || entity instanceof ExpenseCategory
+                || entity instanceof CommissionRate || entity instanceof CommissionType
+                || entity instanceof ItemRate || entity instanceof CabAttributeType
+                || entity instanceof ItemRateOverride;
+        return rates ? List.of(DataSource.RATES) : List.of();
+    }
+
+    @Override
+    public void beforeCommit(Set<DataSource> sources) {
+        sources.forEach(dataVersionService::bump);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T table(Family family, Supplier<T> loader) {
+        Key key = new Key(tenant(), family);
+        // Read before loading: a write committed during the load leaves the result outdated
+        long version = dataVersionService.version(DataSource.RATES);
+        Loaded loaded = tables.get(key);
+        if (loaded != null && loaded.version() == version) {
+            return (T) loaded.table();
+        }
+        T table = loader.get();
+        if (!DataVersionService.isCacheableRead()) {
+            return table;
+        }
+        tables.put(key, new Loaded(version, table));
+        log.debug("Loaded {} rate table for tenant {}", family, key.tenant());
+        return table;
+    }
+
+    // ─────────────────────────────────────────────────────────────────────────
+    // Loading
+    // ─────────────────────────────────────────────────────────────────────────
+
+    private Map<Long, Timeline<TaxRate>> loadTaxRates() {
+        return groupTimelines(taxRateRepository.findAllActiveWithType(),
+                r -> r.getTaxType().getId(),
+                TaxRate::getEffectiveFrom, TaxRate::getEffectiveTo,
+                Comparator.comparing(TaxRate::getEffectiveFrom).reversed());
+    }
+
+    private Timeline<TaxCategoryAssignment> loadTaxAssignments() {
+        return Timeline.of(taxCategoryAssignmentRepository.findAllWithDetails(),
+                TaxCategoryAssignment::getAssignedAt, TaxCategoryAssignment::getUnassignedAt,
+                Comparator.comparing((TaxCategoryAssignment a) -> a.getTaxType().getName(),
+                                Comparator.nullsFirst(Comparator.naturalOrder()))
+                        .thenComparing(a -> a.getExpenseCategory().getCategoryName(),
+                                Comparator.nullsFirst(Comparator.naturalOrder())));
+    }
+
+    private CommissionTable loadCommissionRates() {
+        List<CommissionRate> all = commissionRateRepository.findAllWithType();
+        Map<String, CommissionType> typesByCode = new HashMap<>();
+        for (CommissionRate rate : all) {
+            typesByCode.putIfAbsent(rate.getCommissionType().getCode(), rate.getCommissionType());
+        }
+        Map<Long, Timeline<CommissionRate>> ratesByType = groupTimelines(
+                all.stream().filter(r -> Boolean.TRUE.equals(r.getIsActive())).toList(),
+                r -> r.getCommissionType().getId(),
+                CommissionRate::getEffectiveFrom, CommissionRate::getEffectiveTo,
+                Comparator.comparing(CommissionRate::getEffectiveFrom).reversed());
+        return new CommissionTable(ratesByType, typesByCode);
+    }
+
+    private ItemRateTable loadItemRates() {
+        Comparator<ItemRate> byName = Comparator.comparing(ItemRate::getName,
+                Comparator.nullsFirst(Comparator.naturalOrder()));
+        List<ItemRate> active = itemRateRepository.findAllWithAttributeType().stream()
+                .filter(r -> Boolean.TRUE.equals(r.getIsActive()))
+                .sorted(byName)
+                .toList();
+        return new ItemRateTable(
+                Timeline.of(active, ItemRate::getEffectiveFrom, ItemRate::getEffectiveTo, byName),
+                active);
+    }
+
+    private Map<OverrideKey, Timeline<ItemRateOverride>> loadItemRateOverrides() {
+        return groupTimelines(itemRateOverrideRepository.findAllActiveWithItemRate(),
+                o -> new OverrideKey(o.getItemRate().getId(), o.getOwnerDriverNumber()),
+                ItemRateOverride::getStartDate, ItemRateOverride::getEndDate,
+                Comparator.comparing((ItemRateOverride o) -> o.getPriority() != null ? o.getPriority() : 0)
+                        .reversed()
+                        .thenComparing(ItemRateOverride::getId, Comparator.nullsLast(Comparator.naturalOrder())));
+    }
+
+    private static <K, T> Map<K, Timeline<T>> groupTimelines(Collection<T> items, Function<T, K> key,
+                                                           Function<T, LocalDate> from, Function<T, LocalDate> to,
+                                                           Comparator<T> order) {
+        Map<K, List<T>> grouped = items.stream()
+                .filter(item -> key.apply(item) != null)
+                .collect(Collectors.groupingBy(key, LinkedHashMap::new, Collectors.toList()));
+        Map<K, Timeline<T>> timelines = new HashMap<>(grouped.size() * 2);
+        grouped.forEach((k, members) -> timelines.put(k, Timeline.of(members, from, to, order)));
+        return timelines;
+    }
+
+    private static String tenant() {
+        String tenant = TenantContext.peekCurrentTenant();
+        return tenant != null ? tenant : TenantContext.SYSTEM_TENANT;
+    }
+
+    /**
+     * Items effective over date intervals [from, to] (to null = open-ended), precomputed per segment
+     * of the date axis: segment start -> items in effect throughout it, in the given order.
+     */
+    private static final class Timeline<T> {
+
+        private final TreeMap<LocalDate, List<T>> segments;
+
+        private Timeline(TreeMap<LocalDate, List<T>> segments) {
+            this.segments = segments;
+        }
+
+        static <T> Timeline<T> of(Collection<T> items, Function<T, LocalDate> from, Function<T, LocalDate> to,
+                                  Comparator<T> order) {
+            List<T> sorted = items.stream()
+                    .filter(item -> from.apply(item) != null)
+                    .sorted(order)
+                    .toList();
+
+            TreeSet<LocalDate> boundaries = new TreeSet<>();
+            for (T item : sorted) {
+                boundaries.add(from.apply(item));
+                LocalDate end = to.apply(item);
+                if (end != null) {
+                    boundaries.add(end.plusDays(1));
+                }
+            }
+
+            TreeMap<LocalDate, List<T>> segments = new TreeMap<>();
+            for (LocalDate boundary : boundaries) {
+                List<T> inEffect = new ArrayList<>();
+                for (T item : sorted) {
+                    LocalDate end = to.apply(item);
+                    if (!from.apply(item).isAfter(boundary) && (end == null || !end.isBefore(boundary))) {
+                        inEffect.add(item);
+                    }
+                }
+                segments.put(boundary, List.copyOf(inEffect));
+            }
+            return new Timeline<>(segments);
+        }
+
+        List<T> on(LocalDate date) {
+            Map.Entry<LocalDate, List<T>> entry = segments.floorEntry(Objects.requireNonNull(date));
+            return entry != null ? entry.getValue() : List.of();
+        }
+
+        Optional<T> first(LocalDate date) {
+            List<T> items = on(date);
+            return items.isEmpty() ? Optional.empty() : Optional.of(items.get(0));
+        }
+    }
+}
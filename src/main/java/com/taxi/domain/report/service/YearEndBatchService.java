@@ -0,0 +1,294 @@
+package com.taxi.domain.report.service;
+
+import com.taxi.domain.driver.model.Driver;
+import com.taxi.domain.driver.repository.DriverRepository;
+import com.taxi.domain.report.ReportJobStatus;
+import com.taxi.infrastructure.multitenancy.TenantContext;
+import com.taxi.web.dto.report.DriverSummaryDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Year-end reports for every active driver, as a background job or straight onto a stream.
+ *
+ * Drivers are summarized in parallel on reportExecutor - at most a window of them in flight -
+ * and each driver's report is rendered as soon as its turn comes (name order) into one PDF or
+ * a ZIP of per-driver PDFs. Only the window of summaries is held in memory, never the whole
+ * fleet. Jobs write to a temp file and report progress through ReportJobStatus; the file is
+ * removed when the job is discarded or after the retention period.
+ */
+@Service
+@Slf4j
+public class YearEndBatchService {
+
+    public enum Format { PDF, ZIP }
+
+    /**
+     * A finished job's output file
+     */
+    public record Result(Path file, Format format, String filename, LocalDateTime createdAt) {}
+
+    private final DriverRepository driverRepository;
+    private final DriverSummaryCalculator summaryCalculator;
+    private final YearEndReportService yearEndReportService;
+    private final YearEndReportPdfService pdfService;
+    private final ThreadPoolTaskExecutor reportExecutor;
+    private final Executor jobExecutor;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int window;
+    private final long retentionHours;
+
+    private final Map<String, Result> results = new ConcurrentHashMap<>();
+
+    public YearEndBatchService(DriverRepository driverRepository,
+                               DriverSummaryCalculator summaryCalculator,
+                               YearEndReportService yearEndReportService,
+                               YearEndReportPdfService pdfService,
+                               @Qualifier("reportExecutor") ThreadPoolTaskExecutor reportExecutor,
+                               @Qualifier("uploadTaskExecutor") Executor jobExecutor,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${report.year-end.window:16}") int window,
+                               @Value("${report.year-end.retention-hours:24}") long retentionHours) {
+        this.driverRepository = driverRepository;
+        this.summaryCalculator = summaryCalculator;
+        this.yearEndReportService = yearEndReportService;
+        this.pdfService = pdfService;
+        this.reportExecutor = reportExecutor;
+        this.jobExecutor = jobExecutor;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.window = Math.max(1, window);
+        this.retentionHours = retentionHours;
+    }
+
+    /**
+     * Start a year-end job for all active drivers. Returns the job id immediately;
+     * poll ReportJobStatus for progress and fetch the file with result() once COMPLETED.
+     */
+    public String start(LocalDate startDate, LocalDate endDate, Format format) {
+        String jobId = UUID.randomUUID().toString();
+        ReportJobStatus status = ReportJobStatus.create(jobId);
+        status.setMessage("Queued");
+
+        // ThreadLocal tenant does not carry over to the job thread
+        String tenant = TenantContext.getCurrentTenant();
+        jobExecutor.execute(() -> TenantContext.runInTenant(tenant, () -> {
+            run(jobId, status, startDate, endDate, format);
+        }));
+
+        log.info("Started year-end job {} ({} to {}, {})", jobId, startDate, endDate, format);
+        return jobId;
+    }
+
+    /**
+     * Output of a completed job, or null if there is none (unknown, unfinished or discarded)
+     */
+    public Result result(String jobId) {
+        return results.get(jobId);
+    }
+
+    /**
+     * Forget a job and delete its output file
+     */
+    public void discard(String jobId) {
+        ReportJobStatus.remove(jobId);
+        Result result = results.remove(jobId);
+        if (result != null) {
+            deleteQuietly(result.file());
+        }
+    }
+
+    @Scheduled(fixedRate = 3600000) // hourly
+    public void cleanupExpiredResults() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(retentionHours);
+        Iterator<Map.Entry<String, Result>> it = results.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Result> entry = it.next();
+            if (entry.getValue().createdAt().isBefore(cutoff)) {
+                log.info("Removing expired year-end output for job {}", entry.getKey());
+                deleteQuietly(entry.getValue().file());
+                ReportJobStatus.remove(entry.getKey());
+                it.remove();
+            }
+        }
+    }
+
+    public static String filename(LocalDate startDate, LocalDate endDate, Format format) {
+        return "all_reports_" + startDate + "_" + endDate + (format == Format.ZIP ? ".zip" : ".pdf");
+    }
+
+    private void run(String jobId, ReportJobStatus status, LocalDate startDate, LocalDate endDate, Format format) {
+        status.setStatus(ReportJobStatus.Status.PROCESSING);
+        status.setMessage("Loading drivers...");
+        Path file = null;
+        try {
+            file = Files.createTempFile("year-end-" + jobId + "-", format == Format.ZIP ? ".zip" : ".pdf");
+            int written;
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+                written = write(startDate, endDate, format, out, status);
+            }
+
+            results.put(jobId, new Result(file, format, filename(startDate, endDate, format), LocalDateTime.now()));
+            status.setStatus(ReportJobStatus.Status.COMPLETED);
+            status.setMessage(String.format("Completed: %d drivers with activity%s", written,
+                    status.getErrors().isEmpty() ? "" : ", " + status.getErrors().size() + " failed"));
+            log.info("Year-end job {} completed: {} reports, {} failures", jobId, written, status.getErrors().size());
+        } catch (Exception e) {
+            log.error("Year-end job {} failed: {}", jobId, e.getMessage(), e);
+            if (file != null) {
+                deleteQuietly(file);
+            }
+            status.setStatus(ReportJobStatus.Status.FAILED);
+            status.setMessage("Year-end report generation failed: " + e.getMessage());
+            status.getErrors().add(e.getMessage());
+        } finally {
+            status.setEndTime(LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Render the year-end report of every active driver with financial activity onto the
+     * stream (left open), in name order. Drivers whose summary fails are skipped and recorded
+     * in the status, if one is given. Returns the number of reports written.
+     */
+    public int write(LocalDate startDate, LocalDate endDate, Format format, OutputStream out, ReportJobStatus status) {
+        long startTime = System.currentTimeMillis();
+        // Revenue category totals of every driver in one query
+        YearEndReportService.ReportView view = yearEndReportService.reportView(null, startDate, endDate);
+
+        Specification<Driver> active = Specification.where(
+                (root, query, cb) -> cb.equal(root.get("status"), Driver.DriverStatus.ACTIVE));
+        List<Driver> drivers = driverRepository.findAll(active, Sort.by("lastName", "firstName"));
+        if (status != null) {
+            status.setTotalDrivers(drivers.size());
+            status.setMessage(String.format("Processing %d drivers...", drivers.size()));
+        }
+
+        int written;
+        if (format == Format.ZIP) {
+            ZipOutputStream zip = new ZipOutputStream(out);
+            written = render(drivers, startDate, endDate, status, driver -> report -> {
+                try {
+                    zip.putNextEntry(new ZipEntry(entryName(driver)));
+                    pdfService.writePdf(report, zip);
+                    zip.closeEntry();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, view);
+            try {
+                zip.finish();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        } else {
+            try (YearEndReportPdfService.AllReportsWriter pdf = pdfService.openAllPdf(out)) {
+                written = render(drivers, startDate, endDate, status, driver -> pdf::add, view);
+            }
+        }
+
+        log.info("Wrote {} year-end reports ({} drivers, {} to {}) in {} ms",
+                written, drivers.size(), startDate, endDate, System.currentTimeMillis() - startTime);
+        return written;
+    }
+
+    /**
+     * Summarize drivers on reportExecutor, keeping at most `window` in flight, and hand each
+     * report with activity to its sink in driver order
+     */
+    private int render(List<Driver> drivers, LocalDate startDate, LocalDate endDate, ReportJobStatus status,
+                       Function<Driver, Consumer<Map<String, Object>>> sinks,
+                       YearEndReportService.ReportView view) {
+        String tenant = TenantContext.getCurrentTenant();
+        Deque<Future<DriverSummaryDTO>> inFlight = new ArrayDeque<>();
+        int next = 0;
+        int written = 0;
+        try {
+            for (int i = 0; i < drivers.size(); i++) {
+                while (next < drivers.size() && inFlight.size() < window) {
+                    Driver driver = drivers.get(next++);
+                    inFlight.add(reportExecutor.submit(() -> summarize(tenant, driver, startDate, endDate)));
+                }
+
+                Driver driver = drivers.get(i);
+                DriverSummaryDTO summary;
+                try {
+                    summary = inFlight.removeFirst().get();
+                } catch (ExecutionException e) {
+                    String error = "Driver " + driver.getDriverNumber() + ": " + e.getCause().getMessage();
+                    log.warn("Year-end summary failed for driver {}: {}", driver.getDriverNumber(),
+                            e.getCause().getMessage());
+                    if (status != null) {
+                        status.getErrors().add(error);
+                    }
+                    summary = null;
+                }
+
+                if (summary != null && DriverSummaryCalculator.hasFinancialActivity(summary)) {
+                    Map<String, Object> report = yearEndReportService.buildReportResponse(
+                            summary, driver.getGstNumber(), startDate, endDate, view);
+                    sinks.apply(driver).accept(report);
+                    written++;
+                }
+                if (status != null) {
+                    status.setProcessedDrivers(i + 1);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while generating year-end reports", e);
+        } finally {
+            inFlight.forEach(f -> f.cancel(true));
+        }
+        return written;
+    }
+
+    private static String entryName(Driver driver) {
+        String number = driver.getDriverNumber() != null ? driver.getDriverNumber() : String.valueOf(driver.getId());
+        return "report_" + number.replaceAll("[^A-Za-z0-9_-]", "_") + ".pdf";
+    }
+
+    private DriverSummaryDTO summarize(String tenant, Driver driver, LocalDate startDate, LocalDate endDate) {
+        return TenantContext.callInTenant(tenant, () ->
+                readOnlyTransaction.execute(s -> summaryCalculator.summarize(driver, startDate, endDate)));
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete year-end output {}: {}", file, e.getMessage());
+        }
+    }
+}
@@ -4,10 +4,12 @@ import com.itextpdf.text.*;
 import com.itextpdf.text.pdf.PdfPCell;
 import com.itextpdf.text.pdf.PdfPTable;
 import com.itextpdf.text.pdf.PdfWriter;
+import com.taxi.utils.PdfStyles;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.text.DecimalFormat;
 import java.time.LocalDate;
@@ -22,39 +24,47 @@ public class YearEndReportPdfService {
     private static final DecimalFormat CURRENCY = new DecimalFormat("$#,##0.00");
     private static final DateTimeFormatter DATE_FMT = DateTimeFormatter.ofPattern("MMM dd, yyyy");
 
-    private static final BaseColor HEADER_BG = new BaseColor(62, 82, 68);       // #3e5244
-    private static final BaseColor GREEN = new BaseColor(67, 160, 71);           // #43a047
-    private static final BaseColor GREEN_BG = new BaseColor(232, 245, 233);      // #e8f5e9
-    private static final BaseColor RED = new BaseColor(229, 57, 53);             // #e53935
-    private static final BaseColor RED_BG = new BaseColor(255, 235, 238);        // #ffebee
-    private static final BaseColor BLUE = new BaseColor(30, 136, 229);           // #1e88e5
-    private static final BaseColor BLUE_BG = new BaseColor(227, 242, 253);       // #e3f2fd
-    private static final BaseColor GRAY_BG = new BaseColor(248, 250, 251);       // #f8fafb
-
-    private final Font titleFont = new Font(Font.FontFamily.HELVETICA, 18, Font.BOLD, BaseColor.WHITE);
-    private final Font subtitleFont = new Font(Font.FontFamily.HELVETICA, 11, Font.NORMAL, new BaseColor(168, 213, 186));
-    private final Font driverFont = new Font(Font.FontFamily.HELVETICA, 12, Font.NORMAL, BaseColor.WHITE);
-    private final Font sectionFont = new Font(Font.FontFamily.HELVETICA, 11, Font.BOLD);
-    private final Font labelFont = new Font(Font.FontFamily.HELVETICA, 9, Font.NORMAL);
-    private final Font amountFont = new Font(Font.FontFamily.HELVETICA, 9, Font.BOLD);
-    private final Font summaryLabelFont = new Font(Font.FontFamily.HELVETICA, 10, Font.BOLD);
-    private final Font summaryAmountFont = new Font(Font.FontFamily.HELVETICA, 11, Font.BOLD);
-    private final Font footerFont = new Font(Font.FontFamily.HELVETICA, 7, Font.NORMAL, new BaseColor(150, 150, 150));
+    private static final BaseColor HEADER_BG = PdfStyles.color(62, 82, 68);       // #3e5244
+    private static final BaseColor GREEN = PdfStyles.color(67, 160, 71);           // #43a047
+    private static final BaseColor GREEN_BG = PdfStyles.color(232, 245, 233);      // #e8f5e9
+    private static final BaseColor RED = PdfStyles.color(229, 57, 53);             // #e53935
+    private static final BaseColor RED_BG = PdfStyles.color(255, 235, 238);        // #ffebee
+    private static final BaseColor BLUE = PdfStyles.color(30, 136, 229);           // #1e88e5
+    private static final BaseColor BLUE_BG = PdfStyles.color(227, 242, 253);       // #e3f2fd
+    private static final BaseColor GRAY_BG = PdfStyles.color(248, 250, 251);       // #f8fafb
+
+    private final Font titleFont = PdfStyles.font(Font.FontFamily.HELVETICA, 18, Font.BOLD, BaseColor.WHITE);
+    private final Font subtitleFont = PdfStyles.font(Font.FontFamily.HELVETICA, 11, Font.NORMAL, PdfStyles.color(168, 213, 186));
+    private final Font driverFont = PdfStyles.font(Font.FontFamily.HELVETICA, 12, Font.NORMAL, BaseColor.WHITE);
+    private final Font sectionFont = PdfStyles.font(Font.FontFamily.HELVETICA, 11, Font.BOLD);
+    private final Font labelFont = PdfStyles.font(Font.FontFamily.HELVETICA, 9, Font.NORMAL);
+    private final Font amountFont = PdfStyles.font(Font.FontFamily.HELVETICA, 9, Font.BOLD);
+    private final Font summaryLabelFont = PdfStyles.font(Font.FontFamily.HELVETICA, 10, Font.BOLD);
+    private final Font summaryAmountFont = PdfStyles.font(Font.FontFamily.HELVETICA, 11, Font.BOLD);
+    private final Font footerFont = PdfStyles.font(Font.FontFamily.HELVETICA, 7, Font.NORMAL, PdfStyles.color(150, 150, 150));
 
     /**
      * Generate PDF for a single driver report.
      */
     public byte[] generatePdf(Map<String, Object> reportData) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        writePdf(reportData, baos);
+        return baos.toByteArray();
+    }
+
+    /**
+     * Write the PDF for a single driver report to the stream, which is left open.
+     */
+    public void writePdf(Map<String, Object> reportData, OutputStream out) {
         try {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
             Document document = new Document(PageSize.LETTER, 40, 40, 30, 30);
-            PdfWriter.getInstance(document, baos);
+            PdfWriter writer = PdfWriter.getInstance(document, out);
+            writer.setCloseStream(false);
             document.open();
 
             addDriverReport(document, reportData);
 
             document.close();
-            return baos.toByteArray();
         } catch (Exception e) {
             log.error("Error generating year-end report PDF", e);
             throw new RuntimeException("Failed to generate PDF: " + e.getMessage(), e);
@@ -65,29 +75,88 @@ public class YearEndReportPdfService {
      * Generate PDF containing multiple driver reports (one per page).
      */
     public byte[] generateAllPdf(Map<String, Object> allReportsData) {
-        try {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            Document document = new Document(PageSize.LETTER, 40, 40, 30, 30);
-            PdfWriter.getInstance(document, baos);
-            document.open();
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        writeAllPdf(allReportsData, baos);
+        return baos.toByteArray();
+    }
 
+    /**
+     * Write PDF containing multiple driver reports onto the stream (left open).
+     */
+    public void writeAllPdf(Map<String, Object> allReportsData, OutputStream out) {
+        try (AllReportsWriter writer = openAllPdf(out)) {
             @SuppressWarnings("unchecked")
             List<Map<String, Object>> reports = (List<Map<String, Object>>) allReportsData.get("reports");
             if (reports != null) {
-                for (int i = 0; i < reports.size(); i++) {
-                    if (i > 0) document.newPage();
-                    addDriverReport(document, reports.get(i));
+                for (Map<String, Object> report : reports) {
+                    writer.add(report);
                 }
             }
+        }
+    }
 
-            document.close();
-            return baos.toByteArray();
-        } catch (Exception e) {
-            log.error("Error generating all-drivers year-end report PDF", e);
+    /**
+     * Start a multi-driver PDF on the stream (left open when the writer is closed).
+     * Each report added is rendered onto its own page and flushed, so callers can add
+     * reports as they are produced without keeping them.
+     */
+    public AllReportsWriter openAllPdf(OutputStream out) {
+        try {
+            Document document = new Document(PageSize.LETTER, 40, 40, 30, 30);
+            PdfWriter writer = PdfWriter.getInstance(document, out);
+            writer.setCloseStream(false);
+            document.open();
+            return new AllReportsWriter(document, writer);
+        } catch (DocumentException e) {
+            log.error("Error starting all-drivers year-end report PDF", e);
             throw new RuntimeException("Failed to generate PDF: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Multi-driver PDF being written to a stream, one driver report per add()
+     */
+    public final class AllReportsWriter implements AutoCloseable {
+        private final Document document;
+        private final PdfWriter writer;
+        private int count;
+
+        private AllReportsWriter(Document document, PdfWriter writer) {
+            this.document = document;
+            this.writer = writer;
+        }
+
+        public void add(Map<String, Object> reportData) {
+            try {
+                if (count > 0) document.newPage();
+                addDriverReport(document, reportData);
+                writer.flush();
+                count++;
+            } catch (DocumentException e) {
+                log.error("Error generating all-drivers year-end report PDF", e);
+                throw new RuntimeException("Failed to generate PDF: " + e.getMessage(), e);
+            }
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        @Override
+        public void close() {
+            try {
+                // iText refuses to close a document without pages
+                if (count == 0) {
+                    document.add(new Paragraph("No drivers with financial activity in this period.", labelFont));
+                }
+            } catch (DocumentException e) {
+                throw new RuntimeException("Failed to generate PDF: " + e.getMessage(), e);
+            } finally {
+                document.close();
+            }
+        }
+    }
+
     private void addDriverReport(Document document, Map<String, Object> data) throws DocumentException {
         String driverName = str(data, "driverName");
         String driverNumber = str(data, "driverNumber");
@@ -123,7 +192,7 @@ public class YearEndReportPdfService {
 
         header.addCell(headerCell);
         document.add(header);
-        document.add(new Paragraph(" ", new Font(Font.FontFamily.HELVETICA, 6)));
+        document.add(new Paragraph(" ", PdfStyles.font(Font.FontFamily.HELVETICA, 6)));
 
         // Revenue
         @SuppressWarnings("unchecked")
@@ -156,7 +225,7 @@ public class YearEndReportPdfService {
     private void addSection(Document document, String title, BaseColor titleColor, BaseColor bgColor,
                             List<Map<String, Object>> items, BaseColor amountColor) throws DocumentException {
         // Section header
-        Font sFont = new Font(Font.FontFamily.HELVETICA, 11, Font.BOLD, titleColor);
+        Font sFont = PdfStyles.font(Font.FontFamily.HELVETICA, 11, Font.BOLD, titleColor);
         Paragraph sectionTitle = new Paragraph(title, sFont);
         sectionTitle.setSpacingBefore(8);
         document.add(sectionTitle);
@@ -177,12 +246,12 @@ public class YearEndReportPdfService {
         table.setWidths(new float[]{75, 25});
         table.setSpacingBefore(4);
 
-        Font amtFont = new Font(Font.FontFamily.HELVETICA, 9, Font.BOLD, amountColor);
+        Font amtFont = PdfStyles.font(Font.FontFamily.HELVETICA, 9, Font.BOLD, amountColor);
 
         for (Map<String, Object> item : items) {
             PdfPCell labelCell = new PdfPCell(new Phrase(str(item, "label"), labelFont));
             labelCell.setBorder(Rectangle.BOTTOM);
-            labelCell.setBorderColor(new BaseColor(230, 230, 230));
+            labelCell.setBorderColor(PdfStyles.color(230, 230, 230));
             labelCell.setPaddingLeft(15);
             labelCell.setPaddingTop(5);
             labelCell.setPaddingBottom(5);
@@ -190,7 +259,7 @@ public class YearEndReportPdfService {
 
             PdfPCell amtCell = new PdfPCell(new Phrase(fmtAmount(item.get("amount")), amtFont));
             amtCell.setBorder(Rectangle.BOTTOM);
-            amtCell.setBorderColor(new BaseColor(230, 230, 230));
+            amtCell.setBorderColor(PdfStyles.color(230, 230, 230));
             amtCell.setHorizontalAlignment(Element.ALIGN_RIGHT);
             amtCell.setPaddingTop(5);
             amtCell.setPaddingBottom(5);
@@ -201,7 +270,7 @@ public class YearEndReportPdfService {
     }
 
     private void addSummarySection(Document document, Map<String, Object> summary) throws DocumentException {
-        Font sFont = new Font(Font.FontFamily.HELVETICA, 11, Font.BOLD, BLUE);
+        Font sFont = PdfStyles.font(Font.FontFamily.HELVETICA, 11, Font.BOLD, BLUE);
         Paragraph sectionTitle = new Paragraph("Summary", sFont);
         sectionTitle.setSpacingBefore(12);
         document.add(sectionTitle);
@@ -239,16 +308,16 @@ public class YearEndReportPdfService {
         wrapper.setWidthPercentage(100);
         PdfPCell wrapCell = new PdfPCell(box);
         wrapCell.setBackgroundColor(GRAY_BG);
-        wrapCell.setBorderColor(new BaseColor(229, 231, 235));
+        wrapCell.setBorderColor(PdfStyles.color(229, 231, 235));
         wrapCell.setPadding(10);
         wrapper.addCell(wrapCell);
         document.add(wrapper);
     }
 
     private void addSummaryRow(PdfPTable table, String label, Object amount, BaseColor amountColor, boolean bold) {
-        Font lFont = bold ? summaryLabelFont : new Font(Font.FontFamily.HELVETICA, 9, Font.NORMAL);
-        Font aFont = bold ? new Font(Font.FontFamily.HELVETICA, 12, Font.BOLD, amountColor)
-                         : new Font(Font.FontFamily.HELVETICA, 10, Font.BOLD, amountColor);
+        Font lFont = bold ? summaryLabelFont : PdfStyles.font(Font.FontFamily.HELVETICA, 9, Font.NORMAL);
+        Font aFont = bold ? PdfStyles.font(Font.FontFamily.HELVETICA, 12, Font.BOLD, amountColor)
+                         : PdfStyles.font(Font.FontFamily.HELVETICA, 10, Font.BOLD, amountColor);
 
         PdfPCell labelCell = new PdfPCell(new Phrase(label, lFont));
         labelCell.setBorder(bold ? Rectangle.TOP : Rectangle.NO_BORDER);
@@ -9,13 +9,16 @@ import com.taxi.domain.report.model.YearEndReportConfig;
 import com.taxi.domain.report.repository.YearEndReportConfigRepository;
 import com.taxi.domain.revenue.entity.RevenueCategory;
 import com.taxi.domain.revenue.repository.RevenueCategoryRepository;
+import com.taxi.domain.revenue.service.RevenueRollupService;
 import com.taxi.web.dto.report.DriverSummaryDTO;
 import com.taxi.web.dto.report.DriverSummaryReportDTO;
+import com.taxi.utils.TempPdf;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
@@ -34,6 +37,7 @@ public class YearEndReportService {
     private final DriverRepository driverRepository;
     private final YearEndReportPdfService pdfService;
     private final EmailService emailService;
+    private final RevenueRollupService revenueRollupService;
 
     // ========================
     // Config Management
@@ -133,6 +137,31 @@ public class YearEndReportService {
         return Map.of("added", added, "total", configRepository.count());
     }
 
+    /**
+     * Fleet-wide total of each REVENUE config item backed by a revenue category, for the config
+     * panel - one grouped query over the revenue rollup
+     */
+    public List<Map<String, Object>> categoryTotals(LocalDate startDate, LocalDate endDate) {
+        Map<String, RevenueRollupService.CategoryTotal> totals =
+                revenueRollupService.totals(null, startDate, endDate).fleet();
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (YearEndReportConfig config : getAllConfig()) {
+            if (!"REVENUE".equals(config.getSection()) || !config.getItemKey().startsWith("RC_")) {
+                continue;
+            }
+            RevenueRollupService.CategoryTotal total = totals.get(config.getItemKey());
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("id", config.getId());
+            item.put("itemKey", config.getItemKey());
+            item.put("itemLabel", config.getItemLabel());
+            item.put("isVisible", config.getIsVisible());
+            item.put("amount", total != null ? total.amount() : BigDecimal.ZERO);
+            item.put("count", total != null ? total.itemCount() : 0L);
+            result.add(item);
+        }
+        return result;
+    }
+
     // ========================
     // Report Generation
     // ========================
@@ -143,23 +172,6 @@ public class YearEndReportService {
     public Map<String, Object> generateReport(String driverNumber, LocalDate startDate, LocalDate endDate) {
         log.info("Generating report for driver {} from {} to {}", driverNumber, startDate, endDate);
 
-        // Get visible config items
-        List<YearEndReportConfig> visibleConfig = getVisibleConfig();
-        Set<String> visibleRevKeys = visibleConfig.stream()
-                .filter(c -> "REVENUE".equals(c.getSection()))
-                .map(YearEndReportConfig::getItemKey)
-                .collect(Collectors.toSet());
-        Set<String> visibleExpKeys = visibleConfig.stream()
-                .filter(c -> "EXPENSE".equals(c.getSection()))
-                .map(YearEndReportConfig::getItemKey)
-                .collect(Collectors.toSet());
-        Set<String> visibleSummaryKeys = visibleConfig.stream()
-                .filter(c -> "SUMMARY".equals(c.getSection()))
-                .map(YearEndReportConfig::getItemKey)
-                .collect(Collectors.toSet());
-        boolean showTax = visibleConfig.stream().anyMatch(c -> "TAX".equals(c.getSection()) && c.getIsVisible());
-        boolean showCommission = visibleConfig.stream().anyMatch(c -> "COMMISSION".equals(c.getSection()) && c.getIsVisible());
-
         // Generate report for this single driver only (not all drivers)
         DriverSummaryDTO driverSummary = reportService.generateSingleDriverSummary(driverNumber, startDate, endDate);
 
@@ -168,8 +180,13 @@ public class YearEndReportService {
                     "driverNumber", driverNumber, "startDate", startDate.toString(), "endDate", endDate.toString());
         }
 
-        return buildReportResponse(driverSummary, startDate, endDate, visibleRevKeys, visibleExpKeys,
-                visibleSummaryKeys, showTax, showCommission, visibleConfig);
+        ReportView view = reportView(driverSummary.getDriverId() != null
+                ? List.of(driverSummary.getDriverId()) : List.of(), startDate, endDate);
+
+        String gstNumber = driverRepository.findByDriverNumber(driverNumber)
+                .map(Driver::getGstNumber)
+                .orElse(null);
+        return buildReportResponse(driverSummary, gstNumber, startDate, endDate, view);
     }
 
     /**
@@ -178,27 +195,18 @@ public class YearEndReportService {
     public Map<String, Object> generateAllReports(LocalDate startDate, LocalDate endDate) {
         log.info("Generating reports for all drivers from {} to {}", startDate, endDate);
 
-        List<YearEndReportConfig> visibleConfig = getVisibleConfig();
-        Set<String> visibleRevKeys = visibleConfig.stream()
-                .filter(c -> "REVENUE".equals(c.getSection()))
-                .map(YearEndReportConfig::getItemKey)
-                .collect(Collectors.toSet());
-        Set<String> visibleExpKeys = visibleConfig.stream()
-                .filter(c -> "EXPENSE".equals(c.getSection()))
-                .map(YearEndReportConfig::getItemKey)
-                .collect(Collectors.toSet());
-        Set<String> visibleSummaryKeys = visibleConfig.stream()
-                .filter(c -> "SUMMARY".equals(c.getSection()))
-                .map(YearEndReportConfig::getItemKey)
-                .collect(Collectors.toSet());
-        boolean showTax = visibleConfig.stream().anyMatch(c -> "TAX".equals(c.getSection()) && c.getIsVisible());
-        boolean showCommission = visibleConfig.stream().anyMatch(c -> "COMMISSION".equals(c.getSection()) && c.getIsVisible());
+        // Revenue category totals of every driver in one query
+        ReportView view = reportView(null, startDate, endDate);
 
         DriverSummaryReportDTO fullReport = reportService.generateDriverSummaryReport(startDate, endDate);
 
+        // GST numbers for every driver in the report in one query
+        Map<String, String> gstNumbers = gstNumbers(fullReport.getDriverSummaries().stream()
+                .map(DriverSummaryDTO::getDriverNumber)
+                .collect(Collectors.toSet()));
+
         List<Map<String, Object>> reports = fullReport.getDriverSummaries().stream()
-                .map(ds -> buildReportResponse(ds, startDate, endDate, visibleRevKeys, visibleExpKeys,
-                        visibleSummaryKeys, showTax, showCommission, visibleConfig))
+                .map(ds -> buildReportResponse(ds, gstNumbers.get(ds.getDriverNumber()), startDate, endDate, view))
                 .collect(Collectors.toList());
 
         Map<String, Object> result = new LinkedHashMap<>();
@@ -209,13 +217,76 @@ public class YearEndReportService {
         return result;
     }
 
+    /**
+     * Visible config items, split by section, and the revenue category totals of the period -
+     * read once per report run
+     */
+    record ReportView(Set<String> visibleRevKeys, Set<String> visibleExpKeys, Set<String> visibleSummaryKeys,
+                      boolean showTax, boolean showCommission,
+                      Map<String, String> revenueCategoryLabels, RevenueRollupService.RevenueTotals revenueTotals) {}
+
+    /**
+     * Report view for the period; category totals are loaded for the given persons, or for
+     * everyone when personIds is null
+     */
+    ReportView reportView(Collection<Long> personIds, LocalDate startDate, LocalDate endDate) {
+        List<YearEndReportConfig> visibleConfig = getVisibleConfig();
+
+        // Visible RC_ items in display order
+        Map<String, String> revenueCategoryLabels = new LinkedHashMap<>();
+        for (YearEndReportConfig config : visibleConfig) {
+            if ("REVENUE".equals(config.getSection()) && config.getItemKey().startsWith("RC_")) {
+                revenueCategoryLabels.put(config.getItemKey(), config.getItemLabel());
+            }
+        }
+        RevenueRollupService.RevenueTotals revenueTotals = null;
+        if (!revenueCategoryLabels.isEmpty() && (personIds == null || !personIds.isEmpty())) {
+            revenueTotals = revenueRollupService.totals(personIds, startDate, endDate);
+        }
+
+        return new ReportView(
+                keysOf(visibleConfig, "REVENUE"),
+                keysOf(visibleConfig, "EXPENSE"),
+                keysOf(visibleConfig, "SUMMARY"),
+                visibleConfig.stream().anyMatch(c -> "TAX".equals(c.getSection()) && c.getIsVisible()),
+                visibleConfig.stream().anyMatch(c -> "COMMISSION".equals(c.getSection()) && c.getIsVisible()),
+                revenueCategoryLabels,
+                revenueTotals);
+    }
+
+    private static Set<String> keysOf(List<YearEndReportConfig> config, String section) {
+        return config.stream()
+                .filter(c -> section.equals(c.getSection()))
+                .map(YearEndReportConfig::getItemKey)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Driver number -> GST number, for drivers that have one
+     */
+    Map<String, String> gstNumbers(Collection<String> driverNumbers) {
+        if (driverNumbers.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, String> gstNumbers = new HashMap<>();
+        for (Driver driver : driverRepository.findByDriverNumberIn(driverNumbers)) {
+            if (driver.getGstNumber() != null && !driver.getGstNumber().isBlank()) {
+                gstNumbers.put(driver.getDriverNumber(), driver.getGstNumber());
+            }
+        }
+        return gstNumbers;
+    }
+
     /**
      * Build the filtered report response for a single driver.
      */
-    private Map<String, Object> buildReportResponse(DriverSummaryDTO ds, LocalDate startDate, LocalDate endDate,
-            Set<String> visibleRevKeys, Set<String> visibleExpKeys,
-            Set<String> visibleSummaryKeys, boolean showTax, boolean showCommission,
-            List<YearEndReportConfig> visibleConfig) {
+    Map<String, Object> buildReportResponse(DriverSummaryDTO ds, String gstNumber,
+                                            LocalDate startDate, LocalDate endDate, ReportView view) {
+        Set<String> visibleRevKeys = view.visibleRevKeys();
+        Set<String> visibleExpKeys = view.visibleExpKeys();
+        Set<String> visibleSummaryKeys = view.visibleSummaryKeys();
+        boolean showTax = view.showTax();
+        boolean showCommission = view.showCommission();
 
         Map<String, Object> report = new LinkedHashMap<>();
 
@@ -227,11 +298,9 @@ public class YearEndReportService {
         report.put("endDate", endDate.toString());
 
         // GST number
-        driverRepository.findByDriverNumber(ds.getDriverNumber()).ifPresent(driver -> {
-            if (driver.getGstNumber() != null && !driver.getGstNumber().isBlank()) {
-                report.put("gstNumber", driver.getGstNumber());
-            }
-        });
+        if (gstNumber != null && !gstNumber.isBlank()) {
+            report.put("gstNumber", gstNumber);
+        }
 
         // Revenue section - filter by visible keys
         List<Map<String, Object>> revenues = new ArrayList<>();
@@ -266,6 +335,18 @@ public class YearEndReportService {
             }
         }
 
+        // Revenue category items (RC_ config keys) from the revenue rollup - part of Other Revenue, not added again
+        if (view.revenueTotals() != null && ds.getDriverId() != null) {
+            Map<String, RevenueRollupService.CategoryTotal> categoryTotals =
+                    view.revenueTotals().forPerson(ds.getDriverId(), Boolean.TRUE.equals(ds.getIsOwner()));
+            for (Map.Entry<String, String> category : view.revenueCategoryLabels().entrySet()) {
+                RevenueRollupService.CategoryTotal total = categoryTotals.get(category.getKey());
+                if (total != null && total.amount().compareTo(BigDecimal.ZERO) != 0) {
+                    revenues.add(subLineItem(category.getValue(), total.amount()));
+                }
+            }
+        }
+
         report.put("revenues", revenues);
 
         // Expense section
@@ -388,6 +469,13 @@ public class YearEndReportService {
         return pdfService.generatePdf(reportData);
     }
 
+    /**
+     * Write already-generated report data as PDF onto the stream (left open).
+     */
+    public void writePdf(Map<String, Object> reportData, OutputStream out) {
+        pdfService.writePdf(reportData, out);
+    }
+
     /**
      * Convert already-generated all-driver report data to PDF.
      */
@@ -395,6 +483,13 @@ public class YearEndReportService {
         return pdfService.generateAllPdf(allReportsData);
     }
 
+    /**
+     * Write already-generated all-driver report data as PDF onto the stream (left open).
+     */
+    public void writeAllPdf(Map<String, Object> allReportsData, OutputStream out) {
+        pdfService.writeAllPdf(allReportsData, out);
+    }
+
     // ========================
     // Email (from already-generated data)
     // ========================
@@ -417,13 +512,13 @@ public class YearEndReportService {
             toEmail = driver.getEmail();
         }
 
-        byte[] pdf = pdfService.generatePdf(reportData);
-
         String startDate = reportData.getOrDefault("startDate", "").toString();
         String endDate = reportData.getOrDefault("endDate", "").toString();
         String summary = buildEmailSummary(reportData, startDate, endDate);
 
-        emailService.sendDriverReport(toEmail, driverName, summary, pdf);
+        try (TempPdf pdf = TempPdf.write(out -> pdfService.writePdf(reportData, out))) {
+            emailService.sendDriverReport(toEmail, driverName, summary, pdf.file());
+        }
         log.info("Emailed report for {} to {}", driverNumber, toEmail);
         return toEmail;
     }
@@ -9,6 +9,7 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -28,6 +29,12 @@ public interface RevenueRepository extends JpaRepository<Revenue, Long> {
     @Query("SELECT r FROM Revenue r WHERE r.shiftLog.id = :shiftLogId ORDER BY r.timestamp")
     List<Revenue> findByShiftLogId(@Param("shiftLogId") Long shiftLogId);
 
+    /**
+     * Find all revenues of the given shift logs in one query, grouped by shift log
+     */
+    @Query("SELECT r FROM Revenue r WHERE r.shiftLog.id IN :shiftLogIds ORDER BY r.shiftLog.id, r.id")
+    List<Revenue> findByShiftLogIdIn(@Param("shiftLogIds") Collection<Long> shiftLogIds);
+
     /**
      * Find revenues by type for a shift log
      */
@@ -20,7 +20,9 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -33,6 +35,7 @@ public class OtherRevenueService {
     private final CabRepository cabRepository;
     private final DriverRepository driverRepository;
     private final CabShiftRepository cabShiftRepository;
+    private final RevenueRollupService revenueRollupService;
     
     // Create revenue
     @Transactional
@@ -42,6 +45,7 @@ public class OtherRevenueService {
         validateRevenue(revenue);
         setEntityReferences(revenue);
         OtherRevenue saved = revenueRepository.save(revenue);
+        revenueRollupService.refresh(List.of(saved.getRevenueDate()));
         log.info("Created other revenue with id: {}", saved.getId());
         return OtherRevenueDTO.fromEntity(saved);
     }
@@ -51,12 +55,18 @@ public class OtherRevenueService {
     public OtherRevenueDTO updateRevenue(Long id, OtherRevenueRequest request) {
         OtherRevenue existing = revenueRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Revenue not found with id: " + id));
+        LocalDate previousDate = existing.getRevenueDate();
         
         mapRequestToEntity(request, existing);
         validateRevenue(existing);
         setEntityReferences(existing);
         
         OtherRevenue saved = revenueRepository.save(existing);
+        // Both months, in case the revenue moved
+        List<LocalDate> months = new ArrayList<>();
+        months.add(previousDate);
+        months.add(saved.getRevenueDate());
+        revenueRollupService.refresh(months);
         log.info("Updated other revenue with id: {}", saved.getId());
         return OtherRevenueDTO.fromEntity(saved);
     }
@@ -287,6 +297,22 @@ public class OtherRevenueService {
         return total != null ? total : BigDecimal.ZERO;
     }
     
+    // Get revenue totals per category (RC_<category id>, OTHER:<type> or SHIFT:<type>) from the revenue rollup;
+    // for one driver/owner (including revenue applied to everyone) or, without personId, across the fleet
+    @Transactional(readOnly = true)
+    public Map<String, RevenueRollupService.CategoryTotal> getCategoryTotals(
+            Long personId,
+            LocalDate startDate,
+            LocalDate endDate) {
+        if (personId == null) {
+            return revenueRollupService.totals(null, startDate, endDate).fleet();
+        }
+        boolean owner = driverRepository.findById(personId)
+            .map(driver -> Boolean.TRUE.equals(driver.getIsOwner()))
+            .orElse(false);
+        return revenueRollupService.totals(personId, owner, startDate, endDate);
+    }
+    
     // Get total revenue by entity
     @Transactional(readOnly = true)
     public BigDecimal getTotalRevenueByEntity(
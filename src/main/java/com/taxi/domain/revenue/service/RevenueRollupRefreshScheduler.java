@@ -0,0 +1,52 @@
+package com.taxi.domain.revenue.service;
+
+import com.taxi.infrastructure.multitenancy.TenantContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Rebuilds the revenue rollup months marked by writes, so category totals read the rollup
+ * instead of the revenue rows for those months.
+ *
+ * Configuration:
+ * - report.revenue-rollup.refresh.enabled=true/false
+ * - report.revenue-rollup.refresh.interval-ms=60000 (delay between runs)
+ * - report.revenue-rollup.refresh.tenants=maclures (comma-separated)
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "report.revenue-rollup.refresh.enabled", havingValue = "true", matchIfMissing = true)
+public class RevenueRollupRefreshScheduler {
+
+    private final RevenueRollupService revenueRollupService;
+
+    @Value("${report.revenue-rollup.refresh.tenants:maclures}")
+    private List<String> tenants;
+
+    @Scheduled(
+        fixedDelayString = "${report.revenue-rollup.refresh.interval-ms:60000}",
+        initialDelayString = "${report.revenue-rollup.refresh.initial-delay-ms:60000}"
+    )
+    public void rebuildMarkedMonths() {
+        for (String tenant : tenants) {
+            try {
+                TenantContext.setCurrentTenant(tenant.trim());
+                int drained = revenueRollupService.drainMarks();
+                if (drained > 0) {
+                    log.debug("Rebuilt {} marked revenue rollup months for tenant {}", drained, tenant);
+                }
+            } catch (Exception e) {
+                log.error("Revenue rollup refresh failed for tenant {}: {}", tenant, e.getMessage(), e);
+            } finally {
+                TenantContext.clear();
+            }
+        }
+    }
+}
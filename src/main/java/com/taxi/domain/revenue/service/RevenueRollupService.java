@@ -0,0 +1,434 @@
+package com.taxi.domain.revenue.service;
+
+import com.taxi.domain.revenue.entity.OtherRevenue;
+import com.taxi.domain.revenue.model.Revenue;
+import com.taxi.domain.shift.model.DriverSegment;
+import com.taxi.domain.shift.model.ShiftLog;
+import com.taxi.infrastructure.datachange.EntityChangeObserver.ChangeType;
+import com.taxi.infrastructure.datachange.TransactionalChangeObserver;
+import com.taxi.infrastructure.multitenancy.TenantTimeZones;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Revenue totals per person, category and month (revenue_category_rollup), so category totals of
+ * any period are one grouped query instead of loading every revenue row.
+ *
+ * Rows cover what the owner report counts for a person:
+ * - Shift revenue: the shift log's owner (OWNER) and each driver with a segment on it (DRIVER),
+ *   category SHIFT:&lt;revenue type&gt;
+ * - Other revenue for a specific person (PERSON), or for everyone (ALL, person 0),
+ *   category RC_&lt;revenue category id&gt; - the year-end config keys - or OTHER:&lt;revenue type&gt;
+ *
+ * A month is rebuilt with one DELETE and one INSERT ... SELECT ... GROUP BY. OtherRevenueService
+ * rebuilds the months it writes in its own transaction; other JPA writes to revenue, shift logs,
+ * segments and other revenue mark their months (and, when a date moves, the previous month) in
+ * revenue_rollup_dirty in the writing transaction, and RevenueRollupRefreshScheduler rebuilds them
+ * in the background.
+ *
+ * Period totals are read-only: whole months come from the rollup, while the partial months at
+ * either end and any month still marked come straight from the revenue rows.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RevenueRollupService implements TransactionalChangeObserver<LocalDate> {
+
+    /**
+     * person_id of revenue applied to everyone (ALL_DRIVERS, ALL_OWNERS, ALL_ACTIVE_SHIFTS)
+     */
+    public static final long EVERYONE = 0L;
+
+    public static final String OWNER = "OWNER";
+    public static final String DRIVER = "DRIVER";
+    public static final String PERSON = "PERSON";
+    public static final String ALL = "ALL";
+
+    // Revenue dated in [:from, :to) as (person_id, attribution, category_key, month, amount)
+    private static final String ITEMS_SQL =
+            "SELECT sl.owner_id AS person_id, 'OWNER' AS attribution, " +
+            "CONCAT('SHIFT:', r.revenue_type) AS category_key, " +
+            "DATE_FORMAT(sl.log_date, '%Y-%m-01') AS month, r.amount AS amount " +
+            "FROM revenue r JOIN shift_log sl ON sl.id = r.shift_log_id " +
+            "WHERE sl.log_date >= :from AND sl.log_date < :to " +
+            "UNION ALL " +
+            "SELECT d.driver_id, 'DRIVER', CONCAT('SHIFT:', r.revenue_type), " +
+            "DATE_FORMAT(sl.log_date, '%Y-%m-01'), r.amount " +
+            "FROM revenue r JOIN shift_log sl ON sl.id = r.shift_log_id " +
+            "JOIN (SELECT DISTINCT shift_log_id, driver_id FROM driver_segment) d ON d.shift_log_id = sl.id " +
+            "WHERE sl.log_date >= :from AND sl.log_date < :to " +
+            "UNION ALL " +
+            // Same applicability as OtherRevenueRepository.findApplicableRevenuesBetween
+            "SELECT CASE WHEN o.application_type = 'SPECIFIC_PERSON' THEN o.specific_person_id ELSE 0 END, " +
+            "CASE WHEN o.application_type = 'SPECIFIC_PERSON' THEN 'PERSON' ELSE 'ALL' END, " +
+            "CASE WHEN o.revenue_category_id IS NOT NULL THEN CONCAT('RC_', o.revenue_category_id) " +
+            "ELSE CONCAT('OTHER:', o.revenue_type) END, " +
+            "DATE_FORMAT(o.revenue_date, '%Y-%m-01'), o.amount " +
+            "FROM other_revenue o " +
+            "WHERE o.revenue_date >= :from AND o.revenue_date < :to " +
+            "AND ((o.application_type = 'SPECIFIC_PERSON' AND o.specific_person_id IS NOT NULL) " +
+            "OR o.application_type IN ('ALL_DRIVERS', 'ALL_OWNERS', 'ALL_ACTIVE_SHIFTS'))";
+
+    private static final String DELETE_SQL =
+            "DELETE FROM revenue_category_rollup WHERE month >= :from AND month < :to";
+
+    private static final String INSERT_SQL = "INSERT INTO revenue_category_rollup " +
+            "(person_id, attribution, category_key, month, amount, item_count, updated_at) " +
+            "SELECT x.person_id, x.attribution, x.category_key, x.month, SUM(x.amount), COUNT(*), :now " +
+            "FROM (" + ITEMS_SQL + ") x " +
+            "GROUP BY x.person_id, x.attribution, x.category_key, x.month";
+
+    // PERSON_FILTER narrows the persons (empty for everyone); not String.format, ITEMS_SQL has % in it
+    private static final String PERSON_FILTER = "{personFilter}";
+
+    private static final String ROLLUP_TOTALS_SQL = "SELECT person_id, attribution, category_key, " +
+            "SUM(amount), SUM(item_count) FROM revenue_category_rollup " +
+            "WHERE month >= :from AND month < :to " + PERSON_FILTER + " " +
+            "GROUP BY person_id, attribution, category_key";
+
+    private static final String LIVE_TOTALS_SQL = "SELECT x.person_id, x.attribution, x.category_key, " +
+            "SUM(x.amount), COUNT(*) FROM (" + ITEMS_SQL + ") x " +
+            "WHERE 1 = 1 " + PERSON_FILTER + " " +
+            "GROUP BY x.person_id, x.attribution, x.category_key";
+
+    private static final LocalDate EARLIEST = LocalDate.of(1900, 1, 1);
+    private static final LocalDate LATEST = LocalDate.of(9999, 1, 1);
+
+    // Marks every month (a change without a date); the earliest date MySQL stores
+    private static final LocalDate ALL_MONTHS = LocalDate.of(1000, 1, 1);
+
+    private static final String MARK_SQL =
+            "INSERT IGNORE INTO revenue_rollup_dirty (month, marked_at) VALUES (:month, :now)";
+    private static final String PEEK_SQL = "SELECT month FROM revenue_rollup_dirty LIMIT 1";
+    private static final String MARKED_SQL = "SELECT month FROM revenue_rollup_dirty";
+    private static final String LOCK_SQL = "SELECT month FROM revenue_rollup_dirty FOR UPDATE";
+    private static final String CLEAR_SQL = "DELETE FROM revenue_rollup_dirty WHERE month IN (:months)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TenantTimeZones timeZones;
+
+    /**
+     * Total of one category
+     */
+    public record CategoryTotal(String categoryKey, BigDecimal amount, long itemCount) {
+
+        CategoryTotal plus(BigDecimal otherAmount, long otherCount) {
+            return new CategoryTotal(categoryKey, amount.add(otherAmount), itemCount + otherCount);
+        }
+    }
+
+    /**
+     * One grouped row: a person's total of a category under one attribution
+     */
+    public record Row(long personId, String attribution, String categoryKey, BigDecimal amount, long itemCount) {}
+
+    /**
+     * Category totals of a period, read once for any number of persons
+     */
+    public static final class RevenueTotals {
+
+        private final Map<Long, List<Row>> rowsByPerson = new HashMap<>();
+
+        RevenueTotals(Collection<Row> rows) {
+            for (Row row : rows) {
+                rowsByPerson.computeIfAbsent(row.personId(), k -> new ArrayList<>()).add(row);
+            }
+        }
+
+        /**
+         * Categories of one person, as the owner report counts them: shift revenue as owner or as
+         * driver, plus other revenue for the person and for everyone
+         */
+        public Map<String, CategoryTotal> forPerson(Long personId, boolean owner) {
+            Map<String, CategoryTotal> totals = new LinkedHashMap<>();
+            String shiftAttribution = owner ? OWNER : DRIVER;
+            for (Row row : rowsByPerson.getOrDefault(personId, List.of())) {
+                if (PERSON.equals(row.attribution()) || shiftAttribution.equals(row.attribution())) {
+                    add(totals, row);
+                }
+            }
+            for (Row row : rowsByPerson.getOrDefault(EVERYONE, List.of())) {
+                add(totals, row);
+            }
+            return totals;
+        }
+
+        /**
+         * Categories across the fleet: each shift revenue once (by owner) and each other revenue once
+         */
+        public Map<String, CategoryTotal> fleet() {
+            Map<String, CategoryTotal> totals = new LinkedHashMap<>();
+            for (List<Row> rows : rowsByPerson.values()) {
+                for (Row row : rows) {
+                    if (!DRIVER.equals(row.attribution())) {
+                        add(totals, row);
+                    }
+                }
+            }
+            return totals;
+        }
+
+        private static void add(Map<String, CategoryTotal> totals, Row row) {
+            totals.merge(row.categoryKey(),
+                    new CategoryTotal(row.categoryKey(), row.amount(), row.itemCount()),
+                    (a, b) -> a.plus(b.amount(), b.itemCount()));
+        }
+    }
+
+    @Override
+    public Collection<LocalDate> keysFor(Object entity, ChangeType changeType, PreviousState previous) {
+        Set<LocalDate> months = new HashSet<>();
+        if (entity instanceof OtherRevenue r) {
+            markMonth(months, r.getRevenueDate());
+            if (previous.isKnown()) {
+                markMonth(months, (LocalDate) previous.get("revenueDate"));
+            }
+        } else if (entity instanceof Revenue r) {
+            markRevenue(months, r.getShiftLog(), r.getTimestamp());
+            if (previous.isKnown()) {
+                markRevenue(months, (ShiftLog) previous.get("shiftLog"), (LocalDateTime) previous.get("timestamp"));
+            }
+        } else if (entity instanceof ShiftLog s) {
+            // Owner or date of the shift's revenue
+            markMonth(months, s.getLogDate());
+            if (previous.isKnown()) {
+                markMonth(months, (LocalDate) previous.get("logDate"));
+            }
+        } else if (entity instanceof DriverSegment s) {
+            // Drivers the shift's revenue is attributed to
+            markAround(months, s.getStartTime());
+            if (previous.isKnown()) {
+                markAround(months, (LocalDateTime) previous.get("startTime"));
+            }
+        }
+        return months;
+    }
+
+    /**
+     * Mark the transaction's months for the next drain, in the transaction
+     */
+    @Override
+    public void beforeCommit(Set<LocalDate> months) {
+        LocalDateTime now = LocalDateTime.now();
+        for (LocalDate month : months.contains(ALL_MONTHS) ? Set.of(ALL_MONTHS) : months) {
+            entityManager.createNativeQuery(MARK_SQL)
+                    .setParameter("month", month)
+                    .setParameter("now", now)
+                    .executeUpdate();
+        }
+    }
+
+    /**
+     * Rebuild the months containing the given dates. Joins the caller's transaction; pending JPA
+     * changes are flushed first so the rows see them.
+     */
+    @Transactional
+    public void refresh(Collection<LocalDate> dates) {
+        Set<LocalDate> months = new TreeSet<>();
+        for (LocalDate date : dates) {
+            if (date != null) {
+                months.add(date.withDayOfMonth(1));
+            }
+        }
+        if (months.isEmpty()) {
+            return;
+        }
+        entityManager.flush();
+        for (LocalDate month : months) {
+            rebuild(month, month.plusMonths(1));
+        }
+        log.debug("Rebuilt revenue rollup of {} months", months.size());
+    }
+
+    /**
+     * Rebuild every month
+     */
+    @Transactional
+    public void refreshAll() {
+        long start = System.currentTimeMillis();
+        entityManager.flush();
+        rebuild(EARLIEST, LATEST);
+        log.info("Rebuilt revenue rollup in {} ms", System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Category totals of the period [from, to] for the given persons (revenue applied to everyone
+     * included), or for everyone when personIds is null - grouped queries over the rollup for the
+     * whole months, and over the revenue rows for the partial months at either end and for the
+     * months marked but not rebuilt yet
+     */
+    @Transactional(readOnly = true)
+    public RevenueTotals totals(Collection<Long> personIds, LocalDate from, LocalDate to) {
+        Collection<Long> persons = null;
+        if (personIds != null) {
+            Set<Long> ids = new TreeSet<>(personIds);
+            ids.add(EVERYONE);
+            persons = ids;
+        }
+
+        LocalDate end = to.plusDays(1);
+        LocalDate wholeFrom = from.getDayOfMonth() == 1 ? from : from.withDayOfMonth(1).plusMonths(1);
+        LocalDate wholeTo = end.withDayOfMonth(1);
+
+        Map<String, Row> rows = new LinkedHashMap<>();
+        Set<LocalDate> marked = wholeFrom.isBefore(wholeTo) ? markedMonths() : Set.of();
+        if (marked.contains(ALL_MONTHS)) {
+            merge(rows, query(LIVE_TOTALS_SQL, "AND x.person_id IN (:personIds)", persons, from, end));
+        } else if (wholeFrom.isBefore(wholeTo)) {
+            // Runs of unmarked months from the rollup, runs of marked months from the revenue rows
+            LocalDate runFrom = wholeFrom;
+            while (runFrom.isBefore(wholeTo)) {
+                boolean live = marked.contains(runFrom);
+                LocalDate runTo = runFrom.plusMonths(1);
+                while (runTo.isBefore(wholeTo) && marked.contains(runTo) == live) {
+                    runTo = runTo.plusMonths(1);
+                }
+                merge(rows, live
+                        ? query(LIVE_TOTALS_SQL, "AND x.person_id IN (:personIds)", persons, runFrom, runTo)
+                        : query(ROLLUP_TOTALS_SQL, "AND person_id IN (:personIds)", persons, runFrom, runTo));
+                runFrom = runTo;
+            }
+            if (from.isBefore(wholeFrom)) {
+                merge(rows, query(LIVE_TOTALS_SQL, "AND x.person_id IN (:personIds)", persons, from, wholeFrom));
+            }
+            if (wholeTo.isBefore(end)) {
+                merge(rows, query(LIVE_TOTALS_SQL, "AND x.person_id IN (:personIds)", persons, wholeTo, end));
+            }
+        } else {
+            merge(rows, query(LIVE_TOTALS_SQL, "AND x.person_id IN (:personIds)", persons, from, end));
+        }
+        return new RevenueTotals(rows.values());
+    }
+
+    /**
+     * Category totals of one person for the period [from, to]
+     */
+    @Transactional(readOnly = true)
+    public Map<String, CategoryTotal> totals(Long personId, boolean owner, LocalDate from, LocalDate to) {
+        return totals(List.of(personId), from, to).forPerson(personId, owner);
+    }
+
+    /**
+     * Rebuild the marked months and delete their marks. The marks are locked until this
+     * transaction ends, so a month marked meanwhile is rebuilt by the next drain.
+     *
+     * @return number of marks drained
+     */
+    @Transactional
+    public int drainMarks() {
+        if (entityManager.createNativeQuery(PEEK_SQL).getResultList().isEmpty()) {
+            return 0;
+        }
+        List<LocalDate> months = new ArrayList<>();
+        for (Object month : entityManager.createNativeQuery(LOCK_SQL).getResultList()) {
+            months.add(toLocalDate(month));
+        }
+        if (months.isEmpty()) {
+            return 0;
+        }
+        if (months.contains(ALL_MONTHS)) {
+            refreshAll();
+        } else {
+            refresh(months);
+        }
+        entityManager.createNativeQuery(CLEAR_SQL)
+                .setParameter("months", months)
+                .executeUpdate();
+        return months.size();
+    }
+
+    private Set<LocalDate> markedMonths() {
+        Set<LocalDate> months = new HashSet<>();
+        for (Object month : entityManager.createNativeQuery(MARKED_SQL).getResultList()) {
+            months.add(toLocalDate(month));
+        }
+        return months;
+    }
+
+    private void rebuild(LocalDate from, LocalDate to) {
+        entityManager.createNativeQuery(DELETE_SQL)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .executeUpdate();
+        entityManager.createNativeQuery(INSERT_SQL)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .setParameter("now", LocalDateTime.now())
+                .executeUpdate();
+    }
+
+    private List<Row> query(String sql, String personFilter, Collection<Long> personIds, LocalDate from, LocalDate to) {
+        Query query = entityManager.createNativeQuery(sql.replace(PERSON_FILTER, personIds != null ? personFilter : ""))
+                .setParameter("from", from)
+                .setParameter("to", to);
+        if (personIds != null) {
+            query.setParameter("personIds", personIds);
+        }
+        @SuppressWarnings("unchecked")
+        List<Object[]> result = query.getResultList();
+        List<Row> rows = new ArrayList<>(result.size());
+        for (Object[] r : result) {
+            rows.add(new Row(((Number) r[0]).longValue(), (String) r[1], (String) r[2],
+                    r[3] != null ? (BigDecimal) r[3] : BigDecimal.ZERO, ((Number) r[4]).longValue()));
+        }
+        return rows;
+    }
+
+    private static void merge(Map<String, Row> rows, List<Row> more) {
+        for (Row row : more) {
+            rows.merge(row.personId() + "|" + row.attribution() + "|" + row.categoryKey(), row,
+                    (a, b) -> new Row(a.personId(), a.attribution(), a.categoryKey(),
+                            a.amount().add(b.amount()), a.itemCount() + b.itemCount()));
+        }
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        return value instanceof Date d ? d.toLocalDate() : (LocalDate) value;
+    }
+
+    private static void markMonth(Set<LocalDate> months, LocalDate date) {
+        months.add(date != null ? date.withDayOfMonth(1) : ALL_MONTHS);
+    }
+
+    private void markRevenue(Set<LocalDate> months, ShiftLog shiftLog, LocalDateTime timestamp) {
+        if (shiftLog != null && Hibernate.isInitialized(shiftLog) && shiftLog.getLogDate() != null) {
+            markMonth(months, shiftLog.getLogDate());
+        } else {
+            markAround(months, timestamp);
+        }
+    }
+
+    /**
+     * Shift timestamps are UTC; cover both the UTC and the tenant's local date
+     */
+    private void markAround(Set<LocalDate> months, LocalDateTime time) {
+        if (time == null) {
+            markMonth(months, null);
+            return;
+        }
+        markMonth(months, timeZones.localDate(time));
+        markMonth(months, time.toLocalDate());
+    }
+}
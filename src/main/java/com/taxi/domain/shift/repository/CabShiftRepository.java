@@ -9,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -107,4 +108,10 @@ public interface CabShiftRepository extends JpaRepository<CabShift, Long> {
      */
     @Query("SELECT cs FROM CabShift cs WHERE cs.cab.cabNumber = :cabNumber")
     List<CabShift> findByCabNumber(@Param("cabNumber") String cabNumber);
+
+    /**
+     * Find all shifts of the given cabs, with the cab fetched
+     */
+    @Query("SELECT cs FROM CabShift cs JOIN FETCH cs.cab c WHERE c.cabNumber IN :cabNumbers")
+    List<CabShift> findByCabNumberIn(@Param("cabNumbers") Collection<String> cabNumbers);
 }
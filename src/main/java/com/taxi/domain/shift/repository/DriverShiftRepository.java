@@ -8,6 +8,7 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -181,4 +182,16 @@ public interface DriverShiftRepository extends JpaRepository<DriverShift, Long>
         @Param("startDateTime") LocalDateTime startDateTime,
         @Param("endDateTime") LocalDateTime endDateTime
     );
-}
\ No newline at end of file
+
+    /**
+     * Find shifts for multiple cabs in date range (bulk lease revenue)
+     */
+    @Query("SELECT ds FROM DriverShift ds WHERE ds.cabNumber IN :cabNumbers " +
+           "AND ds.logonTime BETWEEN :startDateTime AND :endDateTime " +
+           "ORDER BY ds.cabNumber, ds.logonTime ASC")
+    List<DriverShift> findByCabNumberInAndLogonTimeBetween(
+        @Param("cabNumbers") Collection<String> cabNumbers,
+        @Param("startDateTime") LocalDateTime startDateTime,
+        @Param("endDateTime") LocalDateTime endDateTime
+    );
+}
@@ -9,6 +9,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -97,4 +98,18 @@ public interface ShiftOwnershipRepository extends JpaRepository<ShiftOwnership,
         @Param("startDate") LocalDate startDate,
         @Param("endDate") LocalDate endDate
     );
+
+    /**
+     * Ownerships of several shifts overlapping a date range, owners fetched
+     */
+    @Query("SELECT so FROM ShiftOwnership so JOIN FETCH so.owner " +
+           "WHERE so.shift.id IN :shiftIds " +
+           "AND so.startDate <= :endDate " +
+           "AND (so.endDate IS NULL OR so.endDate >= :startDate) " +
+           "ORDER BY so.startDate DESC")
+    List<ShiftOwnership> findOwnershipsOfShiftsInRange(
+        @Param("shiftIds") Collection<Long> shiftIds,
+        @Param("startDate") LocalDate startDate,
+        @Param("endDate") LocalDate endDate
+    );
 }
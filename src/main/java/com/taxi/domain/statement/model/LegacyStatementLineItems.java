@@ -0,0 +1,25 @@
+package com.taxi.domain.statement.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Read-only view of the line item JSON that statements finalized before statement_line_items
+ * existed still carry in statements.line_items_json. Only read when a statement has no
+ * StatementLineItemData row.
+ */
+@Entity
+@Immutable
+@Table(name = "statements")
+@Getter
+@NoArgsConstructor
+public class LegacyStatementLineItems {
+
+    @Id
+    private Long id;
+
+    @Column(name = "line_items_json", columnDefinition = "LONGTEXT")
+    private String lineItemsJson;
+}
@@ -11,7 +11,8 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "statements")
+@Table(name = "statements", uniqueConstraints = @UniqueConstraint(name = "uk_statements_person_period",
+        columnNames = {"person_id", "period_from", "period_to"}))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -40,8 +41,10 @@ public class Statement {
     @Enumerated(EnumType.STRING)
     private StatementStatus status;         // DRAFT, FINALIZED
 
-    @Column(columnDefinition = "LONGTEXT")
-    private String lineItemsJson;           // serialized List<StatementLineItem> (stored as JSON)
+    // serialized line items (JSON); stored compressed in statement_line_items by StatementLineItemStore,
+    // so not loaded with the statement - only set when finalizing and by the statement detail endpoint
+    @Transient
+    private String lineItemsJson;
 
     // audit
     private LocalDateTime createdAt;
@@ -0,0 +1,33 @@
+package com.taxi.domain.statement.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Frozen line items of a statement, kept apart from the statement header so that loading
+ * statements (lists, balance lookups, payments) never reads them.
+ * Stored as gzip-compressed JSON - see StatementLineItemStore.
+ */
+@Entity
+@Table(name = "statement_line_items")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StatementLineItemData {
+
+    @Id
+    @Column(name = "statement_id")
+    private Long statementId;
+
+    @Lob
+    @Basic(fetch = FetchType.EAGER)
+    @Column(name = "data", columnDefinition = "LONGBLOB", nullable = false)
+    private byte[] data;
+
+    @Column(name = "json_size")
+    private Integer jsonSize;               // uncompressed size, for diagnostics
+}
@@ -27,7 +27,7 @@ public class TransferExecution {
     private Long id;
 
     @Column(name = "execution_number", unique = true, nullable = false, length = 50)
-    private String executionNumber; // Format: EXEC-2026-05-18-abc123
+    private String executionNumber; // Format: EXEC-2026-05-18-0001
 
     // Link to configuration
     @ManyToOne(fetch = FetchType.LAZY)
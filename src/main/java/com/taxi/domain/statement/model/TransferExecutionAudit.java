@@ -0,0 +1,56 @@
+package com.taxi.domain.statement.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * One approval or rejection of a transfer execution
+ *
+ * Rows are written by TransferExecutionService with a JDBC batch (one row per execution
+ * decided) and never change afterwards.
+ */
+@Entity
+@Immutable
+@Table(name = "statement_transfer_execution_audit")
+@Getter
+@NoArgsConstructor
+public class TransferExecutionAudit {
+
+    public static final String APPROVE = "APPROVE";
+    public static final String REJECT = "REJECT";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "execution_id", nullable = false)
+    private Long executionId;
+
+    @Column(name = "action", nullable = false, length = 20)
+    private String action;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "from_status", nullable = false, length = 20)
+    private ExecutionStatus fromStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "to_status", nullable = false, length = 20)
+    private ExecutionStatus toStatus;
+
+    @Column(name = "performed_by")
+    private Long performedBy;
+
+    @Column(name = "performed_at", nullable = false)
+    private LocalDateTime performedAt;
+
+    @Column(name = "notes", columnDefinition = "TEXT")
+    private String notes;
+
+    // Number of executions decided together (1 for a single approve/reject)
+    @Column(name = "batch_size", nullable = false)
+    private int batchSize;
+}
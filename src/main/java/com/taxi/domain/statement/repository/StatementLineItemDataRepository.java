@@ -0,0 +1,9 @@
+package com.taxi.domain.statement.repository;
+
+import com.taxi.domain.statement.model.StatementLineItemData;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface StatementLineItemDataRepository extends JpaRepository<StatementLineItemData, Long> {
+}
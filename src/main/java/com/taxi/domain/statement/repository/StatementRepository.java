@@ -8,6 +8,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -35,4 +36,11 @@ public interface StatementRepository extends JpaRepository<Statement, Long> {
     List<Statement> findByPeriodAndStatus(@Param("from") LocalDate from, @Param("to") LocalDate to, @Param("status") StatementStatus status);
 
     List<Statement> findByPeriodFromAndPeriodToAndStatus(LocalDate periodFrom, LocalDate periodTo, StatementStatus status);
+
+    @Query("SELECT s.personId FROM Statement s WHERE s.periodFrom = :from AND s.periodTo = :to")
+    List<Long> findPersonIdsWithStatement(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT s.personId FROM Statement s WHERE s.periodFrom = :from AND s.periodTo = :to AND s.personId IN :personIds")
+    List<Long> findPersonIdsWithStatement(@Param("from") LocalDate from, @Param("to") LocalDate to,
+                                          @Param("personIds") Collection<Long> personIds);
 }
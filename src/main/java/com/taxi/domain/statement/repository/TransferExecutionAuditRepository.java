@@ -0,0 +1,19 @@
+package com.taxi.domain.statement.repository;
+
+import com.taxi.domain.statement.model.TransferExecutionAudit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository for TransferExecutionAudit (read-only - rows are batch-inserted by TransferExecutionService)
+ */
+@Repository
+public interface TransferExecutionAuditRepository extends JpaRepository<TransferExecutionAudit, Long> {
+
+    /**
+     * Decisions on an execution, newest first
+     */
+    List<TransferExecutionAudit> findByExecutionIdOrderByPerformedAtDescIdDesc(Long executionId);
+}
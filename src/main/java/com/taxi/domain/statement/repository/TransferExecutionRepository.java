@@ -3,11 +3,14 @@ package com.taxi.domain.statement.repository;
 import com.taxi.domain.statement.model.ExecutionStatus;
 import com.taxi.domain.statement.model.TransferExecution;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -115,6 +118,16 @@ public interface TransferExecutionRepository extends JpaRepository<TransferExecu
         LocalDate periodTo
     );
 
+    /**
+     * IDs of the configs that already have an execution for the period
+     */
+    @Query("SELECT DISTINCT e.transferConfig.id FROM TransferExecution e " +
+           "WHERE e.periodFrom = :periodFrom AND e.periodTo = :periodTo")
+    List<Long> findTransferConfigIdsByPeriod(
+        @Param("periodFrom") LocalDate periodFrom,
+        @Param("periodTo") LocalDate periodTo
+    );
+
     /**
      * Find executions by source or target statement ID
      */
@@ -164,4 +177,56 @@ public interface TransferExecutionRepository extends JpaRepository<TransferExecu
         @Param("periodFrom") LocalDate periodFrom,
         @Param("periodTo") LocalDate periodTo
     );
+
+    /**
+     * Find executions with status where any of the persons is source or target, for one period
+     */
+    @Query("SELECT e FROM TransferExecution e WHERE " +
+           "(e.sourcePersonId IN :personIds OR e.targetPersonId IN :personIds) " +
+           "AND e.periodFrom = :periodFrom AND e.periodTo = :periodTo " +
+           "AND e.status = :status")
+    List<TransferExecution> findByPersonsAndPeriodAndStatus(
+        @Param("personIds") Collection<Long> personIds,
+        @Param("periodFrom") LocalDate periodFrom,
+        @Param("periodTo") LocalDate periodTo,
+        @Param("status") ExecutionStatus status
+    );
+
+    /**
+     * Lock the executions and read their id, current status and period start (a bulk transition
+     * checks, audits and invalidates them without loading the entities)
+     */
+    @Query(value = "SELECT id, status, period_from FROM statement_transfer_execution WHERE id IN (:ids) FOR UPDATE",
+           nativeQuery = true)
+    List<Object[]> lockStatusesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Approve the executions that are still in one of the given statuses, in one statement
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE TransferExecution e SET e.status = com.taxi.domain.statement.model.ExecutionStatus.APPROVED, " +
+           "e.approvedDate = :now, e.approvedBy = :userId, e.approvalNotes = :notes, e.updatedAt = :now " +
+           "WHERE e.id IN :ids AND e.status IN :fromStatuses")
+    int approveAllByIdInAndStatusIn(
+        @Param("ids") Collection<Long> ids,
+        @Param("fromStatuses") Collection<ExecutionStatus> fromStatuses,
+        @Param("userId") Long userId,
+        @Param("notes") String notes,
+        @Param("now") LocalDateTime now
+    );
+
+    /**
+     * Reject the executions that are still in one of the given statuses, in one statement
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE TransferExecution e SET e.status = com.taxi.domain.statement.model.ExecutionStatus.REJECTED, " +
+           "e.rejectedDate = :now, e.rejectedBy = :userId, e.rejectionReason = :reason, e.updatedAt = :now " +
+           "WHERE e.id IN :ids AND e.status IN :fromStatuses")
+    int rejectAllByIdInAndStatusIn(
+        @Param("ids") Collection<Long> ids,
+        @Param("fromStatuses") Collection<ExecutionStatus> fromStatuses,
+        @Param("userId") Long userId,
+        @Param("reason") String reason,
+        @Param("now") LocalDateTime now
+    );
 }
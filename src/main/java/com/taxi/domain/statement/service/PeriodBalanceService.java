@@ -0,0 +1,174 @@
+package com.taxi.domain.statement.service;
+
+import com.taxi.domain.statement.model.StatementStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Running balance per person and statement period (person_period_balance): each statement's
+ * status, net due, paid amount, completed payments and the closing balance the next statement
+ * carries forward.
+ *
+ * Rows are rebuilt from statements and statement_payment with one set-based upsert, in the
+ * transaction that finalizes the statements or records the payments - callers pass the ids of
+ * the statements they changed. Reports then read the opening balance and the payments applied
+ * for any number of persons with one indexed query instead of three lookups per person.
+ */
+@Service
+@Slf4j
+public class PeriodBalanceService {
+
+    // Same carry-forward rule as the statement screen: the remaining balance once PAID, else net due
+    private static final String REFRESH_SQL = "INSERT INTO person_period_balance " +
+            "(statement_id, person_id, period_from, period_to, status, net_due, paid_amount, payments_applied, " +
+            "closing_balance, updated_at) " +
+            "SELECT s.id, s.person_id, s.period_from, s.period_to, s.status, " +
+            "COALESCE(s.net_due, 0), COALESCE(s.paid_amount, 0), " +
+            "COALESCE((SELECT SUM(sp.amount) FROM statement_payment sp " +
+            "WHERE sp.statement_id = s.id AND sp.status = 'COMPLETED'), 0), " +
+            "CASE WHEN s.status = 'PAID' THEN COALESCE(s.net_due, 0) - COALESCE(s.paid_amount, 0) " +
+            "ELSE COALESCE(s.net_due, 0) END, " +
+            ":now " +
+            "FROM statements s WHERE s.id IN (:statementIds) " +
+            "AND s.person_id IS NOT NULL AND s.period_from IS NOT NULL AND s.period_to IS NOT NULL " +
+            "AND s.status IS NOT NULL " +
+            "ON DUPLICATE KEY UPDATE person_id = VALUES(person_id), period_from = VALUES(period_from), " +
+            "period_to = VALUES(period_to), status = VALUES(status), net_due = VALUES(net_due), " +
+            "paid_amount = VALUES(paid_amount), payments_applied = VALUES(payments_applied), " +
+            "closing_balance = VALUES(closing_balance), updated_at = VALUES(updated_at)";
+
+    // Per person: the row of the period itself, and the latest FINALIZED/PAID row ending before it
+    private static final String BALANCES_SQL = "SELECT b.statement_id, b.person_id, b.period_from, b.period_to, " +
+            "b.status, b.net_due, b.paid_amount, b.payments_applied, b.closing_balance " +
+            "FROM person_period_balance b " +
+            "WHERE b.person_id IN (:personIds) AND (" +
+            "(b.period_from = :from AND b.period_to = :to) " +
+            "OR (b.status IN ('FINALIZED', 'PAID') AND b.period_to = (" +
+            "SELECT MAX(p.period_to) FROM person_period_balance p WHERE p.person_id = b.person_id " +
+            "AND p.status IN ('FINALIZED', 'PAID') AND p.period_to < :from))) " +
+            "ORDER BY b.statement_id DESC";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * One statement period of a person
+     */
+    public record PeriodBalance(Long statementId, LocalDate periodFrom, LocalDate periodTo, StatementStatus status,
+                                BigDecimal netDue, BigDecimal paidAmount, BigDecimal paymentsApplied,
+                                BigDecimal closingBalance) {}
+
+    /**
+     * A person's balances around a period: the last FINALIZED/PAID statement before it and the
+     * statement of the period itself; either may be null
+     */
+    public record PersonBalances(PeriodBalance previous, PeriodBalance current) {
+
+        public static final PersonBalances NONE = new PersonBalances(null, null);
+
+        /**
+         * Balance carried into the period from the previous statement, zero without one
+         */
+        public BigDecimal openingBalance() {
+            return previous != null ? previous.closingBalance() : BigDecimal.ZERO;
+        }
+
+        /**
+         * Completed payments recorded against the period's statement, zero without one
+         */
+        public BigDecimal paymentsApplied() {
+            return current != null ? current.paymentsApplied() : BigDecimal.ZERO;
+        }
+    }
+
+    /**
+     * Rebuild the balance rows of the given statements from their current state. Joins the
+     * caller's transaction; pending JPA changes are flushed first so the rows see them.
+     */
+    @Transactional
+    public void refresh(Collection<Long> statementIds) {
+        if (statementIds == null || statementIds.isEmpty()) {
+            return;
+        }
+        entityManager.flush();
+        entityManager.createNativeQuery(REFRESH_SQL)
+                .setParameter("now", LocalDateTime.now())
+                .setParameter("statementIds", statementIds)
+                .executeUpdate();
+        log.debug("Refreshed period balances of {} statements", statementIds.size());
+    }
+
+    /**
+     * Balances of each person around the period [from, to], in one query. Persons without any
+     * statement are left out of the map.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, PersonBalances> balances(Collection<Long> personIds, LocalDate from, LocalDate to) {
+        Map<Long, PersonBalances> result = new HashMap<>();
+        if (personIds == null || personIds.isEmpty()) {
+            return result;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = entityManager.createNativeQuery(BALANCES_SQL)
+                .setParameter("personIds", personIds)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .getResultList();
+        Map<Long, PeriodBalance> previous = new HashMap<>();
+        Map<Long, PeriodBalance> current = new HashMap<>();
+        for (Object[] row : rows) {
+            Long personId = ((Number) row[1]).longValue();
+            PeriodBalance balance = new PeriodBalance(
+                    ((Number) row[0]).longValue(),
+                    toLocalDate(row[2]),
+                    toLocalDate(row[3]),
+                    StatementStatus.valueOf((String) row[4]),
+                    (BigDecimal) row[5],
+                    (BigDecimal) row[6],
+                    (BigDecimal) row[7],
+                    (BigDecimal) row[8]);
+            // Rows come newest statement first - keep the first of each kind, as LIMIT 1 did
+            if (balance.periodTo().isBefore(from)) {
+                previous.putIfAbsent(personId, balance);
+            } else {
+                current.putIfAbsent(personId, balance);
+            }
+        }
+
+        for (Long personId : personIds) {
+            PeriodBalance prev = previous.get(personId);
+            PeriodBalance cur = current.get(personId);
+            if (prev != null || cur != null) {
+                result.put(personId, new PersonBalances(prev, cur));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Balances of one person around the period
+     */
+    @Transactional(readOnly = true)
+    public PersonBalances balances(Long personId, LocalDate from, LocalDate to) {
+        return balances(List.of(personId), from, to).getOrDefault(personId, PersonBalances.NONE);
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        if (value instanceof java.sql.Date date) {
+            return date.toLocalDate();
+        }
+        return (LocalDate) value;
+    }
+}
@@ -0,0 +1,286 @@
+package com.taxi.domain.statement.service;
+
+import com.taxi.domain.report.service.DriverLedgerService;
+import com.taxi.domain.statement.model.ExecutionStatus;
+import com.taxi.domain.statement.model.Statement;
+import com.taxi.domain.statement.model.TransferExecution;
+import com.taxi.domain.statement.repository.StatementRepository;
+import com.taxi.domain.statement.repository.TransferExecutionRepository;
+import com.taxi.infrastructure.datachange.DataSource;
+import com.taxi.infrastructure.datachange.DataVersionService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes a chunk of finalized statements of one period with their line items, and applies and
+ * finalizes the APPROVED transfer executions of those persons, with JDBC batches in one transaction.
+ *
+ * Same end state as FinancialStatementService.finalizeStatement per person (statement saved,
+ * its executions APPLIED then FINALIZED and linked to it), except that an execution whose source
+ * and target are both in the chunk is linked to both statements. Persons that already have a
+ * statement for the period are skipped, so a chunk can be written again after a failure. The
+ * unique key on (person_id, period_from, period_to) catches a statement written by someone else
+ * between that check and the insert: the chunk then fails with DuplicateStatementException and
+ * rolls back, and writing it again skips that person.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StatementBatchWriter {
+
+    private static final String INSERT_STATEMENT_SQL = "INSERT INTO statements " +
+            "(person_id, person_type, person_name, period_from, period_to, generated_date, total_revenues, " +
+            "total_recurring_expenses, total_one_time_expenses, total_expenses, previous_balance, paid_amount, " +
+            "net_due, status, created_at, created_by) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Persons of the generated ids, to check the ids were matched to the right statements
+    private static final String STATEMENT_PERSONS_SQL = "SELECT id, person_id FROM statements WHERE id IN (%s)";
+
+    private static final String INSERT_LINE_ITEMS_SQL = "INSERT INTO statement_line_items " +
+            "(statement_id, data, json_size) VALUES (?, ?, ?)";
+
+    // APPROVED -> APPLIED -> FINALIZED in one step; the status guard leaves rows changed meanwhile alone
+    private static final String FINALIZE_EXECUTION_SQL = "UPDATE statement_transfer_execution SET " +
+            "status = 'FINALIZED', applied_date = ?, applied_by = ?, finalized_date = ?, updated_at = ?, " +
+            "source_statement_id = COALESCE(?, source_statement_id), " +
+            "target_statement_id = COALESCE(?, target_statement_id) " +
+            "WHERE id = ? AND status = 'APPROVED'";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final StatementRepository statementRepository;
+    private final TransferExecutionRepository executionRepository;
+    private final StatementLineItemStore lineItemStore;
+    private final PeriodBalanceService periodBalanceService;
+    private final DriverLedgerService driverLedgerService;
+    private final DataVersionService dataVersionService;
+
+    /**
+     * A person of the chunk got a statement for the period while the chunk was being written
+     */
+    public static class DuplicateStatementException extends DataIntegrityViolationException {
+        public DuplicateStatementException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    /**
+     * Counts for one chunk
+     */
+    @Getter
+    public static class WriteResult {
+        private final List<Statement> written = new ArrayList<>();
+        private int skipped;
+        private int executionsFinalized;
+    }
+
+    /**
+     * Insert the statements (all of the same period, not yet saved) and finalize their persons'
+     * approved executions. Written statements get their ids.
+     */
+    @Transactional
+    public WriteResult write(List<Statement> statements, Long userId) {
+        WriteResult result = new WriteResult();
+        if (statements.isEmpty()) {
+            return result;
+        }
+        LocalDate periodFrom = statements.get(0).getPeriodFrom();
+        LocalDate periodTo = statements.get(0).getPeriodTo();
+
+        Set<Long> personIds = new HashSet<>();
+        statements.forEach(s -> personIds.add(s.getPersonId()));
+        Set<Long> existing = new HashSet<>(statementRepository.findPersonIdsWithStatement(periodFrom, periodTo, personIds));
+
+        List<Statement> pending = new ArrayList<>();
+        for (Statement statement : statements) {
+            // Also drops a person listed twice in the chunk
+            if (existing.add(statement.getPersonId())) {
+                pending.add(statement);
+            } else {
+                result.skipped++;
+            }
+        }
+        if (pending.isEmpty()) {
+            return result;
+        }
+
+        Set<Long> pendingIds = new HashSet<>();
+        pending.forEach(s -> pendingIds.add(s.getPersonId()));
+        List<TransferExecution> executions = executionRepository.findByPersonsAndPeriodAndStatus(
+                pendingIds, periodFrom, periodTo, ExecutionStatus.APPROVED);
+
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp nowTs = Timestamp.valueOf(now);
+
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            Map<Long, Long> statementIdByPerson = new HashMap<>();
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_STATEMENT_SQL,
+                    java.sql.Statement.RETURN_GENERATED_KEYS)) {
+                for (Statement s : pending) {
+                    if (s.getCreatedAt() == null) {
+                        s.setCreatedAt(now);
+                    }
+                    ps.setLong(1, s.getPersonId());
+                    ps.setString(2, s.getPersonType());
+                    ps.setString(3, s.getPersonName());
+                    ps.setDate(4, date(s.getPeriodFrom()));
+                    ps.setDate(5, date(s.getPeriodTo()));
+                    ps.setTimestamp(6, timestamp(s.getGeneratedDate()));
+                    ps.setBigDecimal(7, s.getTotalRevenues());
+                    ps.setBigDecimal(8, s.getTotalRecurringExpenses());
+                    ps.setBigDecimal(9, s.getTotalOneTimeExpenses());
+                    ps.setBigDecimal(10, s.getTotalExpenses());
+                    ps.setBigDecimal(11, s.getPreviousBalance());
+                    ps.setBigDecimal(12, s.getPaidAmount());
+                    ps.setBigDecimal(13, s.getNetDue());
+                    ps.setString(14, s.getStatus() != null ? s.getStatus().name() : null);
+                    ps.setTimestamp(15, timestamp(s.getCreatedAt()));
+                    ps.setString(16, s.getCreatedBy());
+                    ps.addBatch();
+                }
+                try {
+                    ps.executeBatch();
+                } catch (SQLException e) {
+                    if (isDuplicateKey(e)) {
+                        throw new DuplicateStatementException("A statement for " + periodFrom + " to " + periodTo +
+                                " was written concurrently for one of persons " + pendingIds, e);
+                    }
+                    throw e;
+                }
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    for (Statement s : pending) {
+                        if (!keys.next()) {
+                            throw new IllegalStateException("Missing generated id for statement of person " + s.getPersonId());
+                        }
+                        s.setId(keys.getLong(1));
+                        statementIdByPerson.put(s.getPersonId(), s.getId());
+                    }
+                }
+            }
+            checkGeneratedIds(connection, pending);
+
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_LINE_ITEMS_SQL)) {
+                int rows = 0;
+                for (Statement s : pending) {
+                    if (s.getLineItemsJson() == null) {
+                        continue;
+                    }
+                    ps.setLong(1, s.getId());
+                    ps.setBytes(2, lineItemStore.compress(s.getLineItemsJson()));
+                    ps.setInt(3, s.getLineItemsJson().length());
+                    ps.addBatch();
+                    rows++;
+                }
+                if (rows > 0) {
+                    ps.executeBatch();
+                }
+            }
+
+            if (executions.isEmpty()) {
+                return;
+            }
+            try (PreparedStatement ps = connection.prepareStatement(FINALIZE_EXECUTION_SQL)) {
+                for (TransferExecution exec : executions) {
+                    ps.setTimestamp(1, nowTs);
+                    ps.setObject(2, userId);
+                    ps.setTimestamp(3, nowTs);
+                    ps.setTimestamp(4, nowTs);
+                    ps.setObject(5, statementIdByPerson.get(exec.getSourcePersonId()));
+                    ps.setObject(6, statementIdByPerson.get(exec.getTargetPersonId()));
+                    ps.setLong(7, exec.getId());
+                    ps.addBatch();
+                }
+                for (int count : ps.executeBatch()) {
+                    if (count > 0 || count == java.sql.Statement.SUCCESS_NO_INFO) {
+                        result.executionsFinalized++;
+                    }
+                }
+            }
+        });
+
+        result.written.addAll(pending);
+
+        List<Long> statementIds = new ArrayList<>(pending.size());
+        pending.forEach(s -> statementIds.add(s.getId()));
+        periodBalanceService.refresh(statementIds);
+
+        // JDBC writes bypass the entity listeners - invalidate cached reports and the persons' ledgers directly
+        dataVersionService.bump(DataSource.TRANSFERS);
+        for (Statement s : pending) {
+            driverLedgerService.recordChange(DriverLedgerService.Change.forPerson(s.getPersonId(), s.getPeriodFrom(), null));
+        }
+
+        log.info("Finalized {} statements for {} to {} ({} skipped), {} transfer executions finalized",
+                pending.size(), periodFrom, periodTo, result.skipped, result.executionsFinalized);
+        return result;
+    }
+
+    /**
+     * With rewriteBatchedStatements the batch goes out as one multi-row INSERT, and the driver
+     * derives each row's id from the first one. The chunk has one statement per person, so check
+     * every id against its person before the line items and executions are linked to it.
+     */
+    private static void checkGeneratedIds(Connection connection, List<Statement> statements) throws SQLException {
+        String placeholders = String.join(", ", Collections.nCopies(statements.size(), "?"));
+        Map<Long, Long> personById = new HashMap<>();
+        try (PreparedStatement ps = connection.prepareStatement(String.format(STATEMENT_PERSONS_SQL, placeholders))) {
+            for (int i = 0; i < statements.size(); i++) {
+                ps.setLong(i + 1, statements.get(i).getId());
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    personById.put(rs.getLong(1), rs.getLong(2));
+                }
+            }
+        }
+        for (Statement s : statements) {
+            if (!s.getPersonId().equals(personById.get(s.getId()))) {
+                throw new IllegalStateException("Generated id " + s.getId() + " does not belong to the statement of person " +
+                        s.getPersonId() + " but to person " + personById.get(s.getId()));
+            }
+        }
+    }
+
+    private static boolean isDuplicateKey(SQLException e) {
+        for (SQLException next = e; next != null; next = next.getNextException()) {
+            if (next instanceof SQLIntegrityConstraintViolationException || "23000".equals(next.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Date date(LocalDate date) {
+        return date != null ? Date.valueOf(date) : null;
+    }
+
+    private static Timestamp timestamp(LocalDateTime dateTime) {
+        return dateTime != null ? Timestamp.valueOf(dateTime) : null;
+    }
+}
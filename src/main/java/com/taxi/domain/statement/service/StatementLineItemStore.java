@@ -0,0 +1,101 @@
+package com.taxi.domain.statement.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.taxi.domain.statement.model.LegacyStatementLineItems;
+import com.taxi.domain.statement.model.StatementLineItemData;
+import com.taxi.domain.statement.repository.LegacyStatementLineItemsRepository;
+import com.taxi.domain.statement.repository.StatementLineItemDataRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Storage of a statement's frozen line items: gzip-compressed JSON in statement_line_items,
+ * one row per statement, fetched only when the line items are actually needed.
+ *
+ * Statements finalized before the table existed keep their JSON in statements.line_items_json;
+ * reads fall back to it when a statement has no row here.
+ */
+@Component
+@RequiredArgsConstructor
+public class StatementLineItemStore {
+
+    private final StatementLineItemDataRepository dataRepository;
+    private final LegacyStatementLineItemsRepository legacyRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Store the line item JSON of a saved statement
+     */
+    public void save(Long statementId, String json) {
+        if (json == null) {
+            return;
+        }
+        dataRepository.save(StatementLineItemData.builder()
+                .statementId(statementId)
+                .data(compress(json))
+                .jsonSize(json.length())
+                .build());
+    }
+
+    /**
+     * Line items of the statement read straight into the given type, or null if it has none
+     */
+    public <T> T read(Long statementId, Class<T> type) {
+        try {
+            StatementLineItemData data = dataRepository.findById(statementId).orElse(null);
+            if (data != null) {
+                try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(data.getData()))) {
+                    return objectMapper.readValue(in, type);
+                }
+            }
+            String legacy = legacyJson(statementId);
+            return legacy != null ? objectMapper.readValue(legacy, type) : null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unreadable line items for statement " + statementId, e);
+        }
+    }
+
+    /**
+     * Line item JSON of the statement, or null if it has none
+     */
+    public String readJson(Long statementId) {
+        StatementLineItemData data = dataRepository.findById(statementId).orElse(null);
+        if (data == null) {
+            return legacyJson(statementId);
+        }
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(data.getData()))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unreadable line items for statement " + statementId, e);
+        }
+    }
+
+    /**
+     * Stored form of line item JSON, for writers that insert statement_line_items rows themselves
+     */
+    public byte[] compress(String json) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.max(64, json.length() / 4));
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(json.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private String legacyJson(Long statementId) {
+        return legacyRepository.findById(statementId)
+                .map(LegacyStatementLineItems::getLineItemsJson)
+                .orElse(null);
+    }
+}
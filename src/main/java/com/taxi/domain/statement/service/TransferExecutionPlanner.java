@@ -0,0 +1,106 @@
+package com.taxi.domain.statement.service;
+
+import com.taxi.domain.report.service.FinancialStatementService;
+import com.taxi.domain.statement.model.StatementBalanceTransfer;
+import com.taxi.infrastructure.multitenancy.TenantContext;
+import com.taxi.web.dto.report.OwnerReportDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Plans the transfer executions of a period: groups the applicable configs by source person and
+ * computes each distinct source's statement balance once, in parallel on reportExecutor, instead of
+ * one owner report per config.
+ *
+ * The balances are reports built with includePending=false, so they include only the period's
+ * APPLIED and FINALIZED executions - not APPROVED ones, nor the PENDING ones generated from the
+ * plan. In a chain (A → B → C) B's balance therefore does not wait on A's transfer and all sources
+ * are computed in a single pass.
+ */
+@Component
+@Slf4j
+public class TransferExecutionPlanner {
+
+    private final FinancialStatementService financialStatementService;
+    private final ThreadPoolTaskExecutor reportExecutor;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public TransferExecutionPlanner(@Lazy FinancialStatementService financialStatementService,
+                                    @Qualifier("reportExecutor") ThreadPoolTaskExecutor reportExecutor,
+                                    PlatformTransactionManager transactionManager) {
+        this.financialStatementService = financialStatementService;
+        this.reportExecutor = reportExecutor;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Configs to execute for the period, grouped by source person in config order
+     */
+    public Map<Long, List<StatementBalanceTransfer>> bySource(List<StatementBalanceTransfer> configs) {
+        Map<Long, List<StatementBalanceTransfer>> bySource = new LinkedHashMap<>();
+        for (StatementBalanceTransfer config : configs) {
+            bySource.computeIfAbsent(config.getSourcePerson().getId(), id -> new ArrayList<>()).add(config);
+        }
+        return bySource;
+    }
+
+    /**
+     * Statement balance (netDue) of each source person for the period. Persons whose report
+     * could not be generated are left out and logged.
+     */
+    public Map<Long, BigDecimal> sourceBalances(Iterable<Long> sourcePersonIds, LocalDate periodFrom, LocalDate periodTo) {
+        String tenant = TenantContext.getCurrentTenant();
+        Map<Long, Future<OwnerReportDTO>> reports = new LinkedHashMap<>();
+        for (Long personId : sourcePersonIds) {
+            reports.put(personId, reportExecutor.submit(() -> report(tenant, personId, periodFrom, periodTo)));
+        }
+
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        try {
+            for (Map.Entry<Long, Future<OwnerReportDTO>> entry : reports.entrySet()) {
+                Long personId = entry.getKey();
+                try {
+                    OwnerReportDTO report = entry.getValue().get();
+                    BigDecimal netDue = report.getNetDue() != null ? report.getNetDue() : BigDecimal.ZERO;
+                    log.info("Calculated statement for person {}: netDue={}, totalRevenues={}, totalExpenses={}",
+                            personId, netDue, report.getTotalRevenues(), report.getTotalExpenses());
+                    balances.put(personId, netDue);
+                } catch (ExecutionException e) {
+                    log.error("Error calculating statement for person {} period {} to {}: {}",
+                            personId, periodFrom, periodTo, e.getCause().getMessage(), e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while calculating transfer balances", e);
+        } finally {
+            reports.values().forEach(f -> f.cancel(true));
+        }
+        return balances;
+    }
+
+    /**
+     * Report of the source for the period, excluding APPROVED executions (avoids a circular
+     * calculation) and using the tenant's charge and balance-forward settings
+     */
+    private OwnerReportDTO report(String tenant, Long personId, LocalDate periodFrom, LocalDate periodTo) {
+        return TenantContext.callInTenant(tenant, () -> readOnlyTransaction.execute(s ->
+                financialStatementService.generateOwnerReport(personId, periodFrom, periodTo, false, null, null)));
+    }
+}
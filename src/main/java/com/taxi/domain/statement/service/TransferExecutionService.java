@@ -1,25 +1,42 @@
 package com.taxi.domain.statement.service;
 
 import com.taxi.domain.driver.repository.DriverRepository;
+import com.taxi.domain.report.service.DriverLedgerService;
 import com.taxi.domain.statement.model.*;
 import com.taxi.domain.statement.repository.StatementBalanceTransferRepository;
 import com.taxi.domain.statement.repository.StatementRepository;
+import com.taxi.domain.statement.repository.TransferExecutionAuditRepository;
 import com.taxi.domain.statement.repository.TransferExecutionRepository;
+import com.taxi.infrastructure.datachange.DataSource;
+import com.taxi.infrastructure.datachange.DataVersionService;
+import com.taxi.infrastructure.sequence.SequenceAllocator;
 import com.taxi.web.dto.expense.StatementLineItem;
 import com.taxi.web.dto.report.OwnerReportDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Service for managing transfer executions - calculated transfers for specific periods
@@ -29,34 +46,63 @@ import java.util.UUID;
 @Slf4j
 public class TransferExecutionService {
 
+    private static final String INSERT_AUDIT_SQL = "INSERT INTO statement_transfer_execution_audit " +
+            "(execution_id, action, from_status, to_status, performed_by, performed_at, notes, batch_size) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Statuses each decision may start from - same rules as TransferExecution.approve/reject
+    private static final Set<ExecutionStatus> APPROVABLE = EnumSet.of(ExecutionStatus.PENDING, ExecutionStatus.REJECTED);
+    private static final Set<ExecutionStatus> REJECTABLE = EnumSet.of(ExecutionStatus.PENDING);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     private final TransferExecutionRepository executionRepository;
+    private final TransferExecutionAuditRepository auditRepository;
     private final StatementBalanceTransferRepository transferConfigRepository;
     private final StatementRepository statementRepository;
     private final DriverRepository driverRepository;
-    private final com.taxi.domain.report.service.FinancialStatementService financialStatementService;
+    private final TransferExecutionPlanner executionPlanner;
+    private final SequenceAllocator sequenceAllocator;
+    private final DataVersionService dataVersionService;
+    private final DriverLedgerService driverLedgerService;
 
     public TransferExecutionService(
             TransferExecutionRepository executionRepository,
+            TransferExecutionAuditRepository auditRepository,
             StatementBalanceTransferRepository transferConfigRepository,
             StatementRepository statementRepository,
             DriverRepository driverRepository,
-            @Lazy com.taxi.domain.report.service.FinancialStatementService financialStatementService
+            TransferExecutionPlanner executionPlanner,
+            SequenceAllocator sequenceAllocator,
+            DataVersionService dataVersionService,
+            @Lazy DriverLedgerService driverLedgerService
     ) {
         this.executionRepository = executionRepository;
+        this.auditRepository = auditRepository;
         this.transferConfigRepository = transferConfigRepository;
         this.statementRepository = statementRepository;
         this.driverRepository = driverRepository;
-        this.financialStatementService = financialStatementService;
+        this.executionPlanner = executionPlanner;
+        this.sequenceAllocator = sequenceAllocator;
+        this.dataVersionService = dataVersionService;
+        this.driverLedgerService = driverLedgerService;
     }
 
+    /**
+     * Outcome of a bulk approve/reject: the executions changed, and why the others were not
+     */
+    public record BatchDecision(List<Long> decidedIds, Map<Long, String> skipped) {}
+
     /**
      * Generate transfer executions for a specific period
      *
      * 1. Find all ACTIVE transfer configurations
-     * 2. For each config, check if applicable to this period
-     * 3. Calculate amount based on latest statement balance
-     * 4. Create PENDING execution records
-     * 5. Return list for admin review
+     * 2. For each config, check if applicable to this period and not yet executed
+     * 3. Generate the statement of each distinct source person once, in parallel
+     * 4. Calculate each config's amount from its source's balance
+     * 5. Create PENDING execution records in one batch
+     * 6. Return list for admin review
      *
      * @param periodFrom Start of period
      * @param periodTo End of period
@@ -95,63 +141,67 @@ public class TransferExecutionService {
         List<StatementBalanceTransfer> configs = transferConfigRepository.findByStatus(TransferStatus.ACTIVE);
         log.info("Found {} ACTIVE transfer configurations", configs.size());
 
-        List<TransferExecution> executions = new ArrayList<>();
+        // One query for the configs already executed in this period instead of one per config
+        Set<Long> alreadyExecuted = new HashSet<>(executionRepository.findTransferConfigIdsByPeriod(periodFrom, periodTo));
 
+        List<StatementBalanceTransfer> applicable = new ArrayList<>();
         for (StatementBalanceTransfer config : configs) {
-            try {
-                log.info("Processing config: {} (Source: {} → Target: {})",
+            // Validate config has required person references
+            if (config.getSourcePerson() == null || config.getTargetPerson() == null) {
+                log.warn("Config {} has null person references, skipping", config.getTransferNumber());
+                continue;
+            }
+
+            // Check if config is applicable to this period
+            if (!config.isApplicableForPeriod(periodFrom, periodTo)) {
+                log.info("Skipping config {} - not applicable (Type: {}, Start: {}, End: {}, PeriodFrom: {}, PeriodTo: {})",
                         config.getTransferNumber(),
-                        config.getSourcePersonName(),
-                        config.getTargetPersonName());
+                        config.getTransferType(),
+                        config.getStartDate(),
+                        config.getEndDate(),
+                        config.getStatementPeriodFrom(),
+                        config.getStatementPeriodTo());
+                continue;
+            }
 
-                // Validate config has required person references
-                if (config.getSourcePerson() == null || config.getTargetPerson() == null) {
-                    log.warn("Config {} has null person references, skipping", config.getTransferNumber());
-                    continue;
-                }
+            // Check if execution already exists for this config and period
+            if (alreadyExecuted.contains(config.getId())) {
+                log.info("Execution already exists for config {} and period {} to {}",
+                        config.getTransferNumber(), periodFrom, periodTo);
+                continue;
+            }
+            applicable.add(config);
+        }
 
-                // Check if config is applicable to this period
-                boolean isApplicable = config.isApplicableForPeriod(periodFrom, periodTo);
-                log.info("Config {} applicable for period {} to {}: {}",
-                        config.getTransferNumber(), periodFrom, periodTo, isApplicable);
-
-                if (!isApplicable) {
-                    log.info("Skipping config {} - not applicable (Type: {}, Start: {}, End: {}, PeriodFrom: {}, PeriodTo: {})",
-                            config.getTransferNumber(),
-                            config.getTransferType(),
-                            config.getStartDate(),
-                            config.getEndDate(),
-                            config.getStatementPeriodFrom(),
-                            config.getStatementPeriodTo());
-                    continue;
-                }
+        // Each source person's statement is generated once, however many configs draw on it
+        Map<Long, List<StatementBalanceTransfer>> bySource = executionPlanner.bySource(applicable);
+        Map<Long, BigDecimal> balances = executionPlanner.sourceBalances(bySource.keySet(), periodFrom, periodTo);
+        log.info("Calculated {} source balances for {} applicable configs", balances.size(), applicable.size());
 
-                // Check if execution already exists for this config and period
-                if (executionRepository.existsByTransferConfigIdAndPeriodFromAndPeriodTo(
-                        config.getId(), periodFrom, periodTo)) {
-                    log.info("Execution already exists for config {} and period {} to {}",
-                            config.getTransferNumber(), periodFrom, periodTo);
-                    continue;
-                }
+        List<TransferExecution> executions = new ArrayList<>();
+        LocalDateTime calculationDate = LocalDateTime.now();
+
+        for (StatementBalanceTransfer config : applicable) {
+            Long sourcePersonId = config.getSourcePerson().getId();
+            BigDecimal netDue = balances.get(sourcePersonId);
+            if (netDue == null) {
+                log.warn("Skipping config {} - no statement balance for source person {}",
+                        config.getTransferNumber(), sourcePersonId);
+                continue;
+            }
 
-                // Calculate transfer amount for this period
-                // This generates the statement report for the period and returns the amount to transfer
-                CalculationResult result = calculateTransferAmountWithSnapshot(config, periodFrom, periodTo);
+            try {
+                BigDecimal amount = calculateTransferAmount(config, netDue);
 
                 log.info("Calculated amount for config {}: {} (Source person: {}, netDue: {})",
-                        config.getTransferNumber(), result.transferAmount,
-                        config.getSourcePerson().getId(), result.netDueSnapshot);
+                        config.getTransferNumber(), amount, sourcePersonId, netDue);
 
-                if (result.transferAmount.compareTo(BigDecimal.ZERO) <= 0) {
+                if (amount.compareTo(BigDecimal.ZERO) <= 0) {
                     log.info("Skipping config {} - calculated amount is zero or negative: {}",
-                            config.getTransferNumber(), result.transferAmount);
+                            config.getTransferNumber(), amount);
                     continue;
                 }
 
-                BigDecimal amount = result.transferAmount;
-                BigDecimal balanceSnapshot = result.netDueSnapshot;
-                Statement latestSourceStatement = null; // We're using calculated report, not latest statement
-
                 // Get person names
                 String sourceName = config.getSourcePersonName() != null
                         ? config.getSourcePersonName()
@@ -160,30 +210,26 @@ public class TransferExecutionService {
                         ? config.getTargetPersonName()
                         : config.getTargetPerson().getFirstName() + " " + config.getTargetPerson().getLastName();
 
-                // Create execution
-                TransferExecution execution = TransferExecution.builder()
+                // Create execution (calculated report, not latest statement, so no statement snapshot)
+                executions.add(TransferExecution.builder()
                         .executionNumber(generateExecutionNumber())
                         .transferConfig(config)
                         .configTransferNumber(config.getTransferNumber())
                         .periodFrom(periodFrom)
                         .periodTo(periodTo)
                         .calculatedAmount(amount)
-                        .sourceBalanceSnapshot(balanceSnapshot)
-                        .sourceStatementSnapshot(latestSourceStatement)
-                        .calculationDate(LocalDateTime.now())
+                        .sourceBalanceSnapshot(netDue)
+                        .sourceStatementSnapshot(null)
+                        .calculationDate(calculationDate)
                         .calculatedBy(userId)
                         .calculationNotes(String.format("Generated from config %s for period %s to %s",
                                 config.getTransferNumber(), periodFrom, periodTo))
-                        .sourcePersonId(config.getSourcePerson().getId())
+                        .sourcePersonId(sourcePersonId)
                         .sourcePersonName(sourceName)
                         .targetPersonId(config.getTargetPerson().getId())
                         .targetPersonName(targetName)
                         .status(ExecutionStatus.PENDING)
-                        .build();
-
-                executions.add(executionRepository.save(execution));
-                log.info("Created execution {} for config {} with amount {}",
-                        execution.getExecutionNumber(), config.getTransferNumber(), amount);
+                        .build());
 
             } catch (Exception e) {
                 log.error("Error processing config {}: {}", config.getTransferNumber(), e.getMessage(), e);
@@ -191,92 +237,52 @@ public class TransferExecutionService {
             }
         }
 
+        executions = executionRepository.saveAll(executions);
+        for (TransferExecution execution : executions) {
+            log.info("Created execution {} for config {} with amount {}",
+                    execution.getExecutionNumber(), execution.getConfigTransferNumber(), execution.getCalculatedAmount());
+        }
+
         log.info("Generated {} transfer executions for period {} to {}",
                 executions.size(), periodFrom, periodTo);
         return executions;
     }
 
     /**
-     * Helper class to return calculation results
-     */
-    private static class CalculationResult {
-        BigDecimal transferAmount;
-        BigDecimal netDueSnapshot;
-
-        CalculationResult(BigDecimal transferAmount, BigDecimal netDueSnapshot) {
-            this.transferAmount = transferAmount;
-            this.netDueSnapshot = netDueSnapshot;
-        }
-    }
-
-    /**
-     * Calculate transfer amount for a config and period with snapshot
+     * Calculate transfer amount for a config from its source's statement balance for the period
      *
-     * NEW Logic (generates statement for the period):
-     * 1. Generate/calculate the statement report for source person FOR THIS PERIOD
-     * 2. Get the netDue (balance) from that calculated report
-     * 3. If POSITIVE_ONLY and balance <= 0, skip
-     * 4. If "Transfer All" (amount < $1), use full balance
-     * 5. If "Up to Max", use min(balance, maxAmount)
+     * 1. If POSITIVE_ONLY and balance <= 0, skip
+     * 2. If "Transfer All" (amount < $1), use full balance
+     * 3. If "Up to Max", use min(balance, maxAmount)
      */
-    private CalculationResult calculateTransferAmountWithSnapshot(
-            StatementBalanceTransfer config,
-            LocalDate periodFrom,
-            LocalDate periodTo
-    ) {
-        Long sourcePersonId = config.getSourcePerson().getId();
-
-        try {
-            // Generate the statement report for this person for this period
-            // This calculates what they would owe AFTER this period's statement
-            // IMPORTANT: Pass false to exclude APPROVED executions (avoid circular calculation)
-            log.info("Calculating statement for person {} for period {} to {}",
-                    sourcePersonId, periodFrom, periodTo);
-
-            OwnerReportDTO report = financialStatementService.generateOwnerReport(
-                    sourcePersonId, periodFrom, periodTo, false
-            );
-
-            BigDecimal netDue = report.getNetDue() != null
-                    ? report.getNetDue()
-                    : BigDecimal.ZERO;
-
-            log.info("Calculated statement for person {}: netDue={}, totalRevenues={}, totalExpenses={}",
-                    sourcePersonId, netDue, report.getTotalRevenues(), report.getTotalExpenses());
-
-            // Apply balance direction rules
-            if (config.getBalanceDirection() == BalanceDirection.POSITIVE_ONLY) {
-                if (netDue.compareTo(BigDecimal.ZERO) <= 0) {
-                    log.info("NetDue {} is not positive, skipping (POSITIVE_ONLY rule)", netDue);
-                    return new CalculationResult(BigDecimal.ZERO, netDue);
-                }
-            }
-
-            // For transfer purposes, we want the absolute value
-            // Positive netDue = driver owes company money (company's receivable)
-            // We transfer this to another driver (reducing source's debt, increasing target's debt)
-            BigDecimal absoluteBalance = netDue.abs();
-
-            // Check if there's a maximum amount specified
-            // If transferAmount is null or very small (< $1), treat as "transfer all"
-            BigDecimal configAmount = config.getTransferAmount();
-            if (configAmount == null || configAmount.compareTo(new BigDecimal("1.00")) < 0) {
-                // Transfer All mode - use full balance
-                log.info("Transfer All mode - using full calculated netDue: {}", absoluteBalance);
-                return new CalculationResult(absoluteBalance, netDue);
+    private BigDecimal calculateTransferAmount(StatementBalanceTransfer config, BigDecimal netDue) {
+        // Apply balance direction rules
+        if (config.getBalanceDirection() == BalanceDirection.POSITIVE_ONLY) {
+            if (netDue.compareTo(BigDecimal.ZERO) <= 0) {
+                log.info("NetDue {} is not positive, skipping (POSITIVE_ONLY rule)", netDue);
+                return BigDecimal.ZERO;
             }
+        }
 
-            // Up to Max Amount mode - use the lesser of balance or max amount
-            BigDecimal transferAmount = absoluteBalance.min(configAmount);
-            log.info("Max Amount mode - calculated netDue: {}, max: {}, transferring: {}",
-                    absoluteBalance, configAmount, transferAmount);
-            return new CalculationResult(transferAmount, netDue);
-
-        } catch (Exception e) {
-            log.error("Error calculating statement for person {} period {} to {}: {}",
-                    sourcePersonId, periodFrom, periodTo, e.getMessage(), e);
-            return new CalculationResult(BigDecimal.ZERO, BigDecimal.ZERO);
+        // For transfer purposes, we want the absolute value
+        // Positive netDue = driver owes company money (company's receivable)
+        // We transfer this to another driver (reducing source's debt, increasing target's debt)
+        BigDecimal absoluteBalance = netDue.abs();
+
+        // Check if there's a maximum amount specified
+        // If transferAmount is null or very small (< $1), treat as "transfer all"
+        BigDecimal configAmount = config.getTransferAmount();
+        if (configAmount == null || configAmount.compareTo(new BigDecimal("1.00")) < 0) {
+            // Transfer All mode - use full balance
+            log.info("Transfer All mode - using full calculated netDue: {}", absoluteBalance);
+            return absoluteBalance;
         }
+
+        // Up to Max Amount mode - use the lesser of balance or max amount
+        BigDecimal transferAmount = absoluteBalance.min(configAmount);
+        log.info("Max Amount mode - calculated netDue: {}, max: {}, transferring: {}",
+                absoluteBalance, configAmount, transferAmount);
+        return transferAmount;
     }
 
     /**
@@ -292,12 +298,11 @@ public class TransferExecutionService {
 
     /**
      * Generate unique execution number
-     * Format: EXEC-YYYY-MM-DD-shortUuid
+     * Format: EXEC-YYYY-MM-DD-0001 (numbered per day; earlier executions used a short UUID suffix)
      */
     private String generateExecutionNumber() {
-        String dateStr = LocalDate.now().format(DateTimeFormatter.ISO_LOCAL_DATE);
-        String shortUuid = UUID.randomUUID().toString().substring(0, 8);
-        return String.format("EXEC-%s-%s", dateStr, shortUuid);
+        String prefix = "EXEC-" + LocalDate.now().format(DateTimeFormatter.ISO_LOCAL_DATE) + "-";
+        return prefix + String.format("%04d", sequenceAllocator.next(prefix, () -> 0L));
     }
 
     /**
@@ -348,8 +353,11 @@ public class TransferExecutionService {
         log.info("Approving execution {} by user {}", executionId, userId);
 
         TransferExecution execution = getExecution(executionId);
+        ExecutionStatus fromStatus = execution.getStatus();
         execution.approve(userId, notes);
         execution = executionRepository.save(execution);
+        insertAudit(Map.of(execution.getId(), fromStatus), TransferExecutionAudit.APPROVE,
+                ExecutionStatus.APPROVED, userId, notes, execution.getApprovedDate());
 
         log.info("Approved execution {} - status now {}", execution.getExecutionNumber(), execution.getStatus());
         return execution;
@@ -363,8 +371,11 @@ public class TransferExecutionService {
         log.info("Rejecting execution {} by user {}", executionId, userId);
 
         TransferExecution execution = getExecution(executionId);
+        ExecutionStatus fromStatus = execution.getStatus();
         execution.reject(userId, reason);
         execution = executionRepository.save(execution);
+        insertAudit(Map.of(execution.getId(), fromStatus), TransferExecutionAudit.REJECT,
+                ExecutionStatus.REJECTED, userId, reason, execution.getRejectedDate());
 
         log.info("Rejected execution {} - status now {}", execution.getExecutionNumber(), execution.getStatus());
         return execution;
@@ -539,46 +550,154 @@ public class TransferExecutionService {
     }
 
     /**
-     * Batch approve executions
+     * Batch approve executions: the PENDING or REJECTED ones among the ids are approved with one
+     * UPDATE and audited with one batch insert; the others are skipped with the reason
      */
     @Transactional
-    public List<TransferExecution> batchApprove(List<Long> executionIds, Long userId, String notes) {
+    public BatchDecision batchApprove(List<Long> executionIds, Long userId, String notes) {
         log.info("Batch approving {} executions by user {}", executionIds.size(), userId);
 
-        List<TransferExecution> approved = new ArrayList<>();
-        for (Long id : executionIds) {
-            try {
-                TransferExecution execution = approve(id, userId, notes);
-                approved.add(execution);
-            } catch (Exception e) {
-                log.error("Error approving execution {}: {}", id, e.getMessage());
-                // Continue with others
-            }
-        }
+        BatchDecision decision = decideAll(executionIds, TransferExecutionAudit.APPROVE, APPROVABLE,
+                ExecutionStatus.APPROVED, userId, notes);
 
-        log.info("Batch approved {} out of {} executions", approved.size(), executionIds.size());
-        return approved;
+        log.info("Batch approved {} out of {} executions", decision.decidedIds().size(), executionIds.size());
+        return decision;
     }
 
     /**
-     * Batch reject executions
+     * Batch reject executions: the PENDING ones among the ids are rejected with one UPDATE and
+     * audited with one batch insert; the others are skipped with the reason
      */
     @Transactional
-    public List<TransferExecution> batchReject(List<Long> executionIds, Long userId, String reason) {
+    public BatchDecision batchReject(List<Long> executionIds, Long userId, String reason) {
         log.info("Batch rejecting {} executions by user {}", executionIds.size(), userId);
 
-        List<TransferExecution> rejected = new ArrayList<>();
+        if (reason == null || reason.trim().isEmpty()) {
+            throw new IllegalArgumentException("Rejection reason is required");
+        }
+        BatchDecision decision = decideAll(executionIds, TransferExecutionAudit.REJECT, REJECTABLE,
+                ExecutionStatus.REJECTED, userId, reason);
+
+        log.info("Batch rejected {} out of {} executions", decision.decidedIds().size(), executionIds.size());
+        return decision;
+    }
+
+    /**
+     * Executions by id, in the order of the ids
+     */
+    @Transactional(readOnly = true)
+    public List<TransferExecution> getExecutions(List<Long> executionIds) {
+        Map<Long, TransferExecution> byId = new HashMap<>();
+        for (TransferExecution execution : executionRepository.findAllById(executionIds)) {
+            byId.put(execution.getId(), execution);
+        }
+        List<TransferExecution> executions = new ArrayList<>(executionIds.size());
         for (Long id : executionIds) {
-            try {
-                TransferExecution execution = reject(id, userId, reason);
-                rejected.add(execution);
-            } catch (Exception e) {
-                log.error("Error rejecting execution {}: {}", id, e.getMessage());
-                // Continue with others
+            TransferExecution execution = byId.get(id);
+            if (execution != null) {
+                executions.add(execution);
+            }
+        }
+        return executions;
+    }
+
+    /**
+     * Lock the executions, check their statuses, move the eligible ones with one conditional
+     * UPDATE and write their audit rows in one JDBC batch
+     */
+    private BatchDecision decideAll(List<Long> executionIds, String action, Set<ExecutionStatus> fromStatuses,
+                                    ExecutionStatus toStatus, Long userId, String notes) {
+        Set<Long> ids = new LinkedHashSet<>(executionIds);
+        Map<Long, String> skipped = new LinkedHashMap<>();
+        if (ids.isEmpty()) {
+            return new BatchDecision(List.of(), skipped);
+        }
+
+        Map<Long, ExecutionStatus> current = new HashMap<>();
+        Map<Long, LocalDate> periodFrom = new HashMap<>();
+        for (Object[] row : executionRepository.lockStatusesByIdIn(ids)) {
+            Long id = ((Number) row[0]).longValue();
+            current.put(id, ExecutionStatus.valueOf((String) row[1]));
+            periodFrom.put(id, toLocalDate(row[2]));
+        }
+
+        Map<Long, ExecutionStatus> eligible = new LinkedHashMap<>();
+        for (Long id : ids) {
+            ExecutionStatus status = current.get(id);
+            if (status == null) {
+                skipped.put(id, "Execution not found: " + id);
+            } else if (!fromStatuses.contains(status)) {
+                skipped.put(id, String.format("Can only %s %s executions. Current status: %s",
+                        action.toLowerCase(), String.join(" or ", fromStatuses.stream().map(Enum::name).toList()),
+                        status));
+            } else {
+                eligible.put(id, status);
             }
         }
+        if (eligible.isEmpty()) {
+            return new BatchDecision(List.of(), skipped);
+        }
+
+        // The rows are locked, so every eligible execution is still in its status
+        LocalDateTime now = LocalDateTime.now();
+        int updated = toStatus == ExecutionStatus.APPROVED
+                ? executionRepository.approveAllByIdInAndStatusIn(eligible.keySet(), fromStatuses, userId, notes, now)
+                : executionRepository.rejectAllByIdInAndStatusIn(eligible.keySet(), fromStatuses, userId, notes, now);
+        if (updated != eligible.size()) {
+            throw new IllegalStateException(String.format(
+                    "Executions changed while deciding them (%d of %d updated)", updated, eligible.size()));
+        }
+
+        insertAudit(eligible, action, toStatus, userId, notes, now);
+
+        // The bulk update bypasses the entity listeners. Owner reports count APPROVED executions,
+        // so the ledger is stale from the earliest decided period on
+        dataVersionService.bump(DataSource.TRANSFERS);
+        eligible.keySet().stream()
+                .map(periodFrom::get)
+                .filter(date -> date != null)
+                .min(LocalDate::compareTo)
+                .ifPresent(earliest -> driverLedgerService.recordChange(DriverLedgerService.Change.from(earliest)));
+
+        if (!skipped.isEmpty()) {
+            log.warn("Skipped {} executions: {}", skipped.size(), skipped);
+        }
+        return new BatchDecision(new ArrayList<>(eligible.keySet()), skipped);
+    }
 
-        log.info("Batch rejected {} out of {} executions", rejected.size(), executionIds.size());
-        return rejected;
+    private static LocalDate toLocalDate(Object value) {
+        return value instanceof Date d ? d.toLocalDate() : (LocalDate) value;
+    }
+
+    /**
+     * One audit row per execution, with the status it was decided from
+     */
+    private void insertAudit(Map<Long, ExecutionStatus> fromStatusById, String action, ExecutionStatus toStatus,
+                             Long userId, String notes, LocalDateTime performedAt) {
+        Timestamp performedTs = Timestamp.valueOf(performedAt);
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_AUDIT_SQL)) {
+                for (Map.Entry<Long, ExecutionStatus> entry : fromStatusById.entrySet()) {
+                    ps.setLong(1, entry.getKey());
+                    ps.setString(2, action);
+                    ps.setString(3, entry.getValue().name());
+                    ps.setString(4, toStatus.name());
+                    ps.setObject(5, userId);
+                    ps.setTimestamp(6, performedTs);
+                    ps.setString(7, notes);
+                    ps.setInt(8, fromStatusById.size());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+        });
+    }
+
+    /**
+     * Approval and rejection history of an execution, newest first
+     */
+    @Transactional(readOnly = true)
+    public List<TransferExecutionAudit> getAuditTrail(Long executionId) {
+        return auditRepository.findByExecutionIdOrderByPerformedAtDescIdDesc(executionId);
     }
 }
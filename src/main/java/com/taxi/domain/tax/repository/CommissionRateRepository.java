@@ -18,4 +18,7 @@ public interface CommissionRateRepository extends JpaRepository<CommissionRate,
     @Query("SELECT r FROM CommissionRate r WHERE r.commissionType.id = :typeId AND r.isActive = true " +
            "AND r.effectiveFrom <= :date AND (r.effectiveTo IS NULL OR r.effectiveTo >= :date)")
     Optional<CommissionRate> findActiveRateOnDate(@Param("typeId") Long typeId, @Param("date") LocalDate date);
+
+    @Query("SELECT r FROM CommissionRate r JOIN FETCH r.commissionType")
+    List<CommissionRate> findAllWithType();
 }
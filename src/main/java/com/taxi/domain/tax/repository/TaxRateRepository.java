@@ -18,4 +18,7 @@ public interface TaxRateRepository extends JpaRepository<TaxRate, Long> {
     @Query("SELECT r FROM TaxRate r WHERE r.taxType.id = :taxTypeId AND r.isActive = true " +
            "AND r.effectiveFrom <= :date AND (r.effectiveTo IS NULL OR r.effectiveTo >= :date)")
     Optional<TaxRate> findActiveRateOnDate(@Param("taxTypeId") Long taxTypeId, @Param("date") LocalDate date);
+
+    @Query("SELECT r FROM TaxRate r JOIN FETCH r.taxType WHERE r.isActive = true")
+    List<TaxRate> findAllActiveWithType();
 }
@@ -0,0 +1,22 @@
+package com.taxi.domain.taxicaller.model;
+
+/**
+ * TaxiCaller reports pulled by the import jobs.
+ * Each report keeps its own sync watermark.
+ */
+public enum TaxiCallerReportType {
+    /**
+     * Driver log on/off report (template 11118) → driver_shifts
+     */
+    DRIVER_SHIFTS,
+
+    /**
+     * Account job report (template 13908) → account_charge
+     */
+    ACCOUNT_JOBS,
+
+    /**
+     * Driver job report (template 14001) → driver_trips
+     */
+    DRIVER_JOBS
+}
@@ -0,0 +1,67 @@
+package com.taxi.domain.taxicaller.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * High-water mark for the incremental TaxiCaller sync.
+ *
+ * One row per tenant and report type. Keyed by tenant id rather than left to the schema: TaxiCaller
+ * credentials are configured per tenant id, and tenant ids that share a schema may use different
+ * TaxiCaller accounts. The next sync requests only the window [lastSeenAt - overlap, now].
+ */
+@Entity
+@Table(name = "taxicaller_sync_watermark",
+       uniqueConstraints = @UniqueConstraint(name = "uk_taxicaller_sync_tenant_report_type",
+                                             columnNames = {"tenant_id", "report_type"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TaxiCallerSyncWatermark {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "tenant_id", nullable = false, length = 63)
+    private String tenantId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "report_type", nullable = false, length = 30)
+    private TaxiCallerReportType reportType;
+
+    /**
+     * Latest job start / log-on time that is safe to resume from
+     */
+    @Column(name = "last_seen_at")
+    private LocalDateTime lastSeenAt;
+
+    // Window requested by the last sync run
+    @Column(name = "last_window_start")
+    private LocalDateTime lastWindowStart;
+
+    @Column(name = "last_window_end")
+    private LocalDateTime lastWindowEnd;
+
+    @Column(name = "last_record_count")
+    private Integer lastRecordCount;
+
+    @Column(name = "last_synced_at")
+    private LocalDateTime lastSyncedAt;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,17 @@
+package com.taxi.domain.taxicaller.repository;
+
+import com.taxi.domain.taxicaller.model.TaxiCallerReportType;
+import com.taxi.domain.taxicaller.model.TaxiCallerSyncWatermark;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TaxiCallerSyncWatermarkRepository extends JpaRepository<TaxiCallerSyncWatermark, Long> {
+
+    Optional<TaxiCallerSyncWatermark> findByTenantIdAndReportType(String tenantId, TaxiCallerReportType reportType);
+
+    List<TaxiCallerSyncWatermark> findByTenantIdOrderByReportType(String tenantId);
+}
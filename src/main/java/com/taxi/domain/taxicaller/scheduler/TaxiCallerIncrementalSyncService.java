@@ -0,0 +1,342 @@
+package com.taxi.domain.taxicaller.scheduler;
+
+import com.taxi.domain.account.dto.TaxiCallerImportResult;
+import com.taxi.domain.account.service.TaxiCallerAccountChargeImportService;
+import com.taxi.domain.drivertrip.dto.DriverTripImportResult;
+import com.taxi.domain.drivertrip.service.TaxiCallerDriverTripImportService;
+import com.taxi.domain.shift.dto.DriverShiftImportResult;
+import com.taxi.domain.shift.service.TaxiCallerDriverShiftImportService;
+import com.taxi.domain.taxicaller.model.TaxiCallerReportType;
+import com.taxi.domain.taxicaller.model.TaxiCallerSyncWatermark;
+import com.taxi.domain.taxicaller.repository.TaxiCallerSyncWatermarkRepository;
+import com.taxi.domain.taxicaller.service.TaxiCallerService;
+import com.taxi.infrastructure.multitenancy.TenantContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Incremental (watermark-based) TaxiCaller sync.
+ *
+ * Instead of re-importing whole days, each report keeps a high-water mark
+ * (latest job start / shift log-on already imported) and only the delta window
+ * [watermark - overlap, now] is requested from TaxiCaller. The overlap picks up
+ * jobs that were still open or edited after the previous run; the importers
+ * already skip rows that exist, so re-reading the overlap is harmless.
+ *
+ * Watermarks and the one-pass-at-a-time guard are both per tenant id, so tenants sync
+ * independently and a slow tenant does not make the others skip their runs.
+ *
+ * Configuration:
+ * - taxicaller.sync.incremental.enabled=true/false
+ * - taxicaller.sync.incremental.interval-ms=300000 (delay between runs)
+ * - taxicaller.sync.incremental.overlap-minutes=30
+ * - taxicaller.sync.incremental.initial-days=2 (window used before any watermark exists)
+ * - taxicaller.sync.incremental.tenants=maclures (comma-separated)
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(
+    name = "taxicaller.sync.incremental.enabled",
+    havingValue = "true",
+    matchIfMissing = false
+)
+public class TaxiCallerIncrementalSyncService {
+
+    private static final DateTimeFormatter JOB_DATETIME_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+    private static final DateTimeFormatter[] SHIFT_DATETIME_FORMATS = {
+        DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss.SSS"),
+        DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss"),
+        DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm")
+    };
+
+    private final TaxiCallerService taxiCallerService;
+    private final TaxiCallerDriverShiftImportService driverShiftImportService;
+    private final TaxiCallerAccountChargeImportService accountChargeImportService;
+    private final TaxiCallerDriverTripImportService driverTripImportService;
+    private final TaxiCallerSyncWatermarkRepository watermarkRepository;
+
+    @Value("${taxicaller.sync.incremental.overlap-minutes:30}")
+    private int overlapMinutes;
+
+    @Value("${taxicaller.sync.incremental.initial-days:2}")
+    private int initialDays;
+
+    @Value("${taxicaller.sync.incremental.tenants:maclures}")
+    private List<String> tenants;
+
+    // Tenants with a pass in progress
+    private final Set<String> running = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Scheduled entry point - syncs every configured tenant.
+     * fixedDelay means the next run starts only after this one has finished.
+     */
+    @Scheduled(
+        fixedDelayString = "${taxicaller.sync.incremental.interval-ms:300000}",
+        initialDelayString = "${taxicaller.sync.incremental.initial-delay-ms:60000}"
+    )
+    public void scheduledIncrementalSync() {
+        for (String tenant : tenants) {
+            try {
+                TenantContext.setCurrentTenant(tenant.trim());
+                syncCurrentTenant();
+            } catch (Exception e) {
+                log.error("Incremental TaxiCaller sync failed for tenant {}: {}", tenant, e.getMessage(), e);
+            } finally {
+                TenantContext.clear();
+            }
+        }
+    }
+
+    /**
+     * Run one incremental pass for the tenant in TenantContext.
+     * Returns a per-report summary, or an empty map if a sync of the tenant is already running.
+     */
+    public Map<TaxiCallerReportType, SyncOutcome> syncCurrentTenant() {
+        String tenant = TenantContext.getCurrentTenant();
+        Map<TaxiCallerReportType, SyncOutcome> outcomes = new LinkedHashMap<>();
+        if (!running.add(tenant)) {
+            log.info("Incremental TaxiCaller sync already in progress for tenant {} - skipping this run", tenant);
+            return outcomes;
+        }
+
+        try {
+            LocalDateTime now = LocalDateTime.now().withNano(0);
+            // Shifts first so drivers auto-created from log-ons exist before their jobs are imported
+            for (TaxiCallerReportType type : TaxiCallerReportType.values()) {
+                outcomes.put(type, syncReport(tenant, type, now));
+            }
+            return outcomes;
+        } finally {
+            running.remove(tenant);
+        }
+    }
+
+    /**
+     * Current watermarks for the tenant in TenantContext
+     */
+    public List<TaxiCallerSyncWatermark> getWatermarks() {
+        return watermarkRepository.findByTenantIdOrderByReportType(TenantContext.getCurrentTenant());
+    }
+
+    /**
+     * Move a report's watermark (e.g. to force a re-sync from a given time).
+     * Passing null clears it so the next run falls back to the initial window.
+     */
+    public TaxiCallerSyncWatermark resetWatermark(TaxiCallerReportType type, LocalDateTime lastSeenAt) {
+        TaxiCallerSyncWatermark watermark = loadWatermark(TenantContext.getCurrentTenant(), type);
+        watermark.setLastSeenAt(lastSeenAt);
+        watermark.setLastError(null);
+        return watermarkRepository.save(watermark);
+    }
+
+    private SyncOutcome syncReport(String tenant, TaxiCallerReportType type, LocalDateTime now) {
+        TaxiCallerSyncWatermark watermark = loadWatermark(tenant, type);
+        LocalDateTime windowStart = computeWindowStart(type, watermark.getLastSeenAt(), now);
+
+        SyncOutcome outcome = new SyncOutcome();
+        outcome.windowStart = windowStart;
+        outcome.windowEnd = now;
+
+        try {
+            JSONArray rows = fetch(type, windowStart, now);
+            if (rows == null) {
+                // TaxiCallerService returns null on API errors - keep the watermark so the window is retried
+                throw new IllegalStateException("TaxiCaller returned no response for " + type);
+            }
+
+            outcome.fetched = rows.length();
+            if (rows.length() > 0) {
+                outcome.imported = importRows(type, rows);
+            }
+
+            LocalDateTime newMark = computeHighWaterMark(type, rows);
+            if (newMark != null && (watermark.getLastSeenAt() == null || newMark.isAfter(watermark.getLastSeenAt()))) {
+                watermark.setLastSeenAt(newMark);
+            } else if (watermark.getLastSeenAt() == null) {
+                // Nothing seen yet - remember where this window started so the next run does not fall back again
+                watermark.setLastSeenAt(windowStart.plusMinutes(overlapMinutes));
+            }
+            watermark.setLastError(null);
+
+            log.info("Incremental sync {} for tenant {}: window {} → {}, fetched {}, imported {}, watermark {}",
+                type, tenant, windowStart, now, outcome.fetched, outcome.imported, watermark.getLastSeenAt());
+
+        } catch (Exception e) {
+            outcome.error = e.getMessage();
+            watermark.setLastError(e.getMessage());
+            log.error("Incremental sync {} failed for tenant {}, window {} → {}: {}",
+                type, tenant, windowStart, now, e.getMessage(), e);
+        }
+
+        watermark.setLastWindowStart(windowStart);
+        watermark.setLastWindowEnd(now);
+        watermark.setLastRecordCount(outcome.fetched);
+        watermark.setLastSyncedAt(LocalDateTime.now());
+        watermarkRepository.save(watermark);
+
+        outcome.watermark = watermark.getLastSeenAt();
+        return outcome;
+    }
+
+    private TaxiCallerSyncWatermark loadWatermark(String tenant, TaxiCallerReportType type) {
+        return watermarkRepository.findByTenantIdAndReportType(tenant, type)
+            .orElseGet(() -> TaxiCallerSyncWatermark.builder().tenantId(tenant).reportType(type).build());
+    }
+
+    /**
+     * Window start = watermark - overlap (or the initial look-back when no watermark exists).
+     *
+     * Driver shifts are consolidated per shift window (DAY from 01:00, NIGHT from 13:00), so
+     * the shift window start is floored to the containing shift window; otherwise a partial
+     * window would split one consolidated shift into several.
+     */
+    private LocalDateTime computeWindowStart(TaxiCallerReportType type, LocalDateTime lastSeenAt, LocalDateTime now) {
+        LocalDateTime start = lastSeenAt != null
+            ? lastSeenAt.minusMinutes(overlapMinutes)
+            : now.toLocalDate().minusDays(initialDays).atStartOfDay();
+
+        if (type == TaxiCallerReportType.DRIVER_SHIFTS) {
+            start = floorToShiftWindow(start);
+        }
+        return start;
+    }
+
+    private LocalDateTime floorToShiftWindow(LocalDateTime time) {
+        LocalDateTime dayStart = time.toLocalDate().atTime(1, 0);
+        LocalDateTime nightStart = time.toLocalDate().atTime(13, 0);
+        if (!time.isBefore(nightStart)) {
+            return nightStart;
+        }
+        if (!time.isBefore(dayStart)) {
+            return dayStart;
+        }
+        // 00:00 - 00:59 belongs to the previous day's NIGHT shift
+        return time.toLocalDate().minusDays(1).atTime(13, 0);
+    }
+
+    private JSONArray fetch(TaxiCallerReportType type, LocalDateTime start, LocalDateTime end) {
+        switch (type) {
+            case DRIVER_SHIFTS:
+                return taxiCallerService.generateDriverLogOnOffReports(start, end);
+            case ACCOUNT_JOBS:
+                return taxiCallerService.generateAccountJobReports(start, end);
+            case DRIVER_JOBS:
+                return taxiCallerService.generateDriverJobReports(start, end);
+            default:
+                throw new IllegalArgumentException("Unsupported report type: " + type);
+        }
+    }
+
+    private int importRows(TaxiCallerReportType type, JSONArray rows) {
+        switch (type) {
+            case DRIVER_SHIFTS: {
+                DriverShiftImportResult result = driverShiftImportService.importDriverShifts(rows);
+                return result.getSuccessCount();
+            }
+            case ACCOUNT_JOBS: {
+                TaxiCallerImportResult result = accountChargeImportService.importAccountJobReports(rows);
+                return result != null ? result.getSuccessCount() : 0;
+            }
+            case DRIVER_JOBS: {
+                DriverTripImportResult result = driverTripImportService.importDriverJobReports(rows);
+                return result.getSuccessCount();
+            }
+            default:
+                throw new IllegalArgumentException("Unsupported report type: " + type);
+        }
+    }
+
+    /**
+     * Latest point in time that is fully imported.
+     *
+     * Jobs: the latest job start seen.
+     * Shifts: the latest log-on seen, but never past the log-on of a shift that is still
+     * in progress, so open shifts are re-read until their log-off arrives.
+     */
+    private LocalDateTime computeHighWaterMark(TaxiCallerReportType type, JSONArray rows) {
+        LocalDateTime latest = null;
+        LocalDateTime earliestOpen = null;
+
+        for (int i = 0; i < rows.length(); i++) {
+            JSONObject row = rows.optJSONObject(i);
+            if (row == null) {
+                continue;
+            }
+
+            LocalDateTime seen;
+            if (type == TaxiCallerReportType.DRIVER_SHIFTS) {
+                seen = parseShiftTime(row.optString("track.start", ""));
+                if (seen != null && row.optString("track.end", "").isEmpty()
+                        && (earliestOpen == null || seen.isBefore(earliestOpen))) {
+                    earliestOpen = seen;
+                }
+            } else {
+                seen = parseJobTime(row.optString("start", ""));
+            }
+
+            if (seen != null && (latest == null || seen.isAfter(latest))) {
+                latest = seen;
+            }
+        }
+
+        if (earliestOpen != null && latest != null && earliestOpen.isBefore(latest)) {
+            return earliestOpen;
+        }
+        return latest;
+    }
+
+    private LocalDateTime parseJobTime(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(value.trim(), JOB_DATETIME_FORMAT);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private LocalDateTime parseShiftTime(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        for (DateTimeFormatter format : SHIFT_DATETIME_FORMATS) {
+            try {
+                return LocalDateTime.parse(value.trim(), format);
+            } catch (DateTimeParseException e) {
+                // try next precision
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Per-report result of one incremental pass
+     */
+    public static class SyncOutcome {
+        public LocalDateTime windowStart;
+        public LocalDateTime windowEnd;
+        public int fetched;
+        public int imported;
+        public LocalDateTime watermark;
+        public String error;
+    }
+}
@@ -12,6 +12,7 @@ import java.io.*;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -132,6 +133,13 @@ public class TaxiCallerService {
      * Generate account job reports for a date range
      */
     public JSONArray generateAccountJobReports(LocalDate startDate, LocalDate endDate) {
+        return generateAccountJobReports(startDate.atStartOfDay(), endDate.atTime(23, 59, 59));
+    }
+
+    /**
+     * Generate account job reports for an arbitrary time window (used by incremental sync)
+     */
+    public JSONArray generateAccountJobReports(LocalDateTime start, LocalDateTime end) {
         try {
             String token = refreshToken(); // Fresh token for each request
             String urlString = getBaseUrl() + "/api/v1/reports/typed/generate";
@@ -149,8 +157,8 @@ public class TaxiCallerService {
             // Adding custom period with date range
             JSONObject period = new JSONObject();
             period.put("@type", "custom");
-            period.put("start", startDate.atStartOfDay().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
-            period.put("end", endDate.atTime(23, 59, 59).format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+            period.put("start", start.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+            period.put("end", end.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
             searchQuery.put("period", period);
 
             // Adding filters
@@ -188,6 +196,13 @@ public class TaxiCallerService {
      * Generate driver log on/off reports for a date range
      */
     public JSONArray generateDriverLogOnOffReports(LocalDate startDate, LocalDate endDate) {
+        return generateDriverLogOnOffReports(startDate.atStartOfDay(), endDate.atTime(23, 59, 59));
+    }
+
+    /**
+     * Generate driver log on/off reports for an arbitrary time window (used by incremental sync)
+     */
+    public JSONArray generateDriverLogOnOffReports(LocalDateTime start, LocalDateTime end) {
         try {
             String token = refreshToken(); // Fresh token for each request
             String urlString = getBaseUrl() + "/api/v1/reports/typed/generate";
@@ -205,8 +220,8 @@ public class TaxiCallerService {
             // Adding custom period with date range
             JSONObject period = new JSONObject();
             period.put("@type", "custom");
-            period.put("start", startDate.atStartOfDay().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
-            period.put("end", endDate.atTime(23, 59, 59).format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+            period.put("start", start.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+            period.put("end", end.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
             searchQuery.put("period", period);
 
             // Adding filters
@@ -296,6 +311,13 @@ public class TaxiCallerService {
      * Generate driver job reports for a custom date range
      */
     public JSONArray generateDriverJobReports(LocalDate startDate, LocalDate endDate) {
+        return generateDriverJobReports(startDate.atStartOfDay(), endDate.atTime(23, 59, 59));
+    }
+
+    /**
+     * Generate driver job reports for an arbitrary time window (used by incremental sync)
+     */
+    public JSONArray generateDriverJobReports(LocalDateTime start, LocalDateTime end) {
         try {
             String token = refreshToken(); // Fresh token for each request
             String urlString = getBaseUrl() + "/api/v1/reports/typed/generate";
@@ -313,8 +335,8 @@ public class TaxiCallerService {
             // Adding custom period with date range
             JSONObject period = new JSONObject();
             period.put("@type", "custom");
-            period.put("start", startDate.atStartOfDay().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
-            period.put("end", endDate.atTime(23, 59, 59).format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+            period.put("start", start.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+            period.put("end", end.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
             searchQuery.put("period", period);
 
             // Adding filters
@@ -0,0 +1,16 @@
+package com.taxi.infrastructure.datachange;
+
+/**
+ * Groups of business data that derived results (cached reports) depend on, as versioned by
+ * DataVersionService for bulk writes.
+ */
+public enum DataSource {
+
+    SHIFTS,
+    CHARGES,
+    CARD_TRANSACTIONS,
+    EXPENSES,
+    RATES,
+    TRANSFERS,
+    FLEET
+}
@@ -0,0 +1,113 @@
+package com.taxi.infrastructure.datachange;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Version counter for each DataSource, for bulk writes that cannot be pinned to the persons and
+ * periods they affect. JPA writes and the bulk paths that can name them are versioned per person
+ * and month by the driver ledger (DriverLedgerService.dataVersion) instead.
+ *
+ * Counters live in data_version in each tenant schema and are bumped in the writing transaction,
+ * so a result computed under a set of versions is current, on every node, for as long as those
+ * versions are unchanged.
+ *
+ * Per-node caches of whole tables (rates, cab attributes) check version(source) on every lookup:
+ * it is read once per transaction, so a report transaction pays one query for all its lookups
+ * and sees the version that matches its own snapshot of the data.
+ */
+@Component
+public class DataVersionService {
+
+    private static final String BUMP_SQL =
+            "INSERT INTO data_version (source, version, updated_at) VALUES (?1, 1, ?2) " +
+            "ON DUPLICATE KEY UPDATE version = version + 1, updated_at = ?2";
+    private static final String READ_SQL =
+            "SELECT source, version FROM data_version";
+
+    // Versions read by the current transaction, bound to it as a resource
+    private static final Object TRANSACTION_VERSIONS = new Object();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Record a write to the given data for the current tenant, in the caller's transaction
+     */
+    @Transactional
+    public void bump(DataSource source) {
+        entityManager.createNativeQuery(BUMP_SQL)
+                .setParameter(1, source.name())
+                .setParameter(2, LocalDateTime.now())
+                .executeUpdate();
+        // Read again if this transaction asks, so it sees its own bump
+        if (TransactionSynchronizationManager.hasResource(TRANSACTION_VERSIONS)) {
+            TransactionSynchronizationManager.unbindResource(TRANSACTION_VERSIONS);
+        }
+    }
+
+    /**
+     * Current tenant's version of one source, read once per transaction
+     */
+    @Transactional(readOnly = true)
+    public long version(DataSource source) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return readAll().getOrDefault(source.name(), 0L);
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, Long> stored = (Map<String, Long>) TransactionSynchronizationManager.getResource(TRANSACTION_VERSIONS);
+        if (stored == null) {
+            stored = readAll();
+            TransactionSynchronizationManager.bindResource(TRANSACTION_VERSIONS, stored);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TRANSACTION_VERSIONS);
+                }
+            });
+        }
+        return stored.getOrDefault(source.name(), 0L);
+    }
+
+    /**
+     * Whether what the current thread reads now may be cached under the versions it reads: not
+     * inside a read-write transaction, which sees its own uncommitted writes - if it rolls back,
+     * the versions it bumped are handed out again by the next write
+     */
+    public static boolean isCacheableRead() {
+        return !TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    /**
+     * Current tenant's versions of the given sources, in the given order
+     */
+    @Transactional(readOnly = true)
+    public List<Long> versions(DataSource... sources) {
+        Map<String, Long> stored = readAll();
+        List<Long> result = new ArrayList<>(sources.length);
+        for (DataSource source : sources) {
+            result.add(stored.getOrDefault(source.name(), 0L));
+        }
+        return result;
+    }
+
+    private Map<String, Long> readAll() {
+        Map<String, Long> stored = new HashMap<>();
+        for (Object row : entityManager.createNativeQuery(READ_SQL).getResultList()) {
+            Object[] columns = (Object[]) row;
+            stored.put((String) columns[0], ((Number) columns[1]).longValue());
+        }
+        return stored;
+    }
+}
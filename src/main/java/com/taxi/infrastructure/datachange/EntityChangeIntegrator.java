@@ -0,0 +1,114 @@
+package com.taxi.infrastructure.datachange;
+
+import com.taxi.infrastructure.datachange.EntityChangeObserver.ChangeType;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Registers Hibernate post-commit insert/update/delete listeners and forwards every
+ * committed entity change to the EntityChangeObserver beans. Changes are also passed, inside
+ * the writing transaction, to the TransactionalChangeObserver beans (TransactionalChangeListener).
+ *
+ * Observers are looked up lazily on each event: they depend on repositories, which
+ * depend on the EntityManagerFactory this customizer is helping to build.
+ */
+@Component
+@Slf4j
+public class EntityChangeIntegrator implements HibernatePropertiesCustomizer, Integrator,
+        PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private final ObjectProvider<EntityChangeObserver> observers;
+    private final TransactionalChangeListener transactionalListener;
+
+    public EntityChangeIntegrator(ObjectProvider<EntityChangeObserver> observers,
+                                  ObjectProvider<TransactionalChangeObserver<?>> transactionalObservers) {
+        this.observers = observers;
+        this.transactionalListener = new TransactionalChangeListener(transactionalObservers);
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put("hibernate.integrator_provider", (IntegratorProvider) () -> List.of(this));
+    }
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+        EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+        registry.appendListeners(EventType.POST_INSERT, transactionalListener);
+        registry.appendListeners(EventType.POST_UPDATE, transactionalListener);
+        registry.appendListeners(EventType.POST_DELETE, transactionalListener);
+        log.info("Registered entity change listeners");
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        notifyObservers(event.getEntity(), ChangeType.INSERT);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        notifyObservers(event.getEntity(), ChangeType.UPDATE);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        notifyObservers(event.getEntity(), ChangeType.DELETE);
+    }
+
+    // Post-commit listeners are only called on success
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return true;
+    }
+
+    private void notifyObservers(Object entity, ChangeType changeType) {
+        for (EntityChangeObserver observer : observers) {
+            try {
+                observer.onChange(entity, changeType);
+            } catch (Exception e) {
+                // Never fail the (already committed) caller because of an observer
+                log.warn("Entity change observer {} failed for {}: {}",
+                        observer.getClass().getSimpleName(), entity.getClass().getSimpleName(), e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.taxi.infrastructure.datachange;
+
+/**
+ * Notified after a transaction that inserted, updated or deleted an entity has committed.
+ *
+ * Called on the committing thread, so TenantContext is still the tenant that made the change.
+ * Implementations must be cheap and must not touch the database (the session is completing);
+ * record what changed and apply it later.
+ *
+ * Bulk JPQL/native updates and JDBC batch writes bypass Hibernate events - callers of those
+ * paths notify the interested services directly.
+ */
+public interface EntityChangeObserver {
+
+    enum ChangeType { INSERT, UPDATE, DELETE }
+
+    void onChange(Object entity, ChangeType changeType);
+}
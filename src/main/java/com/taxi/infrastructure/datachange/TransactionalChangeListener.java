@@ -0,0 +1,105 @@
+package com.taxi.infrastructure.datachange;
+
+import com.taxi.infrastructure.datachange.EntityChangeObserver.ChangeType;
+import com.taxi.infrastructure.datachange.TransactionalChangeObserver.PreviousState;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-transaction half of EntityChangeIntegrator: collects the keys of the
+ * TransactionalChangeObserver beans at flush, per session, and hands each observer its keys
+ * once before the transaction commits (after the final flush).
+ */
+class TransactionalChangeListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private final ObjectProvider<TransactionalChangeObserver<?>> observers;
+
+    // Keys of each session's running transaction, dropped when it completes
+    private final Map<SharedSessionContractImplementor, PendingKeys> pending = new ConcurrentHashMap<>();
+
+    TransactionalChangeListener(ObjectProvider<TransactionalChangeObserver<?>> observers) {
+        this.observers = observers;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        collect(event.getSession(), event.getEntity(), ChangeType.INSERT, PreviousState.UNKNOWN);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        PreviousState previous = event.getOldState() != null
+                ? new PreviousState(event.getPersister().getPropertyNames(), event.getOldState())
+                : PreviousState.UNKNOWN;
+        collect(event.getSession(), event.getEntity(), ChangeType.UPDATE, previous);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        collect(event.getSession(), event.getEntity(), ChangeType.DELETE, PreviousState.UNKNOWN);
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private void collect(EventSource session, Object entity, ChangeType changeType, PreviousState previous) {
+        for (TransactionalChangeObserver<?> observer : observers) {
+            Collection<?> keys = observer.keysFor(entity, changeType, previous);
+            if (keys != null && !keys.isEmpty()) {
+                pendingKeys(session).add(observer, keys);
+            }
+        }
+    }
+
+    private PendingKeys pendingKeys(EventSource session) {
+        return pending.computeIfAbsent(session, s -> {
+            PendingKeys keys = new PendingKeys();
+            session.getActionQueue().registerProcess(keys);
+            // Also on rollback, where the before-completion process does not run
+            session.getActionQueue().registerProcess(
+                    (AfterTransactionCompletionProcess) (success, completed) -> pending.remove(session, keys));
+            return keys;
+        });
+    }
+
+    private class PendingKeys implements BeforeTransactionCompletionProcess {
+
+        private final Map<TransactionalChangeObserver<?>, Set<Object>> keysByObserver = new LinkedHashMap<>();
+
+        void add(TransactionalChangeObserver<?> observer, Collection<?> keys) {
+            keysByObserver.computeIfAbsent(observer, o -> new LinkedHashSet<>()).addAll(keys);
+        }
+
+        @Override
+        public void doBeforeTransactionCompletion(SessionImplementor session) {
+            // Changes flushed by the observers themselves start a new set
+            pending.remove(session, this);
+            keysByObserver.forEach(PendingKeys::beforeCommit);
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <K> void beforeCommit(TransactionalChangeObserver<K> observer, Set<Object> keys) {
+            observer.beforeCommit((Set<K>) keys);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.taxi.infrastructure.datachange;
+
+import com.taxi.infrastructure.datachange.EntityChangeObserver.ChangeType;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Receives entity changes inside the writing transaction.
+ *
+ * keysFor is called at flush for every inserted, updated and deleted entity; the keys collected
+ * over one transaction are passed to beforeCommit once, on the same session, just before it
+ * commits. Whatever beforeCommit writes therefore commits or rolls back with the change itself
+ * and is seen by every node - unlike EntityChangeObserver, which is told after commit, on the
+ * committing node only. An exception from either method fails the transaction.
+ *
+ * Keys are collected in a set, so they need value equality.
+ */
+public interface TransactionalChangeObserver<K> {
+
+    /**
+     * Keys affected by the change (empty if none). For an update, previous holds the entity's
+     * values before it, so a key the entity moved away from can be included too.
+     */
+    Collection<K> keysFor(Object entity, ChangeType changeType, PreviousState previous);
+
+    /**
+     * Record the transaction's keys, in the transaction
+     */
+    void beforeCommit(Set<K> keys);
+
+    /**
+     * Property values of an updated entity before the update. Unknown for inserts and deletes,
+     * and for updates Hibernate did not load the entity for first.
+     */
+    record PreviousState(String[] propertyNames, Object[] values) {
+
+        public static final PreviousState UNKNOWN = new PreviousState(new String[0], null);
+
+        public boolean isKnown() {
+            return values != null;
+        }
+
+        /**
+         * The property's previous value; null if unknown
+         */
+        public Object get(String propertyName) {
+            if (values == null) {
+                return null;
+            }
+            for (int i = 0; i < propertyNames.length; i++) {
+                if (propertyNames[i].equals(propertyName)) {
+                    return values[i];
+                }
+            }
+            return null;
+        }
+    }
+}
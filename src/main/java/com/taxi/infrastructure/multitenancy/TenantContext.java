@@ -2,6 +2,8 @@ package com.taxi.infrastructure.multitenancy;
 
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.function.Supplier;
+
 /**
  * Thread-local context for holding the current tenant identifier.
  * Used for schema-based multi-tenancy.
@@ -44,6 +46,43 @@ public final class TenantContext {
         return tenant;
     }
 
+    /**
+     * Get tenant for the current thread, or null if none is set
+     * (pool threads before a task sets one). For saving and restoring the tenant.
+     */
+    public static String peekCurrentTenant() {
+        return CURRENT_TENANT.get();
+    }
+
+    /**
+     * Run a task under the given tenant, then restore the thread's previous tenant (or none).
+     * For pool tasks: the ThreadLocal does not carry over to pool threads, and with CallerRuns
+     * the task may run on the submitting thread itself.
+     */
+    public static <T> T callInTenant(String tenant, Supplier<T> task) {
+        String previousTenant = peekCurrentTenant();
+        setCurrentTenant(tenant);
+        try {
+            return task.get();
+        } finally {
+            if (previousTenant != null) {
+                CURRENT_TENANT.set(previousTenant);
+            } else {
+                clear();
+            }
+        }
+    }
+
+    /**
+     * Run a task under the given tenant, see callInTenant
+     */
+    public static void runInTenant(String tenant, Runnable task) {
+        callInTenant(tenant, () -> {
+            task.run();
+            return null;
+        });
+    }
+
     /**
      * Explicitly set system tenant (non-HTTP contexts only).
      */
@@ -0,0 +1,66 @@
+package com.taxi.infrastructure.multitenancy;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Local time zone of each tenant. Timestamps are stored in UTC; the days a tenant works in
+ * (shift dates, report periods) are days in its own zone, with daylight saving time.
+ *
+ * Configuration:
+ * - app.tenant.default-time-zone=America/Vancouver (tenants not listed below)
+ * - app.tenant.time-zones=maclures=America/Vancouver (comma-separated tenant=zone, any alias)
+ */
+@Component
+@Slf4j
+public class TenantTimeZones {
+
+    private final TenantSchemaMapper schemaMapper;
+    private final ZoneId defaultZone;
+    private final Map<String, ZoneId> zoneBySchema = new HashMap<>();
+
+    public TenantTimeZones(TenantSchemaMapper schemaMapper,
+                           @Value("${app.tenant.default-time-zone:America/Vancouver}") String defaultZone,
+                           @Value("${app.tenant.time-zones:}") List<String> zones) {
+        this.schemaMapper = schemaMapper;
+        this.defaultZone = ZoneId.of(defaultZone);
+        for (String entry : zones) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.split("=", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected tenant=zone in app.tenant.time-zones: " + entry);
+            }
+            zoneBySchema.put(schemaMapper.getSchemaName(parts[0].trim()), ZoneId.of(parts[1].trim()));
+        }
+        log.info("Tenant time zones: default {}, {}", this.defaultZone, zoneBySchema);
+    }
+
+    /**
+     * Zone of the current tenant (the default zone outside a tenant)
+     */
+    public ZoneId currentZone() {
+        String tenant = TenantContext.peekCurrentTenant();
+        if (tenant == null || !schemaMapper.hasMapping(tenant)) {
+            return defaultZone;
+        }
+        return zoneBySchema.getOrDefault(schemaMapper.getSchemaName(tenant), defaultZone);
+    }
+
+    /**
+     * The current tenant's local date of a UTC timestamp
+     */
+    public LocalDate localDate(LocalDateTime utc) {
+        return utc.atOffset(ZoneOffset.UTC).atZoneSameInstant(currentZone()).toLocalDate();
+    }
+}
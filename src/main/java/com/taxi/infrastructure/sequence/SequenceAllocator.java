@@ -0,0 +1,167 @@
+package com.taxi.infrastructure.sequence;
+
+import com.taxi.infrastructure.multitenancy.TenantContext;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Hands out document numbers (invoices, payments, transfer executions, EFT files) from
+ * per-key counter rows in number_sequence, which lives in each tenant schema.
+ *
+ * A counter is advanced a block at a time with one UPDATE in its own short REQUIRES_NEW
+ * transaction, so its row is locked only for that UPDATE, never for the caller's transaction,
+ * and the block is then served from memory. A refill briefly borrows a second pooled connection.
+ *
+ * Gap policy: numbers are unique across threads and instances, but not gapless.
+ * - A caller that rolls back does not return its number
+ * - The unused rest of a block is skipped when the instance stops
+ * - With blocks larger than one, instances serve their own blocks, so numbers are not in issue
+ *   order across instances
+ * Use a block size of 1 where numbers must follow issue order (EFT file creation numbers).
+ */
+@Component
+@Slf4j
+public class SequenceAllocator {
+
+    private static final String RESERVE_SQL =
+            "UPDATE number_sequence SET last_value = last_value + ?1, updated_at = ?2 WHERE sequence_key = ?3";
+    private static final String READ_SQL =
+            "SELECT last_value FROM number_sequence WHERE sequence_key = ?1";
+    private static final String RESET_SQL =
+            "UPDATE number_sequence SET last_value = ?1, updated_at = ?2 WHERE sequence_key = ?3";
+    private static final String CREATE_SQL =
+            "INSERT INTO number_sequence (sequence_key, last_value, updated_at) VALUES (?1, ?2, ?3)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate newTransaction;
+    private final int defaultBlockSize;
+
+    // tenant/key -> numbers reserved but not yet handed out
+    private final Map<String, Block> blocks = new ConcurrentHashMap<>();
+
+    public SequenceAllocator(PlatformTransactionManager transactionManager,
+                             @Value("${app.sequence.block-size:20}") int defaultBlockSize) {
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.defaultBlockSize = Math.max(1, defaultBlockSize);
+    }
+
+    private static class Block {
+        long next = 1;
+        long last = 0;
+    }
+
+    /**
+     * Next number for the key, reserving numbers a default-size block at a time.
+     *
+     * @param lastUsed highest number already used for the key, consulted only when the key's
+     *                 counter row does not exist yet (e.g. numbers issued before the counter)
+     */
+    public long next(String key, LongSupplier lastUsed) {
+        return next(key, defaultBlockSize, lastUsed);
+    }
+
+    /**
+     * Next number for the key, reserving numbers blockSize at a time
+     */
+    public long next(String key, int blockSize, LongSupplier lastUsed) {
+        int size = Math.max(1, blockSize);
+        Block block = blocks.computeIfAbsent(blockKey(key), k -> new Block());
+        synchronized (block) {
+            if (block.next > block.last) {
+                long last = reserve(key, size, lastUsed);
+                block.next = last - size + 1;
+                block.last = last;
+            }
+            return block.next++;
+        }
+    }
+
+    /**
+     * Make lastUsed the highest number issued for the key, so the next one is lastUsed + 1.
+     * Numbers this instance had reserved are dropped; other instances finish their current block
+     * (none, for keys taken a block of 1 at a time).
+     */
+    public void reset(String key, long lastUsed) {
+        Block block = blocks.computeIfAbsent(blockKey(key), k -> new Block());
+        synchronized (block) {
+            Integer updated = newTransaction.execute(s -> entityManager.createNativeQuery(RESET_SQL)
+                    .setParameter(1, lastUsed)
+                    .setParameter(2, LocalDateTime.now())
+                    .setParameter(3, key)
+                    .executeUpdate());
+            if (updated == null || updated == 0) {
+                create(key, lastUsed);
+            }
+            block.next = 1;
+            block.last = 0;
+        }
+        log.info("Reset number sequence {} to {}", key, lastUsed);
+    }
+
+    private static String blockKey(String key) {
+        String tenant = TenantContext.peekCurrentTenant();
+        return (tenant != null ? tenant : TenantContext.SYSTEM_TENANT) + "/" + key;
+    }
+
+    /**
+     * Claim the next size numbers for the key and return the highest of them
+     */
+    private long reserve(String key, int size, LongSupplier lastUsed) {
+        Long last = newTransaction.execute(s -> claim(key, size));
+        if (last == null) {
+            create(key, lastUsed.getAsLong());
+            last = newTransaction.execute(s -> claim(key, size));
+            if (last == null) {
+                throw new IllegalStateException("Number sequence " + key + " could not be created");
+            }
+        }
+        return last;
+    }
+
+    private Long claim(String key, int size) {
+        // The update locks the row until this short transaction commits, so the read below sees
+        // exactly this block's end
+        int updated = entityManager.createNativeQuery(RESERVE_SQL)
+                .setParameter(1, size)
+                .setParameter(2, LocalDateTime.now())
+                .setParameter(3, key)
+                .executeUpdate();
+        if (updated == 0) {
+            return null;
+        }
+        List<?> rows = entityManager.createNativeQuery(READ_SQL)
+                .setParameter(1, key)
+                .getResultList();
+        return ((Number) rows.get(0)).longValue();
+    }
+
+    private void create(String key, long lastUsed) {
+        try {
+            newTransaction.executeWithoutResult(s -> entityManager.createNativeQuery(CREATE_SQL)
+                    .setParameter(1, key)
+                    .setParameter(2, lastUsed)
+                    .setParameter(3, LocalDateTime.now())
+                    .executeUpdate());
+            log.info("Created number sequence {} starting after {}", key, lastUsed);
+        } catch (DataIntegrityViolationException e) {
+            // Another thread or instance created it first - its starting point stands
+            log.debug("Number sequence {} already created", key);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.taxi.utils;
+
+import com.itextpdf.text.BaseColor;
+import com.itextpdf.text.Font;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared fonts and colors for the iText PDF services.
+ *
+ * PDF rendering code asks for a font or color wherever it needs one; instances are created once
+ * per distinct definition and reused by every document on every thread. Callers must treat them
+ * as immutable - never call setColor/setSize/setStyle on a shared Font, ask for another one.
+ */
+public final class PdfStyles {
+
+    // rgb is null for fonts without a color
+    private record FontKey(Font.FontFamily family, float size, int style, Integer rgb) {}
+
+    private static final Map<FontKey, Font> FONTS = new ConcurrentHashMap<>();
+    private static final Map<Integer, BaseColor> COLORS = new ConcurrentHashMap<>();
+
+    private PdfStyles() {
+    }
+
+    public static Font font(Font.FontFamily family, float size) {
+        return font(family, size, Font.NORMAL);
+    }
+
+    public static Font font(Font.FontFamily family, float size, int style) {
+        return FONTS.computeIfAbsent(new FontKey(family, size, style, null),
+                k -> new Font(family, size, style));
+    }
+
+    public static Font font(Font.FontFamily family, float size, int style, BaseColor color) {
+        if (color == null) {
+            return font(family, size, style);
+        }
+        return FONTS.computeIfAbsent(new FontKey(family, size, style, color.getRGB()),
+                k -> new Font(family, size, style, color(color.getRed(), color.getGreen(), color.getBlue())));
+    }
+
+    public static BaseColor color(int red, int green, int blue) {
+        return COLORS.computeIfAbsent((red << 16) | (green << 8) | blue,
+                k -> new BaseColor(red, green, blue));
+    }
+}
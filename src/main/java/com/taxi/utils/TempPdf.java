@@ -0,0 +1,62 @@
+package com.taxi.utils;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+
+/**
+ * A PDF rendered to a temp file instead of a byte array, e.g. for an email attachment.
+ * The file is deleted on close - use in try-with-resources.
+ */
+public final class TempPdf implements AutoCloseable {
+
+    private final Path path;
+
+    private TempPdf(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Render a PDF into a new temp file; the writer must not close the stream
+     */
+    public static TempPdf write(Consumer<OutputStream> writer) {
+        Path path;
+        try {
+            path = Files.createTempFile("pdf-", ".pdf");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path))) {
+            writer.accept(out);
+        } catch (IOException e) {
+            deleteQuietly(path);
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            deleteQuietly(path);
+            throw e;
+        }
+        return new TempPdf(path);
+    }
+
+    public File file() {
+        return path.toFile();
+    }
+
+    @Override
+    public void close() {
+        deleteQuietly(path);
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // left for the OS temp cleanup
+        }
+    }
+}
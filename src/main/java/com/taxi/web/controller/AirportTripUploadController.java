@@ -1,11 +1,13 @@
 package com.taxi.web.controller;
 
+import com.taxi.domain.airport.service.AirportTripAggregateService;
 import com.taxi.domain.csvuploader.AirportTripUploadDTO;
 import com.taxi.domain.csvuploader.AirportTripUploadService;
 import com.taxi.domain.csvuploader.CsvUploadCacheService;
 import com.taxi.domain.csvuploader.CsvUploadPreviewDTO;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -15,6 +17,7 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -29,6 +32,7 @@ public class AirportTripUploadController {
 
     private final AirportTripUploadService uploadService;
     private final CsvUploadCacheService cacheService;
+    private final AirportTripAggregateService aggregateService;
 
     @PostMapping("/preview")
     @Transactional(timeout = 1800) // 30 minutes
@@ -128,6 +132,20 @@ public class AirportTripUploadController {
         return ResponseEntity.ok().build();
     }
 
+    /**
+     * Rebuild airport_trip_hourly_total for a date range (backfill / repair)
+     */
+    @PostMapping("/rebuild-totals")
+    public ResponseEntity<Map<String, Object>> rebuildTotals(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("cabDays", aggregateService.rebuild(startDate, endDate));
+        result.put("startDate", startDate);
+        result.put("endDate", endDate);
+        return ResponseEntity.ok(result);
+    }
+
     @GetMapping("/health")
     public ResponseEntity<String> health() {
         return ResponseEntity.ok("Airport Trip Upload Service is running");
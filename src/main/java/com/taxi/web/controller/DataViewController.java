@@ -5,6 +5,11 @@ import com.taxi.domain.airport.model.AirportTripDriver;
 import com.taxi.domain.airport.repository.AirportTripDriverRepository;
 import com.taxi.domain.airport.repository.AirportTripRepository;
 import com.taxi.domain.csvuploader.CreditCardTransactionUploadService;
+import com.taxi.domain.dataview.DataViewGrids;
+import com.taxi.domain.dataview.GridDefinition;
+import com.taxi.domain.dataview.GridPage;
+import com.taxi.domain.dataview.GridQueryService;
+import com.taxi.domain.dataview.GridRequest;
 import com.taxi.domain.payment.model.CreditCardTransaction;
 import com.taxi.domain.payment.repository.CreditCardTransactionRepository;
 import com.taxi.domain.mileage.model.MileageRecord;
@@ -21,6 +26,8 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -36,6 +43,45 @@ public class DataViewController {
     private final MileageRecordRepository mileageRepository;
     private final AirportTripRepository airportTripRepository;
     private final AirportTripDriverRepository airportTripDriverRepository;
+    private final GridQueryService gridQueryService;
+
+    private static final List<String> GRID_PARAMS = List.of("startDate", "endDate", "sort", "size", "cursor", "page");
+
+    // ==================== Projected grids (keyset pagination) ====================
+
+    /**
+     * Projection grid query for credit-card-transactions, mileage-records or airport-trips.
+     * Any other request parameter is treated as a filter (e.g. cabNumber=12, driverNumber=N/A).
+     * GET /data-view/grid/credit-card-transactions?startDate=2026-01-01&endDate=2026-12-31&sort=amount,desc&size=100
+     * Next page: same parameters plus cursor=&lt;nextCursor&gt;
+     */
+    @GetMapping("/grid/{grid}")
+    public ResponseEntity<?> getGrid(
+            @PathVariable String grid,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam Map<String, String> params) {
+
+        GridDefinition<?> definition = DataViewGrids.byName(grid);
+        if (definition == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        Map<String, String> filters = new HashMap<>(params);
+        GRID_PARAMS.forEach(filters::remove);
+
+        try {
+            GridPage<?> result = gridQueryService.query(definition,
+                    new GridRequest(startDate, endDate, filters, sort, size, cursor, page));
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
 
     // ==================== Credit Card Transactions ====================
 
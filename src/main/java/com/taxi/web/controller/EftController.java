@@ -8,6 +8,7 @@ import com.taxi.domain.eft.model.EftFileGeneration;
 import com.taxi.domain.eft.repository.BankAccountRepository;
 import com.taxi.domain.eft.repository.EftConfigRepository;
 import com.taxi.domain.eft.service.EftFileGenerationService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.*;
@@ -15,10 +16,11 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
-import java.nio.charset.StandardCharsets;
+import java.io.IOException;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @Slf4j
 @RestController
@@ -44,15 +46,24 @@ public class EftController {
     @PostMapping("/config")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<EftConfig> saveConfig(@RequestBody EftConfig config) {
+        Integer previousFileCreationNumber = null;
         // Deactivate existing configs
-        eftConfigRepository.findByIsActiveTrue().ifPresent(existing -> {
+        Optional<EftConfig> active = eftConfigRepository.findByIsActiveTrue();
+        if (active.isPresent()) {
+            EftConfig existing = active.get();
+            previousFileCreationNumber = existing.getFileCreationNumber();
             if (config.getId() == null || !config.getId().equals(existing.getId())) {
                 existing.setIsActive(false);
                 eftConfigRepository.save(existing);
             }
-        });
+        }
         config.setIsActive(true);
         EftConfig saved = eftConfigRepository.save(config);
+        // Only an edited file creation number restarts the sequence
+        if (saved.getFileCreationNumber() != null
+                && !saved.getFileCreationNumber().equals(previousFileCreationNumber)) {
+            eftService.restartFileCreationNumbers(saved.getFileCreationNumber());
+        }
         return ResponseEntity.ok(saved);
     }
 
@@ -150,19 +161,18 @@ public class EftController {
     }
 
     @GetMapping("/download/{batchId}")
-    public ResponseEntity<?> downloadEftFile(@PathVariable Long batchId, Authentication authentication) {
+    public ResponseEntity<?> downloadEftFile(@PathVariable Long batchId, Authentication authentication,
+                                             HttpServletResponse response) throws IOException {
         try {
             String user = authentication != null ? authentication.getName() : "system";
-            EftFileGenerationService.EftGenerationResult result = eftService.generateEftFile(batchId, user);
-
-            byte[] fileBytes = result.fileContent.getBytes(StandardCharsets.UTF_8);
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
-            headers.setContentDisposition(ContentDisposition.attachment().filename(result.fileName).build());
-            headers.setContentLength(fileBytes.length);
-
-            return new ResponseEntity<>(fileBytes, headers, HttpStatus.OK);
+            // Records are written straight into the response after the generation is recorded;
+            // a failed download marks the generation FAILED
+            eftService.streamEftFile(batchId, user, file -> {
+                response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+                response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(file.fileName).build().toString());
+            }, response.getOutputStream());
+            return null; // the file is already in the response
         } catch (IllegalStateException | IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
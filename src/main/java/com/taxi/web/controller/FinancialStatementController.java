@@ -2,22 +2,35 @@ package com.taxi.web.controller;
 
 import com.taxi.domain.account.service.EmailService;
 import com.taxi.domain.report.service.FinancialStatementService;
+import com.taxi.domain.report.ReportJobStatus;
 import com.taxi.domain.report.service.ReportPdfService;
+import com.taxi.domain.report.service.StatementDistributionService;
+import com.taxi.domain.report.service.StatementFinalizationService;
 import com.taxi.domain.statement.model.Statement;
 import com.taxi.domain.statement.repository.StatementRepository;
+import com.taxi.domain.statement.service.PeriodBalanceService;
+import com.taxi.domain.statement.service.StatementLineItemStore;
+import com.taxi.domain.user.model.User;
+import com.taxi.domain.user.repository.UserRepository;
+import com.taxi.web.dto.email.BulkEmailReportRequest;
 import com.taxi.web.dto.email.EmailReportRequest;
+import com.taxi.web.dto.report.BulkFinalizeRequest;
 import com.taxi.web.dto.report.OwnerReportDTO;
+import com.taxi.utils.TempPdf;
 import java.math.BigDecimal;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
 import java.time.YearMonth;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -34,6 +47,11 @@ public class FinancialStatementController {
     private final com.taxi.domain.driver.repository.DriverRepository driverRepository;
     private final EmailService emailService;
     private final ReportPdfService reportPdfService;
+    private final StatementDistributionService statementDistributionService;
+    private final StatementFinalizationService statementFinalizationService;
+    private final StatementLineItemStore statementLineItemStore;
+    private final PeriodBalanceService periodBalanceService;
+    private final UserRepository userRepository;
 
     /**
      * Generate a comprehensive financial report for a driver or owner (draft mode)
@@ -168,6 +186,8 @@ public class FinancialStatementController {
             log.info("Fetching statement {}", statementId);
             Optional<Statement> statement = statementRepository.findById(statementId);
             if (statement.isPresent()) {
+                // Line items are stored apart from the statement header
+                statement.get().setLineItemsJson(statementLineItemStore.readJson(statementId));
                 return ResponseEntity.ok(statement.get());
             } else {
                 return ResponseEntity.notFound().build();
@@ -197,6 +217,7 @@ public class FinancialStatementController {
                 BigDecimal prevBalance = statement.getPreviousBalance() != null ? statement.getPreviousBalance() : BigDecimal.ZERO;
                 statement.setNetDue(prevBalance.add(statement.getTotalRevenues()).subtract(statement.getTotalExpenses()).subtract(paidAmount));
                 statementRepository.save(statement);
+                periodBalanceService.refresh(List.of(statementId));
                 return ResponseEntity.ok(statement);
             } else {
                 return ResponseEntity.notFound().build();
@@ -218,14 +239,13 @@ public class FinancialStatementController {
         try {
             log.info("Sending report to email: {}", request.getToEmail());
 
-            // Generate PDF from report data
-            byte[] pdfContent = reportPdfService.generateDriverReportPdf(request.getReport());
-
             // Build email summary (concise overview for email body)
-            String emailSummary = buildReportEmailSummary(request.getReport());
+            String emailSummary = StatementDistributionService.emailSummary(request.getReport());
 
-            // Send email with PDF attachment
-            emailService.sendDriverReport(request.getToEmail(), request.getDriverName(), emailSummary, pdfContent);
+            // Render PDF from report data to a temp file and send it as the attachment
+            try (TempPdf pdf = TempPdf.write(out -> reportPdfService.writeDriverReportPdf(request.getReport(), out))) {
+                emailService.sendDriverReport(request.getToEmail(), request.getDriverName(), emailSummary, pdf.file());
+            }
 
             return ResponseEntity.ok(Map.of("message", "Email sent successfully to " + request.getToEmail()));
         } catch (Exception e) {
@@ -235,31 +255,94 @@ public class FinancialStatementController {
     }
 
     /**
-     * Build a concise summary for email body - plain text style for best email compatibility
+     * Start a background job that emails the period's statement to many drivers
+     * (all active drivers when driverIds is empty). Returns jobId immediately.
+     */
+    @PostMapping("/send-reports")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'ACCOUNTANT')")
+    public ResponseEntity<?> sendReportsByEmail(@Valid @RequestBody BulkEmailReportRequest request) {
+        if (request.getFrom().isAfter(request.getTo())) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Start date cannot be later than end date"));
+        }
+        try {
+            String jobId = statementDistributionService.start(request.getFrom(), request.getTo(), request.getDriverIds());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of("jobId", jobId, "status", "PENDING"));
+        } catch (Exception e) {
+            log.error("Error starting statement email job", e);
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Poll a statement email job, with the outcome for each driver
      */
-    private String buildReportEmailSummary(OwnerReportDTO report) {
-        StringBuilder summary = new StringBuilder();
-
-        java.math.BigDecimal totalRevenues = report.getTotalRevenues() != null ? report.getTotalRevenues() : java.math.BigDecimal.ZERO;
-        java.math.BigDecimal totalExpenses = report.getTotalExpenses() != null ? report.getTotalExpenses() : java.math.BigDecimal.ZERO;
-        java.math.BigDecimal prevBalance = report.getPreviousBalance() != null ? report.getPreviousBalance() : java.math.BigDecimal.ZERO;
-        java.math.BigDecimal paidAmount = report.getPaidAmount() != null ? report.getPaidAmount() : java.math.BigDecimal.ZERO;
-        java.math.BigDecimal netDue = report.getNetDue() != null ? report.getNetDue() : java.math.BigDecimal.ZERO;
-
-        // Simple text format that works perfectly across all email clients
-        summary.append("<pre style=\"font-family: Arial, sans-serif; font-size: 13px; line-height: 1.8; color: #333; background: none; padding: 0; border: none;\">");
-        summary.append("Period:                  ").append(report.getPeriodFrom()).append(" to ").append(report.getPeriodTo()).append("\n");
-        summary.append("Total Revenues:          $").append(String.format("%,.2f", totalRevenues)).append("\n");
-        summary.append("Total Expenses:          $").append(String.format("%,.2f", totalExpenses)).append("\n");
-        summary.append("Previous Balance:        $").append(String.format("%,.2f", prevBalance)).append("\n");
-        summary.append("Amount Paid:             $").append(String.format("%,.2f", paidAmount)).append("\n");
-        summary.append("─────────────────────────────────────\n");
-
-        String netDueColor = netDue.compareTo(java.math.BigDecimal.ZERO) > 0 ? "color: #d32f2f;" : "color: #388e3c;";
-        summary.append("<strong style=\"").append(netDueColor).append(" font-size: 14px;\">Net Due:                 $").append(String.format("%,.2f", netDue.abs())).append("</strong>\n");
-        summary.append("</pre>");
-
-        return summary.toString();
+    @GetMapping("/send-reports/{jobId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'ACCOUNTANT')")
+    public ResponseEntity<?> getSendReportsStatus(@PathVariable String jobId) {
+        ReportJobStatus jobStatus = ReportJobStatus.get(jobId);
+        List<StatementDistributionService.Delivery> deliveries = statementDistributionService.deliveries(jobId);
+        if (jobStatus == null || deliveries == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("jobId", jobId);
+        response.put("status", jobStatus.getStatus().name());
+        response.put("totalDrivers", jobStatus.getTotalDrivers());
+        response.put("processedDrivers", jobStatus.getProcessedDrivers());
+        response.put("progressPercent", jobStatus.getProgressPercent());
+        response.put("message", jobStatus.getMessage());
+        response.put("deliveries", deliveries);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Start a background job that finalizes the period's statements for many persons
+     * (all active drivers when personIds is empty). Persons already finalized for the
+     * period are skipped, so the job can be re-run after a failure. Returns jobId immediately.
+     */
+    @PostMapping("/finalize-period")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'ACCOUNTANT')")
+    public ResponseEntity<?> finalizePeriod(@Valid @RequestBody BulkFinalizeRequest request,
+                                            Authentication authentication) {
+        if (request.getFrom().isAfter(request.getTo())) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Start date cannot be later than end date"));
+        }
+        try {
+            Long userId = authentication != null
+                    ? userRepository.findByUsername(authentication.getName()).map(User::getId).orElse(null)
+                    : null;
+            String jobId = statementFinalizationService.start(request.getFrom(), request.getTo(),
+                    request.getPersonIds(), userId);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of("jobId", jobId, "status", "PENDING"));
+        } catch (Exception e) {
+            log.error("Error starting statement finalization job", e);
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Poll a statement finalization job
+     */
+    @GetMapping("/finalize-period/{jobId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'ACCOUNTANT')")
+    public ResponseEntity<?> getFinalizePeriodStatus(@PathVariable String jobId) {
+        ReportJobStatus jobStatus = ReportJobStatus.get(jobId);
+        if (jobStatus == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("jobId", jobId);
+        response.put("status", jobStatus.getStatus().name());
+        response.put("totalDrivers", jobStatus.getTotalDrivers());
+        response.put("processedDrivers", jobStatus.getProcessedDrivers());
+        response.put("progressPercent", jobStatus.getProgressPercent());
+        response.put("message", jobStatus.getMessage());
+        if (!jobStatus.getErrors().isEmpty()) {
+            response.put("errors", jobStatus.getErrors());
+        }
+        return ResponseEntity.ok(response);
     }
 
     /**
@@ -1,18 +1,30 @@
 package com.taxi.web.controller;
 
+import com.taxi.domain.account.dto.BillingRunRequest;
 import com.taxi.domain.account.dto.InvoiceSummaryDTO;
 import com.taxi.domain.account.dto.InvoiceDetailsDTO;
+import com.taxi.domain.account.model.CustomerReceivables;
 import com.taxi.domain.account.model.Invoice;
+import com.taxi.domain.account.service.BillingRunService;
 import com.taxi.domain.account.service.InvoiceService;
 import com.taxi.domain.account.service.EmailService;
+import com.taxi.domain.report.ReportJobStatus;
+import com.taxi.domain.user.model.User;
+import com.taxi.domain.user.repository.UserRepository;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -23,6 +35,8 @@ public class InvoiceController {
 
     private final InvoiceService invoiceService;
     private final com.taxi.domain.account.service.EmailService emailService;
+    private final BillingRunService billingRunService;
+    private final UserRepository userRepository;
 
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'ACCOUNTANT')")
@@ -49,6 +63,51 @@ public class InvoiceController {
         return ResponseEntity.ok(details);
     }
 
+    /**
+     * Start a billing run: invoice many customers for the period in a background job, optionally
+     * emailing each invoice. Customers with an overlapping invoice are skipped, so a run can be
+     * repeated after a failure. Returns jobId immediately.
+     */
+    @PostMapping("/billing-run")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'ACCOUNTANT')")
+    public ResponseEntity<?> startBillingRun(@Valid @RequestBody BillingRunRequest request,
+                                             Authentication authentication) {
+        if (request.getPeriodStart().isAfter(request.getPeriodEnd())) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Period start cannot be later than period end"));
+        }
+        Long userId = authentication != null
+                ? userRepository.findByUsername(authentication.getName()).map(User::getId).orElse(null)
+                : null;
+        String jobId = billingRunService.start(request.getPeriodStart(), request.getPeriodEnd(),
+                request.getCustomerIds(), request.getTaxRate(), request.getTerms(), request.isSendEmail(),
+                userId);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of("jobId", jobId, "status", "PENDING"));
+    }
+
+    /**
+     * Poll a billing run, with the outcome for each customer
+     */
+    @GetMapping("/billing-run/{jobId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'ACCOUNTANT')")
+    public ResponseEntity<?> getBillingRunStatus(@PathVariable String jobId) {
+        ReportJobStatus jobStatus = ReportJobStatus.get(jobId);
+        List<BillingRunService.CustomerResult> results = billingRunService.results(jobId);
+        if (jobStatus == null || results == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("jobId", jobId);
+        response.put("status", jobStatus.getStatus().name());
+        response.put("totalCustomers", jobStatus.getTotalDrivers());
+        response.put("processedCustomers", jobStatus.getProcessedDrivers());
+        response.put("progressPercent", jobStatus.getProgressPercent());
+        response.put("message", jobStatus.getMessage());
+        response.put("errors", jobStatus.getErrors());
+        response.put("customers", results);
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * Get invoice by ID
      */
@@ -119,6 +178,15 @@ public class InvoiceController {
         return ResponseEntity.ok(invoices);
     }
 
+    /**
+     * Aged receivables: open invoice balance per customer in current/1-30/31-60/61-90/90+ buckets
+     */
+    @GetMapping("/receivables/aging")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'ACCOUNTANT')")
+    public ResponseEntity<List<CustomerReceivables>> getAgedReceivables() {
+        return ResponseEntity.ok(invoiceService.getAgedReceivables());
+    }
+
     /**
      * Send invoice (mark as sent)
      */
@@ -186,13 +254,11 @@ public class InvoiceController {
      */
     @GetMapping("/{id}/pdf")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'ACCOUNTANT', 'DISPATCHER')")
-    public ResponseEntity<byte[]> downloadInvoicePDF(@PathVariable Long id) {
-        byte[] pdfContent = invoiceService.generateInvoicePDF(id);
-
-        return ResponseEntity.ok()
-                .header("Content-Type", "application/pdf")
-                .header("Content-Disposition", "attachment; filename=invoice_" + id + ".pdf")
-                .body(pdfContent);
+    public void downloadInvoicePDF(@PathVariable Long id, HttpServletResponse response) throws IOException {
+        // Rendered on the request thread (tenant and lazy invoice relations) straight into the response
+        response.setContentType("application/pdf");
+        response.setHeader("Content-Disposition", "attachment; filename=invoice_" + id + ".pdf");
+        invoiceService.writeInvoicePDF(id, response.getOutputStream());
     }
 
     /**
@@ -0,0 +1,99 @@
+package com.taxi.web.controller;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Local stand-in for the Moneris Gateway MpgRequest servlet, for exercising the bulk sync
+ * without real credentials. Point a moneris_config row at it with monerisEnvironment = "MOCK".
+ *
+ * Output is deterministic per store_id: the same store always gets the same transactions
+ * (last 3 days), so repeated syncs should report them as duplicates.
+ *
+ * POST /api/test/moneris/MpgRequest
+ */
+@RestController
+@RequestMapping("/test/moneris")
+@CrossOrigin(origins = "*")
+@ConditionalOnProperty(name = "moneris.mock.enabled", havingValue = "true")
+public class MonerisMockController {
+
+    private static final Pattern STORE_ID = Pattern.compile("<store_id>(.*?)</store_id>");
+    private static final String[] CARDS = {"V", "M", "AX", "P"};
+    private static final int TRANSACTIONS_PER_DAY = 25;
+
+    @PostMapping(value = "/MpgRequest", produces = MediaType.APPLICATION_XML_VALUE)
+    public ResponseEntity<String> mpgRequest(@RequestBody String body) {
+        Matcher m = STORE_ID.matcher(body);
+        String storeId = m.find() ? m.group(1) : "";
+        if (storeId.isBlank()) {
+            return ResponseEntity.ok("<?xml version=\"1.0\"?><response><receipt>" +
+                    "<ResponseCode>null</ResponseCode><Message>Invalid store_id</Message>" +
+                    "</receipt></response>");
+        }
+
+        Random random = new Random(storeId.hashCode());
+        String terminalId = "66" + String.format("%06d", Math.abs(storeId.hashCode()) % 1_000_000);
+        StringBuilder transactions = new StringBuilder();
+        int[] counts = new int[CARDS.length];
+        BigDecimal[] amounts = {BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO};
+
+        LocalDate today = LocalDate.now();
+        for (int day = 2; day >= 0; day--) {
+            LocalDate date = today.minusDays(day);
+            for (int i = 0; i < TRANSACTIONS_PER_DAY; i++) {
+                int card = random.nextInt(CARDS.length);
+                BigDecimal amount = BigDecimal.valueOf(800 + random.nextInt(6000), 2);
+                BigDecimal tip = BigDecimal.valueOf(random.nextInt(1000), 2);
+                LocalTime time = LocalTime.ofSecondOfDay(random.nextInt(86_400));
+                boolean settled = day > 0;
+                String authCode = String.format("%06d", random.nextInt(1_000_000));
+
+                transactions.append("<Transaction>")
+                        .append("<TransID>").append(storeId).append('-').append(date).append('-').append(i).append("</TransID>")
+                        .append("<AuthCode>").append(authCode).append("</AuthCode>")
+                        .append("<TerminalId>").append(terminalId).append("</TerminalId>")
+                        .append("<TransDate>").append(date).append("</TransDate>")
+                        .append("<TransTime>").append(time).append("</TransTime>")
+                        .append("<Card>").append(CARDS[card]).append("</Card>")
+                        .append("<MaskedPan>4520***").append(String.format("%04d", random.nextInt(10_000))).append("</MaskedPan>")
+                        .append("<Amount>").append(amount).append("</Amount>")
+                        .append("<Tip>").append(tip).append("</Tip>")
+                        .append("<TransType>purchase</TransType>")
+                        .append("<Settled>").append(settled).append("</Settled>");
+                if (settled) {
+                    transactions.append("<SettlementDate>").append(date.plusDays(1)).append("</SettlementDate>");
+                }
+                transactions.append("<BatchNo>").append(date.getDayOfYear()).append("</BatchNo>")
+                        .append("<ReferenceNum>").append(Math.abs(random.nextLong() % 1_000_000_000_000L)).append("</ReferenceNum>")
+                        .append("</Transaction>");
+
+                counts[card]++;
+                amounts[card] = amounts[card].add(amount);
+            }
+        }
+
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\"?><response><receipt>")
+                .append("<ResponseCode>001</ResponseCode><Message>APPROVED</Message>")
+                .append("<BankTotals><ECR><term_id>").append(terminalId).append("</term_id><closed>false</closed>");
+        for (int c = 0; c < CARDS.length; c++) {
+            xml.append("<CardType>").append(CARDS[c])
+                    .append("<Purchase><Count>").append(counts[c]).append("</Count>")
+                    .append("<Amount>").append(amounts[c]).append("</Amount></Purchase>")
+                    .append("</CardType>");
+        }
+        xml.append("</ECR></BankTotals>")
+                .append("<Transactions>").append(transactions).append("</Transactions>")
+                .append("</receipt></response>");
+        return ResponseEntity.ok(xml.toString());
+    }
+}
@@ -3,6 +3,7 @@ package com.taxi.web.controller;
 import com.taxi.domain.expense.model.ApplicationType;
 import com.taxi.domain.revenue.entity.OtherRevenue;
 import com.taxi.domain.revenue.service.OtherRevenueService;
+import com.taxi.domain.revenue.service.RevenueRollupService;
 import com.taxi.web.dto.revenue.OtherRevenueDTO;
 import com.taxi.web.dto.revenue.OtherRevenueRequest;
 import jakarta.validation.Valid;
@@ -188,6 +189,16 @@ public class OtherRevenueController {
         return ResponseEntity.ok(response);
     }
     
+    // Get revenue totals per category, for one person or the whole fleet
+    @GetMapping("/total/categories")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'ACCOUNTANT', 'DISPATCHER')")
+    public ResponseEntity<Map<String, RevenueRollupService.CategoryTotal>> getCategoryTotals(
+            @RequestParam(required = false) Long personId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        return ResponseEntity.ok(revenueService.getCategoryTotals(personId, startDate, endDate));
+    }
+    
     // Get total revenue by entity
     @GetMapping("/total/entity/{entityType}/{entityId}")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'ACCOUNTANT', 'DISPATCHER')")
@@ -0,0 +1,83 @@
+package com.taxi.web.controller;
+
+import com.taxi.domain.taxicaller.model.TaxiCallerReportType;
+import com.taxi.domain.taxicaller.model.TaxiCallerSyncWatermark;
+import com.taxi.domain.taxicaller.scheduler.TaxiCallerIncrementalSyncService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Controller for the incremental (watermark-based) TaxiCaller sync
+ * Provides endpoints to run a sync pass now and to inspect or move watermarks
+ */
+@RestController
+@RequestMapping("/taxicaller/sync")
+@CrossOrigin(origins = "*")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "taxicaller.sync.incremental.enabled", havingValue = "true")
+public class TaxiCallerSyncController {
+
+    private final TaxiCallerIncrementalSyncService incrementalSyncService;
+
+    /**
+     * Run one incremental sync pass for the current tenant
+     * POST /api/taxicaller/sync/run
+     */
+    @PostMapping("/run")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+    public ResponseEntity<Map<String, Object>> runSync() {
+        Map<String, Object> response = new HashMap<>();
+
+        try {
+            Map<TaxiCallerReportType, TaxiCallerIncrementalSyncService.SyncOutcome> outcomes =
+                incrementalSyncService.syncCurrentTenant();
+
+            if (outcomes.isEmpty()) {
+                response.put("success", false);
+                response.put("message", "An incremental sync is already running for this tenant");
+                return ResponseEntity.ok(response);
+            }
+
+            response.put("success", true);
+            response.put("reports", outcomes);
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("message", "Error during incremental sync");
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(500).body(response);
+        }
+    }
+
+    /**
+     * Current watermarks
+     * GET /api/taxicaller/sync/watermarks
+     */
+    @GetMapping("/watermarks")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+    public ResponseEntity<List<TaxiCallerSyncWatermark>> getWatermarks() {
+        return ResponseEntity.ok(incrementalSyncService.getWatermarks());
+    }
+
+    /**
+     * Move (or clear) a report's watermark to force a re-sync from that time
+     * PUT /api/taxicaller/sync/watermarks/ACCOUNT_JOBS?lastSeenAt=2026-03-01T00:00:00
+     */
+    @PutMapping("/watermarks/{reportType}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+    public ResponseEntity<TaxiCallerSyncWatermark> resetWatermark(
+            @PathVariable TaxiCallerReportType reportType,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime lastSeenAt) {
+        return ResponseEntity.ok(incrementalSyncService.resetWatermark(reportType, lastSeenAt));
+    }
+}
@@ -2,7 +2,10 @@ package com.taxi.web.controller;
 
 import com.taxi.domain.statement.model.ExecutionStatus;
 import com.taxi.domain.statement.model.TransferExecution;
+import com.taxi.domain.statement.model.TransferExecutionAudit;
 import com.taxi.domain.statement.service.TransferExecutionService;
+import com.taxi.domain.user.model.User;
+import com.taxi.domain.user.repository.UserRepository;
 import com.taxi.web.dto.statement.GenerateTransfersRequest;
 import com.taxi.web.dto.statement.TransferExecutionDTO;
 import com.taxi.web.dto.statement.TransferExecutionMapper;
@@ -13,6 +16,8 @@ import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
@@ -34,6 +39,7 @@ public class TransferExecutionController {
 
     private final TransferExecutionService executionService;
     private final TransferExecutionMapper mapper;
+    private final UserRepository userRepository;
 
     /**
      * Generate transfer executions for a specific period
@@ -182,6 +188,27 @@ public class TransferExecutionController {
         }
     }
 
+    /**
+     * Approval and rejection history of an execution, newest first
+     * GET /transfer-executions/{id}/audit
+     */
+    @GetMapping("/{id}/audit")
+    public ResponseEntity<?> getAuditTrail(@PathVariable Long id) {
+        log.info("Fetching audit trail of execution {}", id);
+
+        try {
+            List<TransferExecutionAudit> audit = executionService.getAuditTrail(id);
+            return ResponseEntity.ok(audit);
+
+        } catch (Exception e) {
+            log.error("Error fetching audit trail of execution {}", id, e);
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Server Error");
+            error.put("message", "Failed to fetch audit trail: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
     /**
      * Approve an execution
      * POST /transfer-executions/{id}/approve
@@ -301,17 +328,18 @@ public class TransferExecutionController {
 
             String notes = (String) body.get("notes");
 
-            List<TransferExecution> approved = executionService.batchApprove(
+            TransferExecutionService.BatchDecision decision = executionService.batchApprove(
                     executionIds, getCurrentUserId(), notes
             );
 
-            List<TransferExecutionDTO> dtos = approved.stream()
+            List<TransferExecutionDTO> dtos = executionService.getExecutions(decision.decidedIds()).stream()
                     .map(mapper::toDTO)
                     .collect(Collectors.toList());
 
             log.info("Batch approved {} executions", dtos.size());
             Map<String, Object> response = new HashMap<>();
             response.put("approved", dtos);
+            response.put("skipped", decision.skipped());
             response.put("total", executionIds.size());
             response.put("successCount", dtos.size());
             return ResponseEntity.ok(response);
@@ -356,17 +384,18 @@ public class TransferExecutionController {
                     .map(Integer::longValue)
                     .collect(Collectors.toList());
 
-            List<TransferExecution> rejected = executionService.batchReject(
+            TransferExecutionService.BatchDecision decision = executionService.batchReject(
                     executionIds, getCurrentUserId(), reason
             );
 
-            List<TransferExecutionDTO> dtos = rejected.stream()
+            List<TransferExecutionDTO> dtos = executionService.getExecutions(decision.decidedIds()).stream()
                     .map(mapper::toDTO)
                     .collect(Collectors.toList());
 
             log.info("Batch rejected {} executions", dtos.size());
             Map<String, Object> response = new HashMap<>();
             response.put("rejected", dtos);
+            response.put("skipped", decision.skipped());
             response.put("total", executionIds.size());
             response.put("successCount", dtos.size());
             return ResponseEntity.ok(response);
@@ -381,12 +410,13 @@ public class TransferExecutionController {
     }
 
     /**
-     * Get current user ID from security context
-     * TODO: Implement this method to extract user ID from Spring Security context
+     * Get current user ID from security context, null if there is no authenticated user
      */
     private Long getCurrentUserId() {
-        // For now, return a default value
-        // This should be implemented to extract from SecurityContextHolder
-        return 1L;
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            return null;
+        }
+        return userRepository.findByUsername(authentication.getName()).map(User::getId).orElse(null);
     }
 }
@@ -1,17 +1,25 @@
 package com.taxi.web.controller;
 
+import com.taxi.domain.report.ReportJobStatus;
 import com.taxi.domain.report.model.YearEndReportConfig;
 import com.taxi.domain.report.service.GstReturnPdfService;
 import com.taxi.domain.report.service.T2125PdfService;
+import com.taxi.domain.report.service.YearEndBatchService;
 import com.taxi.domain.report.service.YearEndReportService;
+import com.taxi.infrastructure.multitenancy.TenantContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -24,6 +32,7 @@ import java.util.stream.Collectors;
 public class YearEndReportController {
 
     private final YearEndReportService yearEndReportService;
+    private final YearEndBatchService yearEndBatchService;
     private final T2125PdfService t2125PdfService;
     private final GstReturnPdfService gstReturnPdfService;
 
@@ -101,6 +110,22 @@ public class YearEndReportController {
         }
     }
 
+    /**
+     * Fleet-wide totals of the revenue category config items over a date range
+     */
+    @GetMapping("/config/category-totals")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'ACCOUNTANT')")
+    public ResponseEntity<?> getCategoryTotals(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        try {
+            return ResponseEntity.ok(yearEndReportService.categoryTotals(startDate, endDate));
+        } catch (Exception e) {
+            log.error("Error loading revenue category totals ({} to {})", startDate, endDate, e);
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     // ========================
     // Report Generation
     // ========================
@@ -139,50 +164,157 @@ public class YearEndReportController {
     }
 
     // ========================
-    // PDF Download
+    // Year-End Batch (all drivers)
     // ========================
 
     /**
-     * Convert already-generated report data to PDF for download
+     * Start a background year-end job for all drivers. Returns jobId immediately.
+     * format: PDF (one document) or ZIP (one PDF per driver)
      */
-    @PostMapping("/download")
-    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'ACCOUNTANT', 'DISPATCHER')")
-    public ResponseEntity<?> downloadReport(@RequestBody Map<String, Object> reportData) {
+    @PostMapping("/jobs")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'ACCOUNTANT')")
+    public ResponseEntity<?> startBatch(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "PDF") YearEndBatchService.Format format) {
+        if (startDate.isAfter(endDate)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "startDate must not be after endDate"));
+        }
         try {
-            byte[] pdf = yearEndReportService.convertToPdf(reportData);
-            String driverNumber = reportData.getOrDefault("driverNumber", "report").toString();
-            String startDate = reportData.getOrDefault("startDate", "").toString();
-            String endDate = reportData.getOrDefault("endDate", "").toString();
-            String filename = "report_" + driverNumber + "_" + startDate + "_" + endDate + ".pdf";
-            return ResponseEntity.ok()
-                    .header("Content-Type", "application/pdf")
-                    .header("Content-Disposition", "attachment; filename=" + filename)
-                    .body(pdf);
+            String jobId = yearEndBatchService.start(startDate, endDate, format);
+            Map<String, Object> response = new HashMap<>();
+            response.put("jobId", jobId);
+            response.put("status", "PENDING");
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
         } catch (Exception e) {
-            log.error("Error generating PDF from report data", e);
+            log.error("Error starting year-end job ({} to {})", startDate, endDate, e);
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
 
+    /**
+     * Poll a year-end job
+     */
+    @GetMapping("/jobs/{jobId}/status")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'ACCOUNTANT')")
+    public ResponseEntity<?> getBatchStatus(@PathVariable String jobId) {
+        ReportJobStatus jobStatus = ReportJobStatus.get(jobId);
+        if (jobStatus == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("jobId", jobId);
+        response.put("status", jobStatus.getStatus().name());
+        response.put("totalDrivers", jobStatus.getTotalDrivers());
+        response.put("processedDrivers", jobStatus.getProcessedDrivers());
+        response.put("progressPercent", jobStatus.getProgressPercent());
+        response.put("message", jobStatus.getMessage());
+        if (!jobStatus.getErrors().isEmpty()) {
+            response.put("errors", jobStatus.getErrors());
+        }
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Download the output of a completed year-end job (streamed from its temp file)
+     */
+    @GetMapping("/jobs/{jobId}/download")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'ACCOUNTANT')")
+    public ResponseEntity<?> downloadBatch(@PathVariable String jobId) {
+        YearEndBatchService.Result result = yearEndBatchService.result(jobId);
+        if (result == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .header("Content-Type", contentType(result.format()))
+                .header("Content-Disposition", "attachment; filename=" + result.filename())
+                .body(new FileSystemResource(result.file()));
+    }
+
+    /**
+     * Discard a year-end job and its output
+     */
+    @DeleteMapping("/jobs/{jobId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'ACCOUNTANT')")
+    public ResponseEntity<Void> discardBatch(@PathVariable String jobId) {
+        yearEndBatchService.discard(jobId);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Generate all-driver reports and stream them straight into the response, without a job
+     */
+    @GetMapping("/download-all/stream")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'ACCOUNTANT')")
+    public ResponseEntity<?> streamAllReports(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "PDF") YearEndBatchService.Format format) {
+        if (startDate.isAfter(endDate)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "startDate must not be after endDate"));
+        }
+
+        // The body is written on an async thread - carry the tenant over
+        String tenantId = TenantContext.getCurrentTenant();
+        StreamingResponseBody body = logFailure("all-driver report stream", out -> {
+            TenantContext.setCurrentTenant(tenantId);
+            try {
+                yearEndBatchService.write(startDate, endDate, format, out, null);
+            } finally {
+                TenantContext.clear();
+            }
+        });
+        return ResponseEntity.ok()
+                .header("Content-Type", contentType(format))
+                .header("Content-Disposition", "attachment; filename="
+                        + YearEndBatchService.filename(startDate, endDate, format))
+                .body(body);
+    }
+
+    private static String contentType(YearEndBatchService.Format format) {
+        return format == YearEndBatchService.Format.ZIP ? "application/zip" : "application/pdf";
+    }
+
+    // ========================
+    // PDF Download
+    // ========================
+
+    // Report data arrives in the request body, so these render without DB or tenant access
+    // and can write straight into the response on the async thread. The 200 and PDF headers are
+    // sent before rendering starts, so a failure can only be logged and the download aborted.
+
+    /**
+     * Convert already-generated report data to PDF for download
+     */
+    @PostMapping("/download")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'ACCOUNTANT', 'DISPATCHER')")
+    public ResponseEntity<StreamingResponseBody> downloadReport(@RequestBody Map<String, Object> reportData) {
+        String driverNumber = reportData.getOrDefault("driverNumber", "report").toString();
+        String startDate = reportData.getOrDefault("startDate", "").toString();
+        String endDate = reportData.getOrDefault("endDate", "").toString();
+        String filename = "report_" + driverNumber + "_" + startDate + "_" + endDate + ".pdf";
+        StreamingResponseBody pdf = logFailure("PDF from report data", out -> yearEndReportService.writePdf(reportData, out));
+        return ResponseEntity.ok()
+                .header("Content-Type", "application/pdf")
+                .header("Content-Disposition", "attachment; filename=" + filename)
+                .body(pdf);
+    }
+
     /**
      * Convert already-generated all-driver reports to PDF for download
      */
     @PostMapping("/download-all")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'ACCOUNTANT')")
-    public ResponseEntity<?> downloadAllReports(@RequestBody Map<String, Object> allReportsData) {
-        try {
-            byte[] pdf = yearEndReportService.convertAllToPdf(allReportsData);
-            String startDate = allReportsData.getOrDefault("startDate", "").toString();
-            String endDate = allReportsData.getOrDefault("endDate", "").toString();
-            String filename = "all_reports_" + startDate + "_" + endDate + ".pdf";
-            return ResponseEntity.ok()
-                    .header("Content-Type", "application/pdf")
-                    .header("Content-Disposition", "attachment; filename=" + filename)
-                    .body(pdf);
-        } catch (Exception e) {
-            log.error("Error generating all-driver PDF", e);
-            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
-        }
+    public ResponseEntity<StreamingResponseBody> downloadAllReports(@RequestBody Map<String, Object> allReportsData) {
+        String startDate = allReportsData.getOrDefault("startDate", "").toString();
+        String endDate = allReportsData.getOrDefault("endDate", "").toString();
+        String filename = "all_reports_" + startDate + "_" + endDate + ".pdf";
+        StreamingResponseBody pdf = logFailure("all-driver PDF", out -> yearEndReportService.writeAllPdf(allReportsData, out));
+        return ResponseEntity.ok()
+                .header("Content-Type", "application/pdf")
+                .header("Content-Disposition", "attachment; filename=" + filename)
+                .body(pdf);
     }
 
     // ========================
@@ -220,21 +352,16 @@ public class YearEndReportController {
      */
     @PostMapping("/t2125")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'ACCOUNTANT')")
-    public ResponseEntity<?> downloadT2125(@RequestBody Map<String, Object> reportData) {
-        try {
-            byte[] pdf = t2125PdfService.generateT2125Pdf(reportData);
-            String driverNumber = reportData.getOrDefault("driverNumber", "report").toString();
-            String startDate = reportData.getOrDefault("startDate", "").toString();
-            String endDate = reportData.getOrDefault("endDate", "").toString();
-            String filename = "T2125_" + driverNumber + "_" + startDate + "_" + endDate + ".pdf";
-            return ResponseEntity.ok()
-                    .header("Content-Type", "application/pdf")
-                    .header("Content-Disposition", "attachment; filename=" + filename)
-                    .body(pdf);
-        } catch (Exception e) {
-            log.error("Error generating T2125 PDF", e);
-            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
-        }
+    public ResponseEntity<StreamingResponseBody> downloadT2125(@RequestBody Map<String, Object> reportData) {
+        String driverNumber = reportData.getOrDefault("driverNumber", "report").toString();
+        String startDate = reportData.getOrDefault("startDate", "").toString();
+        String endDate = reportData.getOrDefault("endDate", "").toString();
+        String filename = "T2125_" + driverNumber + "_" + startDate + "_" + endDate + ".pdf";
+        StreamingResponseBody pdf = logFailure("T2125 PDF", out -> t2125PdfService.writeT2125Pdf(reportData, out));
+        return ResponseEntity.ok()
+                .header("Content-Type", "application/pdf")
+                .header("Content-Disposition", "attachment; filename=" + filename)
+                .body(pdf);
     }
 
     /**
@@ -242,21 +369,31 @@ public class YearEndReportController {
      */
     @PostMapping("/gst-return")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'ACCOUNTANT')")
-    public ResponseEntity<?> downloadGstReturn(@RequestBody Map<String, Object> reportData) {
-        try {
-            byte[] pdf = gstReturnPdfService.generateGstReturnPdf(reportData);
-            String driverNumber = reportData.getOrDefault("driverNumber", "report").toString();
-            String startDate = reportData.getOrDefault("startDate", "").toString();
-            String endDate = reportData.getOrDefault("endDate", "").toString();
-            String filename = "GST_HST_Return_" + driverNumber + "_" + startDate + "_" + endDate + ".pdf";
-            return ResponseEntity.ok()
-                    .header("Content-Type", "application/pdf")
-                    .header("Content-Disposition", "attachment; filename=" + filename)
-                    .body(pdf);
-        } catch (Exception e) {
-            log.error("Error generating GST/HST return PDF", e);
-            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
-        }
+    public ResponseEntity<StreamingResponseBody> downloadGstReturn(@RequestBody Map<String, Object> reportData) {
+        String driverNumber = reportData.getOrDefault("driverNumber", "report").toString();
+        String startDate = reportData.getOrDefault("startDate", "").toString();
+        String endDate = reportData.getOrDefault("endDate", "").toString();
+        String filename = "GST_HST_Return_" + driverNumber + "_" + startDate + "_" + endDate + ".pdf";
+        StreamingResponseBody pdf = logFailure("GST/HST return PDF", out -> gstReturnPdfService.writeGstReturnPdf(reportData, out));
+        return ResponseEntity.ok()
+                .header("Content-Type", "application/pdf")
+                .header("Content-Disposition", "attachment; filename=" + filename)
+                .body(pdf);
+    }
+
+    /**
+     * Log a failure while writing the body, then rethrow it so the download is cut off instead of
+     * ending as a truncated file
+     */
+    private static StreamingResponseBody logFailure(String what, StreamingResponseBody body) {
+        return out -> {
+            try {
+                body.writeTo(out);
+            } catch (IOException | RuntimeException e) {
+                log.error("Error generating {}", what, e);
+                throw e;
+            }
+        };
     }
 
     private Map<String, Object> configToMap(YearEndReportConfig c) {
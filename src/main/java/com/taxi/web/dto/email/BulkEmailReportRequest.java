@@ -0,0 +1,31 @@
+package com.taxi.web.dto.email;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Request DTO for emailing statements for a period to many drivers in one background job
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkEmailReportRequest {
+
+    @NotNull(message = "Period start is required")
+    private LocalDate from;
+
+    @NotNull(message = "Period end is required")
+    private LocalDate to;
+
+    /**
+     * Drivers to send to; all active drivers when empty
+     */
+    private List<Long> driverIds;
+}
@@ -0,0 +1,31 @@
+package com.taxi.web.dto.report;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Request DTO for finalizing the statements of a period for many persons in one background job
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkFinalizeRequest {
+
+    @NotNull(message = "Period start is required")
+    private LocalDate from;
+
+    @NotNull(message = "Period end is required")
+    private LocalDate to;
+
+    /**
+     * Persons to finalize; all active drivers when empty
+     */
+    private List<Long> personIds;
+}
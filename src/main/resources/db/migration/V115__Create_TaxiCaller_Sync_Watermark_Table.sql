@@ -0,0 +1,20 @@
+-- Per-report high-water marks for the incremental TaxiCaller sync.
+-- Lives in each tenant schema, so watermarks are tracked per tenant.
+
+CREATE TABLE taxicaller_sync_watermark (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    report_type VARCHAR(30) NOT NULL COMMENT 'DRIVER_SHIFTS, ACCOUNT_JOBS or DRIVER_JOBS',
+    last_seen_at DATETIME COMMENT 'Latest job start / log-on time safe to resume from',
+    last_window_start DATETIME,
+    last_window_end DATETIME,
+    last_record_count INT,
+    last_synced_at DATETIME,
+    last_error TEXT,
+    updated_at DATETIME,
+
+    UNIQUE KEY uk_taxicaller_sync_report_type (report_type)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+COMMENT='Incremental TaxiCaller sync watermarks';
+
+-- Rollback:
+-- DROP TABLE IF EXISTS taxicaller_sync_watermark;
@@ -0,0 +1,58 @@
+-- Per (driver, cab, date, hour) airport trip totals, maintained on import/reassignment
+-- by AirportTripAggregateService. driver_number '' holds trips no driver was assigned to.
+
+CREATE TABLE airport_trip_hourly_total (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    driver_number VARCHAR(50) NOT NULL COMMENT 'Empty string = unassigned',
+    cab_number VARCHAR(50) NOT NULL,
+    trip_date DATE NOT NULL,
+    hour INT NOT NULL,
+    trip_count INT NOT NULL,
+    updated_at DATETIME NOT NULL,
+
+    UNIQUE KEY uk_atht_cab_date_hour_driver (cab_number, trip_date, hour, driver_number),
+    INDEX idx_atht_driver_date (driver_number, trip_date, cab_number, trip_count)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+COMMENT='Airport trip totals per driver, cab, date and hour';
+
+-- Backfill assigned trips from airport_trip_driver
+INSERT INTO airport_trip_hourly_total (driver_number, cab_number, trip_date, hour, trip_count, updated_at)
+SELECT driver_number, cab_number, trip_date, hour, SUM(trip_count), NOW()
+FROM airport_trip_driver
+GROUP BY cab_number, trip_date, hour, driver_number;
+
+-- Backfill the unassigned remainder of each hour from airport_trips
+INSERT INTO airport_trip_hourly_total (driver_number, cab_number, trip_date, hour, trip_count, updated_at)
+SELECT '', h.cab_number, h.trip_date, h.hour, h.trips - COALESCE(SUM(atd.trip_count), 0), NOW()
+FROM (
+    SELECT id, cab_number, trip_date, 0 AS hour, COALESCE(hour_00, 0) AS trips FROM airport_trips
+    UNION ALL SELECT id, cab_number, trip_date, 1 AS hour, COALESCE(hour_01, 0) AS trips FROM airport_trips
+    UNION ALL SELECT id, cab_number, trip_date, 2 AS hour, COALESCE(hour_02, 0) AS trips FROM airport_trips
+    UNION ALL SELECT id, cab_number, trip_date, 3 AS hour, COALESCE(hour_03, 0) AS trips FROM airport_trips
+    UNION ALL SELECT id, cab_number, trip_date, 4 AS hour, COALESCE(hour_04, 0) AS trips FROM airport_trips
+    UNION ALL SELECT id, cab_number, trip_date, 5 AS hour, COALESCE(hour_05, 0) AS trips FROM airport_trips
+    UNION ALL SELECT id, cab_number, trip_date, 6 AS hour, COALESCE(hour_06, 0) AS trips FROM airport_trips
+    UNION ALL SELECT id, cab_number, trip_date, 7 AS hour, COALESCE(hour_07, 0) AS trips FROM airport_trips
+    UNION ALL SELECT id, cab_number, trip_date, 8 AS hour, COALESCE(hour_08, 0) AS trips FROM airport_trips
+    UNION ALL SELECT id, cab_number, trip_date, 9 AS hour, COALESCE(hour_09, 0) AS trips FROM airport_trips
+    UNION ALL SELECT id, cab_number, trip_date, 10 AS hour, COALESCE(hour_10, 0) AS trips FROM airport_trips
+    UNION ALL SELECT id, cab_number, trip_date, 11 AS hour, COALESCE(hour_11, 0) AS trips FROM airport_trips
+    UNION ALL SELECT id, cab_number, trip_date, 12 AS hour, COALESCE(hour_12, 0) AS trips FROM airport_trips
+    UNION ALL SELECT id, cab_number, trip_date, 13 AS hour, COALESCE(hour_13, 0) AS trips FROM airport_trips
+    UNION ALL SELECT id, cab_number, trip_date, 14 AS hour, COALESCE(hour_14, 0) AS trips FROM airport_trips
+    UNION ALL SELECT id, cab_number, trip_date, 15 AS hour, COALESCE(hour_15, 0) AS trips FROM airport_trips
+    UNION ALL SELECT id, cab_number, trip_date, 16 AS hour, COALESCE(hour_16, 0) AS trips FROM airport_trips
+    UNION ALL SELECT id, cab_number, trip_date, 17 AS hour, COALESCE(hour_17, 0) AS trips FROM airport_trips
+    UNION ALL SELECT id, cab_number, trip_date, 18 AS hour, COALESCE(hour_18, 0) AS trips FROM airport_trips
+    UNION ALL SELECT id, cab_number, trip_date, 19 AS hour, COALESCE(hour_19, 0) AS trips FROM airport_trips
+    UNION ALL SELECT id, cab_number, trip_date, 20 AS hour, COALESCE(hour_20, 0) AS trips FROM airport_trips
+    UNION ALL SELECT id, cab_number, trip_date, 21 AS hour, COALESCE(hour_21, 0) AS trips FROM airport_trips
+    UNION ALL SELECT id, cab_number, trip_date, 22 AS hour, COALESCE(hour_22, 0) AS trips FROM airport_trips
+    UNION ALL SELECT id, cab_number, trip_date, 23 AS hour, COALESCE(hour_23, 0) AS trips FROM airport_trips
+) h
+LEFT JOIN airport_trip_driver atd ON atd.airport_trip_id = h.id AND atd.hour = h.hour
+GROUP BY h.id, h.cab_number, h.trip_date, h.hour, h.trips
+HAVING h.trips - COALESCE(SUM(atd.trip_count), 0) > 0;
+
+-- Rollback:
+-- DROP TABLE IF EXISTS airport_trip_hourly_total;
@@ -0,0 +1,7 @@
+-- Composite index backing the data view grid's keyset pagination
+-- (ORDER BY transaction_date, transaction_time, id).
+
+CREATE INDEX idx_cc_date_time ON credit_card_transaction (transaction_date, transaction_time);
+
+-- Rollback:
+-- DROP INDEX idx_cc_date_time ON credit_card_transaction;
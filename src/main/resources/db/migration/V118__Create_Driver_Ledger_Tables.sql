@@ -0,0 +1,38 @@
+-- Materialized driver ledger behind the whole-month driver summary report.
+-- driver_ledger_entry holds each person-month's owner report as person x day x summary column;
+-- driver_ledger_period tracks which person-months are stale. Both are maintained by
+-- DriverLedgerService and start empty: periods are computed on first use.
+
+CREATE TABLE driver_ledger_entry (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    person_id BIGINT NOT NULL,
+    period_start DATE NOT NULL COMMENT 'First day of the statement month',
+    entry_date DATE NOT NULL,
+    bucket VARCHAR(30) NOT NULL COMMENT 'LedgerBucket: summary column',
+    breakdown_key VARCHAR(500) NULL COMMENT 'Itemized column key, NULL = totals only',
+    display_name VARCHAR(500) NULL,
+    amount DECIMAL(12,2) NOT NULL,
+    trip_count INT NOT NULL DEFAULT 0,
+    line_no INT NOT NULL COMMENT 'Position in the owner report',
+
+    INDEX idx_dle_period_person (period_start, person_id),
+    INDEX idx_dle_person_date (person_id, entry_date)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+COMMENT='Driver owner report amounts per person, day and summary column';
+
+CREATE TABLE driver_ledger_period (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    person_id BIGINT NOT NULL,
+    period_start DATE NOT NULL,
+    stale BOOLEAN NOT NULL DEFAULT TRUE,
+    stale_since DATETIME NULL,
+    computed_at DATETIME NULL,
+
+    UNIQUE KEY uk_dlp_person_period (person_id, period_start),
+    INDEX idx_dlp_period_stale (period_start, stale)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+COMMENT='Freshness of each person-month in driver_ledger_entry';
+
+-- Rollback:
+-- DROP TABLE IF EXISTS driver_ledger_entry;
+-- DROP TABLE IF EXISTS driver_ledger_period;
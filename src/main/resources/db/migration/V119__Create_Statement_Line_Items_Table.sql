@@ -0,0 +1,16 @@
+-- Frozen line items of finalized statements, moved out of the statement header row.
+-- data holds the line item JSON gzip-compressed (see StatementLineItemStore).
+-- Statements finalized earlier keep statements.line_items_json, which is read as a fallback.
+
+CREATE TABLE statement_line_items (
+    statement_id BIGINT PRIMARY KEY,
+    data LONGBLOB NOT NULL COMMENT 'gzip-compressed line item JSON',
+    json_size INT NULL COMMENT 'Uncompressed JSON length',
+
+    CONSTRAINT fk_sli_statement FOREIGN KEY (statement_id)
+        REFERENCES statements(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+COMMENT='Compressed frozen line items per statement';
+
+-- Rollback:
+-- DROP TABLE IF EXISTS statement_line_items;
@@ -0,0 +1,12 @@
+-- Counters behind invoice, payment, transfer execution and EFT file numbers (SequenceAllocator).
+-- One row per key (e.g. INV-202610-), created on first use from the highest number already issued.
+
+CREATE TABLE number_sequence (
+    sequence_key VARCHAR(50) PRIMARY KEY,
+    last_value BIGINT NOT NULL COMMENT 'Highest number reserved so far',
+    updated_at DATETIME NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+COMMENT='Document number counters per key';
+
+-- Rollback:
+-- DROP TABLE IF EXISTS number_sequence;
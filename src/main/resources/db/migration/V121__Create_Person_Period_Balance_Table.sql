@@ -0,0 +1,41 @@
+-- Running balance per person and statement period, maintained by PeriodBalanceService whenever a
+-- statement is finalized or paid and whenever statement payments are completed.
+-- closing_balance is what the next statement carries forward: net_due - paid_amount once PAID, else net_due.
+-- Opening balances of many persons are read with one query on idx_ppb_person_period.
+
+CREATE TABLE person_period_balance (
+    statement_id BIGINT PRIMARY KEY,
+    person_id BIGINT NOT NULL,
+    period_from DATE NOT NULL,
+    period_to DATE NOT NULL,
+    status VARCHAR(20) NOT NULL COMMENT 'Statement status: DRAFT, FINALIZED, PAID',
+    net_due DECIMAL(10,2) NOT NULL DEFAULT 0.00,
+    paid_amount DECIMAL(10,2) NOT NULL DEFAULT 0.00 COMMENT 'Paid amount entered on the statement',
+    payments_applied DECIMAL(10,2) NOT NULL DEFAULT 0.00 COMMENT 'Sum of COMPLETED statement payments',
+    closing_balance DECIMAL(10,2) NOT NULL DEFAULT 0.00 COMMENT 'Balance carried into the next period',
+    updated_at DATETIME NULL,
+
+    INDEX idx_ppb_person_period (person_id, period_to, status),
+
+    CONSTRAINT fk_ppb_statement FOREIGN KEY (statement_id)
+        REFERENCES statements(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+COMMENT='Closing balance and payments applied per person and statement period';
+
+-- Existing statements
+INSERT INTO person_period_balance
+    (statement_id, person_id, period_from, period_to, status, net_due, paid_amount, payments_applied,
+     closing_balance, updated_at)
+SELECT s.id, s.person_id, s.period_from, s.period_to, s.status,
+       COALESCE(s.net_due, 0), COALESCE(s.paid_amount, 0),
+       COALESCE((SELECT SUM(sp.amount) FROM statement_payment sp
+                 WHERE sp.statement_id = s.id AND sp.status = 'COMPLETED'), 0),
+       CASE WHEN s.status = 'PAID' THEN COALESCE(s.net_due, 0) - COALESCE(s.paid_amount, 0)
+            ELSE COALESCE(s.net_due, 0) END,
+       NOW()
+FROM statements s
+WHERE s.person_id IS NOT NULL AND s.period_from IS NOT NULL AND s.period_to IS NOT NULL
+  AND s.status IS NOT NULL;
+
+-- Rollback:
+-- DROP TABLE IF EXISTS person_period_balance;
@@ -0,0 +1,36 @@
+-- Receivables per account customer (CustomerReceivables), maintained by CustomerReceivablesService:
+-- rebuilt for a customer on invoice, payment and cancellation events and after charge writes,
+-- and for all customers once a day so the aging buckets move with the date.
+-- Rows are filled on first use; no backfill needed.
+
+CREATE TABLE customer_receivables (
+    customer_id BIGINT PRIMARY KEY,
+    unpaid_charges DECIMAL(12,2) NOT NULL DEFAULT 0.00 COMMENT 'Unpaid account charges (fare + tip)',
+    unpaid_charge_count INT NOT NULL DEFAULT 0,
+    invoice_count INT NOT NULL DEFAULT 0,
+    paid_invoice_count INT NOT NULL DEFAULT 0,
+    open_invoice_count INT NOT NULL DEFAULT 0 COMMENT 'SENT, PARTIAL or OVERDUE',
+    overdue_invoice_count INT NOT NULL DEFAULT 0 COMMENT 'Past due, not PAID or CANCELLED',
+    total_invoiced DECIMAL(12,2) NOT NULL DEFAULT 0.00,
+    total_paid DECIMAL(12,2) NOT NULL DEFAULT 0.00,
+    invoice_balance DECIMAL(12,2) NOT NULL DEFAULT 0.00 COMMENT 'Balance due of open invoices',
+    balance_current DECIMAL(12,2) NOT NULL DEFAULT 0.00 COMMENT 'Open balance not yet due',
+    balance_1_30 DECIMAL(12,2) NOT NULL DEFAULT 0.00,
+    balance_31_60 DECIMAL(12,2) NOT NULL DEFAULT 0.00,
+    balance_61_90 DECIMAL(12,2) NOT NULL DEFAULT 0.00,
+    balance_over_90 DECIMAL(12,2) NOT NULL DEFAULT 0.00,
+    last_payment_date DATE NULL,
+    last_payment_amount DECIMAL(10,2) NULL,
+    as_of_date DATE NOT NULL COMMENT 'Day the aging buckets were computed for',
+    updated_at DATETIME NULL,
+
+    INDEX idx_cr_unpaid_charges (unpaid_charges),
+    INDEX idx_cr_invoice_balance (invoice_balance),
+
+    CONSTRAINT fk_cr_customer FOREIGN KEY (customer_id)
+        REFERENCES account_customer(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+COMMENT='Receivables and aging per account customer';
+
+-- Rollback:
+-- DROP TABLE IF EXISTS customer_receivables;
@@ -0,0 +1,23 @@
+-- Audit trail of transfer execution approvals and rejections, one row per execution and decision.
+-- Written by TransferExecutionService, as a JDBC batch when executions are approved or rejected in bulk.
+
+CREATE TABLE statement_transfer_execution_audit (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    execution_id BIGINT NOT NULL,
+    action VARCHAR(20) NOT NULL COMMENT 'APPROVE or REJECT',
+    from_status VARCHAR(20) NOT NULL COMMENT 'Execution status before the decision',
+    to_status VARCHAR(20) NOT NULL COMMENT 'Execution status after the decision',
+    performed_by BIGINT NULL,
+    performed_at DATETIME NOT NULL,
+    notes TEXT NULL COMMENT 'Approval notes or rejection reason',
+    batch_size INT NOT NULL DEFAULT 1 COMMENT 'Number of executions decided together',
+
+    INDEX idx_exec_audit_execution (execution_id, performed_at),
+
+    CONSTRAINT fk_exec_audit_execution FOREIGN KEY (execution_id)
+        REFERENCES statement_transfer_execution(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+COMMENT='Approval and rejection history of statement transfer executions';
+
+-- Rollback:
+-- DROP TABLE IF EXISTS statement_transfer_execution_audit;
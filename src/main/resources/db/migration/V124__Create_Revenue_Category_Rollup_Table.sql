@@ -0,0 +1,48 @@
+-- Revenue totals per person, category and month, maintained by RevenueRollupService on revenue and
+-- other_revenue writes. Covers what the owner report counts for a person:
+--   * shift revenue (revenue via shift_log): attributed to the shift log's owner (OWNER) and to each
+--     driver with a segment on it (DRIVER); category SHIFT:<revenue_type>
+--   * other revenue applied to a specific person (PERSON), or to everyone - ALL_DRIVERS, ALL_OWNERS,
+--     ALL_ACTIVE_SHIFTS - under person_id 0 (ALL); category RC_<revenue_category_id> (the year-end
+--     config keys) or OTHER:<revenue_type> without a category
+-- Category totals of a period are one grouped query on the primary key.
+
+CREATE TABLE revenue_category_rollup (
+    person_id BIGINT NOT NULL COMMENT 'Driver/owner id; 0 for revenue applied to everyone',
+    attribution VARCHAR(10) NOT NULL COMMENT 'OWNER, DRIVER, PERSON or ALL',
+    category_key VARCHAR(60) NOT NULL,
+    month DATE NOT NULL COMMENT 'First day of the month',
+    amount DECIMAL(14,2) NOT NULL DEFAULT 0.00,
+    item_count INT NOT NULL DEFAULT 0,
+    updated_at DATETIME NULL,
+
+    PRIMARY KEY (person_id, month, attribution, category_key),
+    INDEX idx_rcr_month (month)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+COMMENT='Revenue totals per person, category and month';
+
+-- Existing revenue
+INSERT INTO revenue_category_rollup (person_id, attribution, category_key, month, amount, item_count, updated_at)
+SELECT x.person_id, x.attribution, x.category_key, x.month, SUM(x.amount), COUNT(*), NOW()
+FROM (
+    SELECT sl.owner_id AS person_id, 'OWNER' AS attribution, CONCAT('SHIFT:', r.revenue_type) AS category_key,
+           DATE_FORMAT(sl.log_date, '%Y-%m-01') AS month, r.amount AS amount
+    FROM revenue r JOIN shift_log sl ON sl.id = r.shift_log_id
+    UNION ALL
+    SELECT d.driver_id, 'DRIVER', CONCAT('SHIFT:', r.revenue_type), DATE_FORMAT(sl.log_date, '%Y-%m-01'), r.amount
+    FROM revenue r JOIN shift_log sl ON sl.id = r.shift_log_id
+    JOIN (SELECT DISTINCT shift_log_id, driver_id FROM driver_segment) d ON d.shift_log_id = sl.id
+    UNION ALL
+    SELECT CASE WHEN o.application_type = 'SPECIFIC_PERSON' THEN o.specific_person_id ELSE 0 END,
+           CASE WHEN o.application_type = 'SPECIFIC_PERSON' THEN 'PERSON' ELSE 'ALL' END,
+           CASE WHEN o.revenue_category_id IS NOT NULL THEN CONCAT('RC_', o.revenue_category_id)
+                ELSE CONCAT('OTHER:', o.revenue_type) END,
+           DATE_FORMAT(o.revenue_date, '%Y-%m-01'), o.amount
+    FROM other_revenue o
+    WHERE (o.application_type = 'SPECIFIC_PERSON' AND o.specific_person_id IS NOT NULL)
+       OR o.application_type IN ('ALL_DRIVERS', 'ALL_OWNERS', 'ALL_ACTIVE_SHIFTS')
+) x
+GROUP BY x.person_id, x.attribution, x.category_key, x.month;
+
+-- Rollback:
+-- DROP TABLE IF EXISTS revenue_category_rollup;
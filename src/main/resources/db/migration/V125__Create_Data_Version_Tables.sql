@@ -0,0 +1,29 @@
+-- Shared versions behind cached reports, bumped in the writing transaction so every node sees a
+-- committed write (the counters used to live in memory on each node).
+--   * driver_ledger_version: per person (0 = everyone) and month, from the driver ledger's changes;
+--     open_ended rows cover their month and every later one. A person's owner report for a
+--     period is current while the sum of the rows overlapping it is unchanged.
+--   * data_version: per data group, for bulk writes that cannot be pinned to persons and months.
+-- Rows are only ever incremented, never deleted.
+
+CREATE TABLE driver_ledger_version (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    person_id BIGINT NOT NULL COMMENT 'Person whose reports changed; 0 = every person',
+    period_start DATE NOT NULL COMMENT 'First day of the month',
+    open_ended BOOLEAN NOT NULL COMMENT 'Also covers every later month',
+    version BIGINT NOT NULL DEFAULT 0,
+
+    UNIQUE KEY uk_dlv_person_period (person_id, period_start, open_ended)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+COMMENT='Change counters of owner report data per person and month';
+
+CREATE TABLE data_version (
+    source VARCHAR(30) PRIMARY KEY COMMENT 'DataSource',
+    version BIGINT NOT NULL DEFAULT 0,
+    updated_at DATETIME NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+COMMENT='Change counters of bulk writes per data group';
+
+-- Rollback:
+-- DROP TABLE IF EXISTS driver_ledger_version;
+-- DROP TABLE IF EXISTS data_version;
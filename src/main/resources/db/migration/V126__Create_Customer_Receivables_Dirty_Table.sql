@@ -0,0 +1,14 @@
+-- Customers whose customer_receivables row is out of date, marked by CustomerReceivablesService in
+-- the transaction that changed their charges, invoices or payments (the marks used to live in
+-- memory on each node). The next read rebuilds the marked rows and deletes the marks.
+-- customer_id -1 marks every customer (a change without a customer). No foreign key: a mark may
+-- outlive its customer.
+
+CREATE TABLE customer_receivables_dirty (
+    customer_id BIGINT PRIMARY KEY,
+    marked_at DATETIME NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+COMMENT='Customers whose receivables need a rebuild';
+
+-- Rollback:
+-- DROP TABLE IF EXISTS customer_receivables_dirty;
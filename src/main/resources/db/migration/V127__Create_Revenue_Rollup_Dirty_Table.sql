@@ -0,0 +1,13 @@
+-- Months of revenue_category_rollup that are out of date, marked by RevenueRollupService in the
+-- transaction that changed their revenue, shift logs, segments or other revenue (the marks used
+-- to live in memory on each node). The next read rebuilds the marked months and deletes the marks.
+-- month 1000-01-01 marks every month (a change without a date).
+
+CREATE TABLE revenue_rollup_dirty (
+    month DATE PRIMARY KEY COMMENT 'First day of the month',
+    marked_at DATETIME NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+COMMENT='Revenue rollup months that need a rebuild';
+
+-- Rollback:
+-- DROP TABLE IF EXISTS revenue_rollup_dirty;
@@ -0,0 +1,14 @@
+-- Day the customer_receivables aging buckets were last rebuilt for, shared by every node. The
+-- scheduled rebuild moves as_of_date forward with a conditional UPDATE, so exactly one node
+-- rebuilds all rows each day; the row stays locked until its rebuild commits.
+
+CREATE TABLE customer_receivables_aging (
+    id TINYINT PRIMARY KEY,
+    as_of_date DATE NOT NULL COMMENT 'Aging date of the last full rebuild'
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+COMMENT='Day of the last full customer receivables rebuild';
+
+INSERT INTO customer_receivables_aging (id, as_of_date) VALUES (1, '1000-01-01');
+
+-- Rollback:
+-- DROP TABLE IF EXISTS customer_receivables_aging;
@@ -0,0 +1,14 @@
+-- One statement per person and period. StatementBatchWriter skips persons that already have a
+-- statement for the period, and the owner report looks a statement up by person and period; the
+-- key makes both hold when two finalizations of the same person race.
+--
+-- Fails if duplicates already exist; list them with
+--   SELECT person_id, period_from, period_to, COUNT(*) FROM statements
+--   GROUP BY person_id, period_from, period_to HAVING COUNT(*) > 1;
+-- and keep one statement of each before migrating.
+
+ALTER TABLE statements
+    ADD CONSTRAINT uk_statements_person_period UNIQUE (person_id, period_from, period_to);
+
+-- Rollback:
+-- ALTER TABLE statements DROP INDEX uk_statements_person_period;
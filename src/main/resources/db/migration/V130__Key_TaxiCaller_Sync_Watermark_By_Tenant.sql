@@ -0,0 +1,21 @@
+-- Key incremental TaxiCaller sync watermarks by tenant as well as report type.
+-- TaxiCaller credentials are configured per tenant id (tenant_config), and several tenant ids
+-- can share a schema, so a watermark per report type alone mixed the positions of different
+-- TaxiCaller accounts.
+--
+-- Existing rows cannot be attributed to a tenant and are removed; the next run of each tenant
+-- re-reads the initial window (taxicaller.sync.incremental.initial-days), and the importers
+-- skip rows that already exist.
+
+DELETE FROM taxicaller_sync_watermark;
+
+ALTER TABLE taxicaller_sync_watermark
+    ADD COLUMN tenant_id VARCHAR(63) NOT NULL COMMENT 'Tenant whose TaxiCaller account the mark belongs to' AFTER id,
+    DROP INDEX uk_taxicaller_sync_report_type,
+    ADD CONSTRAINT uk_taxicaller_sync_tenant_report_type UNIQUE (tenant_id, report_type);
+
+-- Rollback:
+-- ALTER TABLE taxicaller_sync_watermark
+--     DROP INDEX uk_taxicaller_sync_tenant_report_type,
+--     DROP COLUMN tenant_id,
+--     ADD CONSTRAINT uk_taxicaller_sync_report_type UNIQUE (report_type);
@@ -0,0 +1,174 @@
+package com.taxi.domain.account.service;
+
+import com.taxi.domain.account.model.AccountCustomer;
+import com.taxi.domain.account.model.Invoice;
+import com.taxi.domain.account.repository.CustomerReceivablesRepository;
+import com.taxi.infrastructure.datachange.EntityChangeObserver.ChangeType;
+import com.taxi.infrastructure.datachange.TransactionalChangeObserver.PreviousState;
+import com.taxi.util.H2NativeQueries;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs CustomerReceivablesService's rebuild on an in-memory database (MySQL mode): aging buckets
+ * by days past due, customers marked by a write rebuilt by the next drain, and the aging rebuild
+ * run once per day.
+ */
+@ExtendWith(MockitoExtension.class)
+class CustomerReceivablesServiceTest {
+
+    private static final String BUCKETS_SQL = "SELECT balance_current, balance_1_30, balance_31_60, balance_61_90, " +
+            "balance_over_90, invoice_balance, open_invoice_count, overdue_invoice_count " +
+            "FROM customer_receivables WHERE customer_id = ?";
+
+    @Mock private CustomerReceivablesRepository receivablesRepository;
+    @Mock private EntityManager entityManager;
+
+    private CustomerReceivablesService receivablesService;
+    private H2NativeQueries database;
+    private final LocalDate today = LocalDate.now();
+    private long nextInvoiceId = 1;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        database = new H2NativeQueries("customer-receivables");
+        database.execute("CREATE TABLE account_customer (id BIGINT PRIMARY KEY)");
+        database.execute("CREATE TABLE account_charge (id BIGINT AUTO_INCREMENT PRIMARY KEY, customer_id BIGINT, " +
+                "is_paid TINYINT, fare_amount DECIMAL(10,2), tip_amount DECIMAL(10,2))");
+        database.execute("CREATE TABLE invoice (id BIGINT PRIMARY KEY, customer_id BIGINT, status VARCHAR(20), " +
+                "due_date DATE, total_amount DECIMAL(10,2), amount_paid DECIMAL(10,2), balance_due DECIMAL(10,2))");
+        database.execute("CREATE TABLE payment (id BIGINT AUTO_INCREMENT PRIMARY KEY, customer_id BIGINT, " +
+                "status VARCHAR(20), payment_date DATE, amount DECIMAL(10,2))");
+        database.execute("CREATE TABLE customer_receivables (customer_id BIGINT PRIMARY KEY, " +
+                "unpaid_charges DECIMAL(12,2) NOT NULL DEFAULT 0, unpaid_charge_count INT NOT NULL DEFAULT 0, " +
+                "invoice_count INT NOT NULL DEFAULT 0, paid_invoice_count INT NOT NULL DEFAULT 0, " +
+                "open_invoice_count INT NOT NULL DEFAULT 0, overdue_invoice_count INT NOT NULL DEFAULT 0, " +
+                "total_invoiced DECIMAL(12,2) NOT NULL DEFAULT 0, total_paid DECIMAL(12,2) NOT NULL DEFAULT 0, " +
+                "invoice_balance DECIMAL(12,2) NOT NULL DEFAULT 0, balance_current DECIMAL(12,2) NOT NULL DEFAULT 0, " +
+                "balance_1_30 DECIMAL(12,2) NOT NULL DEFAULT 0, balance_31_60 DECIMAL(12,2) NOT NULL DEFAULT 0, " +
+                "balance_61_90 DECIMAL(12,2) NOT NULL DEFAULT 0, balance_over_90 DECIMAL(12,2) NOT NULL DEFAULT 0, " +
+                "last_payment_date DATE NULL, last_payment_amount DECIMAL(10,2) NULL, as_of_date DATE NOT NULL, " +
+                "updated_at DATETIME NULL)");
+        database.execute("CREATE TABLE customer_receivables_dirty (customer_id BIGINT PRIMARY KEY, marked_at DATETIME NOT NULL)");
+        database.execute("CREATE TABLE customer_receivables_aging (id TINYINT PRIMARY KEY, as_of_date DATE NOT NULL)");
+        database.execute("INSERT INTO customer_receivables_aging VALUES (1, '1000-01-01')");
+        database.execute("INSERT INTO account_customer VALUES (1), (2)");
+
+        receivablesService = new CustomerReceivablesService(receivablesRepository);
+        ReflectionTestUtils.setField(receivablesService, "entityManager", entityManager);
+        database.stub(entityManager);
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        database.close();
+    }
+
+    @Test
+    void agesOpenBalancesByDaysPastDue() {
+        // Distinct amounts, so each bucket's sum shows exactly which invoices landed in it
+        invoice(1, "SENT", 10, "1.00");         // not yet due
+        invoice(1, "PARTIAL", 0, "2.00");       // due today
+        invoice(1, "OVERDUE", -1, "4.00");
+        invoice(1, "OVERDUE", -30, "8.00");
+        invoice(1, "OVERDUE", -31, "16.00");
+        invoice(1, "OVERDUE", -60, "32.00");
+        invoice(1, "OVERDUE", -61, "64.00");
+        invoice(1, "OVERDUE", -90, "128.00");
+        invoice(1, "OVERDUE", -91, "256.00");
+        invoice(1, "OVERDUE", -400, "512.00");
+        // Not open: no balance in any bucket; the draft still counts as overdue
+        invoice(1, "PAID", -45, "1024.00");
+        invoice(1, "CANCELLED", -45, "2048.00");
+        invoice(1, "DRAFT", -45, "4096.00");
+
+        receivablesService.refreshAll();
+
+        Object[] row = database.query(BUCKETS_SQL, 1L).get(0);
+        assertAmount("current", "3.00", row[0]);
+        assertAmount("1-30", "12.00", row[1]);
+        assertAmount("31-60", "48.00", row[2]);
+        assertAmount("61-90", "192.00", row[3]);
+        assertAmount("over 90", "768.00", row[4]);
+        assertAmount("open balance", "1023.00", row[5]);
+        assertEquals(10, ((Number) row[6]).intValue(), "open invoices");
+        assertEquals(9, ((Number) row[7]).intValue(), "overdue invoices");
+
+        Object[] none = database.query(BUCKETS_SQL, 2L).get(0);
+        for (int i = 0; i <= 5; i++) {
+            assertAmount("customer without invoices, column " + i, "0.00", none[i]);
+        }
+    }
+
+    @Test
+    void rebuildsMarkedCustomersOnTheNextDrain() {
+        invoice(2, "SENT", -5, "40.00");
+        receivablesService.refreshAll();
+        assertEquals(0, receivablesService.drainMarks(), "nothing marked");
+
+        // A write moves an invoice of customer 2 to customer 1 and ages it
+        database.execute("UPDATE invoice SET customer_id = 1, due_date = ? WHERE customer_id = 2", today.minusDays(45));
+        Invoice moved = Invoice.builder().customer(customer(1L)).build();
+        PreviousState previous = new PreviousState(new String[] {"customer"}, new Object[] {customer(2L)});
+        Set<Long> marked = Set.copyOf(receivablesService.keysFor(moved, ChangeType.UPDATE, previous));
+        assertEquals(Set.of(1L, 2L), marked);
+        receivablesService.beforeCommit(marked);
+
+        // Reads do not rebuild anything
+        when(receivablesRepository.findWithOpenInvoiceBalance()).thenReturn(List.of());
+        receivablesService.agedReceivables();
+        assertAmount("before the drain", "40.00", database.query(BUCKETS_SQL, 2L).get(0)[1]);
+
+        assertEquals(2, receivablesService.drainMarks());
+        assertAmount("new customer 31-60", "40.00", database.query(BUCKETS_SQL, 1L).get(0)[2]);
+        assertAmount("old customer 1-30", "0.00", database.query(BUCKETS_SQL, 2L).get(0)[1]);
+        assertTrue(database.query("SELECT customer_id FROM customer_receivables_dirty").isEmpty(), "marks cleared");
+    }
+
+    @Test
+    void rebuildsAgingOncePerDay() {
+        invoice(1, "SENT", -5, "40.00");
+
+        assertTrue(receivablesService.rebuildAgingIfDue(), "first run of the day");
+        assertAmount("1-30", "40.00", database.query(BUCKETS_SQL, 1L).get(0)[1]);
+
+        // Another node (or the next run) finds the day taken
+        database.execute("UPDATE customer_receivables SET balance_1_30 = 0");
+        assertFalse(receivablesService.rebuildAgingIfDue(), "second run of the day");
+        assertAmount("not rebuilt again", "0.00", database.query(BUCKETS_SQL, 1L).get(0)[1]);
+        assertEquals(today, ((Date) database.query("SELECT as_of_date FROM customer_receivables_aging")
+                .get(0)[0]).toLocalDate());
+    }
+
+    private void invoice(long customerId, String status, int daysUntilDue, String balance) {
+        BigDecimal amount = new BigDecimal(balance);
+        database.execute("INSERT INTO invoice VALUES (?, ?, ?, ?, ?, ?, ?)", nextInvoiceId++, customerId, status,
+                today.plusDays(daysUntilDue), amount, BigDecimal.ZERO, amount);
+    }
+
+    private static AccountCustomer customer(Long id) {
+        return AccountCustomer.builder().id(id).build();
+    }
+
+    private static void assertAmount(String what, String expected, Object actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo((BigDecimal) actual), what + ": expected " + expected + ", got " + actual);
+    }
+}
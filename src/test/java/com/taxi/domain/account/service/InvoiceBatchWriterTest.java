@@ -0,0 +1,186 @@
+package com.taxi.domain.account.service;
+
+import com.taxi.domain.account.model.AccountCharge;
+import com.taxi.domain.account.model.AccountCustomer;
+import com.taxi.domain.account.model.Invoice;
+import com.taxi.domain.account.model.Invoice.InvoiceStatus;
+import com.taxi.domain.account.model.InvoiceLineItem;
+import com.taxi.domain.account.repository.AccountChargeRepository;
+import com.taxi.domain.account.repository.InvoiceRepository;
+import com.taxi.infrastructure.datachange.DataSource;
+import com.taxi.infrastructure.datachange.DataVersionService;
+import com.taxi.util.H2NativeQueries;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs a billing-run chunk on an in-memory database (MySQL mode): each invoice gets the id
+ * generated for its own row, its line items and its charges' stamps; a chunk whose charges
+ * changed between loading and stamping fails before anything else is recorded.
+ */
+@ExtendWith(MockitoExtension.class)
+class InvoiceBatchWriterTest {
+
+    private static final LocalDate PERIOD_START = LocalDate.of(2026, 9, 1);
+    private static final LocalDate PERIOD_END = LocalDate.of(2026, 9, 30);
+
+    @Mock private InvoiceService invoiceService;
+    @Mock private InvoiceRepository invoiceRepository;
+    @Mock private AccountChargeRepository chargeRepository;
+    @Mock private DataVersionService dataVersionService;
+    @Mock private CustomerReceivablesService receivablesService;
+    @Mock private EntityManager entityManager;
+    @Mock private Session session;
+
+    private InvoiceBatchWriter writer;
+    private H2NativeQueries database;
+
+    private final AccountCustomer acme = AccountCustomer.builder().id(7L).companyName("Acme Freight").build();
+    private final AccountCustomer zenith = AccountCustomer.builder().id(8L).companyName("Zenith Couriers").build();
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        database = new H2NativeQueries("invoice-batch-writer");
+        database.execute("CREATE TABLE invoice (id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                "invoice_number VARCHAR(50) NOT NULL UNIQUE, account_id VARCHAR(50) NOT NULL, customer_id BIGINT NOT NULL, " +
+                "invoice_date DATE NOT NULL, due_date DATE NOT NULL, billing_period_start DATE NOT NULL, " +
+                "billing_period_end DATE NOT NULL, subtotal DECIMAL(10,2) NOT NULL, tax_rate DECIMAL(5,2), " +
+                "tax_amount DECIMAL(10,2), total_amount DECIMAL(10,2) NOT NULL, amount_paid DECIMAL(10,2) NOT NULL, " +
+                "balance_due DECIMAL(10,2) NOT NULL, status VARCHAR(20) NOT NULL, statement_version INT, " +
+                "previous_balance DECIMAL(10,2), terms VARCHAR(500), created_by BIGINT, created_at DATETIME, " +
+                "updated_at DATETIME, email_send_count INT)");
+        database.execute("CREATE TABLE invoice_line_item (id BIGINT AUTO_INCREMENT PRIMARY KEY, invoice_id BIGINT NOT NULL, " +
+                "charge_id BIGINT NOT NULL, description VARCHAR(500), trip_date DATE, quantity INT, " +
+                "unit_price DECIMAL(10,2) NOT NULL, amount DECIMAL(10,2) NOT NULL)");
+        database.execute("CREATE TABLE account_charge (id BIGINT PRIMARY KEY, customer_id BIGINT NOT NULL, " +
+                "trip_date DATE, is_paid BOOLEAN NOT NULL DEFAULT FALSE, invoice_id BIGINT, " +
+                "invoice_number VARCHAR(50), updated_at DATETIME)");
+        // Ids already taken, so generated ids and charge ids cannot line up by accident
+        database.execute("ALTER TABLE invoice ALTER COLUMN id RESTART WITH 500");
+
+        writer = new InvoiceBatchWriter(invoiceService, invoiceRepository, chargeRepository, dataVersionService,
+                receivablesService);
+        ReflectionTestUtils.setField(writer, "entityManager", entityManager);
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+        database.stub(session);
+
+        List<AccountCharge> charges = new ArrayList<>();
+        charges.add(charge(1L, acme));
+        charges.add(charge(2L, acme));
+        charges.add(charge(3L, zenith));
+        when(invoiceRepository.findCustomerIdsWithOverlappingPeriod(anyCollection(), eq(PERIOD_START), eq(PERIOD_END)))
+                .thenReturn(List.of());
+        when(chargeRepository.findUninvoicedChargesByCustomersAndDateRange(anyCollection(), eq(PERIOD_START), eq(PERIOD_END)))
+                .thenReturn(charges);
+        when(invoiceService.buildInvoice(eq(acme), anyList(), eq(PERIOD_START), eq(PERIOD_END), any(), any()))
+                .thenAnswer(i -> invoice("INV-202609-0001", acme, i.getArgument(1)));
+        when(invoiceService.buildInvoice(eq(zenith), anyList(), eq(PERIOD_START), eq(PERIOD_END), any(), any()))
+                .thenAnswer(i -> invoice("INV-202609-0002", zenith, i.getArgument(1)));
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        database.close();
+    }
+
+    @Test
+    void writesInvoicesLineItemsAndStampsUnderEachInvoicesOwnId() {
+        InvoiceBatchWriter.WriteResult result = write();
+
+        assertEquals(2, result.getInvoiced().size());
+        for (Invoice invoice : result.getInvoiced()) {
+            Object[] row = database.query("SELECT invoice_number, customer_id FROM invoice WHERE id = ?", invoice.getId()).get(0);
+            assertEquals(invoice.getInvoiceNumber(), row[0], "invoice of id " + invoice.getId());
+            assertEquals(invoice.getCustomer().getId(), ((Number) row[1]).longValue());
+        }
+        Long acmeId = result.getInvoiced().get(0).getId();
+        Long zenithId = result.getInvoiced().get(1).getId();
+
+        assertEquals(List.of(1L, 2L), chargeIds("SELECT charge_id FROM invoice_line_item WHERE invoice_id = ? ORDER BY charge_id", acmeId));
+        assertEquals(List.of(3L), chargeIds("SELECT charge_id FROM invoice_line_item WHERE invoice_id = ?", zenithId));
+        assertEquals(List.of(1L, 2L), chargeIds("SELECT id FROM account_charge WHERE invoice_id = ? ORDER BY id", acmeId));
+        assertEquals(List.of(3L), chargeIds("SELECT id FROM account_charge WHERE invoice_id = ?", zenithId));
+        assertEquals("INV-202609-0002", database.query("SELECT invoice_number FROM account_charge WHERE id = 3").get(0)[0]);
+
+        verify(dataVersionService).bump(DataSource.CHARGES);
+        verify(receivablesService).refresh(List.of(7L, 8L));
+    }
+
+    @Test
+    void stampCountMismatchFailsTheChunk() {
+        // Charge 2 was invoiced elsewhere between loading and stamping
+        database.execute("UPDATE account_charge SET invoice_id = 42 WHERE id = 2");
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, this::write);
+
+        assertTrue(e.getMessage().contains("1 stamped, 2 on invoice INV-202609-0001"), e.getMessage());
+        verify(dataVersionService, never()).bump(any());
+        verify(receivablesService, never()).refresh(any());
+    }
+
+    private InvoiceBatchWriter.WriteResult write() {
+        return writer.write(List.of(acme, zenith), PERIOD_START, PERIOD_END, BigDecimal.ZERO, "Net 30", 3L);
+    }
+
+    private List<Long> chargeIds(String sql, Long invoiceId) {
+        return database.query(sql, invoiceId).stream().map(r -> ((Number) r[0]).longValue()).toList();
+    }
+
+    private AccountCharge charge(Long id, AccountCustomer customer) {
+        LocalDate tripDate = PERIOD_START.plusDays(id);
+        database.execute("INSERT INTO account_charge (id, customer_id, trip_date) VALUES (?, ?, ?)", id, customer.getId(), tripDate);
+        return AccountCharge.builder()
+                .id(id)
+                .accountCustomer(customer)
+                .tripDate(tripDate)
+                .fareAmount(new BigDecimal("25.00"))
+                .tipAmount(BigDecimal.ZERO)
+                .build();
+    }
+
+    private static Invoice invoice(String number, AccountCustomer customer, List<AccountCharge> charges) {
+        Invoice invoice = Invoice.builder()
+                .invoiceNumber(number)
+                .accountId("ACCT-" + customer.getId())
+                .customer(customer)
+                .invoiceDate(PERIOD_END)
+                .dueDate(PERIOD_END.plusDays(30))
+                .billingPeriodStart(PERIOD_START)
+                .billingPeriodEnd(PERIOD_END)
+                .status(InvoiceStatus.SENT)
+                .build();
+        for (AccountCharge charge : charges) {
+            invoice.addLineItem(InvoiceLineItem.builder()
+                    .charge(charge)
+                    .tripDate(charge.getTripDate())
+                    .unitPrice(charge.getFareAmount())
+                    .amount(charge.getFareAmount())
+                    .build());
+        }
+        return invoice;
+    }
+}
@@ -0,0 +1,101 @@
+package com.taxi.domain.eft.service;
+
+import com.taxi.domain.account.model.StatementPayment;
+import com.taxi.domain.eft.model.BankAccount;
+import com.taxi.domain.eft.model.EftConfig;
+import com.taxi.domain.eft.service.EftFileGenerationService.EftFile;
+import com.taxi.domain.eft.service.EftFileGenerationService.EftPaymentRecord;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Times writing synthetic EFT batches, e.g. 10,000 payments, through the same record writer and
+ * UTF-8 encoding as a download, with the bytes discarded. The first round warms up the JIT and
+ * is not counted. Database work (loading payments and bank accounts) is not included.
+ *
+ * Run with: EftWriteBenchmark [payments] [rounds]
+ */
+public class EftWriteBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int payments = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int rounds = Math.max(1, args.length > 1 ? Integer.parseInt(args[1]) : 5);
+
+        EftFile file = new EftFile(config(), 1, LocalDate.now(), records(payments));
+
+        long[] nanos = new long[rounds];
+        long bytes = 0;
+        for (int round = 0; round <= rounds; round++) {
+            CountingOutputStream out = new CountingOutputStream();
+            long start = System.nanoTime();
+            EftFileGenerationService.writeEftFile(file, out);
+            long elapsed = System.nanoTime() - start;
+            if (round > 0) {
+                nanos[round - 1] = elapsed;
+                bytes = out.count;
+            }
+        }
+
+        Arrays.sort(nanos);
+        long median = nanos[rounds / 2];
+        System.out.println("=== EFT Write Benchmark ===\n");
+        System.out.println("Payments: " + payments);
+        System.out.println("Rounds: " + rounds);
+        System.out.println("File bytes: " + bytes);
+        System.out.printf("Best: %.2f ms%n", nanos[0] / 1_000_000.0);
+        System.out.printf("Median: %.2f ms%n", median / 1_000_000.0);
+        System.out.println("Payments/s: " + (median > 0 ? (long) (payments * 1_000_000_000.0 / median) : 0));
+    }
+
+    private static EftConfig config() {
+        return EftConfig.builder()
+                .originatorId("0000000000")
+                .originatorShortName("BENCHMARK")
+                .originatorLongName("BENCHMARK ORIGINATOR")
+                .processingCentre("00000")
+                .returnInstitutionId("001")
+                .returnTransitNumber("00011")
+                .returnAccountNumber("000000000001")
+                .build();
+    }
+
+    private static List<EftPaymentRecord> records(int payments) {
+        List<EftPaymentRecord> records = new ArrayList<>(payments);
+        for (int i = 0; i < payments; i++) {
+            StatementPayment payment = StatementPayment.builder()
+                    .paymentNumber(String.format("PAY-%08d", i + 1))
+                    .personId((long) i + 1)
+                    .personName("Payee " + (i + 1))
+                    .amount(BigDecimal.valueOf(10_000 + i * 37L, 2))
+                    .build();
+            BankAccount bank = BankAccount.builder()
+                    .accountHolderName("Payee Account Holder " + (i + 1))
+                    .institutionNumber("003")
+                    .transitNumber(String.format("%05d", i % 100_000))
+                    .accountNumber(String.format("%012d", i))
+                    .build();
+            records.add(new EftPaymentRecord(payment, bank));
+        }
+        return records;
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
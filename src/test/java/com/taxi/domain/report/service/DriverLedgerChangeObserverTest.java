@@ -0,0 +1,109 @@
+package com.taxi.domain.report.service;
+
+import com.taxi.domain.expense.model.ExpenseCategory;
+import com.taxi.domain.expense.model.ItemRate;
+import com.taxi.domain.payment.model.CreditCardTransaction;
+import com.taxi.domain.report.service.DriverLedgerService.Change;
+import com.taxi.domain.revenue.entity.OtherRevenue;
+import com.taxi.domain.shift.model.DriverShift;
+import com.taxi.infrastructure.datachange.EntityChangeObserver.ChangeType;
+import com.taxi.infrastructure.datachange.TransactionalChangeObserver.PreviousState;
+import com.taxi.infrastructure.multitenancy.TenantSchemaMapper;
+import com.taxi.infrastructure.multitenancy.TenantTimeZones;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Ledger periods marked for a write: both the months a record moved from and to, the tenant's
+ * local shift date (daylight saving time included), and no blanket invalidation for dated records.
+ */
+@ExtendWith(MockitoExtension.class)
+class DriverLedgerChangeObserverTest {
+
+    @Mock private DriverLedgerService ledgerService;
+
+    private DriverLedgerChangeObserver observer;
+
+    @BeforeEach
+    void setUp() {
+        TenantTimeZones timeZones = new TenantTimeZones(new TenantSchemaMapper(), "America/Vancouver", List.of());
+        observer = new DriverLedgerChangeObserver(ledgerService, timeZones);
+    }
+
+    @Test
+    void marksTheMonthARecordMovedFrom() {
+        OtherRevenue revenue = new OtherRevenue();
+        revenue.setRevenueDate(LocalDate.of(2026, 5, 20));
+        PreviousState previous = previous("revenueDate", LocalDate.of(2026, 3, 5));
+
+        assertEquals(Set.of(month(2026, 3, 2026, 3), month(2026, 5, 2026, 5)),
+                keys(revenue, ChangeType.UPDATE, previous));
+    }
+
+    @Test
+    void marksBothDriversOfAMovedCardTransaction() {
+        CreditCardTransaction transaction = new CreditCardTransaction();
+        transaction.setTransactionDate(LocalDate.of(2026, 4, 10));
+        transaction.setDriverNumber("D2");
+        PreviousState previous = new PreviousState(new String[] {"transactionDate", "driverNumber"},
+                new Object[] {LocalDate.of(2026, 4, 10), "D1"});
+
+        assertEquals(Set.of(
+                        Change.forDriver("D1", LocalDate.of(2026, 4, 1), LocalDate.of(2026, 5, 1)),
+                        Change.forDriver("D2", LocalDate.of(2026, 4, 1), LocalDate.of(2026, 5, 1))),
+                keys(transaction, ChangeType.UPDATE, previous));
+
+        // Without the previous state, any driver of the month may have lost it
+        assertEquals(Set.of(Change.between(LocalDate.of(2026, 4, 1), LocalDate.of(2026, 5, 1))),
+                keys(transaction, ChangeType.UPDATE, PreviousState.UNKNOWN));
+    }
+
+    @Test
+    void coversTheTenantsLocalShiftDateAcrossDaylightSavingTime() {
+        // 06:30 UTC on July 1 is June 30 in Vancouver (UTC-7 in summer)
+        assertEquals(Set.of(month(2026, 6, 2026, 7)), keys(shift("2026-07-01T06:30"), ChangeType.INSERT, PreviousState.UNKNOWN));
+        // 07:30 UTC on July 1 is already July 1 there - a fixed 8 hours would say June 30
+        assertEquals(Set.of(month(2026, 7, 2026, 7)), keys(shift("2026-07-01T07:30"), ChangeType.INSERT, PreviousState.UNKNOWN));
+        // 07:30 UTC on January 1 is still December 31 (UTC-8 in winter)
+        assertEquals(Set.of(month(2025, 12, 2026, 1)), keys(shift("2026-01-01T07:30"), ChangeType.INSERT, PreviousState.UNKNOWN));
+    }
+
+    @Test
+    void narrowsDatedRecordsAndSkipsUndatedOnes() {
+        ItemRate rate = new ItemRate();
+        rate.setEffectiveFrom(LocalDate.of(2026, 2, 15));
+        assertEquals(Set.of(Change.from(LocalDate.of(2026, 2, 1))), keys(rate, ChangeType.INSERT, PreviousState.UNKNOWN));
+
+        assertTrue(keys(new OtherRevenue(), ChangeType.INSERT, PreviousState.UNKNOWN).isEmpty(), "undated revenue");
+        assertEquals(Set.of(Change.all()), keys(new ExpenseCategory(), ChangeType.UPDATE, PreviousState.UNKNOWN));
+    }
+
+    private Set<Change> keys(Object entity, ChangeType changeType, PreviousState previous) {
+        return Set.copyOf(observer.keysFor(entity, changeType, previous));
+    }
+
+    private static DriverShift shift(String logonTime) {
+        DriverShift shift = new DriverShift();
+        shift.setLogonTime(LocalDateTime.parse(logonTime));
+        return shift;
+    }
+
+    private static PreviousState previous(String property, Object value) {
+        return new PreviousState(new String[] {property}, new Object[] {value});
+    }
+
+    private static Change month(int fromYear, int fromMonth, int toYear, int toMonth) {
+        return Change.between(LocalDate.of(fromYear, fromMonth, 1), LocalDate.of(toYear, toMonth, 1));
+    }
+}
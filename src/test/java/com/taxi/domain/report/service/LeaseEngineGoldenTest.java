@@ -0,0 +1,218 @@
+package com.taxi.domain.report.service;
+
+import com.taxi.domain.cab.model.CabType;
+import com.taxi.domain.driver.repository.DriverRepository;
+import com.taxi.domain.lease.model.LeasePlan;
+import com.taxi.domain.lease.model.LeaseRate;
+import com.taxi.domain.lease.repository.LeasePlanRepository;
+import com.taxi.domain.lease.repository.LeaseRateRepository;
+import com.taxi.domain.lease.service.LeaseCalculationService.LeaseCalculationException;
+import com.taxi.domain.lease.service.LeaseRateOverrideService;
+import com.taxi.domain.lease.service.LeaseRateOverrideService.OverrideRateResult;
+import com.taxi.domain.mileage.model.MileageRecord;
+import com.taxi.domain.mileage.repository.MileageRecordRepository;
+import com.taxi.domain.report.service.DriverFinancialCalculationService.LeaseCalculationResult;
+import com.taxi.domain.shift.model.CabShift;
+import com.taxi.domain.shift.model.DriverShift;
+import com.taxi.domain.shift.model.ShiftType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+/**
+ * Prices a fixed set of shifts with LeaseEngine and compares every amount with
+ * golden/lease-engine.csv, the results of the per-shift implementation it replaced.
+ */
+@ExtendWith(MockitoExtension.class)
+class LeaseEngineGoldenTest {
+
+    private static final String GOLDEN_FILE = "/golden/lease-engine.csv";
+    private static final String OWNER = "OWN-1";
+    private static final String OVERRIDE_OWNER = "OWN-OVR";
+
+    @Mock private DriverRepository driverRepository;
+    @Mock private LeasePlanRepository leasePlanRepository;
+    @Mock private LeaseRateRepository leaseRateRepository;
+    @Mock private LeaseRateOverrideService leaseRateOverrideService;
+    @Mock private MileageRecordRepository mileageRecordRepository;
+    @Mock private TemporalRateCache temporalRateCache;
+
+    @InjectMocks
+    private LeaseEngine leaseEngine;
+
+    private final Map<String, GoldenShift> shifts = new LinkedHashMap<>();
+    private final List<MileageRecord> mileage = new ArrayList<>();
+
+    private record GoldenShift(DriverShift shift, String owner, CabShift cabShift) {}
+
+    @BeforeEach
+    void setUp() {
+        // January plan, an open-ended plan from February, and a one-day plan overlapping it on March 10
+        LeasePlan january = plan(1L, LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 31));
+        LeasePlan february = plan(2L, LocalDate.of(2026, 2, 1), null);
+        LeasePlan march10 = plan(3L, LocalDate.of(2026, 3, 10), LocalDate.of(2026, 3, 10));
+
+        when(leasePlanRepository.findPlansInRange(any(), any())).thenReturn(List.of(january, february, march10));
+        when(leaseRateRepository.findByLeasePlanIdIn(anyCollection())).thenReturn(List.of(
+                rate(january, CabType.SEDAN, false, ShiftType.DAY, DayOfWeek.THURSDAY, "60.00", "0.10"),
+                rate(january, CabType.SEDAN, true, ShiftType.NIGHT, DayOfWeek.THURSDAY, "75.00", "0.12"),
+                rate(february, CabType.SEDAN, false, ShiftType.DAY, DayOfWeek.MONDAY, "65.00", "0.15"),
+                rate(february, CabType.HANDICAP_VAN, false, ShiftType.NIGHT, DayOfWeek.MONDAY, "80.00", null)));
+        when(mileageRecordRepository.findByDriverNumbersOverlapping(anyCollection(), any(), any())).thenReturn(mileage);
+        when(driverRepository.findByDriverNumberIn(anyCollection())).thenReturn(List.of());
+        lenient().when(leaseRateOverrideService.getApplicableLeaseRate(eq(OVERRIDE_OWNER), anyString(), anyString(), anyString(), any()))
+                .thenReturn(OverrideRateResult.structured(new BigDecimal("55.00"), new BigDecimal("0.20"), 99L));
+
+        CabShift sedan = cabShift(CabType.SEDAN, false);
+
+        shift("jan-day-distance", "D1", "2026-01-08T07:00", "2026-01-08T15:00", "120.5", OWNER, sedan);
+
+        shift("jan-night-airport-mileage", "D2", "2026-01-08T18:00", "2026-01-09T02:00", null, OWNER,
+                cabShift(CabType.SEDAN, true));
+        mileage("D2", "2026-01-08T18:05", "2026-01-09T01:55", "40", "10");
+
+        // Records are matched with 15 minutes of tolerance on both ends, inclusive
+        shift("feb-mileage-tolerance", "D3", "2026-02-02T06:00", "2026-02-02T14:00", null, OWNER, sedan);
+        mileage("D3", "2026-02-02T14:15", "2026-02-02T15:00", "5", null);
+        mileage("D3", "2026-02-02T04:00", "2026-02-02T05:45", "7", "1");
+        mileage("D3", "2026-02-02T14:16", "2026-02-02T15:00", "100", null);
+        mileage("D3", "2026-02-02T04:00", "2026-02-02T05:44", "200", null);
+
+        shift("feb-van-no-mileage-rate", "D4", "2026-02-02T20:00", "2026-02-03T04:00", "30", OWNER,
+                cabShift(CabType.HANDICAP_VAN, false));
+        shift("feb-no-rate-fallback", "D5", "2026-02-03T08:00", "2026-02-03T16:00", "10", OWNER, sedan);
+        shift("feb-no-cab-shift", "D6", "2026-02-02T09:00", "2026-02-02T10:00", null, OWNER, null);
+        shift("feb-owner-override", "D7", "2026-02-02T10:00", "2026-02-02T12:00", "10", OVERRIDE_OWNER, sedan);
+        shift("feb-open-shift", "D8", "2026-02-02T07:00", null, null, OWNER, sedan);
+        shift("mar-two-active-plans", "D9", "2026-03-10T08:00", "2026-03-10T16:00", "10", OWNER, sedan);
+        shift("dec-no-active-plan", "D10", "2025-12-15T08:00", "2025-12-15T16:00", "10", OWNER, sedan);
+    }
+
+    @Test
+    void matchesPerShiftImplementation() throws IOException {
+        List<String[]> golden = readGolden();
+        assertEquals(shifts.size(), golden.size(), "one golden row per shift");
+
+        LeaseEngine.Inputs inputs = leaseEngine.load(shifts.values().stream().map(GoldenShift::shift).toList());
+
+        for (String[] row : golden) {
+            String name = row[0];
+            GoldenShift s = shifts.get(name);
+            assertNotNull(s, "unknown golden case " + name);
+
+            if ("ERROR".equals(row[1])) {
+                assertThrows(LeaseCalculationException.class, () -> calculate(inputs, s), name);
+                continue;
+            }
+            LeaseCalculationResult result = calculate(inputs, s);
+            assertAmount(name + " base rate", row[1], result.baseRate);
+            assertAmount(name + " mileage rate", row[2], result.mileageRate);
+            assertAmount(name + " miles", row[3], result.miles);
+            assertAmount(name + " total lease", row[4], result.totalLease);
+        }
+    }
+
+    private LeaseCalculationResult calculate(LeaseEngine.Inputs inputs, GoldenShift s) {
+        String shiftType = s.cabShift() != null ? s.cabShift().getShiftType().name() : "DAY";
+        return leaseEngine.calculate(inputs, s.shift(), s.owner(), s.shift().getCabNumber(), shiftType, s.cabShift());
+    }
+
+    private static void assertAmount(String what, String expected, BigDecimal actual) {
+        assertNotNull(actual, what);
+        assertEquals(0, new BigDecimal(expected).compareTo(actual), what + ": expected " + expected + ", got " + actual);
+    }
+
+    private static List<String[]> readGolden() throws IOException {
+        List<String[]> rows = new ArrayList<>();
+        try (InputStream in = LeaseEngineGoldenTest.class.getResourceAsStream(GOLDEN_FILE)) {
+            assertNotNull(in, GOLDEN_FILE + " not found");
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank() && !line.startsWith("#")) {
+                    rows.add(line.split(","));
+                }
+            }
+        }
+        return rows;
+    }
+
+    private void shift(String name, String driverNumber, String logon, String logoff, String distance,
+                       String owner, CabShift cabShift) {
+        DriverShift shift = new DriverShift();
+        shift.setId((long) shifts.size() + 1);
+        shift.setDriverNumber(driverNumber);
+        shift.setCabNumber("CAB-" + driverNumber);
+        shift.setLogonTime(LocalDateTime.parse(logon));
+        shift.setLogoffTime(logoff != null ? LocalDateTime.parse(logoff) : null);
+        shift.setTotalDistance(distance != null ? new BigDecimal(distance) : BigDecimal.ZERO);
+        shifts.put(name, new GoldenShift(shift, owner, cabShift));
+    }
+
+    private void mileage(String driverNumber, String logon, String logoff, String mileageB, String mileageC) {
+        MileageRecord record = new MileageRecord();
+        record.setId((long) mileage.size() + 1);
+        record.setDriverNumber(driverNumber);
+        record.setLogonTime(LocalDateTime.parse(logon));
+        record.setLogoffTime(LocalDateTime.parse(logoff));
+        record.setMileageB(new BigDecimal(mileageB));
+        record.setMileageC(mileageC != null ? new BigDecimal(mileageC) : null);
+        mileage.add(record);
+    }
+
+    private static LeasePlan plan(Long id, LocalDate from, LocalDate to) {
+        LeasePlan plan = new LeasePlan();
+        plan.setId(id);
+        plan.setEffectiveFrom(from);
+        plan.setEffectiveTo(to);
+        return plan;
+    }
+
+    private static LeaseRate rate(LeasePlan plan, CabType cabType, boolean airport, ShiftType shiftType,
+                                  DayOfWeek day, String baseRate, String mileageRate) {
+        LeaseRate rate = new LeaseRate();
+        rate.setLeasePlan(plan);
+        rate.setCabType(cabType);
+        rate.setHasAirportLicense(airport);
+        rate.setShiftType(shiftType);
+        rate.setDayOfWeek(day);
+        rate.setBaseRate(new BigDecimal(baseRate));
+        rate.setMileageRate(mileageRate != null ? new BigDecimal(mileageRate) : null);
+        return rate;
+    }
+
+    private static CabShift cabShift(CabType cabType, boolean airport) {
+        CabShift cabShift = new CabShift();
+        cabShift.setCabType(cabType);
+        cabShift.setHasAirportLicense(airport);
+        cabShift.setShiftType(ShiftType.DAY);
+        return cabShift;
+    }
+}
@@ -0,0 +1,205 @@
+package com.taxi.domain.revenue.service;
+
+import com.taxi.domain.revenue.service.RevenueRollupService.CategoryTotal;
+import com.taxi.domain.revenue.service.RevenueRollupService.RevenueTotals;
+import com.taxi.domain.shift.model.DriverSegment;
+import com.taxi.domain.shift.model.ShiftLog;
+import com.taxi.infrastructure.datachange.EntityChangeObserver.ChangeType;
+import com.taxi.infrastructure.datachange.TransactionalChangeObserver.PreviousState;
+import com.taxi.infrastructure.multitenancy.TenantSchemaMapper;
+import com.taxi.infrastructure.multitenancy.TenantTimeZones;
+import com.taxi.util.H2NativeQueries;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs RevenueRollupService on an in-memory database (MySQL mode): period totals made of whole
+ * months from the rollup and partial months at either end from the revenue rows, and months
+ * marked by a write - including the month a shift moved away from - read from the revenue rows
+ * until the next drain rebuilds them.
+ */
+@ExtendWith(MockitoExtension.class)
+class RevenueRollupServiceTest {
+
+    private static final long OWNER_ID = 10L;
+    private static final long DRIVER_ID = 20L;
+    private static final long SECOND_DRIVER_ID = 21L;
+
+    // Mid-January to mid-March: partial months at both ends, February whole
+    private static final LocalDate FROM = LocalDate.of(2026, 1, 15);
+    private static final LocalDate TO = LocalDate.of(2026, 3, 10);
+
+    @Mock private EntityManager entityManager;
+
+    private RevenueRollupService rollupService;
+    private H2NativeQueries database;
+    private long nextId = 1;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        database = new H2NativeQueries("revenue-rollup");
+        database.execute("CREATE TABLE shift_log (id BIGINT PRIMARY KEY, owner_id BIGINT, log_date DATE)");
+        database.execute("CREATE TABLE revenue (id BIGINT PRIMARY KEY, shift_log_id BIGINT, " +
+                "revenue_type VARCHAR(30), amount DECIMAL(10,2))");
+        database.execute("CREATE TABLE driver_segment (id BIGINT AUTO_INCREMENT PRIMARY KEY, shift_log_id BIGINT, " +
+                "driver_id BIGINT)");
+        database.execute("CREATE TABLE other_revenue (id BIGINT PRIMARY KEY, application_type VARCHAR(30), " +
+                "specific_person_id BIGINT, revenue_category_id BIGINT, revenue_type VARCHAR(30), " +
+                "revenue_date DATE, amount DECIMAL(10,2))");
+        database.execute("CREATE TABLE revenue_category_rollup (person_id BIGINT NOT NULL, " +
+                "attribution VARCHAR(10) NOT NULL, category_key VARCHAR(60) NOT NULL, month DATE NOT NULL, " +
+                "amount DECIMAL(14,2) NOT NULL DEFAULT 0, item_count INT NOT NULL DEFAULT 0, updated_at DATETIME NULL, " +
+                "PRIMARY KEY (person_id, month, attribution, category_key))");
+        database.execute("CREATE TABLE revenue_rollup_dirty (month DATE PRIMARY KEY, marked_at DATETIME NOT NULL)");
+
+        // Distinct amounts, so each total shows exactly which items it counted
+        shift("2026-01-14", "FARE", "1.00", DRIVER_ID);     // day before the period
+        shift("2026-01-15", "FARE", "2.00", DRIVER_ID);     // first day
+        shift("2026-01-31", "TIP", "4.00", DRIVER_ID);
+        shift("2026-02-01", "FARE", "8.00", DRIVER_ID);
+        // Two segments of the same driver still count the revenue once for them
+        shift("2026-02-28", "FARE", "16.00", DRIVER_ID, DRIVER_ID, SECOND_DRIVER_ID);
+        shift("2026-03-10", "FARE", "32.00", DRIVER_ID);    // last day
+        shift("2026-03-11", "FARE", "64.00", DRIVER_ID);    // day after
+        shift("2026-04-01", "FARE", "128.00", DRIVER_ID);
+
+        otherRevenue("SPECIFIC_PERSON", DRIVER_ID, 5L, null, "2026-01-14", "256.00");
+        otherRevenue("SPECIFIC_PERSON", DRIVER_ID, null, "BONUS", "2026-03-10", "512.00");
+        otherRevenue("ALL_DRIVERS", null, 5L, null, "2026-02-15", "1024.00");
+        otherRevenue("ALL_OWNERS", null, null, "ADJUSTMENT", "2026-01-20", "2048.00");
+        // A specific-person revenue without the person applies to no one
+        otherRevenue("SPECIFIC_PERSON", null, null, "BONUS", "2026-02-10", "4096.00");
+
+        rollupService = new RevenueRollupService(
+                new TenantTimeZones(new TenantSchemaMapper(), "America/Vancouver", List.of()));
+        ReflectionTestUtils.setField(rollupService, "entityManager", entityManager);
+        database.stub(entityManager);
+        rollupService.refreshAll();
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        database.close();
+    }
+
+    @Test
+    void combinesWholeMonthsWithPartialMonthsAtBothEnds() {
+        RevenueTotals totals = rollupService.totals(List.of(OWNER_ID, DRIVER_ID, SECOND_DRIVER_ID), FROM, TO);
+
+        Map<String, CategoryTotal> owner = totals.forPerson(OWNER_ID, true);
+        assertTotal(owner, "SHIFT:FARE", "58.00", 4);       // 2 + 8 + 16 + 32
+        assertTotal(owner, "SHIFT:TIP", "4.00", 1);
+        assertTotal(owner, "RC_5", "1024.00", 1);
+        assertTotal(owner, "OTHER:ADJUSTMENT", "2048.00", 1);
+        assertEquals(4, owner.size(), "owner categories " + owner.keySet());
+
+        Map<String, CategoryTotal> driver = totals.forPerson(DRIVER_ID, false);
+        assertTotal(driver, "SHIFT:FARE", "58.00", 4);
+        assertTotal(driver, "SHIFT:TIP", "4.00", 1);
+        assertTotal(driver, "OTHER:BONUS", "512.00", 1);
+        assertTotal(driver, "RC_5", "1024.00", 1);
+        assertTotal(driver, "OTHER:ADJUSTMENT", "2048.00", 1);
+        assertEquals(5, driver.size(), "driver categories " + driver.keySet());
+
+        Map<String, CategoryTotal> secondDriver = totals.forPerson(SECOND_DRIVER_ID, false);
+        assertTotal(secondDriver, "SHIFT:FARE", "16.00", 1);
+        assertEquals(3, secondDriver.size(), "second driver categories " + secondDriver.keySet());
+
+        // The fleet counts each shift revenue once, by owner
+        Map<String, CategoryTotal> fleet = rollupService.totals(null, FROM, TO).fleet();
+        assertTotal(fleet, "SHIFT:FARE", "58.00", 4);
+        assertTotal(fleet, "OTHER:BONUS", "512.00", 1);
+        assertEquals(5, fleet.size(), "fleet categories " + fleet.keySet());
+
+        // A period inside one month is read from the revenue rows alone
+        Map<String, CategoryTotal> february = rollupService.totals(OWNER_ID, true,
+                LocalDate.of(2026, 2, 2), LocalDate.of(2026, 2, 28));
+        assertTotal(february, "SHIFT:FARE", "16.00", 1);
+        assertTotal(february, "RC_5", "1024.00", 1);
+        assertEquals(2, february.size(), "february categories " + february.keySet());
+    }
+
+    @Test
+    void readsMarkedMonthsLiveUntilTheDrainRebuildsThem() {
+        // A write moves the February 1 shift to April; both months are marked in its transaction
+        database.execute("UPDATE shift_log SET log_date = ? WHERE log_date = ?",
+                LocalDate.of(2026, 4, 2), LocalDate.of(2026, 2, 1));
+        ShiftLog moved = new ShiftLog();
+        moved.setLogDate(LocalDate.of(2026, 4, 2));
+        PreviousState previous = new PreviousState(new String[] {"logDate"}, new Object[] {LocalDate.of(2026, 2, 1)});
+        Set<LocalDate> marked = Set.copyOf(rollupService.keysFor(moved, ChangeType.UPDATE, previous));
+        assertEquals(Set.of(LocalDate.of(2026, 2, 1), LocalDate.of(2026, 4, 1)), marked);
+        rollupService.beforeCommit(marked);
+
+        // Before the drain: the marked months come from the revenue rows, the rollup is untouched
+        assertMovedShift();
+        assertEquals(2, database.query("SELECT month FROM revenue_rollup_dirty").size(), "marks kept by reads");
+
+        assertEquals(2, rollupService.drainMarks());
+        assertTrue(database.query("SELECT month FROM revenue_rollup_dirty").isEmpty(), "marks cleared");
+        assertMovedShift();
+    }
+
+    @Test
+    void marksTheTenantsLocalShiftMonth() {
+        // 06:30 UTC on July 1 is June 30 in Vancouver (UTC-7 in summer); 07:30 is July 1 there
+        DriverSegment early = DriverSegment.builder().startTime(LocalDateTime.parse("2026-07-01T06:30")).build();
+        DriverSegment later = DriverSegment.builder().startTime(LocalDateTime.parse("2026-07-01T07:30")).build();
+
+        assertEquals(Set.of(LocalDate.of(2026, 6, 1), LocalDate.of(2026, 7, 1)),
+                Set.copyOf(rollupService.keysFor(early, ChangeType.INSERT, PreviousState.UNKNOWN)));
+        assertEquals(Set.of(LocalDate.of(2026, 7, 1)),
+                Set.copyOf(rollupService.keysFor(later, ChangeType.INSERT, PreviousState.UNKNOWN)));
+    }
+
+    private void assertMovedShift() {
+        Map<String, CategoryTotal> owner = rollupService.totals(OWNER_ID, true, FROM, TO);
+        assertTotal(owner, "SHIFT:FARE", "50.00", 3);       // 2 + 16 + 32
+
+        Map<String, CategoryTotal> april = rollupService.totals(OWNER_ID, true,
+                LocalDate.of(2026, 4, 1), LocalDate.of(2026, 4, 30));
+        assertTotal(april, "SHIFT:FARE", "136.00", 2);      // 128 + 8
+    }
+
+    private void shift(String date, String revenueType, String amount, long... driverIds) {
+        long shiftLogId = nextId++;
+        database.execute("INSERT INTO shift_log VALUES (?, ?, ?)", shiftLogId, OWNER_ID, LocalDate.parse(date));
+        database.execute("INSERT INTO revenue VALUES (?, ?, ?, ?)", nextId++, shiftLogId, revenueType,
+                new BigDecimal(amount));
+        for (long driverId : driverIds) {
+            database.execute("INSERT INTO driver_segment (shift_log_id, driver_id) VALUES (?, ?)", shiftLogId, driverId);
+        }
+    }
+
+    private void otherRevenue(String applicationType, Long personId, Long categoryId, String revenueType,
+                              String date, String amount) {
+        database.execute("INSERT INTO other_revenue VALUES (?, ?, ?, ?, ?, ?, ?)", nextId++, applicationType,
+                personId, categoryId, revenueType, LocalDate.parse(date), new BigDecimal(amount));
+    }
+
+    private static void assertTotal(Map<String, CategoryTotal> totals, String categoryKey, String amount, long count) {
+        CategoryTotal total = totals.get(categoryKey);
+        assertNotNull(total, categoryKey + " missing from " + totals.keySet());
+        assertEquals(0, new BigDecimal(amount).compareTo(total.amount()),
+                categoryKey + ": expected " + amount + ", got " + total.amount());
+        assertEquals(count, total.itemCount(), categoryKey + " items");
+    }
+}
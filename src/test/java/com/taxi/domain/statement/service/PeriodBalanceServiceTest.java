@@ -0,0 +1,175 @@
+package com.taxi.domain.statement.service;
+
+import com.taxi.domain.statement.model.StatementStatus;
+import com.taxi.domain.statement.service.PeriodBalanceService.PersonBalances;
+import com.taxi.util.H2NativeQueries;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs PeriodBalanceService's SQL on an in-memory database (MySQL mode) and checks that the
+ * balance carried forward and the payments applied are what generateOwnerReport computed from
+ * the statements before person_period_balance existed.
+ */
+@ExtendWith(MockitoExtension.class)
+class PeriodBalanceServiceTest {
+
+    @Mock private EntityManager entityManager;
+
+    private final PeriodBalanceService periodBalanceService = new PeriodBalanceService();
+    private final List<Stmt> statements = new ArrayList<>();
+    private final List<Payment> payments = new ArrayList<>();
+    private H2NativeQueries database;
+
+    private record Stmt(long id, long personId, LocalDate from, LocalDate to, StatementStatus status,
+                        BigDecimal netDue, BigDecimal paidAmount) {}
+
+    private record Payment(long statementId, String status, BigDecimal amount) {}
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        database = new H2NativeQueries("period-balance");
+        database.execute("CREATE TABLE statements (id BIGINT PRIMARY KEY, person_id BIGINT, period_from DATE, " +
+                "period_to DATE, status VARCHAR(20), net_due DECIMAL(10,2), paid_amount DECIMAL(10,2))");
+        database.execute("CREATE TABLE statement_payment (id BIGINT AUTO_INCREMENT PRIMARY KEY, statement_id BIGINT, " +
+                "status VARCHAR(20), amount DECIMAL(10,2))");
+        database.execute("CREATE TABLE person_period_balance (statement_id BIGINT PRIMARY KEY, person_id BIGINT NOT NULL, " +
+                "period_from DATE NOT NULL, period_to DATE NOT NULL, status VARCHAR(20) NOT NULL, " +
+                "net_due DECIMAL(10,2) NOT NULL DEFAULT 0.00, paid_amount DECIMAL(10,2) NOT NULL DEFAULT 0.00, " +
+                "payments_applied DECIMAL(10,2) NOT NULL DEFAULT 0.00, " +
+                "closing_balance DECIMAL(10,2) NOT NULL DEFAULT 0.00, updated_at DATETIME NULL)");
+        ReflectionTestUtils.setField(periodBalanceService, "entityManager", entityManager);
+        database.stub(entityManager);
+
+        // Paid in part, then finalized, then a draft with completed and pending payments
+        statement(1, 10, 1, StatementStatus.PAID, "100.00", "40.00");
+        statement(2, 10, 2, StatementStatus.FINALIZED, "70.00", null);
+        statement(3, 10, 3, StatementStatus.DRAFT, "30.00", null);
+        payment(3, "COMPLETED", "10.00");
+        payment(3, "COMPLETED", "15.50");
+        payment(3, "PENDING", "99.00");
+        // Only drafts - nothing carries forward
+        statement(4, 20, 1, StatementStatus.DRAFT, "55.00", null);
+        statement(5, 20, 2, StatementStatus.DRAFT, "65.00", null);
+        // Paid without a paid amount, then overpaid (negative balance carried)
+        statement(6, 30, 1, StatementStatus.PAID, "80.00", null);
+        statement(7, 30, 3, StatementStatus.PAID, "50.00", "75.00");
+        payment(7, "COMPLETED", "75.00");
+        // A draft after the last finalized statement does not hide it
+        statement(8, 40, 1, StatementStatus.FINALIZED, "-12.25", null);
+        statement(9, 40, 2, StatementStatus.DRAFT, "20.00", null);
+        payment(8, "COMPLETED", "5.00");
+        // Person 50 has no statements
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        database.close();
+    }
+
+    @Test
+    void carriesForwardWhatThePreviousStatementLookupDid() {
+        periodBalanceService.refresh(statements.stream().map(Stmt::id).toList());
+        List<Long> persons = List.of(10L, 20L, 30L, 40L, 50L);
+
+        for (int month = 1; month <= 5; month++) {
+            LocalDate from = LocalDate.of(2026, month, 1);
+            LocalDate to = from.plusMonths(1).minusDays(1);
+            Map<Long, PersonBalances> all = periodBalanceService.balances(persons, from, to);
+
+            for (Long personId : persons) {
+                String what = "person " + personId + " from " + from;
+                PersonBalances one = periodBalanceService.balances(personId, from, to);
+                PersonBalances batched = all.getOrDefault(personId, PersonBalances.NONE);
+
+                assertAmount(what + " carry-forward", carryForward(personId, from), one.openingBalance());
+                assertAmount(what + " carry-forward (batched)", carryForward(personId, from), batched.openingBalance());
+                assertAmount(what + " paid", paidInPeriod(personId, from, to), one.paymentsApplied());
+                assertAmount(what + " paid (batched)", paidInPeriod(personId, from, to), batched.paymentsApplied());
+            }
+        }
+    }
+
+    @Test
+    void followsStatementChangesAfterRefresh() {
+        periodBalanceService.refresh(statements.stream().map(Stmt::id).toList());
+        LocalDate from = LocalDate.of(2026, 3, 1);
+        LocalDate to = LocalDate.of(2026, 3, 31);
+        assertAmount("before", new BigDecimal("70.00"), periodBalanceService.balances(10L, from, to).openingBalance());
+
+        // February is paid in part
+        database.execute("UPDATE statements SET status = 'PAID', paid_amount = 30.00 WHERE id = 2");
+        statements.set(1, new Stmt(2, 10, LocalDate.of(2026, 2, 1), LocalDate.of(2026, 2, 28),
+                StatementStatus.PAID, new BigDecimal("70.00"), new BigDecimal("30.00")));
+        periodBalanceService.refresh(List.of(2L));
+
+        assertAmount("after", carryForward(10L, from), periodBalanceService.balances(10L, from, to).openingBalance());
+        assertAmount("after", new BigDecimal("40.00"), periodBalanceService.balances(10L, from, to).openingBalance());
+    }
+
+    /**
+     * The previous-statement lookup generateOwnerReport made before person_period_balance: the
+     * latest FINALIZED/PAID statement ending before the period; netDue - paidAmount once PAID, else netDue
+     */
+    private BigDecimal carryForward(Long personId, LocalDate from) {
+        return statements.stream()
+                .filter(s -> s.personId() == personId)
+                .filter(s -> s.status() == StatementStatus.FINALIZED || s.status() == StatementStatus.PAID)
+                .filter(s -> s.to().isBefore(from))
+                .max(Comparator.comparing(Stmt::to))
+                .map(s -> s.status() == StatementStatus.PAID
+                        ? s.netDue().subtract(s.paidAmount() != null ? s.paidAmount() : BigDecimal.ZERO)
+                        : s.netDue())
+                .orElse(BigDecimal.ZERO);
+    }
+
+    /**
+     * Completed payments of the person's statement for exactly this period
+     */
+    private BigDecimal paidInPeriod(Long personId, LocalDate from, LocalDate to) {
+        return statements.stream()
+                .filter(s -> s.personId() == personId && s.from().equals(from) && s.to().equals(to))
+                .findFirst()
+                .map(s -> payments.stream()
+                        .filter(p -> p.statementId() == s.id() && "COMPLETED".equals(p.status()))
+                        .map(Payment::amount)
+                        .reduce(BigDecimal.ZERO, BigDecimal::add))
+                .orElse(BigDecimal.ZERO);
+    }
+
+    private static void assertAmount(String what, BigDecimal expected, BigDecimal actual) {
+        assertEquals(0, expected.compareTo(actual), what + ": expected " + expected + ", got " + actual);
+    }
+
+    private void statement(long id, long personId, int month, StatementStatus status, String netDue, String paid) {
+        LocalDate from = LocalDate.of(2026, month, 1);
+        Stmt s = new Stmt(id, personId, from, from.plusMonths(1).minusDays(1), status,
+                new BigDecimal(netDue), paid != null ? new BigDecimal(paid) : null);
+        statements.add(s);
+        database.execute("INSERT INTO statements VALUES (?, ?, ?, ?, ?, ?, ?)",
+                s.id(), s.personId(), s.from(), s.to(), s.status().name(), s.netDue(), s.paidAmount());
+    }
+
+    private void payment(long statementId, String status, String amount) {
+        Payment p = new Payment(statementId, status, new BigDecimal(amount));
+        payments.add(p);
+        database.execute("INSERT INTO statement_payment (statement_id, status, amount) VALUES (?, ?, ?)",
+                p.statementId(), p.status(), p.amount());
+    }
+}
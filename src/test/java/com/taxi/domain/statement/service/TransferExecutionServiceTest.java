@@ -0,0 +1,202 @@
+package com.taxi.domain.statement.service;
+
+import com.taxi.domain.driver.repository.DriverRepository;
+import com.taxi.domain.report.service.DriverLedgerService;
+import com.taxi.domain.report.service.DriverLedgerService.Change;
+import com.taxi.domain.report.service.DriverLedgerStore;
+import com.taxi.domain.statement.model.ExecutionStatus;
+import com.taxi.domain.statement.model.TransferExecutionAudit;
+import com.taxi.domain.statement.repository.StatementBalanceTransferRepository;
+import com.taxi.domain.statement.repository.StatementRepository;
+import com.taxi.domain.statement.repository.TransferExecutionAuditRepository;
+import com.taxi.domain.statement.repository.TransferExecutionRepository;
+import com.taxi.domain.statement.service.TransferExecutionService.BatchDecision;
+import com.taxi.infrastructure.datachange.DataSource;
+import com.taxi.infrastructure.datachange.DataVersionService;
+import com.taxi.infrastructure.sequence.SequenceAllocator;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.jdbc.Work;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Batch approve and reject move only the executions whose locked status allows the decision
+ * (PENDING or REJECTED for approve, PENDING for reject), audit each with the status it was decided
+ * from, and report the others as skipped. The driver ledger is marked stale from the earliest
+ * decided period on, so the next summary rebuilds it with the decided transfers.
+ */
+@ExtendWith(MockitoExtension.class)
+class TransferExecutionServiceTest {
+
+    private static final Long USER_ID = 7L;
+
+    @Mock private TransferExecutionRepository executionRepository;
+    @Mock private TransferExecutionAuditRepository auditRepository;
+    @Mock private StatementBalanceTransferRepository transferConfigRepository;
+    @Mock private StatementRepository statementRepository;
+    @Mock private DriverRepository driverRepository;
+    @Mock private TransferExecutionPlanner executionPlanner;
+    @Mock private SequenceAllocator sequenceAllocator;
+    @Mock private DataVersionService dataVersionService;
+    @Mock private DriverLedgerStore ledgerStore;
+
+    @Mock private EntityManager entityManager;
+    @Mock private Session session;
+    @Mock private Connection connection;
+    @Mock private PreparedStatement auditStatement;
+
+    private TransferExecutionService service;
+
+    // Locked status and period start of each execution; id 99 does not exist
+    private final Map<Long, ExecutionStatus> statuses = new LinkedHashMap<>();
+    private final Map<Long, LocalDate> periods = Map.of(
+            1L, LocalDate.of(2026, 3, 1),
+            2L, LocalDate.of(2026, 2, 1),
+            3L, LocalDate.of(2026, 1, 1),
+            4L, LocalDate.of(2026, 1, 1),
+            5L, LocalDate.of(2026, 1, 1));
+    private final List<Long> allIds = List.of(1L, 2L, 3L, 4L, 5L, 99L);
+
+    @BeforeEach
+    void setUp() throws Exception {
+        service = new TransferExecutionService(executionRepository, auditRepository, transferConfigRepository,
+                statementRepository, driverRepository, executionPlanner, sequenceAllocator, dataVersionService,
+                new DriverLedgerService(ledgerStore));
+        ReflectionTestUtils.setField(service, "entityManager", entityManager);
+        statuses.put(1L, ExecutionStatus.PENDING);
+        statuses.put(2L, ExecutionStatus.REJECTED);
+        statuses.put(3L, ExecutionStatus.APPROVED);
+        statuses.put(4L, ExecutionStatus.APPLIED);
+        statuses.put(5L, ExecutionStatus.FINALIZED);
+
+        when(executionRepository.lockStatusesByIdIn(anyCollection())).thenAnswer(invocation -> {
+            List<Object[]> rows = new ArrayList<>();
+            for (Long id : invocation.<Collection<Long>>getArgument(0)) {
+                ExecutionStatus status = statuses.get(id);
+                if (status != null) {
+                    rows.add(new Object[]{id, status.name(), Date.valueOf(periods.get(id))});
+                }
+            }
+            return rows;
+        });
+        lenient().when(entityManager.unwrap(Session.class)).thenReturn(session);
+        lenient().doAnswer(invocation -> {
+            invocation.<Work>getArgument(0).execute(connection);
+            return null;
+        }).when(session).doWork(any());
+        lenient().when(connection.prepareStatement(anyString())).thenReturn(auditStatement);
+    }
+
+    @Test
+    void batchApproveMovesOnlyPendingAndRejectedExecutions() throws Exception {
+        when(executionRepository.approveAllByIdInAndStatusIn(anyCollection(), anyCollection(), eq(USER_ID),
+                eq("ok"), any())).thenReturn(2);
+
+        BatchDecision decision = service.batchApprove(allIds, USER_ID, "ok");
+
+        assertEquals(List.of(1L, 2L), decision.decidedIds());
+        assertEquals(Set.of(3L, 4L, 5L, 99L), decision.skipped().keySet());
+        assertTrue(decision.skipped().get(3L).endsWith("Current status: APPROVED"), decision.skipped().get(3L));
+        assertEquals("Execution not found: 99", decision.skipped().get(99L));
+
+        ArgumentCaptor<Collection<Long>> ids = idsCaptor();
+        verify(executionRepository).approveAllByIdInAndStatusIn(ids.capture(), anyCollection(), eq(USER_ID),
+                eq("ok"), any());
+        assertEquals(List.of(1L, 2L), List.copyOf(ids.getValue()));
+        verify(executionRepository, never()).rejectAllByIdInAndStatusIn(anyCollection(), anyCollection(),
+                any(), any(), any());
+
+        // Audited with the status each one was approved from
+        verify(auditStatement).setString(3, ExecutionStatus.PENDING.name());
+        verify(auditStatement).setString(3, ExecutionStatus.REJECTED.name());
+        verify(auditStatement, times(2)).setString(2, TransferExecutionAudit.APPROVE);
+        verify(auditStatement, times(2)).addBatch();
+        verify(dataVersionService).bump(DataSource.TRANSFERS);
+
+        // Stale from February (execution 2) on; the skipped January executions do not count
+        verify(ledgerStore).markStale(List.of(Change.from(LocalDate.of(2026, 2, 1))));
+    }
+
+    @Test
+    void batchRejectMovesOnlyPendingExecutions() throws Exception {
+        when(executionRepository.rejectAllByIdInAndStatusIn(anyCollection(), anyCollection(), eq(USER_ID),
+                eq("duplicate"), any())).thenReturn(1);
+
+        BatchDecision decision = service.batchReject(allIds, USER_ID, "duplicate");
+
+        assertEquals(List.of(1L), decision.decidedIds());
+        assertEquals(Set.of(2L, 3L, 4L, 5L, 99L), decision.skipped().keySet());
+        assertTrue(decision.skipped().get(2L).endsWith("Current status: REJECTED"), decision.skipped().get(2L));
+
+        ArgumentCaptor<Collection<Long>> ids = idsCaptor();
+        verify(executionRepository).rejectAllByIdInAndStatusIn(ids.capture(), anyCollection(), eq(USER_ID),
+                eq("duplicate"), any());
+        assertEquals(List.of(1L), List.copyOf(ids.getValue()));
+
+        verify(auditStatement).setString(2, TransferExecutionAudit.REJECT);
+        verify(auditStatement).setString(3, ExecutionStatus.PENDING.name());
+        verify(auditStatement).addBatch();
+        verify(dataVersionService).bump(DataSource.TRANSFERS);
+        verify(ledgerStore).markStale(List.of(Change.from(LocalDate.of(2026, 3, 1))));
+    }
+
+    @Test
+    void batchWithNothingEligibleChangesNothing() {
+        BatchDecision decision = service.batchReject(List.of(3L, 4L, 99L), USER_ID, "duplicate");
+
+        assertTrue(decision.decidedIds().isEmpty());
+        assertEquals(Set.of(3L, 4L, 99L), decision.skipped().keySet());
+        verify(executionRepository, never()).rejectAllByIdInAndStatusIn(anyCollection(), anyCollection(),
+                any(), any(), any());
+        verify(session, never()).doWork(any());
+        verify(dataVersionService, never()).bump(any());
+        verify(ledgerStore, never()).markStale(any());
+    }
+
+    @Test
+    void batchFailsWhenTheUpdateMissesALockedExecution() {
+        when(executionRepository.approveAllByIdInAndStatusIn(anyCollection(), anyCollection(), any(), any(), any()))
+                .thenReturn(1);
+
+        assertThrows(IllegalStateException.class, () -> service.batchApprove(List.of(1L, 2L), USER_ID, "ok"));
+        verify(session, never()).doWork(any());
+        verify(dataVersionService, never()).bump(any());
+        verify(ledgerStore, never()).markStale(any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArgumentCaptor<Collection<Long>> idsCaptor() {
+        return ArgumentCaptor.forClass(Collection.class);
+    }
+}
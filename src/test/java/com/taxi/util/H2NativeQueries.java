@@ -0,0 +1,162 @@
+package com.taxi.util;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.hibernate.Session;
+import org.hibernate.jdbc.Work;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+
+/**
+ * In-memory H2 database (MySQL mode) standing in for a tenant schema, for tests of services that
+ * run native SQL through the EntityManager. stub(entityManager) makes createNativeQuery run the
+ * service's SQL here, with named parameters bound in order (collections expanded); stub(session)
+ * runs the service's JDBC work (Session.doWork) on this database's connection.
+ *
+ * The two MySQL functions H2 lacks are rewritten: DATEDIFF(a, b) and DATE_FORMAT(d, '%Y-%m-01'). MONTH
+ * is not a keyword, as in MySQL, so it can name a column.
+ */
+public class H2NativeQueries implements AutoCloseable {
+
+    private static final Pattern PARAMETER = Pattern.compile(":(\\w+)");
+    private static final Pattern DATEDIFF = Pattern.compile("DATEDIFF\\(([:\\w.]+), ([:\\w.]+)\\)");
+    private static final Pattern MONTH_START = Pattern.compile("DATE_FORMAT\\(([\\w.]+), '%Y-%m-01'\\)");
+
+    private final Connection connection;
+
+    public H2NativeQueries(String name) throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:" + name + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=MONTH");
+    }
+
+    /**
+     * Route the EntityManager's native queries to this database
+     */
+    public void stub(EntityManager entityManager) {
+        lenient().when(entityManager.createNativeQuery(anyString())).thenAnswer(i -> nativeQuery(i.getArgument(0)));
+    }
+
+    /**
+     * Run the Session's JDBC work on this database
+     */
+    public void stub(Session session) {
+        lenient().doAnswer(i -> {
+            i.<Work>getArgument(0).execute(connection);
+            return null;
+        }).when(session).doWork(any());
+    }
+
+    /**
+     * Run a statement with positional parameters, returning the update count
+     */
+    public int execute(String sql, Object... values) {
+        try (PreparedStatement ps = bind(sql, Arrays.asList(values))) {
+            return ps.executeUpdate();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Run a query with positional parameters, one array per row
+     */
+    public List<Object[]> query(String sql, Object... values) {
+        try (PreparedStatement ps = bind(sql, Arrays.asList(values))) {
+            return rows(ps);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        try (Statement drop = connection.createStatement()) {
+            drop.execute("DROP ALL OBJECTS");
+        }
+        connection.close();
+    }
+
+    private Query nativeQuery(String sql) {
+        Map<String, Object> parameters = new HashMap<>();
+        Query query = mock(Query.class);
+        lenient().when(query.setParameter(anyString(), any())).thenAnswer(i -> {
+            parameters.put(i.getArgument(0), i.getArgument(1));
+            return query;
+        });
+        lenient().when(query.executeUpdate()).thenAnswer(i -> {
+            try (PreparedStatement ps = prepare(sql, parameters)) {
+                return ps.executeUpdate();
+            }
+        });
+        lenient().when(query.getResultList()).thenAnswer(i -> {
+            try (PreparedStatement ps = prepare(sql, parameters)) {
+                List<Object[]> rows = rows(ps);
+                // A single-column result is a list of values, as Hibernate returns it
+                return rows.isEmpty() || rows.get(0).length > 1 ? rows : rows.stream().map(r -> r[0]).toList();
+            }
+        });
+        return query;
+    }
+
+    private PreparedStatement prepare(String sql, Map<String, Object> parameters) throws SQLException {
+        String h2Sql = DATEDIFF.matcher(sql).replaceAll("DATEDIFF(DAY, $2, $1)");
+        h2Sql = MONTH_START.matcher(h2Sql).replaceAll("FORMATDATETIME($1, 'yyyy-MM-01')");
+
+        List<Object> values = new ArrayList<>();
+        StringBuilder jdbcSql = new StringBuilder();
+        Matcher m = PARAMETER.matcher(h2Sql);
+        while (m.find()) {
+            Object value = parameters.get(m.group(1));
+            if (value instanceof Collection<?> collection) {
+                values.addAll(collection);
+                m.appendReplacement(jdbcSql, String.join(", ", Collections.nCopies(collection.size(), "?")));
+            } else {
+                values.add(value);
+                m.appendReplacement(jdbcSql, "?");
+            }
+        }
+        m.appendTail(jdbcSql);
+        return bind(jdbcSql.toString(), values);
+    }
+
+    private PreparedStatement bind(String sql, List<Object> values) throws SQLException {
+        PreparedStatement ps = connection.prepareStatement(sql);
+        for (int i = 0; i < values.size(); i++) {
+            ps.setObject(i + 1, values.get(i));
+        }
+        return ps;
+    }
+
+    private static List<Object[]> rows(PreparedStatement ps) throws SQLException {
+        List<Object[]> rows = new ArrayList<>();
+        try (ResultSet rs = ps.executeQuery()) {
+            int columns = rs.getMetaData().getColumnCount();
+            while (rs.next()) {
+                Object[] row = new Object[columns];
+                for (int c = 0; c < columns; c++) {
+                    row[c] = rs.getObject(c + 1);
+                }
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+}